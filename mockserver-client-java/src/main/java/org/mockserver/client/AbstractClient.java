@@ -1,17 +1,27 @@
 package org.mockserver.client;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.AbstractIterator;
 import org.apache.commons.lang3.StringUtils;
 import org.mockserver.client.netty.NettyHttpClient;
 import org.mockserver.client.serialization.ExpectationSerializer;
 import org.mockserver.client.serialization.HttpRequestSerializer;
 import org.mockserver.client.serialization.VerificationSequenceSerializer;
 import org.mockserver.client.serialization.VerificationSerializer;
+import org.mockserver.filters.RetrievedExpectations;
+import org.mockserver.mock.Expectation;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
+import org.mockserver.model.Parameter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.mockserver.model.HttpRequest.request;
 import static org.mockserver.model.OutboundHttpRequest.outboundRequest;
 
 /**
@@ -71,4 +81,43 @@ public abstract class AbstractClient {
     protected HttpResponse sendRequest(HttpRequest httpRequest) {
         return nettyHttpClient.sendRequest(outboundRequest(host, port, contextPath, httpRequest));
     }
+
+    /**
+     * Pages through the recorded requests that match the httpRequest parameter, each page is only requested once the
+     * previous page has been iterated so the whole log is never held by the client or the server at once
+     *
+     * @param httpRequest the http request that is matched against when deciding whether to return each expectation, use null for the parameter to retrieve for all requests
+     * @param pageSize    the maximum number of expectations in each page
+     */
+    protected Iterator<Expectation> retrievePages(final HttpRequest httpRequest, final int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than zero");
+        }
+        return new AbstractIterator<Expectation>() {
+            private Iterator<Expectation> page = Collections.<Expectation>emptyList().iterator();
+            private long cursor = 0;
+
+            @Override
+            protected Expectation computeNext() {
+                while (!page.hasNext()) {
+                    if (cursor == -1) {
+                        return endOfData();
+                    }
+                    HttpResponse httpResponse = sendRequest(
+                            request()
+                                    .withMethod("PUT")
+                                    .withPath(calculatePath("retrieve"))
+                                    .withQueryStringParameter(new Parameter(RetrievedExpectations.FORMAT_PARAMETER, RetrievedExpectations.NDJSON_FORMAT))
+                                    .withQueryStringParameter(new Parameter(RetrievedExpectations.CURSOR_PARAMETER, "" + cursor))
+                                    .withQueryStringParameter(new Parameter(RetrievedExpectations.LIMIT_PARAMETER, "" + pageSize))
+                                    .withBody(httpRequest != null ? httpRequestSerializer.serialize(httpRequest) : "")
+                    );
+                    page = Arrays.asList(expectationSerializer.deserializeLines(httpResponse.getBodyAsString())).iterator();
+                    List<String> nextCursor = httpResponse.getHeader(RetrievedExpectations.NEXT_CURSOR_HEADER);
+                    cursor = nextCursor.isEmpty() ? -1 : Long.parseLong(nextCursor.get(0));
+                }
+                return page.next();
+            }
+        };
+    }
 }
@@ -5,10 +5,14 @@ import org.mockserver.matchers.Times;
 import org.mockserver.mock.Expectation;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
+import org.mockserver.model.Parameter;
 import org.mockserver.verify.Verification;
 import org.mockserver.verify.VerificationSequence;
 import org.mockserver.verify.VerificationTimes;
 
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
 import static org.mockserver.model.HttpRequest.request;
 
 /**
@@ -120,6 +124,17 @@ public class MockServerClient extends AbstractClient {
         return this;
     }
 
+    /**
+     * Switch the request log to only counting requests, or back to logging every request and response, while counting
+     * only requests with just a method and path, or the request of an expectation, can be verified
+     *
+     * @param summaryOnly true to only count requests, false to log every request and response
+     */
+    public MockServerClient summaryOnly(boolean summaryOnly) {
+        sendRequest(request().withMethod("PUT").withPath(calculatePath("summaryOnly")).withBody("" + summaryOnly));
+        return this;
+    }
+
     /**
      * Stop MockServer gracefully (only support for Netty and Vert.X versions, not supported for WAR version)
      */
@@ -168,7 +183,7 @@ public class MockServerClient extends AbstractClient {
         }
 
         VerificationSequence verificationSequence = new VerificationSequence().withRequests(httpRequests);
-        String result = sendRequest(request().withMethod("PUT").withPath(calculatePath("verifySequence")).withBody(verificationSequenceSerializer.serialize(verificationSequence))).getBodyAsString();
+        String result = sendRequest(verificationRequest("verifySequence", verificationSequenceSerializer.serialize(verificationSequence), 0)).getBodyAsString();
 
         if (result != null && !result.isEmpty()) {
             throw new AssertionError(result);
@@ -206,7 +221,87 @@ public class MockServerClient extends AbstractClient {
         }
 
         Verification verification = new Verification().withRequest(httpRequest).withTimes(times);
-        String result = sendRequest(request().withMethod("PUT").withPath(calculatePath("verify")).withBody(verificationSerializer.serialize(verification))).getBodyAsString();
+        String result = sendRequest(verificationRequest("verify", verificationSerializer.serialize(verification), 0)).getBodyAsString();
+
+        if (result != null && !result.isEmpty()) {
+            throw new AssertionError(result);
+        }
+        return this;
+    }
+
+    /**
+     * Verify a list of requests have been sent in the order specified waiting, if they have not yet been sent, until
+     * they are sent or the timeout expires for example:
+     *
+     *   mockServerClient
+     *           .verify(
+     *                   5, TimeUnit.SECONDS,
+     *                   request()
+     *                           .withPath("/first_request")
+     *                           .withBody("some_request_body"),
+     *                   request()
+     *                           .withPath("/second_request")
+     *                           .withBody("some_request_body")
+     *           );
+     *
+     * The server waits for the requests so the timeout is limited by mockserver.maxTimeout on the server
+     *
+     * @param timeout the maximum time to wait for the requests to be sent
+     * @param unit the unit of the timeout
+     * @param httpRequests the http requests that must be matched for this verification to pass
+     * @throws AssertionError if the requests have not been found before the timeout expires
+     */
+    public MockServerClient verify(long timeout, TimeUnit unit, HttpRequest... httpRequests) throws AssertionError {
+        if (httpRequests == null || httpRequests.length == 0) {
+            throw new IllegalArgumentException("verify(long, TimeUnit, HttpRequest...) requires a non null non empty array of HttpRequest objects");
+        }
+        if (unit == null) {
+            throw new IllegalArgumentException("verify(long, TimeUnit, HttpRequest...) requires a non null TimeUnit object");
+        }
+
+        VerificationSequence verificationSequence = new VerificationSequence().withRequests(httpRequests);
+        String result = sendRequest(verificationRequest("verifySequence", verificationSequenceSerializer.serialize(verificationSequence), unit.toMillis(timeout))).getBodyAsString();
+
+        if (result != null && !result.isEmpty()) {
+            throw new AssertionError(result);
+        }
+        return this;
+    }
+
+    /**
+     * Verify a request has been sent waiting, if it has not yet been sent enough times, until it has or the timeout
+     * expires for example:
+     *
+     *   mockServerClient
+     *           .verify(
+     *                   request()
+     *                           .withPath("/some_path")
+     *                           .withBody("some_request_body"),
+     *                   VerificationTimes.exactly(3),
+     *                   5, TimeUnit.SECONDS
+     *           );
+     *
+     * The server waits for the request so the timeout is limited by mockserver.maxTimeout on the server
+     *
+     * @param httpRequest the http request that must be matched for this verification to pass
+     * @param times the number of times this request must be matched
+     * @param timeout the maximum time to wait for the request to be sent
+     * @param unit the unit of the timeout
+     * @throws AssertionError if the request has not been found before the timeout expires
+     */
+    public MockServerClient verify(HttpRequest httpRequest, VerificationTimes times, long timeout, TimeUnit unit) throws AssertionError {
+        if (httpRequest == null) {
+            throw new IllegalArgumentException("verify(HttpRequest, VerificationTimes, long, TimeUnit) requires a non null HttpRequest object");
+        }
+        if (times == null) {
+            throw new IllegalArgumentException("verify(HttpRequest, VerificationTimes, long, TimeUnit) requires a non null VerificationTimes object");
+        }
+        if (unit == null) {
+            throw new IllegalArgumentException("verify(HttpRequest, VerificationTimes, long, TimeUnit) requires a non null TimeUnit object");
+        }
+
+        Verification verification = new Verification().withRequest(httpRequest).withTimes(times);
+        String result = sendRequest(verificationRequest("verify", verificationSerializer.serialize(verification), unit.toMillis(timeout))).getBodyAsString();
 
         if (result != null && !result.isEmpty()) {
             throw new AssertionError(result);
@@ -214,6 +309,14 @@ public class MockServerClient extends AbstractClient {
         return this;
     }
 
+    private HttpRequest verificationRequest(String path, String body, long timeoutMillis) {
+        HttpRequest verificationRequest = request().withMethod("PUT").withPath(calculatePath(path)).withBody(body);
+        if (timeoutMillis > 0) {
+            verificationRequest.withQueryStringParameter(new Parameter("timeout", "" + timeoutMillis));
+        }
+        return verificationRequest;
+    }
+
     /**
      * Retrieve the recorded requests that match the httpRequest parameter as expectations, use null for the parameter to retrieve all requests
      *
@@ -225,6 +328,18 @@ public class MockServerClient extends AbstractClient {
         return expectationSerializer.deserializeArray(httpResponse.getBodyAsString());
     }
 
+    /**
+     * Retrieve the recorded requests that match the httpRequest parameter as expectations one page at a time, each page
+     * is retrieved as the previous page is iterated, use null for the parameter to retrieve all requests
+     *
+     * @param httpRequest the http request that is matched against when deciding whether to return each expectation, use null for the parameter to retrieve for all requests
+     * @param pageSize the maximum number of expectations retrieved from the MockServer in each request
+     * @return an iterator over all expectations that have been recorded by the MockServer, in the order they were recorded
+     */
+    public Iterator<Expectation> retrieveAsIterator(HttpRequest httpRequest, int pageSize) {
+        return retrievePages(httpRequest, pageSize);
+    }
+
     /**
      * Retrieve the recorded requests that match the httpRequest parameter as a JSON array, use null for the parameter to retrieve all requests
      *
@@ -91,6 +91,15 @@ public class ProxyClientTest {
         verify(mockHttpClient).sendRequest(outboundRequest("localhost", 8080, "", request().withMethod("PUT").withPath("/reset")));
     }
 
+    @Test
+    public void shouldSendSummaryOnlyRequest() throws Exception {
+        // when
+        proxyClient.summaryOnly(false);
+
+        // then
+        verify(mockHttpClient).sendRequest(outboundRequest("localhost", 8080, "", request().withMethod("PUT").withPath("/summaryOnly").withBody("false")));
+    }
+
     @Test
     public void shouldSendStopRequest() throws Exception {
         // when
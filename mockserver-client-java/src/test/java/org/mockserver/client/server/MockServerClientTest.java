@@ -287,6 +287,15 @@ public class MockServerClientTest {
         verify(mockHttpClient).sendRequest(outboundRequest("localhost", 8080, "", request().withMethod("PUT").withPath("/reset")));
     }
 
+    @Test
+    public void shouldSendSummaryOnlyRequest() throws Exception {
+        // when
+        mockServerClient.summaryOnly(true);
+
+        // then
+        verify(mockHttpClient).sendRequest(outboundRequest("localhost", 8080, "", request().withMethod("PUT").withPath("/summaryOnly").withBody("true")));
+    }
+
     @Test
     public void shouldSendStopRequest() throws Exception {
         // when
@@ -178,6 +178,19 @@ public class ExpectationSerializer {
         }
     }
 
+    /**
+     * Serializes the expectation as a single line of JSON, ending with a new line, so expectations can be streamed as
+     * newline delimited JSON one at a time
+     */
+    public String serializeAsLine(Expectation expectation) {
+        try {
+            return objectMapper.writeValueAsString(new ExpectationDTO(expectation)) + "\n";
+        } catch (Exception e) {
+            logger.error(String.format("Exception while serializing expectation to JSON with value %s", expectation), e);
+            throw new RuntimeException(String.format("Exception while serializing expectation to JSON with value %s", expectation), e);
+        }
+    }
+
     public Expectation deserialize(String jsonExpectation) {
         if (jsonExpectation == null || jsonExpectation.isEmpty()) {
             throw new IllegalArgumentException("Expected an JSON expectation object but http body is empty");
@@ -213,4 +226,19 @@ public class ExpectationSerializer {
         }
         return expectations;
     }
+
+    /**
+     * Deserializes newline delimited JSON, as written by serializeAsLine, blank lines are ignored
+     */
+    public Expectation[] deserializeLines(String jsonExpectationLines) {
+        List<Expectation> expectations = new ArrayList<Expectation>();
+        if (jsonExpectationLines != null) {
+            for (String jsonExpectation : jsonExpectationLines.split("\n")) {
+                if (!jsonExpectation.trim().isEmpty()) {
+                    expectations.add(deserialize(jsonExpectation));
+                }
+            }
+        }
+        return expectations.toArray(new Expectation[expectations.size()]);
+    }
 }
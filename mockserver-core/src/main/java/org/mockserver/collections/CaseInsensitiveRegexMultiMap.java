@@ -1,30 +1,51 @@
 package org.mockserver.collections;
 
 import org.mockserver.matchers.RegexStringMatcher;
+import org.mockserver.model.KeyToMultiValue;
 import org.mockserver.model.ObjectWithReflectiveEqualsHashCodeToString;
 
 import java.util.*;
 
 /**
- * MultiMap that uses case insensitive regex expression matching for keys and values
+ * MultiMap that uses case insensitive regex expression matching for keys and values, the keys are held in a
+ * HybridRegexKeyMap so lookups of literal keys do not compare every key as a regex and reads never lock
  *
  * @author jamesdbloom
  */
 public class CaseInsensitiveRegexMultiMap extends ObjectWithReflectiveEqualsHashCodeToString implements Map<String, String> {
-    private final CaseInsensitiveRegexHashMap<List<String>> backingMap = new CaseInsensitiveRegexHashMap<List<String>>();
+    private final HybridRegexKeyMap<List<String>> backingMap = new HybridRegexKeyMap<List<String>>();
+
+    /**
+     * Builds a map of every name and value, the same as putting each value in turn, but as the map is not shared until
+     * it is returned the backing map is changed in place instead of being copied for every value
+     */
+    public static CaseInsensitiveRegexMultiMap build(Collection<? extends KeyToMultiValue> keyToMultiValues) {
+        CaseInsensitiveRegexMultiMap caseInsensitiveRegexMultiMap = new CaseInsensitiveRegexMultiMap();
+        caseInsensitiveRegexMultiMap.backingMap.startBuilding();
+        try {
+            for (KeyToMultiValue keyToMultiValue : keyToMultiValues) {
+                for (String value : keyToMultiValue.getValues()) {
+                    caseInsensitiveRegexMultiMap.put(keyToMultiValue.getName(), value);
+                }
+            }
+        } finally {
+            caseInsensitiveRegexMultiMap.backingMap.finishBuilding();
+        }
+        return caseInsensitiveRegexMultiMap;
+    }
 
     @Override
-    public synchronized int size() {
+    public int size() {
         return backingMap.size();
     }
 
     @Override
-    public synchronized boolean isEmpty() {
+    public boolean isEmpty() {
         return backingMap.isEmpty();
     }
 
     @Override
-    public synchronized boolean containsKey(Object key) {
+    public boolean containsKey(Object key) {
         return backingMap.containsKey(key);
     }
 
@@ -43,11 +64,11 @@ public class CaseInsensitiveRegexMultiMap extends ObjectWithReflectiveEqualsHash
         return true;
     }
 
-    public synchronized boolean containsKeyValue(String key, String value) {
-        for (String matcherKey : backingMap.keySet()) {
+    public boolean containsKeyValue(String key, String value) {
+        for (String matcherKey : backingMap.keysMatching(key)) {
             for (List<String> allMatcherKeyValues : backingMap.getAll(matcherKey)) {
                 for (String matcherKeyValue : allMatcherKeyValues) {
-                    if (RegexStringMatcher.matches(matcherKey, key, true) && RegexStringMatcher.matches(value, matcherKeyValue, false)) {
+                    if (RegexStringMatcher.matches(value, matcherKeyValue, false)) {
                         return true;
                     }
                 }
@@ -57,7 +78,7 @@ public class CaseInsensitiveRegexMultiMap extends ObjectWithReflectiveEqualsHash
     }
 
     @Override
-    public synchronized boolean containsValue(Object value) {
+    public boolean containsValue(Object value) {
         if (value instanceof String) {
             for (String key : backingMap.keySet()) {
                 for (List<String> allKeyValues : backingMap.getAll(key)) {
@@ -73,7 +94,7 @@ public class CaseInsensitiveRegexMultiMap extends ObjectWithReflectiveEqualsHash
     }
 
     @Override
-    public synchronized String get(Object key) {
+    public String get(Object key) {
         List<String> values = backingMap.get(key);
         if (values != null && values.size() > 0) {
             return values.get(0);
@@ -82,7 +103,7 @@ public class CaseInsensitiveRegexMultiMap extends ObjectWithReflectiveEqualsHash
         }
     }
 
-    public synchronized List<String> getAll(Object key) {
+    public List<String> getAll(Object key) {
         List<String> all = new ArrayList<String>();
         for (List<String> subList : backingMap.getAll(key)) {
             all.addAll(subList);
@@ -147,12 +168,12 @@ public class CaseInsensitiveRegexMultiMap extends ObjectWithReflectiveEqualsHash
     }
 
     @Override
-    public synchronized Set<String> keySet() {
+    public Set<String> keySet() {
         return backingMap.keySet();
     }
 
     @Override
-    public synchronized Collection<String> values() {
+    public Collection<String> values() {
         Collection<String> values = new ArrayList<String>();
         for (List<String> valuesForKey : backingMap.values()) {
             values.addAll(valuesForKey);
@@ -161,7 +182,7 @@ public class CaseInsensitiveRegexMultiMap extends ObjectWithReflectiveEqualsHash
     }
 
     @Override
-    public synchronized Set<Entry<String, String>> entrySet() {
+    public Set<Entry<String, String>> entrySet() {
         Set<Entry<String, String>> entrySet = new LinkedHashSet<Entry<String, String>>();
         for (Entry<String, List<String>> entry : backingMap.entrySet()) {
             for (String value : entry.getValue()) {
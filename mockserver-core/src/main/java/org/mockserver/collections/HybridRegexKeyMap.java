@@ -0,0 +1,342 @@
+package org.mockserver.collections;
+
+import org.mockserver.matchers.RegexStringMatcher;
+
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static org.mockserver.matchers.RegexStringMatcher.isLiteral;
+
+/**
+ * Map that uses case insensitive regex expression matching for keys, in both directions, the same as
+ * CaseInsensitiveRegexHashMap, but literal keys are held in a case insensitive hash index and regex keys in a separate
+ * list of precompiled patterns, so looking up a literal key is a hash lookup plus a match against each regex key
+ * instead of matching every key as a regex in both directions
+ *
+ * Each change creates a new immutable snapshot so lookups never lock, this suits maps that are built once and then
+ * read many times, such as the headers and query string parameters of requests and expectations, putAll copies the
+ * snapshot once for all its entries and a map that is not yet shared can be built in place
+ *
+ * @author jamesdbloom
+ */
+public class HybridRegexKeyMap<V> implements Map<String, V> {
+
+    private volatile Snapshot<V> snapshot = new Snapshot<V>();
+    // true while a map that is not yet shared is being built, changes are then made to the snapshot in place
+    private boolean building;
+
+    /**
+     * Normalises a literal key so that two keys are equal after normalising if and only if they are equal ignoring
+     * case, this is the same comparison as String.equalsIgnoreCase
+     */
+    static String normalise(String key) {
+        char[] characters = new char[key.length()];
+        for (int i = 0; i < characters.length; i++) {
+            characters[i] = Character.toLowerCase(Character.toUpperCase(key.charAt(i)));
+        }
+        return new String(characters);
+    }
+
+    @Override
+    public int size() {
+        return snapshot.entries.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return snapshot.entries.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (key instanceof String) {
+            Snapshot<V> snapshot = this.snapshot;
+            return snapshot.entries.containsKey(key) || !snapshot.matchingKeys((String) key, true).isEmpty();
+        }
+        return false;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return snapshot.entries.containsValue(value);
+    }
+
+    @Override
+    public V get(Object key) {
+        if (key instanceof String) {
+            Snapshot<V> snapshot = this.snapshot;
+            V value = snapshot.entries.get(key);
+            if (value != null) {
+                return value;
+            }
+            List<String> matchingKeys = snapshot.matchingKeys((String) key, true);
+            if (!matchingKeys.isEmpty()) {
+                return snapshot.entries.get(matchingKeys.get(0));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param key a literal or regex key
+     * @return the values of all keys the key matches, in the order the keys were added
+     */
+    public List<V> getAll(Object key) {
+        List<V> values = new ArrayList<V>();
+        if (key instanceof String) {
+            Snapshot<V> snapshot = this.snapshot;
+            for (String matchingKey : snapshot.matchingKeys((String) key, true)) {
+                values.add(snapshot.entries.get(matchingKey));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @param key a literal or regex key
+     * @return the keys that are matched by the key, in the order they were added
+     */
+    public List<String> keysMatchedBy(String key) {
+        return snapshot.matchingKeys(key, true);
+    }
+
+    /**
+     * @param key a literal or regex key
+     * @return the keys that match the key when they are used as the regex, in the order they were added
+     */
+    public List<String> keysMatching(String key) {
+        return snapshot.matchingKeys(key, false);
+    }
+
+    @Override
+    public synchronized V put(String key, V value) {
+        Snapshot<V> next = building ? snapshot : new Snapshot<V>(snapshot);
+        V previous = next.put(key, value);
+        snapshot = next;
+        return previous;
+    }
+
+    /**
+     * Until finishBuilding is called each change is made to the current snapshot in place instead of to a copy, so a
+     * map of n keys is built in linear time, this must only be used before the map is shared with other threads
+     */
+    synchronized void startBuilding() {
+        building = true;
+    }
+
+    synchronized void finishBuilding() {
+        building = false;
+    }
+
+    @Override
+    public synchronized V remove(Object key) {
+        if (key instanceof String) {
+            String keyToRemove = null;
+            if (snapshot.entries.get(key) != null) {
+                keyToRemove = (String) key;
+            } else {
+                List<String> matchingKeys = snapshot.matchingKeys((String) key, true);
+                if (!matchingKeys.isEmpty()) {
+                    keyToRemove = matchingKeys.get(0);
+                }
+            }
+            if (keyToRemove != null) {
+                Snapshot<V> next = new Snapshot<V>();
+                for (Entry<String, V> entry : snapshot.entries.entrySet()) {
+                    if (!entry.getKey().equals(keyToRemove)) {
+                        next.entries.put(entry.getKey(), entry.getValue());
+                        next.index(entry.getKey());
+                    }
+                }
+                V removed = snapshot.entries.get(keyToRemove);
+                snapshot = next;
+                return removed;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Puts every entry into one copy of the map, which is then published once
+     */
+    @Override
+    public synchronized void putAll(Map<? extends String, ? extends V> map) {
+        Snapshot<V> next = building ? snapshot : new Snapshot<V>(snapshot);
+        for (Entry<? extends String, ? extends V> entry : map.entrySet()) {
+            next.put(entry.getKey(), entry.getValue());
+        }
+        snapshot = next;
+    }
+
+    @Override
+    public synchronized void clear() {
+        snapshot = new Snapshot<V>();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return Collections.unmodifiableSet(snapshot.entries.keySet());
+    }
+
+    @Override
+    public Collection<V> values() {
+        return Collections.unmodifiableCollection(snapshot.entries.values());
+    }
+
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        return Collections.unmodifiableMap(snapshot.entries).entrySet();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (other instanceof HybridRegexKeyMap) {
+            return snapshot.entries.equals(((HybridRegexKeyMap) other).snapshot.entries);
+        } else {
+            return other instanceof Map && snapshot.entries.equals(other);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return snapshot.entries.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return snapshot.entries.toString();
+    }
+
+    private static class Snapshot<V> {
+        private final LinkedHashMap<String, V> entries;
+        private final Map<String, Integer> positions;
+        // literal keys by normalised key, in the order they were added
+        private final Map<String, List<String>> literalKeys;
+        private final List<RegexKey> regexKeys;
+        private boolean emptyKey;
+
+        Snapshot() {
+            this.entries = new LinkedHashMap<String, V>();
+            this.positions = new HashMap<String, Integer>();
+            this.literalKeys = new HashMap<String, List<String>>();
+            this.regexKeys = new ArrayList<RegexKey>();
+        }
+
+        Snapshot(Snapshot<V> snapshot) {
+            this.entries = new LinkedHashMap<String, V>(snapshot.entries);
+            this.positions = new HashMap<String, Integer>(snapshot.positions);
+            this.literalKeys = new HashMap<String, List<String>>(snapshot.literalKeys);
+            this.regexKeys = new ArrayList<RegexKey>(snapshot.regexKeys);
+            this.emptyKey = snapshot.emptyKey;
+        }
+
+        V put(String key, V value) {
+            boolean newKey = !entries.containsKey(key);
+            V previous = entries.put(key, value);
+            if (newKey) {
+                index(key);
+            }
+            return previous;
+        }
+
+        void index(String key) {
+            positions.put(key, positions.size());
+            if (key.isEmpty()) {
+                emptyKey = true;
+            }
+            if (isLiteral(key)) {
+                String normalisedKey = normalise(key);
+                // lists are shared between snapshots so they are copied before being changed
+                List<String> keys = literalKeys.get(normalisedKey);
+                List<String> updatedKeys = keys != null ? new ArrayList<String>(keys) : new ArrayList<String>(1);
+                updatedKeys.add(key);
+                literalKeys.put(normalisedKey, updatedKeys);
+            } else {
+                regexKeys.add(new RegexKey(key));
+            }
+        }
+
+        /**
+         * @param key       the key to look up
+         * @param keyIsRegex true to find keys k where RegexStringMatcher.matches(key, k, true), false to find keys k
+         *                   where RegexStringMatcher.matches(k, key, true)
+         * @return the matching keys in the order they were added
+         */
+        List<String> matchingKeys(String key, boolean keyIsRegex) {
+            if (key == null) {
+                return Collections.emptyList();
+            } else if (key.isEmpty() || !isLiteral(key)) {
+                // an empty or regex key can match any key so all keys are compared
+                List<String> matchingKeys = new ArrayList<String>();
+                for (String storedKey : entries.keySet()) {
+                    if (keyIsRegex ? RegexStringMatcher.matches(key, storedKey, true) : RegexStringMatcher.matches(storedKey, key, true)) {
+                        matchingKeys.add(storedKey);
+                    }
+                }
+                return matchingKeys;
+            } else {
+                // a literal key only matches literal keys that are equal ignoring case, regex keys that match it and,
+                // when the stored key is the regex, an empty key which matches everything
+                List<String> literalMatches = literalKeys.get(normalise(key));
+                List<String> matchingKeys = null;
+                for (RegexKey regexKey : regexKeys) {
+                    if (regexKey.matches(key)) {
+                        if (matchingKeys == null) {
+                            matchingKeys = new ArrayList<String>();
+                        }
+                        matchingKeys.add(regexKey.key);
+                    }
+                }
+                if (!keyIsRegex && emptyKey) {
+                    if (matchingKeys == null) {
+                        matchingKeys = new ArrayList<String>();
+                    }
+                    matchingKeys.add("");
+                }
+                if (matchingKeys == null) {
+                    return literalMatches != null ? literalMatches : Collections.<String>emptyList();
+                }
+                if (literalMatches != null) {
+                    matchingKeys.addAll(literalMatches);
+                }
+                Collections.sort(matchingKeys, new Comparator<String>() {
+                    public int compare(String first, String second) {
+                        return positions.get(first) - positions.get(second);
+                    }
+                });
+                return matchingKeys;
+            }
+        }
+    }
+
+    private static class RegexKey {
+        private final String key;
+        private final Pattern pattern;
+        private final Pattern lowerCasePattern;
+
+        RegexKey(String key) {
+            this.key = key;
+            this.pattern = compile(key);
+            this.lowerCasePattern = compile(key.toLowerCase());
+        }
+
+        private static Pattern compile(String regex) {
+            try {
+                return Pattern.compile(regex);
+            } catch (PatternSyntaxException pse) {
+                return null;
+            }
+        }
+
+        /**
+         * the same result as RegexStringMatcher.matches in either direction, with ignore case, for a literal value
+         */
+        boolean matches(String literal) {
+            return (pattern != null && pattern.matcher(literal).matches())
+                    || (lowerCasePattern != null && lowerCasePattern.matcher(literal.toLowerCase()).matches());
+        }
+    }
+}
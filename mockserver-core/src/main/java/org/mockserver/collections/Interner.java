@@ -0,0 +1,107 @@
+package org.mockserver.collections;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds one canonical value for each key with a count of the references to it, a value is kept until every reference
+ * acquired, or interned, has been released so memory grows with the number of distinct values and not with the number
+ * of times each value is used
+ *
+ * Nothing is locked, an entry is only dropped once its count reaches zero and an intern that finds a dropped entry
+ * replaces it, keys are hashed and compared by the map so they should be cheap to compare, such as a content hash
+ *
+ * @author jamesdbloom
+ */
+public class Interner<K, V> {
+
+    private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<K, Entry<V>>();
+
+    /**
+     * @return the value held for the key with one more reference to it, or null if no value is held
+     */
+    public V acquire(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        } else if (entry.retain()) {
+            return entry.value;
+        }
+        // the last reference was released so help drop the entry
+        entries.remove(key, entry);
+        return null;
+    }
+
+    /**
+     * @return the value already held for the key with one more reference to it, or the value given which is then held
+     * with one reference
+     */
+    public V intern(K key, V value) {
+        while (true) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                Entry<V> created = new Entry<V>(value);
+                entry = entries.putIfAbsent(key, created);
+                if (entry == null) {
+                    return value;
+                }
+            }
+            if (entry.retain()) {
+                return entry.value;
+            }
+            // the entry is being dropped so help drop it then hold the value given
+            entries.remove(key, entry);
+        }
+    }
+
+    /**
+     * @return true if this was the last reference and the value is no longer held
+     */
+    public boolean release(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.release()) {
+            entries.remove(key, entry);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of distinct values held
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        // the number of references not yet released, or -1 once the entry is being dropped
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        Entry(V value) {
+            this.value = value;
+        }
+
+        /**
+         * @return false if the entry is being dropped and can no longer be referenced
+         */
+        boolean retain() {
+            while (true) {
+                int current = references.get();
+                if (current < 0) {
+                    return false;
+                } else if (references.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * @return true if this was the last reference and the entry must be dropped
+         */
+        boolean release() {
+            return references.decrementAndGet() == 0 && references.compareAndSet(0, -1);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package org.mockserver.collections;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only journal of records of bytes kept in segment files in a directory, records are appended to the
+ * current segment and once it reaches the segment size a new segment is started, when there are more than the
+ * maximum number of segments the oldest are deleted, the segments written before the journal was opened are only
+ * deleted once they have been replayed
+ *
+ * Each segment starts with a magic number and each record is its length, the CRC32 of its bytes and then its bytes,
+ * a record that was only partly written, for example because the process was killed, ends the segment when it is
+ * replayed, a journal starts a new segment for the first record appended after it is opened so it never appends after
+ * a partly written record, and a journal that is opened and closed without any records does not add a segment
+ *
+ * A journal holds a lock on its directory so only one journal, in any process, can write to a directory at a time
+ *
+ * @author jamesdbloom
+ */
+public class Journal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(Journal.class);
+    private static final int MAGIC = 0x4d534a31;
+    private static final int SEGMENT_HEADER_SIZE = 4;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final String LOCK_FILE = "journal.lock";
+    private final File directory;
+    private final long segmentSize;
+    private final int maxSegments;
+    private final Fsync fsync;
+    // oldest first, the last segment is the one being written once a record has been appended
+    private final Deque<File> segments = new ArrayDeque<File>();
+    // the segments written before this journal was opened, kept until they are replayed
+    private final List<File> previousSegments = new ArrayList<File>();
+    private boolean replayed;
+    private final RandomAccessFile lockFile;
+    private final FileLock lock;
+    private final CRC32 crc32 = new CRC32();
+    private long nextSegmentIndex;
+    private FileOutputStream segmentOutputStream;
+    private DataOutputStream output;
+    private long currentSegmentSize;
+    private boolean closed;
+
+    /**
+     * When records are forced to disk, with NEVER records are still written to the operating system when the journal
+     * is flushed so they survive the process being killed but not the operating system crashing
+     */
+    public enum Fsync {
+        NEVER,
+        BATCH,
+        ALWAYS
+    }
+
+    /**
+     * @param directory   the directory for the segment files, created if it does not exist
+     * @param segmentSize the size in bytes at which a new segment is started
+     * @param maxSegments the number of segments to retain, zero or less for no limit
+     * @param fsync       NEVER to leave writing to disk to the operating system, BATCH to force to disk each time the
+     *                    journal is flushed or ALWAYS to force to disk after every record
+     */
+    public Journal(File directory, long segmentSize, int maxSegments, Fsync fsync) throws IOException {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("Segment size must be greater than zero");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("Directory [" + directory + "] does not exist and can not be created");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.fsync = fsync;
+        this.lockFile = new RandomAccessFile(new File(directory, LOCK_FILE), "rw");
+        FileLock lock;
+        try {
+            lock = lockFile.getChannel().tryLock();
+        } catch (OverlappingFileLockException ofle) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockFile.close();
+            throw new IOException("Journal directory [" + directory + "] is already in use");
+        }
+        this.lock = lock;
+        File[] segmentFiles = directory.listFiles(new FilenameFilter() {
+            public boolean accept(File dir, String name) {
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }
+        });
+        // segment names are zero padded so they sort in the order they were created
+        Arrays.sort(segmentFiles);
+        for (File segmentFile : segmentFiles) {
+            nextSegmentIndex = Math.max(nextSegmentIndex, segmentIndex(segmentFile) + 1);
+            if (segmentFile.length() <= SEGMENT_HEADER_SIZE) {
+                // holds no records so there is nothing to replay or retain
+                if (!segmentFile.delete()) {
+                    logger.warn("Failed to delete empty journal segment [" + segmentFile + "]");
+                }
+            } else {
+                segments.add(segmentFile);
+                previousSegments.add(segmentFile);
+            }
+        }
+        replayed = previousSegments.isEmpty();
+    }
+
+    private static long segmentIndex(File segmentFile) {
+        String name = segmentFile.getName();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException nfe) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return the number of segment files that hold records, including the one being written
+     */
+    public synchronized int segments() {
+        return segments.size();
+    }
+
+    /**
+     * writes the record to the current segment, it is buffered until the journal is flushed unless fsync is ALWAYS
+     */
+    public synchronized void append(byte[] record) throws IOException {
+        if (closed) {
+            throw new IOException("Journal [" + directory + "] is closed");
+        }
+        if (output == null || (currentSegmentSize > SEGMENT_HEADER_SIZE && currentSegmentSize + RECORD_HEADER_SIZE + record.length > segmentSize)) {
+            roll();
+        }
+        crc32.reset();
+        crc32.update(record);
+        output.writeInt(record.length);
+        output.writeInt((int) crc32.getValue());
+        output.write(record);
+        currentSegmentSize += RECORD_HEADER_SIZE + record.length;
+        if (fsync == Fsync.ALWAYS) {
+            output.flush();
+            segmentOutputStream.getChannel().force(false);
+        }
+    }
+
+    /**
+     * writes the buffered records to the operating system and, unless fsync is NEVER, forces them to disk
+     */
+    public synchronized void flush() throws IOException {
+        if (!closed && output != null) {
+            output.flush();
+            if (fsync != Fsync.NEVER) {
+                segmentOutputStream.getChannel().force(false);
+            }
+        }
+    }
+
+    private void roll() throws IOException {
+        if (output != null) {
+            flush();
+            output.close();
+        }
+        File segmentFile = new File(directory, String.format("%s%020d%s", SEGMENT_PREFIX, nextSegmentIndex++, SEGMENT_SUFFIX));
+        segmentOutputStream = new FileOutputStream(segmentFile);
+        output = new DataOutputStream(new BufferedOutputStream(segmentOutputStream, 64 * 1024));
+        output.writeInt(MAGIC);
+        currentSegmentSize = SEGMENT_HEADER_SIZE;
+        segments.add(segmentFile);
+        retain();
+    }
+
+    /**
+     * deletes the oldest segments beyond the maximum, unless the segments written before this journal was opened have
+     * not been replayed yet
+     */
+    private void retain() {
+        while (replayed && maxSegments > 0 && segments.size() > maxSegments) {
+            File oldest = segments.removeFirst();
+            if (!oldest.delete()) {
+                logger.warn("Failed to delete journal segment [" + oldest + "]");
+            }
+        }
+    }
+
+    /**
+     * Reads every record written before this journal was opened, oldest first, the records appended since it was
+     * opened are not read, once they have been read the oldest segments beyond the maximum are deleted
+     */
+    public void replay(RecordVisitor recordVisitor) throws IOException {
+        try {
+            for (File segmentFile : previousSegments) {
+                // may have been deleted by an earlier replay to retain the maximum number of segments
+                if (segmentFile.exists()) {
+                    replay(segmentFile, recordVisitor);
+                }
+            }
+        } finally {
+            synchronized (this) {
+                replayed = true;
+                retain();
+            }
+        }
+    }
+
+    private void replay(File segmentFile, RecordVisitor recordVisitor) throws IOException {
+        long remaining = segmentFile.length();
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(segmentFile), 64 * 1024));
+        try {
+            if (remaining < SEGMENT_HEADER_SIZE || input.readInt() != MAGIC) {
+                logger.warn("Skipping journal segment [" + segmentFile + "] that does not start with a journal header");
+                return;
+            }
+            remaining -= SEGMENT_HEADER_SIZE;
+            CRC32 recordCrc32 = new CRC32();
+            while (remaining >= RECORD_HEADER_SIZE) {
+                int length = input.readInt();
+                int crc = input.readInt();
+                remaining -= RECORD_HEADER_SIZE;
+                if (length < 0 || length > remaining) {
+                    logger.warn("Journal segment [" + segmentFile + "] ends with a partly written record");
+                    return;
+                }
+                byte[] record = new byte[length];
+                input.readFully(record);
+                remaining -= length;
+                recordCrc32.reset();
+                recordCrc32.update(record);
+                if ((int) recordCrc32.getValue() != crc) {
+                    logger.warn("Journal segment [" + segmentFile + "] contains a corrupt record, skipping the rest of the segment");
+                    return;
+                }
+                recordVisitor.visit(record);
+            }
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * flushes the buffered records, closes the current segment and releases the lock on the directory
+     */
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            try {
+                flush();
+                if (output != null) {
+                    output.close();
+                }
+            } finally {
+                closed = true;
+                lock.release();
+                lockFile.close();
+            }
+        }
+    }
+
+    public interface RecordVisitor {
+        void visit(byte[] record);
+    }
+}
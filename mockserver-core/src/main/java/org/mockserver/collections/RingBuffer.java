@@ -0,0 +1,230 @@
+package org.mockserver.collections;
+
+import com.google.common.base.Predicate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded log backed by a preallocated array, once full each new entry replaces the oldest, entries can also be
+ * limited by their total estimated size in bytes in which case the oldest entries are dropped until the rest fit
+ *
+ * Producers claim a sequence number with a single atomic increment and publish the entry into its slot with a
+ * compare and set so any number of threads can append without locking, readers take a snapshot of the published
+ * entries in the order they were appended without blocking producers, an entry whose sequence has been claimed but
+ * not yet published is not included in the snapshot
+ *
+ * @author jamesdbloom
+ */
+public class RingBuffer<E> {
+
+    private final int capacity;
+    private final long maxBytes;
+    private final AtomicReferenceArray<Slot<E>> slots;
+    // the next sequence to be claimed by a producer
+    private final AtomicLong tail = new AtomicLong();
+    // every sequence before head has been dropped, because it was cleared or to keep under the maximum size in bytes
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final RemovalListener<? super E> removalListener;
+
+    /**
+     * @param capacity the maximum number of entries
+     */
+    public RingBuffer(int capacity) {
+        this(capacity, 0);
+    }
+
+    /**
+     * @param capacity the maximum number of entries
+     * @param maxBytes the maximum total estimated size of the entries in bytes, zero or less for no limit
+     */
+    public RingBuffer(int capacity, long maxBytes) {
+        this(capacity, maxBytes, null);
+    }
+
+    /**
+     * @param capacity        the maximum number of entries
+     * @param maxBytes        the maximum total estimated size of the entries in bytes, zero or less for no limit
+     * @param removalListener notified of every entry that is replaced, dropped, removed or cleared, may be null
+     */
+    public RingBuffer(int capacity, long maxBytes, RemovalListener<? super E> removalListener) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be greater than zero");
+        }
+        this.capacity = capacity;
+        this.maxBytes = maxBytes;
+        this.slots = new AtomicReferenceArray<Slot<E>>(capacity);
+        this.removalListener = removalListener;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return the total estimated size in bytes of the entries currently held
+     */
+    public long retainedBytes() {
+        return retainedBytes.get();
+    }
+
+    public void add(E element) {
+        add(element, 0);
+    }
+
+    /**
+     * @param element the entry to append
+     * @param size    the estimated size of the entry in bytes, only used when the buffer is limited by size
+     */
+    public void add(E element, long size) {
+        long sequence = tail.getAndIncrement();
+        int index = index(sequence);
+        Slot<E> slot = new Slot<E>(sequence, element, size);
+        while (true) {
+            Slot<E> current = slots.get(index);
+            if (current != null && current.sequence > sequence) {
+                // a producer that claimed a later sequence for this slot published first so this entry is already too old
+                removed(element);
+                return;
+            }
+            if (slots.compareAndSet(index, current, slot)) {
+                retainedBytes.addAndGet(current != null ? size - current.size : size);
+                if (current != null) {
+                    removed(current.element);
+                }
+                break;
+            }
+        }
+        if (sequence < head.get()) {
+            // the buffer was cleared, or this entry dropped, between claiming the sequence and publishing the entry
+            remove(sequence);
+            return;
+        }
+        if (maxBytes > 0) {
+            while (retainedBytes.get() > maxBytes && dropOldest(sequence)) {
+                // keep dropping the oldest entries until the rest fit
+            }
+        }
+    }
+
+    /**
+     * drops the oldest entry that is before the given sequence
+     *
+     * @return false if there is no such entry
+     */
+    private boolean dropOldest(long before) {
+        long currentHead = head.get();
+        long oldest = Math.max(currentHead, tail.get() - capacity);
+        if (oldest >= before) {
+            return false;
+        }
+        if (head.compareAndSet(currentHead, oldest + 1)) {
+            remove(oldest);
+        }
+        return true;
+    }
+
+    private void remove(long sequence) {
+        int index = index(sequence);
+        Slot<E> current = slots.get(index);
+        if (current != null && current.sequence == sequence && slots.compareAndSet(index, current, null)) {
+            retainedBytes.addAndGet(-current.size);
+            removed(current.element);
+        }
+    }
+
+    private void removed(E element) {
+        if (removalListener != null) {
+            removalListener.onRemoval(element);
+        }
+    }
+
+    /**
+     * @return the entries currently held, oldest first
+     */
+    public List<E> snapshot() {
+        long end = tail.get();
+        long start = Math.max(head.get(), end - capacity);
+        List<E> snapshot = new ArrayList<E>((int) Math.max(end - start, 0));
+        for (long sequence = start; sequence < end; sequence++) {
+            Slot<E> slot = slots.get(index(sequence));
+            if (slot != null && slot.sequence == sequence) {
+                snapshot.add(slot.element);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return the number of entries currently held
+     */
+    public int size() {
+        return snapshot().size();
+    }
+
+    /**
+     * removes every entry the predicate applies to, in a single pass over the buffer
+     *
+     * @return the number of entries removed
+     */
+    public int removeIf(Predicate<? super E> predicate) {
+        long end = tail.get();
+        long start = Math.max(head.get(), end - capacity);
+        int removed = 0;
+        for (long sequence = start; sequence < end; sequence++) {
+            int index = index(sequence);
+            Slot<E> slot = slots.get(index);
+            if (slot != null && slot.sequence == sequence && predicate.apply(slot.element) && slots.compareAndSet(index, slot, null)) {
+                retainedBytes.addAndGet(-slot.size);
+                removed(slot.element);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * removes every entry appended before this call
+     */
+    public void clear() {
+        long end = tail.get();
+        long start = Math.max(head.get(), end - capacity);
+        long currentHead;
+        do {
+            currentHead = head.get();
+        } while (currentHead < end && !head.compareAndSet(currentHead, end));
+        for (long sequence = start; sequence < end; sequence++) {
+            remove(sequence);
+        }
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    /**
+     * notified when an entry leaves the buffer, for example to release resources held by the entry
+     */
+    public interface RemovalListener<E> {
+        void onRemoval(E element);
+    }
+
+    private static class Slot<E> {
+        private final long sequence;
+        private final E element;
+        private final long size;
+
+        Slot(long sequence, E element, long size) {
+            this.sequence = sequence;
+            this.element = element;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.mockserver.collections;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stores records of bytes outside the java heap, in fixed size segments that are either direct buffers or memory
+ * mapped files, records are appended to the current segment and once a segment is full a new one is started
+ *
+ * A segment is never reused, a full segment is released once every record written to it has been freed, for a memory
+ * mapped segment this deletes its file, the memory of a segment is reclaimed by the garbage collector once no record
+ * refers to it, so a record read after being freed still returns the bytes it was written with
+ *
+ * @author jamesdbloom
+ */
+public class SegmentedRecordStore {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 8 * 1024 * 1024;
+    private static final Logger logger = LoggerFactory.getLogger(SegmentedRecordStore.class);
+    private final int segmentSize;
+    // the directory memory mapped segment files are created in, or null for direct buffers
+    private final File directory;
+    private final AtomicInteger retainedSegments = new AtomicInteger();
+    private Segment current;
+
+    private SegmentedRecordStore(int segmentSize, File directory) {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("Segment size must be greater than zero");
+        }
+        this.segmentSize = segmentSize;
+        this.directory = directory;
+    }
+
+    /**
+     * @param segmentSize the size in bytes of each direct buffer
+     */
+    public static SegmentedRecordStore offHeap(int segmentSize) {
+        return new SegmentedRecordStore(segmentSize, null);
+    }
+
+    /**
+     * @param directory   the directory to create the segment files in
+     * @param segmentSize the size in bytes of each segment file
+     */
+    public static SegmentedRecordStore memoryMapped(File directory, int segmentSize) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("Directory [" + directory + "] does not exist and can not be created");
+        }
+        return new SegmentedRecordStore(segmentSize, directory);
+    }
+
+    /**
+     * @return the number of segments that have not been released
+     */
+    public int retainedSegments() {
+        return retainedSegments.get();
+    }
+
+    /**
+     * copies the bytes into the store, a record larger than the segment size is given a segment of its own
+     */
+    public synchronized Record write(byte[] bytes) {
+        if (bytes.length > segmentSize) {
+            Segment segment = newSegment(bytes.length);
+            Record record = segment.write(bytes);
+            segment.full = true;
+            return record;
+        }
+        if (current == null || current.remaining() < bytes.length) {
+            if (current != null) {
+                current.full = true;
+                if (current.liveRecords.get() == 0) {
+                    release(current);
+                }
+            }
+            current = newSegment(segmentSize);
+        }
+        return current.write(bytes);
+    }
+
+    private Segment newSegment(int size) {
+        retainedSegments.incrementAndGet();
+        if (directory == null) {
+            return new Segment(ByteBuffer.allocateDirect(size), null);
+        }
+        File file = null;
+        try {
+            file = File.createTempFile("mockserver-", ".segment", directory);
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+            try {
+                // the mapping stays valid after the file is closed
+                return new Segment(randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size), file);
+            } finally {
+                randomAccessFile.close();
+            }
+        } catch (IOException ioe) {
+            retainedSegments.decrementAndGet();
+            if (file != null && !file.delete()) {
+                file.deleteOnExit();
+            }
+            throw new RuntimeException("Exception creating memory mapped segment in [" + directory + "]", ioe);
+        }
+    }
+
+    private void free(Record record) {
+        Segment segment = record.segment;
+        if (segment.liveRecords.decrementAndGet() == 0) {
+            synchronized (this) {
+                if (segment.full && segment.liveRecords.get() == 0) {
+                    release(segment);
+                }
+            }
+        }
+    }
+
+    private void release(Segment segment) {
+        if (!segment.released) {
+            segment.released = true;
+            retainedSegments.decrementAndGet();
+            if (segment.file != null && !segment.file.delete()) {
+                // some platforms do not allow a file to be deleted while it is mapped
+                logger.debug("Unable to delete segment file [" + segment.file + "] it will be deleted on exit");
+                segment.file.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * a record in the store, only its location is held on the java heap
+     */
+    public class Record {
+        private final Segment segment;
+        private final int offset;
+        private final int length;
+        private volatile boolean freed;
+
+        private Record(Segment segment, int offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        /**
+         * @return a copy of the bytes of this record
+         */
+        public byte[] read() {
+            byte[] bytes = new byte[length];
+            ByteBuffer source = segment.buffer.duplicate();
+            source.position(offset);
+            source.get(bytes);
+            return bytes;
+        }
+
+        /**
+         * marks this record as no longer needed, freeing a record more than once has no effect
+         */
+        public void free() {
+            if (!freed) {
+                synchronized (this) {
+                    if (freed) {
+                        return;
+                    }
+                    freed = true;
+                }
+                SegmentedRecordStore.this.free(this);
+            }
+        }
+    }
+
+    private class Segment {
+        private final ByteBuffer buffer;
+        private final File file;
+        private final AtomicInteger liveRecords = new AtomicInteger();
+        // only changed while holding the lock on the store
+        private boolean full;
+        private boolean released;
+
+        Segment(ByteBuffer buffer, File file) {
+            this.buffer = buffer;
+            this.file = file;
+        }
+
+        int remaining() {
+            return buffer.remaining();
+        }
+
+        Record write(byte[] bytes) {
+            int offset = buffer.position();
+            buffer.put(bytes);
+            liveRecords.incrementAndGet();
+            return new Record(this, offset, bytes.length);
+        }
+    }
+}
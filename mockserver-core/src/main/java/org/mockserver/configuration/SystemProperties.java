@@ -16,6 +16,12 @@ public class SystemProperties {
 
     static final long DEFAULT_MAX_TIMEOUT = 120;
     static final int DEFAULT_BUFFER_SIZE = 1024 * 1500;
+    static final int DEFAULT_REQUEST_LOG_SIZE = 100;
+    static final int DEFAULT_REQUEST_LOG_QUEUE_SIZE = 16384;
+    static final int DEFAULT_REQUEST_LOG_SAMPLE_RATE = 10;
+    static final int DEFAULT_VERIFICATION_FAILURE_REPORT_SIZE = 10;
+    static final long DEFAULT_REQUEST_JOURNAL_SEGMENT_SIZE = 64 * 1024 * 1024;
+    static final int DEFAULT_REQUEST_JOURNAL_MAX_SEGMENTS = 16;
     private static final Logger logger = LoggerFactory.getLogger(SystemProperties.class);
 
     // general config
@@ -35,6 +41,158 @@ public class SystemProperties {
         System.setProperty("mockserver.requestBufferSize", "" + size);
     }
 
+    public static boolean streamingXPathEnabled() {
+        return SystemProperties.readBooleanProperty("mockserver.streamingXPathEnabled", false);
+    }
+
+    public static void streamingXPathEnabled(boolean enabled) {
+        System.setProperty("mockserver.streamingXPathEnabled", "" + enabled);
+    }
+
+    public static boolean compiledMatchersEnabled() {
+        return SystemProperties.readBooleanProperty("mockserver.compiledMatchers", false);
+    }
+
+    public static void compiledMatchersEnabled(boolean enabled) {
+        System.setProperty("mockserver.compiledMatchers", "" + enabled);
+    }
+
+    public static int requestLogSize() {
+        return SystemProperties.readIntegerProperty("mockserver.requestLogSize", SystemProperties.DEFAULT_REQUEST_LOG_SIZE);
+    }
+
+    public static void requestLogSize(int size) {
+        System.setProperty("mockserver.requestLogSize", "" + size);
+    }
+
+    public static long requestLogMaxBytes() {
+        return SystemProperties.readLongProperty("mockserver.requestLogMaxBytes", 0);
+    }
+
+    public static void requestLogMaxBytes(long maxBytes) {
+        System.setProperty("mockserver.requestLogMaxBytes", "" + maxBytes);
+    }
+
+    public static String requestLogStorage() {
+        return System.getProperty("mockserver.requestLogStorage", "heap");
+    }
+
+    public static void requestLogStorage(String storage) {
+        System.setProperty("mockserver.requestLogStorage", storage);
+    }
+
+    public static String requestLogDirectory() {
+        return System.getProperty("mockserver.requestLogDirectory", System.getProperty("java.io.tmpdir"));
+    }
+
+    public static void requestLogDirectory(String directory) {
+        System.setProperty("mockserver.requestLogDirectory", directory);
+    }
+
+    public static boolean requestLogInterning() {
+        return SystemProperties.readBooleanProperty("mockserver.requestLogInterning", false);
+    }
+
+    public static void requestLogInterning(boolean interning) {
+        System.setProperty("mockserver.requestLogInterning", "" + interning);
+    }
+
+    public static int requestLogCompressionThreshold() {
+        return SystemProperties.readIntegerProperty("mockserver.requestLogCompressionThreshold", 0);
+    }
+
+    public static void requestLogCompressionThreshold(int threshold) {
+        System.setProperty("mockserver.requestLogCompressionThreshold", "" + threshold);
+    }
+
+    public static boolean requestLogAsync() {
+        return SystemProperties.readBooleanProperty("mockserver.requestLogAsync", false);
+    }
+
+    public static void requestLogAsync(boolean async) {
+        System.setProperty("mockserver.requestLogAsync", "" + async);
+    }
+
+    public static int requestLogQueueSize() {
+        return SystemProperties.readIntegerProperty("mockserver.requestLogQueueSize", SystemProperties.DEFAULT_REQUEST_LOG_QUEUE_SIZE);
+    }
+
+    public static void requestLogQueueSize(int size) {
+        System.setProperty("mockserver.requestLogQueueSize", "" + size);
+    }
+
+    public static String requestLogOverflow() {
+        return System.getProperty("mockserver.requestLogOverflow", "drop");
+    }
+
+    public static void requestLogOverflow(String overflow) {
+        System.setProperty("mockserver.requestLogOverflow", overflow);
+    }
+
+    public static int requestLogSampleRate() {
+        return SystemProperties.readIntegerProperty("mockserver.requestLogSampleRate", SystemProperties.DEFAULT_REQUEST_LOG_SAMPLE_RATE);
+    }
+
+    public static void requestLogSampleRate(int sampleRate) {
+        System.setProperty("mockserver.requestLogSampleRate", "" + sampleRate);
+    }
+
+    public static boolean requestLogSummaryOnly() {
+        return SystemProperties.readBooleanProperty("mockserver.requestLogSummaryOnly", false);
+    }
+
+    public static void requestLogSummaryOnly(boolean summaryOnly) {
+        System.setProperty("mockserver.requestLogSummaryOnly", "" + summaryOnly);
+    }
+
+    public static int verificationFailureReportSize() {
+        return SystemProperties.readIntegerProperty("mockserver.verificationFailureReportSize", SystemProperties.DEFAULT_VERIFICATION_FAILURE_REPORT_SIZE);
+    }
+
+    public static void verificationFailureReportSize(int size) {
+        System.setProperty("mockserver.verificationFailureReportSize", "" + size);
+    }
+
+    public static String requestJournalDirectory() {
+        return System.getProperty("mockserver.requestJournalDirectory", "");
+    }
+
+    public static void requestJournalDirectory(String directory) {
+        System.setProperty("mockserver.requestJournalDirectory", directory);
+    }
+
+    public static long requestJournalSegmentSize() {
+        return SystemProperties.readLongProperty("mockserver.requestJournalSegmentSize", SystemProperties.DEFAULT_REQUEST_JOURNAL_SEGMENT_SIZE);
+    }
+
+    public static void requestJournalSegmentSize(long segmentSize) {
+        System.setProperty("mockserver.requestJournalSegmentSize", "" + segmentSize);
+    }
+
+    public static int requestJournalMaxSegments() {
+        return SystemProperties.readIntegerProperty("mockserver.requestJournalMaxSegments", SystemProperties.DEFAULT_REQUEST_JOURNAL_MAX_SEGMENTS);
+    }
+
+    public static void requestJournalMaxSegments(int maxSegments) {
+        System.setProperty("mockserver.requestJournalMaxSegments", "" + maxSegments);
+    }
+
+    public static String requestJournalFsync() {
+        return System.getProperty("mockserver.requestJournalFsync", "batch");
+    }
+
+    public static void requestJournalFsync(String fsync) {
+        System.setProperty("mockserver.requestJournalFsync", fsync);
+    }
+
+    public static boolean requestJournalReplay() {
+        return SystemProperties.readBooleanProperty("mockserver.requestJournalReplay", false);
+    }
+
+    public static void requestJournalReplay(boolean replay) {
+        System.setProperty("mockserver.requestJournalReplay", "" + replay);
+    }
+
     // mockserver config
     public static int mockServerHttpPort() {
         return SystemProperties.readIntegerProperty("mockserver.mockServerHttpPort", -1);
@@ -62,6 +220,10 @@ public class SystemProperties {
         }
     }
 
+    private static Boolean readBooleanProperty(String key, boolean defaultValue) {
+        return Boolean.parseBoolean(System.getProperty(key, "" + defaultValue));
+    }
+
     private static Long readLongProperty(String key, long defaultValue) {
         try {
             return Long.parseLong(System.getProperty(key, "" + defaultValue));
@@ -0,0 +1,84 @@
+package org.mockserver.filters;
+
+/**
+ * How many requests and responses were compressed when they were logged, how much smaller they became and how many
+ * times a compressed request or response was read, counted since the LogFilter was created
+ *
+ * @author jamesdbloom
+ */
+public class CompressionStatistics {
+
+    private final int threshold;
+    private final long payloads;
+    private final long compressedPayloads;
+    private final long uncompressedBytes;
+    private final long compressedBytes;
+    private final long decompressions;
+
+    CompressionStatistics(int threshold, long payloads, long compressedPayloads, long uncompressedBytes, long compressedBytes, long decompressions) {
+        this.threshold = threshold;
+        this.payloads = payloads;
+        this.compressedPayloads = compressedPayloads;
+        this.uncompressedBytes = uncompressedBytes;
+        this.compressedBytes = compressedBytes;
+        this.decompressions = decompressions;
+    }
+
+    /**
+     * @return the body size in bytes above which requests and responses are compressed, zero or less if none are
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @return the number of requests and responses logged
+     */
+    public long getPayloads() {
+        return payloads;
+    }
+
+    /**
+     * @return the number of requests and responses compressed because their body was larger than the threshold
+     */
+    public long getCompressedPayloads() {
+        return compressedPayloads;
+    }
+
+    /**
+     * @return the size in bytes of the compressed requests and responses before they were compressed
+     */
+    public long getUncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    /**
+     * @return the number of times a compressed request or response was decompressed to be read
+     */
+    public long getDecompressions() {
+        return decompressions;
+    }
+
+    /**
+     * @return the fraction of the requests and responses logged that were compressed
+     */
+    public double getHitRatio() {
+        return payloads > 0 ? (double) compressedPayloads / payloads : 0;
+    }
+
+    /**
+     * @return the compressed size as a fraction of the uncompressed size
+     */
+    public double getCompressionRatio() {
+        return uncompressedBytes > 0 ? (double) compressedBytes / uncompressedBytes : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "compressed " + compressedPayloads + " of " + payloads + " requests and responses with bodies over " + threshold + " bytes from " + uncompressedBytes + " to " + compressedBytes + " bytes, decompressed " + decompressions + " times";
+    }
+}
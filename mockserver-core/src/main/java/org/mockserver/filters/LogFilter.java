@@ -1,69 +1,378 @@
 package org.mockserver.filters;
 
-import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Predicate;
 import org.mockserver.client.serialization.ExpectationSerializer;
 import org.mockserver.client.serialization.HttpRequestSerializer;
-import org.mockserver.collections.CircularLinkedList;
-import org.mockserver.collections.CircularMultiMap;
+import org.mockserver.collections.RingBuffer;
+import org.mockserver.configuration.SystemProperties;
 import org.mockserver.matchers.HttpRequestMatcher;
 import org.mockserver.matchers.MatcherBuilder;
 import org.mockserver.matchers.Times;
 import org.mockserver.mock.Expectation;
-import org.mockserver.model.HttpRequest;
-import org.mockserver.model.HttpResponse;
+import org.mockserver.mock.MockServerMatcher;
+import org.mockserver.model.*;
 import org.mockserver.verify.Verification;
 import org.mockserver.verify.VerificationSequence;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
+import java.io.IOException;
+import java.util.*;
 
 import static org.mockserver.model.HttpResponse.notFoundResponse;
 
 /**
+ * Records requests, and the responses returned for them, in two ring buffers sized by the mockserver.requestLogSize
+ * and mockserver.requestLogMaxBytes system properties, each exchange is passed to a Recorder, kept by a LogStorage,
+ * indexed by a RequestLogIndex for queries and, if configured, appended to a RequestJournal
+ *
  * @author jamesdbloom
  */
-public class LogFilter implements ResponseFilter, RequestFilter {
+public class LogFilter implements ResponseFilter, RequestFilter, MockServerMatcher.MatchListener {
 
-    private final CircularMultiMap<HttpRequest, HttpResponse> requestResponseLog = new CircularMultiMap<HttpRequest, HttpResponse>(100, 100);
-    private final CircularLinkedList<HttpRequest> requestLog = new CircularLinkedList<HttpRequest>(100);
+    private static final Logger logger = LoggerFactory.getLogger(LogFilter.class);
+    private final LogStorage logStorage;
+    private final RequestLogIndex requestResponseLogIndex = new RequestLogIndex();
+    private final RingBuffer<LoggedExchange> requestResponseLog;
+    private final RequestLogIndex requestLogIndex = new RequestLogIndex();
+    private final RingBuffer<LoggedExchange> requestLog;
     private final MatcherBuilder matcherBuilder = new MatcherBuilder();
+    // null when not journaling
+    private final RequestJournal requestJournal;
+    private final Recorder recorder;
+    private final RequestCounters requestCounters = new RequestCounters();
+    private volatile boolean summaryOnly = SystemProperties.requestLogSummaryOnly();
+    // notified when a request is recorded while a verification is waiting for more requests
+    private final Object requestRecorded = new Object();
+    private volatile int verificationsWaiting;
     private Logger requestLogger = LoggerFactory.getLogger("REQUEST");
 
+    public LogFilter() {
+        this(SystemProperties.requestLogSize(), SystemProperties.requestLogMaxBytes(), SystemProperties.requestLogStorage());
+    }
+
+    /**
+     * @param requestLogSize     the maximum number of requests, and of responses, to keep
+     * @param requestLogMaxBytes the maximum estimated size in bytes of the requests, and of the responses, to keep,
+     *                           zero or less for no limit
+     */
+    public LogFilter(int requestLogSize, long requestLogMaxBytes) {
+        this(requestLogSize, requestLogMaxBytes, LogStorage.HEAP);
+    }
+
+    /**
+     * @param requestLogSize     the maximum number of requests, and of responses, to keep
+     * @param requestLogMaxBytes the maximum size in bytes of the requests, and of the responses, to keep, zero or
+     *                           less for no limit, estimated for heap storage and serialized size otherwise
+     * @param requestLogStorage  one of heap, offHeap or memoryMapped, interning and compression are set by the
+     *                           mockserver.requestLogInterning and mockserver.requestLogCompressionThreshold system
+     *                           properties, see LogStorage
+     */
+    public LogFilter(int requestLogSize, long requestLogMaxBytes, String requestLogStorage) {
+        this(requestLogSize, requestLogMaxBytes, LogStorage.create(requestLogStorage, SystemProperties.requestLogDirectory(), SystemProperties.requestLogInterning(), SystemProperties.requestLogCompressionThreshold()));
+    }
+
+    LogFilter(int requestLogSize, long requestLogMaxBytes, LogStorage logStorage) {
+        this(requestLogSize, requestLogMaxBytes, logStorage,
+                RequestJournal.create(SystemProperties.requestJournalDirectory(), SystemProperties.requestJournalSegmentSize(), SystemProperties.requestJournalMaxSegments(), SystemProperties.requestJournalFsync()),
+                SystemProperties.requestJournalReplay());
+    }
+
+    /**
+     * @param requestJournal the journal to append recorded exchanges to, or null to not journal
+     * @param replay         true to record the exchanges already in the journal
+     */
+    LogFilter(int requestLogSize, long requestLogMaxBytes, LogStorage logStorage, RequestJournal requestJournal, boolean replay) {
+        this.logStorage = logStorage;
+        this.requestResponseLog = new RingBuffer<LoggedExchange>(requestLogSize, requestLogMaxBytes, removeFrom(requestResponseLogIndex));
+        this.requestLog = new RingBuffer<LoggedExchange>(requestLogSize, requestLogMaxBytes, removeFrom(requestLogIndex));
+        this.requestJournal = requestJournal;
+        if (requestJournal != null && replay) {
+            replay(requestJournal);
+        }
+        this.recorder = Recorder.create(SystemProperties.requestLogAsync(), SystemProperties.requestLogQueueSize(), SystemProperties.requestLogOverflow(), SystemProperties.requestLogSampleRate(), new Recorder.Target() {
+            public void record(HttpRequest httpRequest, HttpResponse httpResponse, long receivedAt) {
+                LogFilter.this.record(httpRequest, httpResponse, receivedAt);
+                if (LogFilter.this.requestJournal != null && httpRequest != null) {
+                    LogFilter.this.requestJournal.append(httpRequest, httpResponse, receivedAt);
+                }
+            }
+        });
+    }
+
+    private void replay(RequestJournal requestJournal) {
+        try {
+            requestJournal.replay(new RequestJournal.ReplayListener() {
+                public void replay(HttpRequest httpRequest, HttpResponse httpResponse, long receivedAt) {
+                    record(httpRequest, httpResponse, receivedAt);
+                }
+            });
+        } catch (IOException ioe) {
+            logger.warn("Exception replaying request journal, only part of the journal may have been replayed", ioe);
+        }
+    }
+
+    private static RingBuffer.RemovalListener<LoggedExchange> removeFrom(final RequestLogIndex requestLogIndex) {
+        return new RingBuffer.RemovalListener<LoggedExchange>() {
+            public void onRemoval(LoggedExchange loggedExchange) {
+                requestLogIndex.remove(loggedExchange);
+                loggedExchange.release();
+            }
+        };
+    }
+
     @Override
-    public synchronized HttpResponse onResponse(HttpRequest httpRequest, HttpResponse httpResponse) {
-        if (httpRequest != null && httpResponse != null) {
-            requestResponseLog.put(httpRequest, httpResponse);
-        } else if (httpRequest != null) {
-            requestResponseLog.put(httpRequest, notFoundResponse());
+    public HttpResponse onResponse(HttpRequest httpRequest, HttpResponse httpResponse) {
+        if (httpRequest != null) {
+            recorder.record(httpRequest, httpResponse != null ? httpResponse : notFoundResponse(), System.currentTimeMillis());
         }
         return httpResponse;
     }
 
     @Override
-    public synchronized HttpRequest onRequest(HttpRequest httpRequest) {
-        requestLog.add(httpRequest);
+    public HttpRequest onRequest(HttpRequest httpRequest) {
+        recorder.record(httpRequest, null, System.currentTimeMillis());
         return httpRequest;
     }
 
-    public synchronized List<HttpResponse> httpResponses(HttpRequest httpRequest) {
+    /**
+     * @param httpResponse the response returned for the request, or null to record the request in the request log
+     */
+    private void record(HttpRequest httpRequest, HttpResponse httpResponse, long receivedAt) {
+        if (summaryOnly) {
+            if (httpResponse == null) {
+                requestCounters.record(httpRequest);
+                requestRecorded();
+            }
+        } else if (httpResponse != null) {
+            record(requestResponseLog, requestResponseLogIndex, httpRequest, httpResponse, receivedAt);
+        } else {
+            record(requestLog, requestLogIndex, httpRequest, null, receivedAt);
+        }
+    }
+
+    private void record(RingBuffer<LoggedExchange> log, RequestLogIndex requestLogIndex, HttpRequest httpRequest, HttpResponse httpResponse, long receivedAt) {
+        LoggedExchange loggedExchange = logStorage.store(httpRequest, httpResponse, receivedAt, log.maxBytes() > 0);
+        // indexed first so an exchange dropped as soon as it is added is also removed from the index
+        requestLogIndex.add(loggedExchange);
+        log.add(loggedExchange, loggedExchange.size());
+        if (log == requestLog) {
+            requestRecorded();
+        }
+    }
+
+    private void requestRecorded() {
+        if (verificationsWaiting > 0) {
+            synchronized (requestRecorded) {
+                requestRecorded.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * In summary only mode, also switched on by the mockserver.requestLogSummaryOnly system property, requests are
+     * counted by RequestCounters instead of logged, so only count based verifications of a request with only a method
+     * and a path, or of the request of an expectation, can be answered and nothing else can be queried
+     *
+     * @param summaryOnly true to only count requests from now on, false to log requests and responses from now on,
+     *                    the counts start from zero each time summary only is switched on and the requests and
+     *                    responses already logged are kept
+     */
+    public void setSummaryOnly(boolean summaryOnly) {
+        recorder.awaitRecorded();
+        if (summaryOnly && !this.summaryOnly) {
+            // the requests of expectations are still counted, from zero
+            requestCounters.resetCounts();
+        }
+        this.summaryOnly = summaryOnly;
+    }
+
+    public boolean isSummaryOnly() {
+        return summaryOnly;
+    }
+
+    /**
+     * @return the number of requests and responses not logged because the queue of exchanges waiting to be recorded
+     * was full, with mockserver.requestLogOverflow drop, the default, or sample
+     */
+    public long droppedExchanges() {
+        return recorder.droppedExchanges();
+    }
+
+    /**
+     * @return how many logged requests and responses were compressed and how many times they were decompressed
+     */
+    public CompressionStatistics compressionStatistics() {
+        return logStorage.compressionStatistics();
+    }
+
+    /**
+     * logs how the request log is being kept, such as how many logged requests and responses were compressed or were
+     * dropped without being logged, each time the requests or expectations are dumped to the log
+     */
+    public void dumpStatisticsToLog() {
+        requestLogger.warn("request log " + compressionStatistics() + ", dropped " + droppedExchanges() + " requests and responses without logging them");
+    }
+
+    /**
+     * @return a note that requests were dropped without being logged, so may be why a verification failed, or an
+     * empty string if none were dropped
+     */
+    private String droppedExchangesNote() {
+        long droppedExchanges = droppedExchanges();
+        return droppedExchanges > 0 ? ", " + droppedExchanges + " requests and responses were dropped without being logged because the queue of requests waiting to be logged was full" : "";
+    }
+
+    /**
+     * counts the requests matched by the expectation with httpRequest, so verifications of it can be answered while
+     * the request log is summary only, a request is counted for the first expectation that matched it
+     */
+    public void countMatching(HttpRequest httpRequest) {
+        requestCounters.register(httpRequest);
+    }
+
+    public void matched(Expectation expectation) {
+        if (summaryOnly) {
+            requestCounters.matched(expectation.getHttpRequest());
+        }
+    }
+
+    /**
+     * stops recording asynchronously and journaling, once every exchange already recorded has been written to the
+     * request log and the journal, the request log can still be queried and exchanges recorded after close are
+     * recorded on the calling thread and not journaled
+     */
+    public void close() {
+        recorder.close();
+        if (requestJournal != null) {
+            requestJournal.close();
+        }
+    }
+
+    /**
+     * @return the logged exchanges whose request could match, in the order they were logged
+     */
+    private static List<LoggedExchange> candidates(RingBuffer<LoggedExchange> log, RequestLogIndex requestLogIndex, HttpRequest httpRequest) {
+        List<LoggedExchange> candidates = httpRequest != null ? requestLogIndex.candidates(httpRequest) : null;
+        return candidates != null ? candidates : log.snapshot();
+    }
+
+    /**
+     * @param httpRequest only exchanges with a request that matches are returned, or null for all exchanges
+     * @return the logged exchanges grouped by request, requests in the order they were first logged, the responses
+     * are not read until they are needed
+     */
+    private Map<HttpRequest, List<LoggedExchange>> requestResponseLog(HttpRequest httpRequest) {
+        HttpRequestMatcher httpRequestMatcher = httpRequest != null ? matcherBuilder.transformsToMatcher(httpRequest) : null;
+        Map<HttpRequest, List<LoggedExchange>> requestResponseLog = new LinkedHashMap<HttpRequest, List<LoggedExchange>>();
+        for (LoggedExchange loggedExchange : candidates(this.requestResponseLog, requestResponseLogIndex, httpRequest)) {
+            HttpRequest loggedHttpRequest = loggedExchange.httpRequest();
+            List<LoggedExchange> loggedExchanges = requestResponseLog.get(loggedHttpRequest);
+            if (loggedExchanges == null && httpRequestMatcher != null && !httpRequestMatcher.matches(loggedHttpRequest)) {
+                continue;
+            }
+            if (loggedExchanges == null) {
+                loggedExchanges = new ArrayList<LoggedExchange>();
+                requestResponseLog.put(loggedHttpRequest, loggedExchanges);
+            }
+            loggedExchanges.add(loggedExchange);
+        }
+        return requestResponseLog;
+    }
+
+    /**
+     * Describes the logged requests for a failed verification, when more requests are logged than the
+     * mockserver.verificationFailureReportSize system property only that many are described, those that match the most
+     * sub-matchers, of method, path, query string parameters, body, headers and cookies, of any expected request, so
+     * the failure stays small however large the request log is, the requests described are in the order they were
+     * logged and each logged request is only read once
+     *
+     * @param singleAsObject true to describe a single logged request as an object instead of as an array
+     */
+    private String loggedRequestsReport(List<HttpRequestMatcher> httpRequestMatchers, boolean singleAsObject) {
+        int reportSize = SystemProperties.verificationFailureReportSize();
+        List<LoggedExchange> loggedExchanges = this.requestLog.snapshot();
+        List<HttpRequest> reported = new ArrayList<HttpRequest>();
+        if (reportSize <= 0 || loggedExchanges.size() <= reportSize) {
+            for (LoggedExchange loggedExchange : loggedExchanges) {
+                reported.add(loggedExchange.httpRequest());
+            }
+        } else {
+            // the least close request, and of those the earliest logged, is at the head so it is removed first
+            PriorityQueue<RankedRequest> closest = new PriorityQueue<RankedRequest>(reportSize + 1);
+            for (int i = 0; i < loggedExchanges.size(); i++) {
+                HttpRequest loggedHttpRequest = loggedExchanges.get(i).httpRequest();
+                int matchingSubMatchers = 0;
+                for (HttpRequestMatcher httpRequestMatcher : httpRequestMatchers) {
+                    matchingSubMatchers = Math.max(matchingSubMatchers, httpRequestMatcher.matchingSubMatchers(loggedHttpRequest));
+                }
+                closest.add(new RankedRequest(i, matchingSubMatchers, loggedHttpRequest));
+                if (closest.size() > reportSize) {
+                    closest.poll();
+                }
+            }
+            List<RankedRequest> rankedRequests = new ArrayList<RankedRequest>(closest);
+            Collections.sort(rankedRequests, RankedRequest.LOG_ORDER);
+            for (RankedRequest rankedRequest : rankedRequests) {
+                reported.add(rankedRequest.httpRequest);
+            }
+        }
+        String report = "<" + (singleAsObject && reported.size() == 1 ? httpRequestSerializer.serialize(reported.get(0)) : httpRequestSerializer.serialize(reported)) + ">";
+        if (reported.size() < loggedExchanges.size()) {
+            report += ", showing the " + reported.size() + " closest of " + loggedExchanges.size() + " logged requests";
+        }
+        return report;
+    }
+
+    public List<HttpResponse> httpResponses(HttpRequest httpRequest) {
+        recorder.awaitRecorded();
         List<HttpResponse> httpResponses = new ArrayList<HttpResponse>();
-        HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
-        for (HttpRequest loggedHttpRequest : requestResponseLog.keySet()) {
-            if (httpRequestMatcher.matches(loggedHttpRequest)) {
-                httpResponses.addAll(requestResponseLog.getAll(loggedHttpRequest));
+        for (List<LoggedExchange> loggedExchanges : requestResponseLog(httpRequest).values()) {
+            for (LoggedExchange loggedExchange : loggedExchanges) {
+                httpResponses.add(loggedExchange.httpResponse());
             }
         }
         return httpResponses;
     }
 
-    public synchronized List<HttpRequest> httpRequests(HttpRequest httpRequest) {
+    public List<HttpRequest> httpRequests(HttpRequest httpRequest) {
+        recorder.awaitRecorded();
+        return matching(httpRequest, candidates(requestLog, requestLogIndex, httpRequest));
+    }
+
+    /**
+     * @param httpRequest  the request to match
+     * @param receivedFrom the earliest time in milliseconds a request was received, inclusive
+     * @param receivedTo   the latest time in milliseconds a request was received, inclusive
+     * @return the matching requests received in the time window, in the order they were received
+     */
+    public List<HttpRequest> httpRequests(HttpRequest httpRequest, long receivedFrom, long receivedTo) {
+        recorder.awaitRecorded();
+        List<LoggedExchange> receivedBetween = requestLogIndex.receivedBetween(receivedFrom, receivedTo);
+        if (httpRequest != null) {
+            // the index keys of each request are checked before any request is read
+            String methodKey = RequestLogIndex.indexKey(httpRequest.getMethod());
+            String pathKey = RequestLogIndex.indexKey(httpRequest.getPath());
+            Iterator<LoggedExchange> iterator = receivedBetween.iterator();
+            while (iterator.hasNext()) {
+                LoggedExchange loggedExchange = iterator.next();
+                if (!couldMatch(methodKey, loggedExchange.method) || !couldMatch(pathKey, loggedExchange.path)) {
+                    iterator.remove();
+                }
+            }
+        }
+        return matching(httpRequest, receivedBetween);
+    }
+
+    private static boolean couldMatch(String key, String value) {
+        return RequestLogIndex.couldMatch(key, RequestLogIndex.indexKey(value));
+    }
+
+    private List<HttpRequest> matching(HttpRequest httpRequest, List<LoggedExchange> loggedExchanges) {
         List<HttpRequest> httpRequests = new ArrayList<HttpRequest>();
         HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
-        for (HttpRequest loggedHttpRequest : requestLog) {
+        for (LoggedExchange loggedExchange : loggedExchanges) {
+            HttpRequest loggedHttpRequest = loggedExchange.httpRequest();
             if (httpRequestMatcher.matches(loggedHttpRequest)) {
                 httpRequests.add(loggedHttpRequest);
             }
@@ -71,99 +380,117 @@ public class LogFilter implements ResponseFilter, RequestFilter {
         return httpRequests;
     }
 
-    public synchronized void reset() {
+    public void reset() {
+        recorder.awaitRecorded();
         requestResponseLog.clear();
         requestLog.clear();
+        requestCounters.reset();
     }
 
-    public synchronized void clear(HttpRequest httpRequest) {
+    public void clear(HttpRequest httpRequest) {
+        recorder.awaitRecorded();
         if (httpRequest != null) {
             HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
-            for (HttpRequest key : new LinkedList<HttpRequest>(requestResponseLog.keySet())) {
-                if (httpRequestMatcher.matches(key)) {
-                    requestResponseLog.removeAll(key);
-                }
-            }
-            for (HttpRequest value : new LinkedList<HttpRequest>(requestLog)) {
-                if (httpRequestMatcher.matches(value)) {
-                    requestLog.remove(value);
-                }
-            }
+            requestResponseLog.removeIf(matchingRequest(httpRequestMatcher, requestResponseLogIndex.candidates(httpRequest)));
+            requestLog.removeIf(matchingRequest(httpRequestMatcher, requestLogIndex.candidates(httpRequest)));
+            requestCounters.clear(httpRequest);
         } else {
             reset();
         }
     }
 
-    public synchronized void dumpToLog(HttpRequest httpRequest, boolean asJava) {
-        ExpectationSerializer expectationSerializer = new ExpectationSerializer();
-        if (httpRequest != null) {
-            HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
-            for (Map.Entry<HttpRequest, HttpResponse> entry : requestResponseLog.entrySet()) {
-                if (httpRequestMatcher.matches(entry.getKey())) {
-                    if (asJava) {
-                        requestLogger.warn(expectationSerializer.serializeAsJava(new Expectation(entry.getKey(), Times.once()).thenRespond(entry.getValue())));
-                    } else {
-                        requestLogger.warn(expectationSerializer.serialize(new Expectation(entry.getKey(), Times.once()).thenRespond(entry.getValue())));
-                    }
-                }
+    /**
+     * @param candidates the only exchanges that can match, or null if any exchange can match
+     */
+    private static Predicate<LoggedExchange> matchingRequest(final HttpRequestMatcher httpRequestMatcher, List<LoggedExchange> candidates) {
+        final Set<LoggedExchange> candidateSet = candidates != null ? Collections.newSetFromMap(new IdentityHashMap<LoggedExchange, Boolean>()) : null;
+        if (candidateSet != null) {
+            candidateSet.addAll(candidates);
+        }
+        return new Predicate<LoggedExchange>() {
+            public boolean apply(LoggedExchange loggedExchange) {
+                return (candidateSet == null || candidateSet.contains(loggedExchange)) && httpRequestMatcher.matches(loggedExchange.httpRequest());
             }
-        } else {
-            for (Map.Entry<HttpRequest, HttpResponse> entry : requestResponseLog.entrySet()) {
+        };
+    }
+
+    public void dumpToLog(HttpRequest httpRequest, boolean asJava) {
+        recorder.awaitRecorded();
+        ExpectationSerializer expectationSerializer = new ExpectationSerializer();
+        for (Map.Entry<HttpRequest, List<LoggedExchange>> entry : requestResponseLog(httpRequest).entrySet()) {
+            for (LoggedExchange loggedExchange : entry.getValue()) {
                 if (asJava) {
-                    requestLogger.warn(expectationSerializer.serializeAsJava(new Expectation(entry.getKey(), Times.once()).thenRespond(entry.getValue())));
+                    requestLogger.warn(expectationSerializer.serializeAsJava(new Expectation(entry.getKey(), Times.once()).thenRespond(loggedExchange.httpResponse())));
                 } else {
-                    requestLogger.warn(expectationSerializer.serialize(new Expectation(entry.getKey(), Times.once()).thenRespond(entry.getValue())));
+                    requestLogger.warn(expectationSerializer.serialize(new Expectation(entry.getKey(), Times.once()).thenRespond(loggedExchange.httpResponse())));
                 }
             }
         }
+        dumpStatisticsToLog();
     }
 
-    public synchronized Expectation[] retrieve(HttpRequest httpRequest) {
+    public Expectation[] retrieve(HttpRequest httpRequest) {
+        recorder.awaitRecorded();
         List<Expectation> expectations = new ArrayList<Expectation>();
-        if (httpRequest != null) {
-            HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
-            for (HttpRequest key : requestResponseLog.keySet()) {
-                for (HttpResponse value : requestResponseLog.getAll(key)) {
-                    if (httpRequestMatcher.matches(key)) {
-                        expectations.add(new Expectation(key, Times.once()).thenRespond(value));
-                    }
-                }
+        for (Map.Entry<HttpRequest, List<LoggedExchange>> entry : requestResponseLog(httpRequest).entrySet()) {
+            for (LoggedExchange loggedExchange : entry.getValue()) {
+                expectations.add(new Expectation(entry.getKey(), Times.once()).thenRespond(loggedExchange.httpResponse()));
             }
-        } else {
-            for (HttpRequest key : requestResponseLog.keySet()) {
-                for (HttpResponse value : requestResponseLog.getAll(key)) {
-                    expectations.add(new Expectation(key, Times.once()).thenRespond(value));
+        }
+        return expectations.toArray(new Expectation[expectations.size()]);
+    }
+
+    /**
+     * Retrieves the recorded requests and responses in the order they were recorded, one page at a time, unlike
+     * retrieve(HttpRequest) responses are not grouped by request so a page never depends on exchanges after it
+     *
+     * @param httpRequest the request to match, or null for all requests
+     * @param cursor      zero for the first page, otherwise the next cursor of the previous page
+     * @param limit       the maximum number of expectations in the page, zero or less for no limit
+     * @return the page, only the matching exchanges are held and each expectation is built as it is iterated
+     */
+    public RetrievedExpectations retrieve(HttpRequest httpRequest, long cursor, int limit) {
+        recorder.awaitRecorded();
+        HttpRequestMatcher httpRequestMatcher = httpRequest != null ? matcherBuilder.transformsToMatcher(httpRequest) : null;
+        // exchanges recorded concurrently can be in the ring buffer in a different order so the index is read instead
+        Iterator<LoggedExchange> candidates = requestResponseLogIndex.candidatesFrom(httpRequest, Math.max(cursor, 0));
+        List<LoggedExchange> page = new ArrayList<LoggedExchange>();
+        while (candidates.hasNext()) {
+            LoggedExchange loggedExchange = candidates.next();
+            if (httpRequestMatcher == null || httpRequestMatcher.matches(loggedExchange.httpRequest())) {
+                if (limit > 0 && page.size() == limit) {
+                    // another matching exchange exists so there is a next page
+                    return new RetrievedExpectations(page, page.get(page.size() - 1).sequence + 1);
                 }
+                page.add(loggedExchange);
             }
         }
-        return expectations.toArray(new Expectation[expectations.size()]);
+        return new RetrievedExpectations(page, -1);
     }
 
     private HttpRequestSerializer httpRequestSerializer = new HttpRequestSerializer();
 
-    public synchronized String verify(Verification verification) {
+    public String verify(Verification verification) {
+        recorder.awaitRecorded();
+        if (summaryOnly) {
+            return verifyFromCounts(verification);
+        }
         if (verification != null) {
             List<HttpRequest> matchingRequests = new ArrayList<HttpRequest>();
             if (verification.getHttpRequest() != null) {
-                HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(verification.getHttpRequest());
-                for (HttpRequest httpRequest : requestLog) {
-                    if (httpRequestMatcher.matches(httpRequest)) {
-                        matchingRequests.add(httpRequest);
-                    }
-                }
+                matchingRequests = httpRequests(verification.getHttpRequest());
             }
 
-            HttpRequest[] allRequestsArray = requestLog.toArray(new HttpRequest[requestLog.size()]);
             if (verification.getTimes().getCount() != 0 && matchingRequests.isEmpty()) {
-                return "Request not found " + verification.getTimes() + ", expected:<" + httpRequestSerializer.serialize(verification.getHttpRequest()) + "> but was:<" + (allRequestsArray.length == 1 ? httpRequestSerializer.serialize(allRequestsArray[0]) : httpRequestSerializer.serialize(allRequestsArray)) + ">";
+                return verificationFailure(verification);
             }
             if (verification.getTimes().isExact()) {
                 if (matchingRequests.size() != verification.getTimes().getCount()) {
-                    return "Request not found " + verification.getTimes() + ", expected:<" + httpRequestSerializer.serialize(verification.getHttpRequest()) + "> but was:<" + (allRequestsArray.length == 1 ? httpRequestSerializer.serialize(allRequestsArray[0]) : httpRequestSerializer.serialize(allRequestsArray)) + ">";
+                    return verificationFailure(verification);
                 }
             } else {
                 if (matchingRequests.size() < verification.getTimes().getCount()) {
-                    return "Request not found " + verification.getTimes() + ", expected:<" + httpRequestSerializer.serialize(verification.getHttpRequest()) + "> but was:<" + (allRequestsArray.length == 1 ? httpRequestSerializer.serialize(allRequestsArray[0]) : httpRequestSerializer.serialize(allRequestsArray)) + ">";
+                    return verificationFailure(verification);
                 }
             }
         }
@@ -171,27 +498,195 @@ public class LogFilter implements ResponseFilter, RequestFilter {
         return "";
     }
 
+    private String verifyFromCounts(Verification verification) {
+        if (verification == null || verification.getHttpRequest() == null) {
+            return "";
+        }
+        long count = requestCounters.count(verification.getHttpRequest());
+        if (count < 0) {
+            return "Request can not be verified " + verification.getTimes() + " as the request log is summary only, only requests with just a method and a path without ids, for up to " + RequestCounters.MAX_PATHS + " paths, or the request of an expectation, are counted, expected:<" + httpRequestSerializer.serialize(verification.getHttpRequest()) + ">";
+        }
+        if (verification.getTimes().isExact() ? count != verification.getTimes().getCount() : count < verification.getTimes().getCount()) {
+            return "Request not found " + verification.getTimes() + ", expected:<" + httpRequestSerializer.serialize(verification.getHttpRequest()) + "> but was:<" + count + " matching requests>" + droppedExchangesNote();
+        }
+        return "";
+    }
+
+    private String verificationFailure(Verification verification) {
+        // only read the logged requests when verification fails
+        return "Request not found " + verification.getTimes() + ", expected:<" + httpRequestSerializer.serialize(verification.getHttpRequest()) + "> but was:" + loggedRequestsReport(Collections.singletonList(matcherBuilder.transformsToMatcher(verification.getHttpRequest())), true) + droppedExchangesNote();
+    }
+
+    /**
+     * Matches the sequence in a single forward pass over a snapshot of the request log, the matchers for every step
+     * are built once and each logged request is only compared with the step the sequence has reached, so the check
+     * is linear in the size of the log and stops reading the log as soon as the last step has matched
+     */
     public String verify(VerificationSequence verificationSequence) {
+        recorder.awaitRecorded();
         if (verificationSequence != null) {
-            int requestLogCounter = 0;
-
+            List<HttpRequestMatcher> steps = new ArrayList<HttpRequestMatcher>();
             for (HttpRequest verificationHttpRequest : verificationSequence.getHttpRequests()) {
                 if (verificationHttpRequest != null) {
-                    HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(verificationHttpRequest);
-                    boolean foundRequest = false;
-                    for (; !foundRequest && requestLogCounter < requestLog.size(); requestLogCounter++) {
-                        if (httpRequestMatcher.matches(requestLog.get(requestLogCounter))) {
-                            // move on to next request
-                            foundRequest = true;
-                        }
-                    }
-                    if (!foundRequest) {
-                        return "Request sequence not found, expected:<" + httpRequestSerializer.serialize(verificationSequence.getHttpRequests()) + "> but was:<" + httpRequestSerializer.serialize(requestLog) + ">";
-                    }
+                    steps.add(matcherBuilder.transformsToMatcher(verificationHttpRequest));
                 }
             }
+            if (summaryOnly && !steps.isEmpty()) {
+                return "Request sequence can not be verified as the request log is summary only, expected:<" + httpRequestSerializer.serialize(verificationSequence.getHttpRequests()) + ">";
+            }
+
+            int step = 0;
+            List<LoggedExchange> loggedExchanges = requestLog.snapshot();
+            for (int i = 0; step < steps.size() && i < loggedExchanges.size(); i++) {
+                if (steps.get(step).matches(loggedExchanges.get(i).httpRequest())) {
+                    // move on to next request
+                    step++;
+                }
+            }
+            if (step < steps.size()) {
+                return "Request sequence not found, expected:<" + httpRequestSerializer.serialize(verificationSequence.getHttpRequests()) + "> but was:" + loggedRequestsReport(steps, false) + droppedExchangesNote();
+            }
         }
 
         return "";
     }
+
+    /**
+     * Verifies the requests received so far and if verification fails waits, for at most timeoutMillis or the
+     * mockserver.maxTimeout system property if less, for more requests to be received, the whole log is only checked
+     * again once a request that matches the verification has been received
+     *
+     * @param timeoutMillis how long to wait for verification to pass, zero or less to not wait
+     * @return an empty string if verification passed otherwise the failure, from the last check, explaining why not
+     */
+    public String verify(Verification verification, long timeoutMillis) {
+        // read before verifying so requests recorded while verifying are checked again
+        long recorded = recordedRequests();
+        long checkedFrom = requestLogIndex.addedTo();
+        String result = verify(verification);
+        if (result.isEmpty() || timeoutMillis <= 0 || verification == null || verification.getHttpRequest() == null) {
+            return result;
+        }
+        return verifyWhenMatched(verification, null, Collections.singletonList(verification.getHttpRequest()), recorded, checkedFrom, timeoutMillis);
+    }
+
+    /**
+     * Verifies the requests received so far were received in the sequence and if verification fails waits, for at
+     * most timeoutMillis or the mockserver.maxTimeout system property if less, for more requests to be received, the
+     * whole log is only checked again once a request that matches a request in the sequence has been received
+     *
+     * @param timeoutMillis how long to wait for verification to pass, zero or less to not wait
+     * @return an empty string if verification passed otherwise the failure, from the last check, explaining why not
+     */
+    public String verify(VerificationSequence verificationSequence, long timeoutMillis) {
+        // read before verifying so requests recorded while verifying are checked again
+        long recorded = recordedRequests();
+        long checkedFrom = requestLogIndex.addedTo();
+        String result = verify(verificationSequence);
+        if (result.isEmpty() || timeoutMillis <= 0 || verificationSequence == null) {
+            return result;
+        }
+        return verifyWhenMatched(null, verificationSequence, verificationSequence.getHttpRequests(), recorded, checkedFrom, timeoutMillis);
+    }
+
+    /**
+     * @param recorded    the number of requests recorded before the first check
+     * @param checkedFrom the sequence before which every request was in the log when first checked
+     */
+    private String verifyWhenMatched(Verification verification, VerificationSequence verificationSequence, List<HttpRequest> httpRequests, long recorded, long checkedFrom, long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + Math.min(timeoutMillis, SystemProperties.maxTimeout());
+        List<HttpRequest> verificationHttpRequests = new ArrayList<HttpRequest>();
+        List<HttpRequestMatcher> httpRequestMatchers = new ArrayList<HttpRequestMatcher>();
+        for (HttpRequest httpRequest : httpRequests) {
+            if (httpRequest != null) {
+                verificationHttpRequests.add(httpRequest);
+                httpRequestMatchers.add(matcherBuilder.transformsToMatcher(httpRequest));
+            }
+        }
+        while (true) {
+            long recordedTo = awaitRequestsRecordedAfter(recorded, deadline);
+            // requests keep being recorded under steady traffic so the deadline is checked and not only the wait
+            boolean expired = recordedTo == recorded || System.currentTimeMillis() >= deadline || Thread.currentThread().isInterrupted();
+            // requests are only ever checked again from a sequence every request before which has been added
+            long addedTo = requestLogIndex.addedTo();
+            // also checked once the deadline passes in case a matching request was missed while it was being recorded
+            if (expired || matchesRequestRecordedFrom(verificationHttpRequests, httpRequestMatchers, checkedFrom)) {
+                String result = verification != null ? verify(verification) : verify(verificationSequence);
+                if (result.isEmpty() || expired) {
+                    return result;
+                }
+            }
+            recorded = recordedTo;
+            checkedFrom = addedTo;
+        }
+    }
+
+    /**
+     * @return the sequence the next request recorded will be given, unchanged if none was recorded before the deadline
+     */
+    private long awaitRequestsRecordedAfter(long nextSequence, long deadline) {
+        synchronized (requestRecorded) {
+            verificationsWaiting++;
+            try {
+                long remaining = deadline - System.currentTimeMillis();
+                while (recordedRequests() == nextSequence && remaining > 0) {
+                    requestRecorded.wait(remaining);
+                    remaining = deadline - System.currentTimeMillis();
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            } finally {
+                verificationsWaiting--;
+            }
+            return recordedRequests();
+        }
+    }
+
+    /**
+     * @return a number that changes each time a request is recorded
+     */
+    private long recordedRequests() {
+        return summaryOnly ? requestCounters.recorded() : requestLogIndex.nextSequence();
+    }
+
+    private boolean matchesRequestRecordedFrom(List<HttpRequest> httpRequests, List<HttpRequestMatcher> httpRequestMatchers, long fromSequence) {
+        if (summaryOnly) {
+            // checking the counts again is as cheap as checking the new requests
+            return true;
+        }
+        for (int i = 0; i < httpRequestMatchers.size(); i++) {
+            // only the exchanges added since the last check are read, seeking to the sequence in each index bucket
+            Iterator<LoggedExchange> candidates = requestLogIndex.candidatesFrom(httpRequests.get(i), fromSequence);
+            while (candidates.hasNext()) {
+                if (httpRequestMatchers.get(i).matches(candidates.next().httpRequest())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static class RankedRequest implements Comparable<RankedRequest> {
+        private static final Comparator<RankedRequest> LOG_ORDER = new Comparator<RankedRequest>() {
+            public int compare(RankedRequest first, RankedRequest second) {
+                return first.index < second.index ? -1 : (first.index == second.index ? 0 : 1);
+            }
+        };
+        private final int index;
+        private final int matchingSubMatchers;
+        private final HttpRequest httpRequest;
+
+        RankedRequest(int index, int matchingSubMatchers, HttpRequest httpRequest) {
+            this.index = index;
+            this.matchingSubMatchers = matchingSubMatchers;
+            this.httpRequest = httpRequest;
+        }
+
+        public int compareTo(RankedRequest other) {
+            if (matchingSubMatchers != other.matchingSubMatchers) {
+                return matchingSubMatchers < other.matchingSubMatchers ? -1 : 1;
+            }
+            return LOG_ORDER.compare(this, other);
+        }
+    }
 }
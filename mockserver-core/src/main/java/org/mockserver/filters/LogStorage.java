@@ -0,0 +1,587 @@
+package org.mockserver.filters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.mockserver.client.serialization.ObjectMapperFactory;
+import org.mockserver.client.serialization.model.HttpRequestDTO;
+import org.mockserver.client.serialization.model.HttpResponseDTO;
+import org.mockserver.collections.Interner;
+import org.mockserver.collections.SegmentedRecordStore;
+import org.mockserver.model.Body;
+import org.mockserver.model.Cookie;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.mockserver.model.NameValuePairs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Creates the entries held in the request log, either keeping the logged requests and responses on the java heap or
+ * serializing them into a SegmentedRecordStore so only the location of each record is kept on the heap and a request
+ * or response is deserialized each time it is read
+ *
+ * When interning content that is logged many times is only kept once and shared by every entry that logged it, heap
+ * storage shares equal bodies and equal sets of headers and serialized storage shares equal records, each shared
+ * value is addressed by a hash of its content, compared in full before it is shared, and released once the last
+ * entry that logged it has left the request log, so the memory used grows with the number of distinct bodies and
+ * headers, such as those of the canned response of an expectation, and not with the number of requests received
+ *
+ * When a compression threshold is set requests and responses with a body larger than the threshold are serialized
+ * and compressed, see PayloadCompression, when they are logged and only decompressed each time they are read, heap
+ * storage does not compress the requests and responses it interns as each is already only kept once
+ *
+ * @author jamesdbloom
+ */
+abstract class LogStorage {
+
+    private static final HashFunction CONTENT_HASH = Hashing.murmur3_128();
+    static final String HEAP = "heap";
+    static final String OFF_HEAP = "offHeap";
+    static final String MEMORY_MAPPED = "memoryMapped";
+
+    /**
+     * @param type      one of heap, offHeap or memoryMapped
+     * @param directory the directory for memory mapped segment files, not used by the other types
+     */
+    static LogStorage create(String type, String directory) {
+        return create(type, directory, false, 0);
+    }
+
+    /**
+     * @param type                 one of heap, offHeap or memoryMapped
+     * @param directory            the directory for memory mapped segment files, not used by the other types
+     * @param interning            true to keep content logged many times only once
+     * @param compressionThreshold the body size in bytes above which requests and responses are compressed, zero or
+     *                             less to not compress
+     */
+    static LogStorage create(String type, String directory, boolean interning, int compressionThreshold) {
+        if (OFF_HEAP.equalsIgnoreCase(type)) {
+            return new Serialized(SegmentedRecordStore.offHeap(SegmentedRecordStore.DEFAULT_SEGMENT_SIZE), interning, compressionThreshold);
+        } else if (MEMORY_MAPPED.equalsIgnoreCase(type)) {
+            return new Serialized(SegmentedRecordStore.memoryMapped(new File(directory), SegmentedRecordStore.DEFAULT_SEGMENT_SIZE), interning, compressionThreshold);
+        } else if (type == null || HEAP.equalsIgnoreCase(type)) {
+            return new Heap(interning, compressionThreshold);
+        } else {
+            throw new IllegalArgumentException("Unknown request log storage [" + type + "] expected one of " + HEAP + ", " + OFF_HEAP + " or " + MEMORY_MAPPED);
+        }
+    }
+
+    /**
+     * @param httpRequest  the request to log, received now
+     * @param httpResponse the response returned for the request, or null to only log the request
+     * @param measure      true if the size of the entry is needed to limit the request log by size
+     */
+    LoggedExchange store(HttpRequest httpRequest, HttpResponse httpResponse, boolean measure) {
+        return store(httpRequest, httpResponse, System.currentTimeMillis(), measure);
+    }
+
+    /**
+     * @param receivedAt the time in milliseconds the request was received, earlier than now for a replayed request
+     */
+    abstract LoggedExchange store(HttpRequest httpRequest, HttpResponse httpResponse, long receivedAt, boolean measure);
+
+    /**
+     * @return the number of distinct values shared by the entries in the request log, zero when not interning
+     */
+    int interned() {
+        return 0;
+    }
+
+    abstract CompressionStatistics compressionStatistics();
+
+    static int bodyLength(HttpRequest httpRequest) {
+        return httpRequest != null ? httpRequest.getBodyAsRawBytes().length : 0;
+    }
+
+    static int bodyLength(HttpResponse httpResponse) {
+        return httpResponse.getBody() != null && httpResponse.getBody().getRawBytes() != null ? httpResponse.getBody().getRawBytes().length : 0;
+    }
+
+    static class Heap extends LogStorage {
+
+        // the heap retained by an entry that shares a body or headers already logged
+        private static final long SHARED_OVERHEAD = 16;
+        // the heap retained by a compressed request or response in addition to its compressed bytes
+        private static final long COMPRESSED_OVERHEAD = 32;
+        // null when not interning, bodies and headers are shared by requests and responses
+        private final Sharing<Body> bodies;
+        private final Sharing<NameValuePairs> headers;
+
+        private final PayloadCompression compression;
+        private final ObjectMapper objectMapper = ObjectMapperFactory.createObjectMapper();
+
+        Heap() {
+            this(false, 0);
+        }
+
+        Heap(boolean interning, int compressionThreshold) {
+            this.bodies = interning ? new Sharing<Body>() {
+                HashCode contentHash(Body body) {
+                    return CONTENT_HASH.newHasher().putInt(body.getType().ordinal()).putBytes(body.getRawBytes()).hash();
+                }
+            } : null;
+            this.headers = interning ? new Sharing<NameValuePairs>() {
+                HashCode contentHash(NameValuePairs headers) {
+                    return Heap.contentHash(headers);
+                }
+            } : null;
+            this.compression = new PayloadCompression(interning ? 0 : compressionThreshold);
+        }
+
+        @Override
+        LoggedExchange store(HttpRequest httpRequest, HttpResponse httpResponse, long receivedAt, boolean measure) {
+            boolean compressRequest = compression.shouldCompress(bodyLength(httpRequest));
+            boolean compressResponse = httpResponse != null && compression.shouldCompress(bodyLength(httpResponse));
+            if (compressRequest || compressResponse) {
+                return compressed(httpRequest, compressRequest, httpResponse, compressResponse, receivedAt, measure);
+            }
+            if (bodies == null) {
+                long size = 0;
+                if (measure) {
+                    size = estimatedSize(httpRequest) + (httpResponse != null ? estimatedSize(httpResponse) : 0);
+                }
+                return new HeapLoggedExchange(httpRequest, httpResponse, receivedAt, size);
+            }
+            // the content hashes are computed, and shared values compared, by the thread logging the exchange so
+            // interning only ever waits on the map entry for one hash
+            NameValuePairs requestHeaderPairs = httpRequest.getHeadersAsNameValuePairs();
+            Shared<NameValuePairs> sharedRequestHeaders = headers.share(requestHeaderPairs.size() > 0 ? requestHeaderPairs : null);
+            Shared<Body> sharedRequestBody = bodies.share(shareable(httpRequest.getBody()));
+            long size = 0;
+            if (measure) {
+                size = estimatedSize(httpRequest) - saved(sharedRequestHeaders, estimatedSize(requestHeaderPairs)) - saved(sharedRequestBody, 2 * (long) bodyLength(httpRequest));
+            }
+            HttpRequest sharingHttpRequest = httpRequest.copySharing(sharedRequestHeaders != null ? sharedRequestHeaders.value : null, sharedRequestBody != null ? sharedRequestBody.value : httpRequest.getBody());
+            Shared<NameValuePairs> sharedResponseHeaders = null;
+            Shared<Body> sharedResponseBody = null;
+            HttpResponse sharingHttpResponse = null;
+            if (httpResponse != null) {
+                NameValuePairs responseHeaderPairs = httpResponse.getHeadersAsNameValuePairs();
+                sharedResponseHeaders = headers.share(responseHeaderPairs.size() > 0 ? responseHeaderPairs : null);
+                sharedResponseBody = bodies.share(shareable(httpResponse.getBody()));
+                if (measure) {
+                    size += estimatedSize(httpResponse) - saved(sharedResponseHeaders, estimatedSize(responseHeaderPairs)) - saved(sharedResponseBody, 2 * (long) bodyLength(httpResponse));
+                }
+                sharingHttpResponse = httpResponse.copySharing(sharedResponseHeaders != null ? sharedResponseHeaders.value : null, sharedResponseBody != null ? sharedResponseBody.value : httpResponse.getBody());
+            }
+            return new InternedLoggedExchange(sharingHttpRequest, sharedRequestHeaders, sharedRequestBody, sharingHttpResponse, sharedResponseHeaders, sharedResponseBody, receivedAt, size);
+        }
+
+        /**
+         * @return the body if it has content that can be shared, otherwise null
+         */
+        private static Body shareable(Body body) {
+            return body != null && body.getRawBytes() != null && body.getRawBytes().length > 0 ? body : null;
+        }
+
+        /**
+         * @return the heap not retained by the entry because the value was already held by another entry
+         */
+        private static long saved(Shared<?> shared, long size) {
+            return shared != null && !shared.first ? size - SHARED_OVERHEAD : 0;
+        }
+
+        private static HashCode contentHash(NameValuePairs headers) {
+            Hasher hasher = CONTENT_HASH.newHasher();
+            for (int i = 0; i < headers.size(); i++) {
+                putString(hasher, headers.getName(i));
+                putString(hasher, headers.getValue(i));
+            }
+            return hasher.hash();
+        }
+
+        private static void putString(Hasher hasher, String value) {
+            if (value == null) {
+                hasher.putInt(-1);
+            } else {
+                // the length separates one string from the next
+                hasher.putInt(value.length()).putUnencodedChars(value);
+            }
+        }
+
+        private LoggedExchange compressed(HttpRequest httpRequest, boolean compressRequest, HttpResponse httpResponse, boolean compressResponse, long receivedAt, boolean measure) {
+            try {
+                byte[] compressedRequest = compressRequest ? compression.compress(objectMapper.writeValueAsBytes(new HttpRequestDTO(httpRequest))) : null;
+                byte[] compressedResponse = compressResponse ? compression.compress(objectMapper.writeValueAsBytes(new HttpResponseDTO(httpResponse))) : null;
+                long size = 0;
+                if (measure) {
+                    size = compressRequest ? COMPRESSED_OVERHEAD + compressedRequest.length : estimatedSize(httpRequest);
+                    if (httpResponse != null) {
+                        size += compressResponse ? COMPRESSED_OVERHEAD + compressedResponse.length : estimatedSize(httpResponse);
+                    }
+                }
+                return new CompressedLoggedExchange(httpRequest, compressRequest ? null : httpRequest, compressedRequest, compressResponse ? null : httpResponse, compressedResponse, receivedAt, size);
+            } catch (IOException ioe) {
+                throw new RuntimeException("Exception while serializing " + httpRequest + " for request log", ioe);
+            }
+        }
+
+        @Override
+        int interned() {
+            return bodies != null ? bodies.size() + headers.size() : 0;
+        }
+
+        @Override
+        CompressionStatistics compressionStatistics() {
+            return compression.statistics();
+        }
+
+        /**
+         * @return a rough estimate of the heap retained by a logged request
+         */
+        static long estimatedSize(HttpRequest httpRequest) {
+            long size = 128 + estimatedSize(httpRequest.getMethod()) + estimatedSize(httpRequest.getPath());
+            size += estimatedSize(httpRequest.getQueryStringParametersAsNameValuePairs());
+            size += estimatedSize(httpRequest.getHeadersAsNameValuePairs());
+            size += estimatedSize(httpRequest.getCookiesAsNameValuePairs());
+            return size + 2 * (long) httpRequest.getBodyAsRawBytes().length;
+        }
+
+        private static long estimatedSize(HttpResponse httpResponse) {
+            long size = 96 + estimatedSize(httpResponse.getHeadersAsNameValuePairs());
+            for (Cookie cookie : httpResponse.getCookies()) {
+                size += 32 + estimatedSize(cookie.getName()) + estimatedSize(cookie.getValue());
+            }
+            return size + (httpResponse.getBody() != null && httpResponse.getBody().getRawBytes() != null ? 2 * (long) httpResponse.getBody().getRawBytes().length : 0);
+        }
+
+        private static long estimatedSize(NameValuePairs nameValuePairs) {
+            long size = 0;
+            for (int i = 0; i < nameValuePairs.size(); i++) {
+                size += 48 + estimatedSize(nameValuePairs.getName(i)) + estimatedSize(nameValuePairs.getValue(i));
+            }
+            return size;
+        }
+
+        private static long estimatedSize(String value) {
+            return value != null ? 40 + 2 * value.length() : 0;
+        }
+
+        /**
+         * holds the request, and response, either as it was logged or compressed if its body was larger than the
+         * threshold
+         */
+        private class CompressedLoggedExchange extends LoggedExchange {
+            private final HttpRequest httpRequest;
+            private final byte[] compressedRequest;
+            private final HttpResponse httpResponse;
+            private final byte[] compressedResponse;
+            private final long size;
+
+            CompressedLoggedExchange(HttpRequest loggedHttpRequest, HttpRequest httpRequest, byte[] compressedRequest, HttpResponse httpResponse, byte[] compressedResponse, long receivedAt, long size) {
+                super(loggedHttpRequest, receivedAt);
+                this.httpRequest = httpRequest;
+                this.compressedRequest = compressedRequest;
+                this.httpResponse = httpResponse;
+                this.compressedResponse = compressedResponse;
+                this.size = size;
+            }
+
+            @Override
+            HttpRequest httpRequest() {
+                if (compressedRequest == null) {
+                    return httpRequest;
+                }
+                try {
+                    return objectMapper.readValue(compression.decompress(compressedRequest), HttpRequestDTO.class).buildObject();
+                } catch (IOException ioe) {
+                    throw new RuntimeException("Exception while deserializing request from request log", ioe);
+                }
+            }
+
+            @Override
+            HttpResponse httpResponse() {
+                if (compressedResponse == null) {
+                    return httpResponse;
+                }
+                try {
+                    return objectMapper.readValue(compression.decompress(compressedResponse), HttpResponseDTO.class).buildObject();
+                } catch (IOException ioe) {
+                    throw new RuntimeException("Exception while deserializing response from request log", ioe);
+                }
+            }
+
+            @Override
+            long size() {
+                return size;
+            }
+        }
+
+        /**
+         * holds a copy of the request, and response, that shares the bodies and headers already held by other entries
+         */
+        private class InternedLoggedExchange extends HeapLoggedExchange {
+            // each null when that part is not shared
+            private final Shared<NameValuePairs> requestHeaders;
+            private final Shared<Body> requestBody;
+            private final Shared<NameValuePairs> responseHeaders;
+            private final Shared<Body> responseBody;
+
+            InternedLoggedExchange(HttpRequest httpRequest, Shared<NameValuePairs> requestHeaders, Shared<Body> requestBody, HttpResponse httpResponse, Shared<NameValuePairs> responseHeaders, Shared<Body> responseBody, long receivedAt, long size) {
+                super(httpRequest, httpResponse, receivedAt, size);
+                this.requestHeaders = requestHeaders;
+                this.requestBody = requestBody;
+                this.responseHeaders = responseHeaders;
+                this.responseBody = responseBody;
+            }
+
+            @Override
+            void release() {
+                headers.release(requestHeaders);
+                bodies.release(requestBody);
+                headers.release(responseHeaders);
+                bodies.release(responseBody);
+            }
+        }
+
+        /**
+         * Shares one value for each distinct content, addressed by a hash of the content and compared in full before it
+         * is shared so content with the same hash is never confused, only immutable values are shared so no entry can
+         * change what another entry holds
+         *
+         * @param <V> the value logged
+         */
+        private abstract static class Sharing<V> {
+            private final Interner<HashCode, V> interner = new Interner<HashCode, V>();
+
+            abstract HashCode contentHash(V value);
+
+            /**
+             * @return the value held with the same content with one more reference to it, or null if the value is null
+             */
+            Shared<V> share(V value) {
+                if (value == null) {
+                    return null;
+                }
+                HashCode contentHash = contentHash(value);
+                V held = interner.acquire(contentHash);
+                if (held == null) {
+                    held = interner.intern(contentHash, value);
+                    if (held == value) {
+                        return new Shared<V>(value, contentHash, true);
+                    }
+                }
+                if (held.equals(value)) {
+                    return new Shared<V>(held, contentHash, false);
+                }
+                // different content with the same hash is kept by the entry without sharing it
+                interner.release(contentHash);
+                return new Shared<V>(value, null, true);
+            }
+
+            void release(Shared<V> shared) {
+                if (shared != null && shared.contentHash != null) {
+                    interner.release(shared.contentHash);
+                }
+            }
+
+            int size() {
+                return interner.size();
+            }
+        }
+
+        private static class Shared<V> {
+            private final V value;
+            // null when the value is not shared
+            private final HashCode contentHash;
+            // true if the entry holding this is the first to hold the value
+            private final boolean first;
+
+            Shared(V value, HashCode contentHash, boolean first) {
+                this.value = value;
+                this.contentHash = contentHash;
+                this.first = first;
+            }
+        }
+    }
+
+    static class Serialized extends LogStorage {
+
+        // the heap retained by the location of each record
+        private static final long RECORD_OVERHEAD = 64;
+        private final ObjectMapper objectMapper = ObjectMapperFactory.createObjectMapper();
+        private final SegmentedRecordStore recordStore;
+        // null when not interning
+        private final Interner<HashCode, SegmentedRecordStore.Record> interner;
+        private final PayloadCompression compression;
+
+        Serialized(SegmentedRecordStore recordStore) {
+            this(recordStore, false, 0);
+        }
+
+        Serialized(SegmentedRecordStore recordStore, boolean interning, int compressionThreshold) {
+            this.recordStore = recordStore;
+            this.interner = interning ? new Interner<HashCode, SegmentedRecordStore.Record>() : null;
+            this.compression = new PayloadCompression(compressionThreshold);
+        }
+
+        SegmentedRecordStore recordStore() {
+            return recordStore;
+        }
+
+        @Override
+        LoggedExchange store(HttpRequest httpRequest, HttpResponse httpResponse, long receivedAt, boolean measure) {
+            try {
+                // the request and response are separate records so a request can be matched without reading its response
+                StoredRecord request = write(objectMapper.writeValueAsBytes(new HttpRequestDTO(httpRequest)), compression.shouldCompress(bodyLength(httpRequest)));
+                StoredRecord response = null;
+                if (httpResponse != null) {
+                    response = write(objectMapper.writeValueAsBytes(new HttpResponseDTO(httpResponse)), compression.shouldCompress(bodyLength(httpResponse)));
+                }
+                return new SerializedLoggedExchange(httpRequest, receivedAt, request, response);
+            } catch (IOException ioe) {
+                throw new RuntimeException("Exception while serializing " + httpRequest + " for request log", ioe);
+            }
+        }
+
+        /**
+         * @param compress true to compress the bytes before they are written, a record is only shared with records
+         *                 that were also compressed as the same content is always compressed the same way
+         */
+        private StoredRecord write(byte[] bytes, boolean compress) {
+            if (compress) {
+                bytes = compression.compress(bytes);
+            }
+            if (interner == null) {
+                return new StoredRecord(recordStore.write(bytes), null, true, compress);
+            }
+            HashCode contentHash = CONTENT_HASH.hashBytes(bytes);
+            SegmentedRecordStore.Record record = interner.acquire(contentHash);
+            if (record == null) {
+                SegmentedRecordStore.Record written = recordStore.write(bytes);
+                record = interner.intern(contentHash, written);
+                if (record == written) {
+                    return new StoredRecord(written, contentHash, true, compress);
+                }
+                // the same content was interned by another thread while this copy was written
+                written.free();
+            }
+            if (record.length() == bytes.length && Arrays.equals(record.read(), bytes)) {
+                return new StoredRecord(record, contentHash, false, compress);
+            }
+            // different content with the same hash is stored, and released, without interning
+            interner.release(contentHash);
+            return new StoredRecord(recordStore.write(bytes), null, true, compress);
+        }
+
+        @Override
+        int interned() {
+            return interner != null ? interner.size() : 0;
+        }
+
+        @Override
+        CompressionStatistics compressionStatistics() {
+            return compression.statistics();
+        }
+
+        private class StoredRecord {
+            private final SegmentedRecordStore.Record record;
+            // null when the record is not interned
+            private final HashCode contentHash;
+            private final boolean written;
+            private final boolean compressed;
+
+            StoredRecord(SegmentedRecordStore.Record record, HashCode contentHash, boolean written, boolean compressed) {
+                this.record = record;
+                this.contentHash = contentHash;
+                this.written = written;
+                this.compressed = compressed;
+            }
+
+            byte[] read() {
+                return compressed ? compression.decompress(record.read()) : record.read();
+            }
+
+            /**
+             * @return the bytes charged to the entry, a record already written by another entry is only charged once
+             */
+            long length() {
+                return RECORD_OVERHEAD + (written ? record.length() : 0);
+            }
+
+            void free() {
+                if (contentHash == null || interner.release(contentHash)) {
+                    record.free();
+                }
+            }
+        }
+
+        private class SerializedLoggedExchange extends LoggedExchange {
+            private final StoredRecord request;
+            private final StoredRecord response;
+
+            SerializedLoggedExchange(HttpRequest httpRequest, long receivedAt, StoredRecord request, StoredRecord response) {
+                super(httpRequest, receivedAt);
+                this.request = request;
+                this.response = response;
+            }
+
+            @Override
+            HttpRequest httpRequest() {
+                try {
+                    return objectMapper.readValue(request.read(), HttpRequestDTO.class).buildObject();
+                } catch (IOException ioe) {
+                    throw new RuntimeException("Exception while deserializing request from request log", ioe);
+                }
+            }
+
+            @Override
+            HttpResponse httpResponse() {
+                if (response == null) {
+                    return null;
+                }
+                try {
+                    return objectMapper.readValue(response.read(), HttpResponseDTO.class).buildObject();
+                } catch (IOException ioe) {
+                    throw new RuntimeException("Exception while deserializing response from request log", ioe);
+                }
+            }
+
+            @Override
+            long size() {
+                return request.length() + (response != null ? response.length() : 0);
+            }
+
+            @Override
+            void release() {
+                request.free();
+                if (response != null) {
+                    response.free();
+                }
+            }
+        }
+    }
+
+    private static class HeapLoggedExchange extends LoggedExchange {
+        private final HttpRequest httpRequest;
+        private final HttpResponse httpResponse;
+        private final long size;
+
+        HeapLoggedExchange(HttpRequest httpRequest, HttpResponse httpResponse, long receivedAt, long size) {
+            super(httpRequest, receivedAt);
+            this.httpRequest = httpRequest;
+            this.httpResponse = httpResponse;
+            this.size = size;
+        }
+
+        @Override
+        HttpRequest httpRequest() {
+            return httpRequest;
+        }
+
+        @Override
+        HttpResponse httpResponse() {
+            return httpResponse;
+        }
+
+        @Override
+        long size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.mockserver.filters;
+
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+
+/**
+ * A request, and the response returned for it if any, held in the request log
+ *
+ * @author jamesdbloom
+ */
+abstract class LoggedExchange {
+
+    // kept on the heap so the request log can be indexed without reading the request
+    final String method;
+    final String path;
+    final long receivedAt;
+    // assigned when the exchange is added to the RequestLogIndex
+    long sequence;
+
+    LoggedExchange(HttpRequest httpRequest, long receivedAt) {
+        this.method = httpRequest != null ? httpRequest.getMethod() : null;
+        this.path = httpRequest != null ? httpRequest.getPath() : null;
+        this.receivedAt = receivedAt;
+    }
+
+    abstract HttpRequest httpRequest();
+
+    /**
+     * @return the response returned for the request, or null when only the request was logged
+     */
+    abstract HttpResponse httpResponse();
+
+    /**
+     * @return the size in bytes used to limit the request log by size
+     */
+    abstract long size();
+
+    /**
+     * releases any storage held outside the java heap, called once the exchange has left the request log
+     */
+    void release() {
+    }
+}
@@ -0,0 +1,93 @@
+package org.mockserver.filters;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses logged requests and responses with bodies larger than a threshold using deflate at its fastest level,
+ * and counts how many payloads were compressed, the bytes saved and how often compressed payloads were read
+ *
+ * Each compressed payload is the length of the uncompressed payload followed by the raw deflate stream
+ *
+ * @author jamesdbloom
+ */
+class PayloadCompression {
+
+    private final int threshold;
+    private final AtomicLong payloads = new AtomicLong();
+    private final AtomicLong compressedPayloads = new AtomicLong();
+    private final AtomicLong uncompressedBytes = new AtomicLong();
+    private final AtomicLong compressedBytes = new AtomicLong();
+    private final AtomicLong decompressions = new AtomicLong();
+
+    /**
+     * @param threshold the body size in bytes above which payloads are compressed, zero or less to never compress
+     */
+    PayloadCompression(int threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * counts every payload and decides if it is compressed
+     *
+     * @param bodyLength the length in bytes of the body of the payload
+     */
+    boolean shouldCompress(int bodyLength) {
+        if (threshold <= 0) {
+            return false;
+        }
+        payloads.incrementAndGet();
+        return bodyLength > threshold;
+    }
+
+    byte[] compress(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 16);
+            compressed.write(ByteBuffer.allocate(4).putInt(bytes.length).array(), 0, 4);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(buffer, 0, deflater.deflate(buffer));
+            }
+            byte[] compressedBytes = compressed.toByteArray();
+            compressedPayloads.incrementAndGet();
+            uncompressedBytes.addAndGet(bytes.length);
+            this.compressedBytes.addAndGet(compressedBytes.length);
+            return compressedBytes;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    byte[] decompress(byte[] compressed) {
+        Inflater inflater = new Inflater(true);
+        try {
+            byte[] bytes = new byte[ByteBuffer.wrap(compressed, 0, 4).getInt()];
+            inflater.setInput(compressed, 4, compressed.length - 4);
+            int inflated = 0;
+            while (inflated < bytes.length) {
+                int count = inflater.inflate(bytes, inflated, bytes.length - inflated);
+                if (count == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IllegalStateException("Compressed payload in request log is truncated");
+                }
+                inflated += count;
+            }
+            decompressions.incrementAndGet();
+            return bytes;
+        } catch (DataFormatException dfe) {
+            throw new IllegalStateException("Compressed payload in request log is corrupt", dfe);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    CompressionStatistics statistics() {
+        return new CompressionStatistics(threshold, payloads.get(), compressedPayloads.get(), uncompressedBytes.get(), compressedBytes.get(), decompressions.get());
+    }
+}
@@ -0,0 +1,255 @@
+package org.mockserver.filters;
+
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records requests, and responses, into the request log either on the thread that received them or, asynchronously,
+ * by queueing them for a recorder thread so the thread writing the response only waits to add to a queue
+ *
+ * The mockserver.requestLogAsync, mockserver.requestLogQueueSize and mockserver.requestLogOverflow system properties
+ * choose between them, every query of the request log first calls awaitRecorded so it sees every request already
+ * answered
+ *
+ * @author jamesdbloom
+ */
+abstract class Recorder {
+
+    static final String BLOCK = "block";
+    static final String DROP = "drop";
+    static final String SAMPLE = "sample";
+
+    /**
+     * @param async      true to record on a recorder thread
+     * @param queueSize  the maximum number of exchanges waiting to be recorded
+     * @param overflow   what to do when the queue is full, block waits for space, drop does not record the exchange
+     *                   and sample only waits for space for one in every sampleRate exchanges and drops the others
+     * @param sampleRate the one in every sampleRate exchanges recorded when the queue is full and overflow is sample
+     * @param target     records each exchange into the request log
+     */
+    static Recorder create(boolean async, int queueSize, String overflow, int sampleRate, Target target) {
+        if (!async) {
+            return new Synchronous(target);
+        }
+        if (!BLOCK.equalsIgnoreCase(overflow) && !DROP.equalsIgnoreCase(overflow) && !SAMPLE.equalsIgnoreCase(overflow)) {
+            throw new IllegalArgumentException("Unknown request log overflow [" + overflow + "] expected one of " + BLOCK + ", " + DROP + " or " + SAMPLE);
+        }
+        return new Asynchronous(queueSize, overflow.toLowerCase(), sampleRate, target);
+    }
+
+    /**
+     * @param httpResponse the response returned for the request, or null to only record the request
+     */
+    abstract void record(HttpRequest httpRequest, HttpResponse httpResponse, long receivedAt);
+
+    /**
+     * waits until every exchange passed to record before this was called has been recorded, or dropped
+     */
+    void awaitRecorded() {
+    }
+
+    /**
+     * @return the number of exchanges not recorded because the queue was full
+     */
+    long droppedExchanges() {
+        return 0;
+    }
+
+    /**
+     * records every queued exchange and stops recording asynchronously, exchanges recorded after close are recorded
+     * on the calling thread
+     */
+    void close() {
+    }
+
+    interface Target {
+        /**
+         * @param httpResponse the response returned for the request, or null to only record the request
+         */
+        void record(HttpRequest httpRequest, HttpResponse httpResponse, long receivedAt);
+    }
+
+    static class Synchronous extends Recorder {
+        private final Target target;
+
+        Synchronous(Target target) {
+            this.target = target;
+        }
+
+        @Override
+        void record(HttpRequest httpRequest, HttpResponse httpResponse, long receivedAt) {
+            target.record(httpRequest, httpResponse, receivedAt);
+        }
+    }
+
+    /**
+     * Producers add to a LinkedBlockingQueue, which has separate locks for adding and taking, so threads recording
+     * only contend with each other for the time taken to link a node and never with the recorder thread
+     *
+     * Each exchange is counted when it is about to be queued and again once it has been recorded or dropped, so
+     * awaitRecorded only has to wait for the second count to reach the first, an exchange that is counted but not yet
+     * queued is waited for because it may be queued ahead of exchanges already counted
+     */
+    static class Asynchronous extends Recorder {
+
+        private static final Logger logger = LoggerFactory.getLogger(Asynchronous.class);
+        // how long awaitRecorded waits before checking again, in case a notification was missed
+        private static final long AWAIT_INTERVAL_MILLIS = 10;
+        private final BlockingQueue<QueuedExchange> queue;
+        private final String overflow;
+        private final int sampleRate;
+        private final Target target;
+        private final AtomicLong queued = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong overflowed = new AtomicLong();
+        private final AtomicLong droppedExchanges = new AtomicLong();
+        private final Object recordedMonitor = new Object();
+        private final Thread recorder;
+        private volatile int waiting;
+        private volatile boolean closed;
+
+        Asynchronous(int queueSize, String overflow, int sampleRate, Target target) {
+            if (queueSize < 1) {
+                throw new IllegalArgumentException("Request log queue size must be greater than zero");
+            }
+            this.queue = new LinkedBlockingQueue<QueuedExchange>(queueSize);
+            this.overflow = overflow;
+            this.sampleRate = Math.max(sampleRate, 1);
+            this.target = target;
+            this.recorder = new Thread(new Runnable() {
+                public void run() {
+                    recordQueued();
+                }
+            }, "MockServer-Recorder");
+            this.recorder.setDaemon(true);
+            this.recorder.start();
+        }
+
+        @Override
+        void record(HttpRequest httpRequest, HttpResponse httpResponse, long receivedAt) {
+            if (closed) {
+                target.record(httpRequest, httpResponse, receivedAt);
+                return;
+            }
+            QueuedExchange queuedExchange = new QueuedExchange(httpRequest, httpResponse, receivedAt);
+            queued.incrementAndGet();
+            if (!queue.offer(queuedExchange)) {
+                boolean wait = overflow.equals(BLOCK) || (overflow.equals(SAMPLE) && overflowed.incrementAndGet() % sampleRate == 0);
+                if (!wait || !put(queuedExchange)) {
+                    if (droppedExchanges.getAndIncrement() == 0) {
+                        logger.warn("Request log queue is full, requests are being dropped from the request log");
+                    }
+                    completed(1);
+                }
+            }
+        }
+
+        private boolean put(QueuedExchange queuedExchange) {
+            try {
+                queue.put(queuedExchange);
+                return true;
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private void recordQueued() {
+            List<QueuedExchange> batch = new ArrayList<QueuedExchange>();
+            while (true) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException ie) {
+                    // interrupted by close once the queue is empty
+                    return;
+                }
+                queue.drainTo(batch);
+                for (QueuedExchange queuedExchange : batch) {
+                    try {
+                        target.record(queuedExchange.httpRequest, queuedExchange.httpResponse, queuedExchange.receivedAt);
+                    } catch (RuntimeException re) {
+                        logger.error("Exception recording " + queuedExchange.httpRequest, re);
+                    }
+                }
+                completed(batch.size());
+                batch.clear();
+            }
+        }
+
+        private void completed(int count) {
+            completed.addAndGet(count);
+            if (waiting > 0) {
+                synchronized (recordedMonitor) {
+                    recordedMonitor.notifyAll();
+                }
+            }
+        }
+
+        @Override
+        void awaitRecorded() {
+            long target = queued.get();
+            if (completed.get() >= target) {
+                return;
+            }
+            synchronized (recordedMonitor) {
+                waiting++;
+                try {
+                    while (completed.get() < target && recorder.isAlive()) {
+                        recordedMonitor.wait(AWAIT_INTERVAL_MILLIS);
+                    }
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    waiting--;
+                }
+            }
+        }
+
+        @Override
+        long droppedExchanges() {
+            return droppedExchanges.get();
+        }
+
+        @Override
+        void close() {
+            if (!closed) {
+                closed = true;
+                awaitRecorded();
+                recorder.interrupt();
+                try {
+                    recorder.join();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+                // queued by a thread that had not yet seen closed
+                List<QueuedExchange> remaining = new ArrayList<QueuedExchange>();
+                queue.drainTo(remaining);
+                for (QueuedExchange queuedExchange : remaining) {
+                    target.record(queuedExchange.httpRequest, queuedExchange.httpResponse, queuedExchange.receivedAt);
+                }
+                completed(remaining.size());
+            }
+        }
+
+        private static class QueuedExchange {
+            private final HttpRequest httpRequest;
+            private final HttpResponse httpResponse;
+            private final long receivedAt;
+
+            QueuedExchange(HttpRequest httpRequest, HttpResponse httpResponse, long receivedAt) {
+                this.httpRequest = httpRequest;
+                this.httpResponse = httpResponse;
+                this.receivedAt = receivedAt;
+            }
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package org.mockserver.filters;
+
+import org.mockserver.matchers.HttpRequestMatcher;
+import org.mockserver.matchers.MatcherBuilder;
+import org.mockserver.model.HttpRequest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockserver.matchers.RegexStringMatcher.isLiteral;
+
+/**
+ * Counts recorded requests instead of keeping them, by shape, the method and path template of each request, and for
+ * each registered request, the request of an expectation, by the requests that expectation matched
+ *
+ * The path template replaces each path segment that looks like an id, a number, a UUID or a long hex string, with
+ * {id} so requests for different resources of the same kind share one count, a request with only a literal method
+ * and, or, a literal path without ids is counted by shape, counting a request with an empty method or path adds the
+ * counts of every method for the path, or of every shape, any other request can only be counted if it is the request
+ * of an expectation registered before the requests were matched
+ *
+ * Only the first MAX_PATHS distinct path templates get their own counts, requests with any other path are counted
+ * together by method so they are still included when every path is counted but a verification of one of those paths
+ * can not be answered
+ *
+ * @author jamesdbloom
+ */
+class RequestCounters {
+
+    static final int MAX_PATHS = 10000;
+    static final String ID = "{id}";
+    private final MatcherBuilder matcherBuilder = new MatcherBuilder();
+    private final int maxPaths;
+    // path template then method to the number of requests recorded with that path template and method
+    private final ConcurrentMap<String, ConcurrentMap<String, AtomicLong>> byShape = new ConcurrentHashMap<String, ConcurrentMap<String, AtomicLong>>();
+    private final AtomicInteger paths = new AtomicInteger();
+    // method to the number of requests recorded with a path beyond the first maxPaths
+    private final ConcurrentMap<String, AtomicLong> otherPaths = new ConcurrentHashMap<String, AtomicLong>();
+    // the request of an expectation to the number of requests that expectation matched
+    private final ConcurrentMap<HttpRequest, AtomicLong> byRequest = new ConcurrentHashMap<HttpRequest, AtomicLong>();
+    // never reset so a verification waiting for requests can tell that one was recorded
+    private final AtomicLong recorded = new AtomicLong();
+
+    RequestCounters() {
+        this(MAX_PATHS);
+    }
+
+    RequestCounters(int maxPaths) {
+        this.maxPaths = maxPaths;
+    }
+
+    static boolean isShape(HttpRequest httpRequest) {
+        return isLiteralOrEmpty(httpRequest.getMethod())
+                && isLiteralOrEmpty(httpRequest.getPath())
+                && httpRequest.getQueryStringParameters().isEmpty()
+                && httpRequest.getBody() == null
+                && httpRequest.getHeaders().isEmpty()
+                && httpRequest.getCookies().isEmpty();
+    }
+
+    private static boolean isLiteralOrEmpty(String value) {
+        return value == null || value.isEmpty() || isLiteral(value);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * @return the path with each segment that looks like an id replaced with {id}, or the path itself if it has none
+     */
+    static String pathTemplate(String path) {
+        StringBuilder template = null;
+        int start = 0;
+        while (start < path.length()) {
+            int end = path.indexOf('/', start);
+            if (end == -1) {
+                end = path.length();
+            }
+            if (isId(path, start, end)) {
+                if (template == null) {
+                    template = new StringBuilder(path.length()).append(path, 0, start);
+                }
+                template.append(ID);
+            } else if (template != null) {
+                template.append(path, start, end);
+            }
+            if (template != null && end < path.length()) {
+                template.append('/');
+            }
+            start = end + 1;
+        }
+        return template != null ? template.toString() : path;
+    }
+
+    /**
+     * @return true if the segment is a number, a UUID or a hex string of at least 16 characters with a digit
+     */
+    private static boolean isId(String path, int start, int end) {
+        int length = end - start;
+        if (length == 0) {
+            return false;
+        }
+        boolean digits = true;
+        boolean hex = true;
+        boolean anyDigit = false;
+        boolean uuid = length == 36;
+        for (int i = start; i < end; i++) {
+            char character = path.charAt(i);
+            boolean digit = character >= '0' && character <= '9';
+            boolean hexDigit = digit || (character >= 'a' && character <= 'f') || (character >= 'A' && character <= 'F');
+            int offset = i - start;
+            boolean dash = offset == 8 || offset == 13 || offset == 18 || offset == 23;
+            anyDigit |= digit;
+            digits &= digit;
+            hex &= hexDigit;
+            uuid &= dash ? character == '-' : hexDigit;
+        }
+        return digits || uuid || (hex && anyDigit && length >= 16);
+    }
+
+    /**
+     * counts the requests the expectation with httpRequest matches from now on, until it is cleared or the counters
+     * are reset
+     */
+    void register(HttpRequest httpRequest) {
+        if (httpRequest != null && !byRequest.containsKey(httpRequest)) {
+            byRequest.putIfAbsent(httpRequest, new AtomicLong());
+        }
+    }
+
+    /**
+     * counts a request matched by the expectation with httpRequest, if it was registered
+     */
+    void matched(HttpRequest httpRequest) {
+        AtomicLong counter = byRequest.get(httpRequest);
+        if (counter != null) {
+            counter.incrementAndGet();
+        }
+    }
+
+    void record(HttpRequest httpRequest) {
+        String path = pathTemplate(nullToEmpty(httpRequest.getPath()));
+        ConcurrentMap<String, AtomicLong> byMethod = byShape.get(path);
+        if (byMethod == null) {
+            byMethod = pathAdded(path);
+        }
+        String method = nullToEmpty(httpRequest.getMethod());
+        AtomicLong counter = byMethod.get(method);
+        if (counter == null) {
+            byMethod.putIfAbsent(method, new AtomicLong());
+            counter = byMethod.get(method);
+        }
+        counter.incrementAndGet();
+        recorded.incrementAndGet();
+    }
+
+    /**
+     * @return the counts by method for the path, or those of every path beyond the first maxPaths once that many
+     * paths have been counted
+     */
+    private ConcurrentMap<String, AtomicLong> pathAdded(String path) {
+        while (true) {
+            int count = paths.get();
+            if (count >= maxPaths) {
+                ConcurrentMap<String, AtomicLong> byMethod = byShape.get(path);
+                return byMethod != null ? byMethod : otherPaths;
+            } else if (paths.compareAndSet(count, count + 1)) {
+                ConcurrentMap<String, AtomicLong> byMethod = byShape.putIfAbsent(path, new ConcurrentHashMap<String, AtomicLong>());
+                if (byMethod != null) {
+                    // another thread added the path first
+                    paths.decrementAndGet();
+                    return byMethod;
+                }
+                return byShape.get(path);
+            }
+        }
+    }
+
+    /**
+     * @return the number of requests recorded
+     */
+    long recorded() {
+        return recorded.get();
+    }
+
+    /**
+     * @return the number of recorded requests that match httpRequest, or the number matched by the expectation with
+     * httpRequest if it was registered, or -1 if they are not counted
+     */
+    long count(HttpRequest httpRequest) {
+        AtomicLong registeredCounter = byRequest.get(httpRequest);
+        if (registeredCounter != null) {
+            return registeredCounter.get();
+        }
+        if (!isShape(httpRequest)) {
+            return -1;
+        }
+        String method = nullToEmpty(httpRequest.getMethod());
+        String path = nullToEmpty(httpRequest.getPath());
+        if (!path.equals(pathTemplate(path))) {
+            // only counted together with the other paths with the same template
+            return -1;
+        }
+        if (!path.isEmpty()) {
+            ConcurrentMap<String, AtomicLong> byMethod = byShape.get(path);
+            if (byMethod == null && paths.get() >= maxPaths) {
+                // the path may have been counted with the other paths
+                return -1;
+            }
+            return count(byMethod, method);
+        }
+        long count = count(otherPaths, method);
+        for (ConcurrentMap<String, AtomicLong> byMethod : byShape.values()) {
+            count += count(byMethod, method);
+        }
+        return count;
+    }
+
+    private static long count(ConcurrentMap<String, AtomicLong> byMethod, String method) {
+        if (byMethod == null) {
+            return 0;
+        }
+        if (!method.isEmpty()) {
+            AtomicLong counter = byMethod.get(method);
+            return counter != null ? counter.get() : 0;
+        }
+        long count = 0;
+        for (AtomicLong counter : byMethod.values()) {
+            count += counter.get();
+        }
+        return count;
+    }
+
+    /**
+     * removes the counts of requests with the same method and path template, as only the shape of each request is kept
+     * requests that differ in other ways, or only in their ids, are also removed, and stops counting the registered
+     * requests httpRequest matches, as the expectations with those requests are cleared
+     */
+    void clear(HttpRequest httpRequest) {
+        HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
+        for (HttpRequest registered : byRequest.keySet()) {
+            if (registered.equals(httpRequest) || httpRequestMatcher.matches(registered)) {
+                byRequest.remove(registered);
+            }
+        }
+        String method = nullToEmpty(httpRequest.getMethod());
+        String path = nullToEmpty(httpRequest.getPath());
+        boolean allPaths = path.isEmpty() || !isLiteral(path);
+        String template = pathTemplate(path);
+        for (Map.Entry<String, ConcurrentMap<String, AtomicLong>> byMethod : byShape.entrySet()) {
+            if (allPaths || template.equals(byMethod.getKey())) {
+                clear(byMethod.getValue(), method);
+            }
+        }
+        if (allPaths || !byShape.containsKey(template)) {
+            // the other paths are only counted together so clearing any of them clears them all
+            clear(otherPaths, method);
+        }
+    }
+
+    private static void clear(ConcurrentMap<String, AtomicLong> byMethod, String method) {
+        if (method.isEmpty() || !isLiteral(method)) {
+            byMethod.clear();
+        } else {
+            byMethod.remove(method);
+        }
+    }
+
+    /**
+     * removes every count and stops counting registered requests
+     */
+    void reset() {
+        resetCounts();
+        byRequest.clear();
+    }
+
+    /**
+     * removes every count and keeps counting registered requests from zero
+     */
+    void resetCounts() {
+        byShape.clear();
+        paths.set(0);
+        otherPaths.clear();
+        for (AtomicLong registeredCounter : byRequest.values()) {
+            registeredCounter.set(0);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package org.mockserver.filters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Strings;
+import org.mockserver.client.serialization.ObjectMapperFactory;
+import org.mockserver.client.serialization.model.HttpRequestDTO;
+import org.mockserver.client.serialization.model.HttpResponseDTO;
+import org.mockserver.collections.Journal;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Appends the requests, and responses, recorded by a LogFilter to a Journal in mockserver.requestJournalDirectory so
+ * they outlive the process, the journal is not changed by reset or clear and with mockserver.requestJournalReplay
+ * the exchanges already journaled are recorded again when a LogFilter is created
+ *
+ * Exchanges are queued and serialized and written by a background thread so recording never waits for the disk, each
+ * time the queue is drained the journal is flushed so fsync is applied once per batch
+ *
+ * If the writer falls behind and the queue is full exchanges are dropped, and counted, rather than blocking the thread
+ * recording them
+ *
+ * Each record is a kind byte, the time the request was received, then the length and the JSON of the request and,
+ * for a request and response, the length and the JSON of the response
+ *
+ * @author jamesdbloom
+ */
+class RequestJournal {
+
+    static final int QUEUE_CAPACITY = 16384;
+    private static final Logger logger = LoggerFactory.getLogger(RequestJournal.class);
+    private static final byte REQUEST = 0;
+    private static final byte REQUEST_RESPONSE = 1;
+    // queued by close to stop the writer once every exchange before it has been written
+    private static final JournalEntry CLOSE = new JournalEntry(null, null, 0);
+    private final ObjectMapper objectMapper = ObjectMapperFactory.createObjectMapper();
+    private final BlockingQueue<JournalEntry> queue = new ArrayBlockingQueue<JournalEntry>(QUEUE_CAPACITY);
+    private final AtomicLong droppedExchanges = new AtomicLong();
+    private final Journal journal;
+    private final Thread writer;
+    private final Thread shutdownHook;
+    private volatile boolean closed;
+
+    RequestJournal(Journal journal) {
+        this.journal = journal;
+        this.writer = new Thread(new Writer(), "MockServer-RequestJournal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        // writes the exchanges still queued when the jvm exits
+        this.shutdownHook = new Thread(new Runnable() {
+            public void run() {
+                close();
+            }
+        }, "MockServer-RequestJournal-Shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * @param directory   the journal directory, null or empty to not journal
+     * @param segmentSize the size in bytes at which a new segment file is started
+     * @param maxSegments the number of segment files to retain, zero or less for no limit
+     * @param fsync       one of never, batch or always
+     * @return the journal, or null if there is no directory or the directory is already used by another journal
+     */
+    static RequestJournal create(String directory, long segmentSize, int maxSegments, String fsync) {
+        if (Strings.isNullOrEmpty(directory)) {
+            return null;
+        }
+        Journal.Fsync fsyncPolicy;
+        try {
+            fsyncPolicy = Journal.Fsync.valueOf(fsync.toUpperCase());
+        } catch (IllegalArgumentException iae) {
+            throw new IllegalArgumentException("Unknown request journal fsync [" + fsync + "] expected one of never, batch or always");
+        }
+        try {
+            return new RequestJournal(new Journal(new File(directory), segmentSize, maxSegments, fsyncPolicy));
+        } catch (IOException ioe) {
+            logger.warn("Requests will not be journaled, exception opening request journal in [" + directory + "]", ioe);
+            return null;
+        }
+    }
+
+    /**
+     * @return the number of exchanges not journaled because the queue was full
+     */
+    long droppedExchanges() {
+        return droppedExchanges.get();
+    }
+
+    /**
+     * @param httpResponse the response returned for the request, or null when only the request was recorded
+     */
+    void append(HttpRequest httpRequest, HttpResponse httpResponse, long receivedAt) {
+        if (!closed && !queue.offer(new JournalEntry(httpRequest, httpResponse, receivedAt))) {
+            if (droppedExchanges.getAndIncrement() == 0) {
+                logger.warn("Request journal queue is full, exchanges are being dropped from the journal");
+            }
+        }
+    }
+
+    /**
+     * reads every exchange journaled before this journal was opened, in the order they were recorded
+     */
+    void replay(final ReplayListener replayListener) throws IOException {
+        journal.replay(new Journal.RecordVisitor() {
+            public void visit(byte[] record) {
+                try {
+                    DataInputStream input = new DataInputStream(new ByteArrayInputStream(record));
+                    byte kind = input.readByte();
+                    long receivedAt = input.readLong();
+                    HttpRequest httpRequest = objectMapper.readValue(readBytes(input), HttpRequestDTO.class).buildObject();
+                    HttpResponse httpResponse = null;
+                    if (kind == REQUEST_RESPONSE) {
+                        httpResponse = objectMapper.readValue(readBytes(input), HttpResponseDTO.class).buildObject();
+                    }
+                    replayListener.replay(httpRequest, httpResponse, receivedAt);
+                } catch (IOException ioe) {
+                    logger.warn("Skipping request journal record that can not be deserialized", ioe);
+                }
+            }
+        });
+    }
+
+    private static byte[] readBytes(DataInputStream input) throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+    private byte[] serialize(JournalEntry journalEntry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeByte(journalEntry.httpResponse != null ? REQUEST_RESPONSE : REQUEST);
+        output.writeLong(journalEntry.receivedAt);
+        writeBytes(output, objectMapper.writeValueAsBytes(new HttpRequestDTO(journalEntry.httpRequest)));
+        if (journalEntry.httpResponse != null) {
+            writeBytes(output, objectMapper.writeValueAsBytes(new HttpResponseDTO(journalEntry.httpResponse)));
+        }
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeBytes(DataOutputStream output, byte[] bytes) throws IOException {
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * writes every queued exchange, closes the journal and releases its directory
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (writer.isAlive()) {
+                queue.put(CLOSE);
+                writer.join();
+            } else {
+                journal.close();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ioe) {
+            logger.warn("Exception closing request journal", ioe);
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException ise) {
+            // already shutting down, close was called by the shutdown hook
+        }
+    }
+
+    interface ReplayListener {
+        /**
+         * @param httpResponse the response returned for the request, or null when only the request was recorded
+         */
+        void replay(HttpRequest httpRequest, HttpResponse httpResponse, long receivedAt);
+    }
+
+    private static class JournalEntry {
+        private final HttpRequest httpRequest;
+        private final HttpResponse httpResponse;
+        private final long receivedAt;
+
+        JournalEntry(HttpRequest httpRequest, HttpResponse httpResponse, long receivedAt) {
+            this.httpRequest = httpRequest;
+            this.httpResponse = httpResponse;
+            this.receivedAt = receivedAt;
+        }
+    }
+
+    private class Writer implements Runnable {
+        public void run() {
+            List<JournalEntry> batch = new ArrayList<JournalEntry>();
+            try {
+                while (true) {
+                    batch.add(queue.take());
+                    queue.drainTo(batch);
+                    for (JournalEntry journalEntry : batch) {
+                        if (journalEntry == CLOSE) {
+                            journal.close();
+                            return;
+                        }
+                        byte[] record;
+                        try {
+                            record = serialize(journalEntry);
+                        } catch (IOException ioe) {
+                            logger.warn("Skipping " + journalEntry.httpRequest + " that can not be serialized for the request journal", ioe);
+                            continue;
+                        }
+                        journal.append(record);
+                    }
+                    batch.clear();
+                    journal.flush();
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            } catch (IOException ioe) {
+                closed = true;
+                logger.error("Exception writing request journal, no further requests will be journaled", ioe);
+                try {
+                    journal.close();
+                } catch (IOException closeException) {
+                    logger.warn("Exception closing request journal", closeException);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package org.mockserver.filters;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import org.mockserver.model.HttpRequest;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockserver.matchers.RegexStringMatcher.dottedMatches;
+import static org.mockserver.matchers.RegexStringMatcher.isDotted;
+import static org.mockserver.matchers.RegexStringMatcher.isLiteral;
+
+/**
+ * Index of the exchanges in the request log by method, by path and by when they were received, an exchange with an
+ * empty method or path, or one that contains regex characters other than '.', is held in a wildcard bucket for that
+ * dimension because as a regex it could match other values, a value whose only regex character is '.', such as
+ * /file.json, keeps its own bucket and is compared character by character with the values looked up
+ *
+ * Nothing is locked, each bucket counts the exchanges added to it and is only dropped from the index once that count
+ * reaches zero, an add that finds a dropped bucket creates a new one so no exchange is lost
+ *
+ * @author jamesdbloom
+ */
+class RequestLogIndex {
+
+    static final String WILDCARD = ".*";
+    private static final Comparator<LoggedExchange> SEQUENCE_ORDER = new Comparator<LoggedExchange>() {
+        public int compare(LoggedExchange first, LoggedExchange second) {
+            return first.sequence < second.sequence ? -1 : (first.sequence == second.sequence ? 0 : 1);
+        }
+    };
+    private final Dimension byMethod = new Dimension();
+    private final Dimension byPath = new Dimension();
+    private final ConcurrentSkipListMap<Long, LoggedExchange> bySequence = new ConcurrentSkipListMap<Long, LoggedExchange>();
+    private final ConcurrentSkipListMap<ReceivedAt, LoggedExchange> byReceivedAt = new ConcurrentSkipListMap<ReceivedAt, LoggedExchange>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong added = new AtomicLong();
+    // every exchange with a lower sequence is in the index
+    private final AtomicLong addedTo = new AtomicLong();
+
+    static String indexKey(String value) {
+        if (value == null || value.isEmpty() || !(isLiteral(value) || isDotted(value))) {
+            return WILDCARD;
+        } else {
+            return value;
+        }
+    }
+
+    /**
+     * @return true if an exchange with one index key could match a request with the other
+     */
+    static boolean couldMatch(String key, String otherKey) {
+        if (key.equals(WILDCARD) || otherKey.equals(WILDCARD) || key.equals(otherKey)) {
+            return true;
+        }
+        return (key.indexOf('.') != -1 || otherKey.indexOf('.') != -1) && dottedMatches(key, otherKey);
+    }
+
+    public void add(LoggedExchange loggedExchange) {
+        loggedExchange.sequence = sequence.getAndIncrement();
+        byMethod.add(indexKey(loggedExchange.method), loggedExchange);
+        byPath.add(indexKey(loggedExchange.path), loggedExchange);
+        bySequence.put(loggedExchange.sequence, loggedExchange);
+        byReceivedAt.put(new ReceivedAt(loggedExchange.receivedAt, loggedExchange.sequence), loggedExchange);
+        long addedCount = added.incrementAndGet();
+        // added never exceeds the sequence so if they are equal every claimed sequence has been added
+        if (addedCount == sequence.get()) {
+            long current = addedTo.get();
+            while (current < addedCount && !addedTo.compareAndSet(current, addedCount)) {
+                current = addedTo.get();
+            }
+        }
+    }
+
+    public void remove(LoggedExchange loggedExchange) {
+        byMethod.remove(indexKey(loggedExchange.method), loggedExchange);
+        byPath.remove(indexKey(loggedExchange.path), loggedExchange);
+        bySequence.remove(loggedExchange.sequence, loggedExchange);
+        byReceivedAt.remove(new ReceivedAt(loggedExchange.receivedAt, loggedExchange.sequence), loggedExchange);
+    }
+
+    /**
+     * @return the sequence the next exchange added will be given
+     */
+    public long nextSequence() {
+        return sequence.get();
+    }
+
+    /**
+     * Exchanges are given their sequence before they are added so an exchange with a lower sequence than
+     * nextSequence may not be visible yet
+     *
+     * @return a sequence every exchange before which has been added, it can lag behind nextSequence while exchanges
+     * are being added
+     */
+    public long addedTo() {
+        return addedTo.get();
+    }
+
+    public int size() {
+        return bySequence.size();
+    }
+
+    /**
+     * Returns the exchanges whose request could match the request in the order they were added, only the method and
+     * path are used so each candidate must still be checked with a full match
+     *
+     * @param httpRequest the request to match, for example from a verification
+     * @return the candidate exchanges in the order they were added, or null if neither the method nor the path of the
+     * request can be looked up so every exchange is a candidate
+     */
+    public List<LoggedExchange> candidates(HttpRequest httpRequest) {
+        if (indexKey(httpRequest != null ? httpRequest.getMethod() : null).equals(WILDCARD) && indexKey(httpRequest != null ? httpRequest.getPath() : null).equals(WILDCARD)) {
+            return null;
+        }
+        return Lists.newArrayList(candidatesFrom(httpRequest, 0));
+    }
+
+    /**
+     * Seeks to the sequence in each bucket the request could match and reads forward from there, so a caller that
+     * stops early, such as a page of retrieved exchanges, only reads as far as it needs
+     *
+     * @param httpRequest  the request to match, or null to match every exchange
+     * @param fromSequence the earliest sequence to return, inclusive
+     * @return the candidate exchanges from the sequence in the order they were added
+     */
+    public Iterator<LoggedExchange> candidatesFrom(HttpRequest httpRequest, long fromSequence) {
+        String methodKey = indexKey(httpRequest != null ? httpRequest.getMethod() : null);
+        String pathKey = indexKey(httpRequest != null ? httpRequest.getPath() : null);
+        if (methodKey.equals(WILDCARD) && pathKey.equals(WILDCARD)) {
+            return bySequence.tailMap(fromSequence).values().iterator();
+        }
+        // paths are far more selective than methods so read the path buckets and check the method of each candidate
+        if (!pathKey.equals(WILDCARD)) {
+            Iterator<LoggedExchange> candidates = byPath.candidatesFrom(pathKey, fromSequence);
+            return methodKey.equals(WILDCARD) ? candidates : Iterators.filter(candidates, withMethod(methodKey));
+        } else {
+            return byMethod.candidatesFrom(methodKey, fromSequence);
+        }
+    }
+
+    private static Predicate<LoggedExchange> withMethod(final String methodKey) {
+        return new Predicate<LoggedExchange>() {
+            public boolean apply(LoggedExchange loggedExchange) {
+                return couldMatch(methodKey, indexKey(loggedExchange.method));
+            }
+        };
+    }
+
+    /**
+     * @param from the earliest time in milliseconds, inclusive
+     * @param to   the latest time in milliseconds, inclusive
+     * @return the exchanges received in the time window, ordered by when they were received
+     */
+    public List<LoggedExchange> receivedBetween(long from, long to) {
+        if (from > to) {
+            return new ArrayList<LoggedExchange>();
+        }
+        return new ArrayList<LoggedExchange>(byReceivedAt.subMap(new ReceivedAt(from, Long.MIN_VALUE), true, new ReceivedAt(to, Long.MAX_VALUE), true).values());
+    }
+
+    /**
+     * The buckets of one dimension, literal values and the wildcard are looked up directly, values containing '.'
+     * are kept apart so a literal lookup only compares those with the same length
+     */
+    private static class Dimension {
+        private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<String, Bucket>();
+        private final ConcurrentMap<String, Bucket> dottedBuckets = new ConcurrentHashMap<String, Bucket>();
+
+        private ConcurrentMap<String, Bucket> bucketsFor(String key) {
+            return !key.equals(WILDCARD) && key.indexOf('.') != -1 ? dottedBuckets : buckets;
+        }
+
+        void add(String key, LoggedExchange loggedExchange) {
+            ConcurrentMap<String, Bucket> index = bucketsFor(key);
+            while (true) {
+                Bucket bucket = index.get(key);
+                if (bucket == null) {
+                    Bucket created = new Bucket();
+                    bucket = index.putIfAbsent(key, created);
+                    if (bucket == null) {
+                        bucket = created;
+                    }
+                }
+                if (bucket.retain()) {
+                    bucket.entries.put(loggedExchange.sequence, loggedExchange);
+                    return;
+                }
+                // the bucket emptied and is being dropped so help drop it then create a new one
+                index.remove(key, bucket);
+            }
+        }
+
+        void remove(String key, LoggedExchange loggedExchange) {
+            ConcurrentMap<String, Bucket> index = bucketsFor(key);
+            Bucket bucket = index.get(key);
+            if (bucket != null && bucket.entries.remove(loggedExchange.sequence, loggedExchange) && bucket.release()) {
+                index.remove(key, bucket);
+            }
+        }
+
+        Iterator<LoggedExchange> candidatesFrom(String key, long fromSequence) {
+            List<Bucket> matching = new ArrayList<Bucket>();
+            Bucket exact = bucketsFor(key).get(key);
+            if (exact != null) {
+                matching.add(exact);
+            }
+            Bucket wildcard = buckets.get(WILDCARD);
+            if (wildcard != null) {
+                matching.add(wildcard);
+            }
+            if (key.indexOf('.') != -1) {
+                // a dotted key could match any literal value of the same length
+                for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+                    if (!entry.getKey().equals(WILDCARD) && couldMatch(key, entry.getKey())) {
+                        matching.add(entry.getValue());
+                    }
+                }
+            }
+            for (Map.Entry<String, Bucket> entry : dottedBuckets.entrySet()) {
+                if (!entry.getKey().equals(key) && couldMatch(key, entry.getKey())) {
+                    matching.add(entry.getValue());
+                }
+            }
+            List<Iterator<LoggedExchange>> iterators = new ArrayList<Iterator<LoggedExchange>>(matching.size());
+            for (Bucket bucket : matching) {
+                iterators.add(bucket.entries.tailMap(fromSequence).values().iterator());
+            }
+            return iterators.size() == 1 ? iterators.get(0) : Iterators.mergeSorted(iterators, SEQUENCE_ORDER);
+        }
+    }
+
+    private static class Bucket {
+        private final ConcurrentSkipListMap<Long, LoggedExchange> entries = new ConcurrentSkipListMap<Long, LoggedExchange>();
+        // the number of exchanges added and not yet removed, or -1 once the bucket is being dropped
+        private final AtomicInteger count = new AtomicInteger();
+
+        /**
+         * @return false if the bucket is being dropped and can no longer be added to
+         */
+        boolean retain() {
+            while (true) {
+                int current = count.get();
+                if (current < 0) {
+                    return false;
+                } else if (count.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * @return true if the bucket is now empty and must be dropped
+         */
+        boolean release() {
+            return count.decrementAndGet() == 0 && count.compareAndSet(0, -1);
+        }
+    }
+
+    private static class ReceivedAt implements Comparable<ReceivedAt> {
+        private final long timestamp;
+        // distinguishes exchanges received in the same millisecond
+        private final long sequence;
+
+        ReceivedAt(long timestamp, long sequence) {
+            this.timestamp = timestamp;
+            this.sequence = sequence;
+        }
+
+        public int compareTo(ReceivedAt other) {
+            if (timestamp != other.timestamp) {
+                return timestamp < other.timestamp ? -1 : 1;
+            }
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof ReceivedAt && compareTo((ReceivedAt) other) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (timestamp ^ (timestamp >>> 32)) * 31 + (int) (sequence ^ (sequence >>> 32));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.mockserver.filters;
+
+import org.mockserver.matchers.Times;
+import org.mockserver.mock.Expectation;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A page of recorded requests and responses returned by LogFilter.retrieve with a cursor, only the location of each
+ * exchange is held so each expectation is built as it is iterated and can be written out and discarded before the
+ * next one is built
+ *
+ * @author jamesdbloom
+ */
+public class RetrievedExpectations implements Iterable<Expectation> {
+
+    // a PUT to /retrieve with ?format=ndjson streams one expectation per line, optionally with &cursor= and &limit=
+    public static final String FORMAT_PARAMETER = "format";
+    public static final String NDJSON_FORMAT = "ndjson";
+    public static final String CURSOR_PARAMETER = "cursor";
+    public static final String LIMIT_PARAMETER = "limit";
+    public static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+    // only set when there is a next page
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final List<LoggedExchange> loggedExchanges;
+    private final long nextCursor;
+
+    RetrievedExpectations(List<LoggedExchange> loggedExchanges, long nextCursor) {
+        this.loggedExchanges = loggedExchanges;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @return the number of expectations in this page
+     */
+    public int size() {
+        return loggedExchanges.size();
+    }
+
+    /**
+     * @return the cursor to retrieve the next page with, or -1 if this is the last page
+     */
+    public long nextCursor() {
+        return nextCursor;
+    }
+
+    public Iterator<Expectation> iterator() {
+        final Iterator<LoggedExchange> iterator = loggedExchanges.iterator();
+        return new Iterator<Expectation>() {
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            public Expectation next() {
+                LoggedExchange loggedExchange = iterator.next();
+                return new Expectation(loggedExchange.httpRequest(), Times.once()).thenRespond(loggedExchange.httpResponse());
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException("Retrieved expectations can not be removed");
+            }
+        };
+    }
+}
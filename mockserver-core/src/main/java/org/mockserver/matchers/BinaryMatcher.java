@@ -1,5 +1,6 @@
 package org.mockserver.matchers;
 
+import org.mockserver.model.ParsedBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,8 +31,7 @@ public class BinaryMatcher extends BodyMatcher<byte[]> implements Matcher<byte[]
         return result;
     }
 
-    @Override
-    public String[] fieldsExcludedFromEqualsAndHashCode() {
-        return new String[]{"logger"};
+    public boolean matchesBody(ParsedBody parsedBody) {
+        return matches(parsedBody.getRawBytes());
     }
 }
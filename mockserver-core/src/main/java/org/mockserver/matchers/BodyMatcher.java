@@ -1,10 +1,19 @@
 package org.mockserver.matchers;
 
 import org.mockserver.model.ObjectWithReflectiveEqualsHashCodeToString;
+import org.mockserver.model.ParsedBody;
 
 /**
  * @author jamesdbloom
  */
 public abstract class BodyMatcher<T> extends ObjectWithReflectiveEqualsHashCodeToString implements Matcher<T> {
 
+    /**
+     * Matches against whichever form of the request body this matcher needs, the parsed body is shared by all the
+     * matchers a request is evaluated against so the body is only decoded or parsed once
+     *
+     * @param parsedBody the request body
+     * @return true if the body matches
+     */
+    public abstract boolean matchesBody(ParsedBody parsedBody);
 }
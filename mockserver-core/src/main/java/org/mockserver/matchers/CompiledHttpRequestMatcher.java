@@ -0,0 +1,145 @@
+package org.mockserver.matchers;
+
+import org.mockserver.collections.CaseInsensitiveRegexHashMap;
+import org.mockserver.collections.CaseInsensitiveRegexMultiMap;
+import org.mockserver.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A request matcher specialised for a single expectation when the expectation is created, the expected query string
+ * parameters, headers and cookies are flattened into arrays of names and values that are checked directly against the
+ * name and value pairs of the request, in a fixed cheapest first order, without building or searching case
+ * insensitive regex maps
+ *
+ * The method, path and body are matched by the same sub-matchers, and names and values by the same NameValuePairs
+ * lookups, as HttpRequestMatcher so both always match the same requests, an HttpRequestMatcher is only built to explain
+ * a mismatch when debug logging is enabled
+ *
+ * @author jamesdbloom
+ */
+public class CompiledHttpRequestMatcher implements Matcher<HttpRequest> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompiledHttpRequestMatcher.class);
+    private final HttpRequest expected;
+    private final RegexStringMatcher method;
+    private final RegexStringMatcher path;
+    private final MultiValueRequirement[] queryStringParameters;
+    private final MultiValueRequirement[] headers;
+    private final MultiValueRequirement[] cookies;
+    private final BodyMatcher body;
+    // only built when debug logging is enabled
+    private volatile HttpRequestMatcher interpreted;
+
+    public CompiledHttpRequestMatcher(HttpRequest httpRequest) {
+        this.expected = httpRequest;
+        if (httpRequest != null) {
+            this.method = new RegexStringMatcher(httpRequest.getMethod());
+            this.path = new RegexStringMatcher(httpRequest.getPath());
+            this.queryStringParameters = compile(KeyToMultiValue.toMultiMap(httpRequest.getQueryStringParameters()));
+            this.headers = compile(KeyToMultiValue.toMultiMap(httpRequest.getHeaders()));
+            this.cookies = compile(KeyAndValue.toHashMap(httpRequest.getCookies()));
+            this.body = HttpRequestMatcher.bodyMatcher(httpRequest.getBody());
+        } else {
+            this.method = null;
+            this.path = null;
+            this.queryStringParameters = new MultiValueRequirement[0];
+            this.headers = new MultiValueRequirement[0];
+            this.cookies = new MultiValueRequirement[0];
+            this.body = null;
+        }
+    }
+
+    private static MultiValueRequirement[] compile(CaseInsensitiveRegexMultiMap multiMap) {
+        List<MultiValueRequirement> requirements = new ArrayList<MultiValueRequirement>();
+        for (String name : multiMap.keySet()) {
+            // values are looked up as the interpreted matcher does, so a regex name also requires the values of the names it matches
+            requirements.add(new MultiValueRequirement(name, multiMap.getAll(name)));
+        }
+        return requirements.toArray(new MultiValueRequirement[requirements.size()]);
+    }
+
+    private static MultiValueRequirement[] compile(CaseInsensitiveRegexHashMap<String> hashMap) {
+        List<MultiValueRequirement> requirements = new ArrayList<MultiValueRequirement>();
+        for (String name : hashMap.keySet()) {
+            requirements.add(new MultiValueRequirement(name, new ArrayList<String>(hashMap.getAll(name))));
+        }
+        return requirements.toArray(new MultiValueRequirement[requirements.size()]);
+    }
+
+    public boolean matches(HttpRequest httpRequest) {
+        if (httpRequest == expected) {
+            return true;
+        } else if (httpRequest == null) {
+            return false;
+        } else if (logger.isDebugEnabled()) {
+            // the interpreted matcher explains why a request did not match
+            return interpreted().matches(httpRequest);
+        } else {
+            return (method == null || method.matches(httpRequest.getMethod()))
+                    && (path == null || path.matches(httpRequest.getPath()))
+                    && (cookies.length == 0 || containsAll(httpRequest.getCookiesAsNameValuePairs(), cookies, true))
+                    && (queryStringParameters.length == 0 || containsAll(httpRequest.getQueryStringParametersAsNameValuePairs(), queryStringParameters, false))
+                    && (headers.length == 0 || containsAll(httpRequest.getHeadersAsNameValuePairs(), headers, false))
+                    && (body == null || body.matchesBody(httpRequest.getParsedBody()));
+        }
+    }
+
+    private HttpRequestMatcher interpreted() {
+        HttpRequestMatcher httpRequestMatcher = interpreted;
+        if (httpRequestMatcher == null) {
+            httpRequestMatcher = new HttpRequestMatcher(expected);
+            interpreted = httpRequestMatcher;
+        }
+        return httpRequestMatcher;
+    }
+
+    private static boolean containsAll(NameValuePairs actual, MultiValueRequirement[] requirements, boolean ignoreNullValues) {
+        for (MultiValueRequirement requirement : requirements) {
+            if (!actual.containsKey(requirement.name)) {
+                return false;
+            }
+            for (String value : requirement.values) {
+                if (!actual.containsKeyValue(requirement.name, value, ignoreNullValues)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        String formatted = HttpRequestMatcher.format(expected);
+        return formatted != null ? formatted : super.toString();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (!(other instanceof CompiledHttpRequestMatcher)) {
+            return false;
+        }
+        CompiledHttpRequestMatcher that = (CompiledHttpRequestMatcher) other;
+        return expected != null ? expected.equals(that.expected) : that.expected == null;
+    }
+
+    @Override
+    public int hashCode() {
+        return expected != null ? expected.hashCode() : 0;
+    }
+
+    private static class MultiValueRequirement {
+        private final String name;
+        private final String[] values;
+
+        MultiValueRequirement(String name, List<String> values) {
+            this.name = name;
+            this.values = values.toArray(new String[values.size()]);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.mockserver.matchers;
 
 import com.google.common.base.Strings;
+import org.mockserver.model.ParsedBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,8 +50,7 @@ public class ExactStringMatcher extends BodyMatcher<String> implements Matcher<S
         return result;
     }
 
-    @Override
-    public String[] fieldsExcludedFromEqualsAndHashCode() {
-        return new String[]{"logger"};
+    public boolean matchesBody(ParsedBody parsedBody) {
+        return matches(parsedBody.getString());
     }
 }
@@ -1,9 +1,11 @@
 package org.mockserver.matchers;
 
 import org.mockserver.collections.CaseInsensitiveRegexHashMap;
-import org.mockserver.collections.CaseInsensitiveRegexMultiMap;
 import org.mockserver.model.KeyAndValue;
+import org.mockserver.model.NameValuePairs;
 import org.mockserver.model.ObjectWithReflectiveEqualsHashCodeToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
 
@@ -11,19 +13,37 @@ import java.util.List;
  * @author jamesdbloom
  */
 public class HashMapMatcher extends ObjectWithReflectiveEqualsHashCodeToString implements Matcher<List<KeyAndValue>> {
-    private final CaseInsensitiveRegexHashMap multiMap;
 
-    public HashMapMatcher(CaseInsensitiveRegexHashMap multiMap) {
+    private static Logger logger = LoggerFactory.getLogger(HashMapMatcher.class);
+    private final CaseInsensitiveRegexHashMap<String> multiMap;
+
+    public HashMapMatcher(CaseInsensitiveRegexHashMap<String> multiMap) {
         this.multiMap = multiMap;
     }
 
     public boolean matches(List<KeyAndValue> values) {
+        return matchesHashMap(KeyAndValue.toHashMap(values));
+    }
+
+    public boolean matchesHashMap(CaseInsensitiveRegexHashMap<String> values) {
+        boolean result = false;
+
+        if (values.containsAll(multiMap)) {
+            result = true;
+        } else {
+            logger.trace("Map [{}] is not a subset of [{}]", this.multiMap, values);
+        }
+
+        return result;
+    }
+
+    public boolean matchesNameValuePairs(NameValuePairs values) {
         boolean result = false;
 
-        if (KeyAndValue.toHashMap(values).containsAll(multiMap)) {
+        if (values.containsAll(multiMap)) {
             result = true;
         } else {
-            logger.trace("Map [{}] is not a subset of [{}]", this.multiMap, KeyAndValue.toHashMap(values));
+            logger.trace("Map [{}] is not a subset of [{}]", this.multiMap, values);
         }
 
         return result;
@@ -1,17 +1,32 @@
 package org.mockserver.matchers;
 
-import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
 import org.mockserver.client.serialization.ObjectMapperFactory;
 import org.mockserver.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /**
  * @author jamesdbloom
  */
 public class HttpRequestMatcher extends ObjectWithReflectiveEqualsHashCodeToString implements Matcher<HttpRequest> {
 
+    protected static Logger logger = LoggerFactory.getLogger(HttpRequestMatcher.class);
+
+    private static final int METHOD = 0;
+    private static final int PATH = 1;
+    private static final int QUERY_STRING_PARAMETERS = 2;
+    static final int BODY = 3;
+    private static final int HEADERS = 4;
+    private static final int COOKIES = 5;
+    private static final int REORDER_INTERVAL = 256;
+
     private HttpRequest httpRequest;
     private RegexStringMatcher methodMatcher = null;
     private RegexStringMatcher pathMatcher = null;
@@ -19,6 +34,12 @@ public class HttpRequestMatcher extends ObjectWithReflectiveEqualsHashCodeToStri
     private BodyMatcher bodyMatcher = null;
     private MultiValueMapMatcher headerMatcher = null;
     private HashMapMatcher cookieMatcher = null;
+    // sub-matchers are evaluated cheapest and most often failing first, rejections are counted at runtime
+    // and used to periodically re-order them, these are transient so they don't take part in equals and hashCode
+    private transient final int[] costs = new int[6];
+    private transient final AtomicIntegerArray rejections = new AtomicIntegerArray(6);
+    private transient volatile int[] evaluationOrder;
+    private transient final AtomicBoolean reordering = new AtomicBoolean();
 
     public HttpRequestMatcher(HttpRequest httpRequest) {
         this.httpRequest = httpRequest;
@@ -30,6 +51,97 @@ public class HttpRequestMatcher extends ObjectWithReflectiveEqualsHashCodeToStri
             withHeaders(httpRequest.getHeaders());
             withCookies(httpRequest.getCookies());
         }
+        this.evaluationOrder = initialiseEvaluationOrder();
+    }
+
+    private int[] initialiseEvaluationOrder() {
+        int checkCount = 0;
+        int[] checks = new int[6];
+        if (methodMatcher != null) {
+            costs[METHOD] = 1;
+            checks[checkCount++] = METHOD;
+        }
+        if (pathMatcher != null) {
+            costs[PATH] = 2;
+            checks[checkCount++] = PATH;
+        }
+        if (cookieMatcher != null) {
+            costs[COOKIES] = 3;
+            checks[checkCount++] = COOKIES;
+        }
+        if (queryStringParameterMatcher != null) {
+            costs[QUERY_STRING_PARAMETERS] = 4;
+            checks[checkCount++] = QUERY_STRING_PARAMETERS;
+        }
+        if (headerMatcher != null) {
+            costs[HEADERS] = 4;
+            checks[checkCount++] = HEADERS;
+        }
+        if (bodyMatcher != null) {
+            costs[BODY] = bodyMatcherCost(bodyMatcher);
+            checks[checkCount++] = BODY;
+        }
+        return sortByRejectionsPerCost(Arrays.copyOf(checks, checkCount));
+    }
+
+    private static int bodyMatcherCost(BodyMatcher bodyMatcher) {
+        if (bodyMatcher instanceof ExactStringMatcher || bodyMatcher instanceof BinaryMatcher) {
+            return 4;
+        } else if (bodyMatcher instanceof RegexStringMatcher) {
+            return 8;
+        } else if (bodyMatcher instanceof ParameterStringMatcher) {
+            return 12;
+        } else if (bodyMatcher instanceof JsonStringMatcher) {
+            return 32;
+        } else {
+            return 64;
+        }
+    }
+
+    private int[] sortByRejectionsPerCost(int[] checks) {
+        Integer[] sorted = new Integer[checks.length];
+        final double[] scores = new double[6];
+        for (int i = 0; i < checks.length; i++) {
+            sorted[i] = checks[i];
+            scores[checks[i]] = (rejections.get(checks[i]) + 1) / (double) costs[checks[i]];
+        }
+        // stable sort so checks with equal scores stay in cost order
+        Arrays.sort(sorted, new Comparator<Integer>() {
+            public int compare(Integer first, Integer second) {
+                return Double.compare(scores[second], scores[first]);
+            }
+        });
+        int[] order = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            order[i] = sorted[i];
+        }
+        return order;
+    }
+
+    /**
+     * The evaluation order is best-effort, it only changes how quickly a request is rejected and never whether it
+     * matches, as every order contains the same checks, so concurrent matching is not serialised, each count is
+     * updated atomically and only one thread at a time re-orders and decays the counts
+     */
+    private void recordRejection(int check) {
+        if (rejections.incrementAndGet(check) % REORDER_INTERVAL == 0 && reordering.compareAndSet(false, true)) {
+            try {
+                evaluationOrder = sortByRejectionsPerCost(evaluationOrder);
+                // decay the counts so the order keeps adapting to recent requests
+                for (int i = 0; i < rejections.length(); i++) {
+                    int count;
+                    do {
+                        count = rejections.get(i);
+                    } while (!rejections.compareAndSet(i, count, count / 2));
+                }
+            } finally {
+                reordering.set(false);
+            }
+        }
+    }
+
+    int[] evaluationOrder() {
+        return evaluationOrder.clone();
     }
 
     private HttpRequestMatcher withMethod(String method) {
@@ -48,29 +160,31 @@ public class HttpRequestMatcher extends ObjectWithReflectiveEqualsHashCodeToStri
     }
 
     private HttpRequestMatcher withBody(Body body) {
+        this.bodyMatcher = bodyMatcher(body);
+        return this;
+    }
+
+    /**
+     * @return the matcher for the body, shared with CompiledHttpRequestMatcher, or null if there is no body to match
+     */
+    static BodyMatcher bodyMatcher(Body body) {
         if (body != null) {
             switch (body.getType()) {
                 case STRING:
-                    this.bodyMatcher = new ExactStringMatcher(((StringBody) body).getValue());
-                    break;
+                    return new ExactStringMatcher(((StringBody) body).getValue());
                 case REGEX:
-                    this.bodyMatcher = new RegexStringMatcher(((StringBody) body).getValue());
-                    break;
+                    return new RegexStringMatcher(((StringBody) body).getValue());
                 case PARAMETERS:
-                    this.bodyMatcher = new ParameterStringMatcher(((ParameterBody) body).getValue());
-                    break;
+                    return new ParameterStringMatcher(((ParameterBody) body).getValue());
                 case XPATH:
-                    this.bodyMatcher = new XPathStringMatcher(((StringBody) body).getValue());
-                    break;
+                    return new XPathStringMatcher(((StringBody) body).getValue());
                 case JSON:
-                    this.bodyMatcher = new JsonStringMatcher(((StringBody) body).getValue());
-                    break;
+                    return new JsonStringMatcher(((StringBody) body).getValue());
                 case BINARY:
-                    this.bodyMatcher = new BinaryMatcher(((BinaryBody) body).getValue());
-                    break;
+                    return new BinaryMatcher(((BinaryBody) body).getValue());
             }
         }
-        return this;
+        return null;
     }
 
     private HttpRequestMatcher withHeaders(Header... headers) {
@@ -97,37 +211,86 @@ public class HttpRequestMatcher extends ObjectWithReflectiveEqualsHashCodeToStri
         if (httpRequest == this.httpRequest) {
             return true;
         } else if (httpRequest != null) {
-            boolean methodMatches = matches(methodMatcher, httpRequest.getMethod());
-            boolean pathMatches = matches(pathMatcher, httpRequest.getPath());
-            boolean queryStringParametersMatches = matches(queryStringParameterMatcher, (httpRequest.getQueryStringParameters() != null ? new ArrayList<KeyToMultiValue>(httpRequest.getQueryStringParameters()) : null));
-            boolean bodyMatches;
-            if (bodyMatcher instanceof BinaryMatcher) {
-                bodyMatches = matches(bodyMatcher, httpRequest.getBodyAsRawBytes());
-            } else {
-                bodyMatches = matches(bodyMatcher, (httpRequest.getBody() != null ? new String(httpRequest.getBody().getRawBytes(), Charsets.UTF_8) : ""));
+            if (logger.isDebugEnabled()) {
+                return matchesAndLogMismatches(httpRequest);
             }
-            boolean headersMatch = matches(headerMatcher, (httpRequest.getHeaders() != null ? new ArrayList<KeyToMultiValue>(httpRequest.getHeaders()) : null));
-            boolean cookiesMatch = matches(cookieMatcher, (httpRequest.getCookies() != null ? new ArrayList<KeyAndValue>(httpRequest.getCookies()) : null));
-            boolean result = methodMatches && pathMatches && queryStringParametersMatches && bodyMatches && headersMatch && cookiesMatch;
-            if (!result && logger.isDebugEnabled()) {
-                logger.debug("\n\nMatcher:" + System.getProperty("line.separator") + System.getProperty("line.separator") +
-                        "[" + this + "]" + System.getProperty("line.separator") + System.getProperty("line.separator") +
-                        "did not match request:" + System.getProperty("line.separator") + System.getProperty("line.separator") +
-                        "[" + httpRequest + "]" + System.getProperty("line.separator") + System.getProperty("line.separator") +
-                        "because:" + System.getProperty("line.separator") + System.getProperty("line.separator") +
-                        "methodMatches = " + methodMatches + "" + System.getProperty("line.separator") +
-                        "pathMatches = " + pathMatches + "" + System.getProperty("line.separator") +
-                        "queryStringParametersMatch = " + queryStringParametersMatches + "" + System.getProperty("line.separator") +
-                        "bodyMatches = " + bodyMatches + "" + System.getProperty("line.separator") +
-                        "headersMatch = " + headersMatch + "" + System.getProperty("line.separator") +
-                        "cookiesMatch = " + cookiesMatch);
+            for (int check : evaluationOrder) {
+                if (!matches(check, httpRequest)) {
+                    recordRejection(check);
+                    return false;
+                }
             }
-            return result;
+            return true;
         } else {
             return false;
         }
     }
 
+    boolean matches(int check, HttpRequest httpRequest) {
+        switch (check) {
+            case METHOD:
+                return matches(methodMatcher, httpRequest.getMethod());
+            case PATH:
+                return matches(pathMatcher, httpRequest.getPath());
+            case QUERY_STRING_PARAMETERS:
+                return queryStringParameterMatcher == null || queryStringParameterMatcher.matchesNameValuePairs(httpRequest.getQueryStringParametersAsNameValuePairs());
+            case BODY:
+                return bodyMatcher == null || bodyMatcher.matchesBody(httpRequest.getParsedBody());
+            case HEADERS:
+                return headerMatcher == null || headerMatcher.matchesNameValuePairs(httpRequest.getHeadersAsNameValuePairs());
+            case COOKIES:
+                return cookieMatcher == null || cookieMatcher.matchesNameValuePairs(httpRequest.getCookiesAsNameValuePairs());
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Evaluates every sub-matcher, without short-circuiting or counting rejections, to rank how close a request that
+     * does not match is to matching
+     *
+     * @return the number of the method, path, query string parameter, body, header and cookie matchers that match
+     */
+    public int matchingSubMatchers(HttpRequest httpRequest) {
+        int matching = 0;
+        if (httpRequest != null) {
+            for (int check : evaluationOrder) {
+                if (matches(check, httpRequest)) {
+                    matching++;
+                }
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Evaluates every sub-matcher, without short-circuiting, so the reason for a mismatch can be logged, this is only
+     * used when debug logging is enabled
+     */
+    private boolean matchesAndLogMismatches(HttpRequest httpRequest) {
+        boolean methodMatches = matches(METHOD, httpRequest);
+        boolean pathMatches = matches(PATH, httpRequest);
+        boolean queryStringParametersMatches = matches(QUERY_STRING_PARAMETERS, httpRequest);
+        boolean bodyMatches = matches(BODY, httpRequest);
+        boolean headersMatch = matches(HEADERS, httpRequest);
+        boolean cookiesMatch = matches(COOKIES, httpRequest);
+        boolean result = methodMatches && pathMatches && queryStringParametersMatches && bodyMatches && headersMatch && cookiesMatch;
+        if (!result) {
+            logger.debug("\n\nMatcher:" + System.getProperty("line.separator") + System.getProperty("line.separator") +
+                    "[" + this + "]" + System.getProperty("line.separator") + System.getProperty("line.separator") +
+                    "did not match request:" + System.getProperty("line.separator") + System.getProperty("line.separator") +
+                    "[" + httpRequest + "]" + System.getProperty("line.separator") + System.getProperty("line.separator") +
+                    "because:" + System.getProperty("line.separator") + System.getProperty("line.separator") +
+                    "methodMatches = " + methodMatches + "" + System.getProperty("line.separator") +
+                    "pathMatches = " + pathMatches + "" + System.getProperty("line.separator") +
+                    "queryStringParametersMatch = " + queryStringParametersMatches + "" + System.getProperty("line.separator") +
+                    "bodyMatches = " + bodyMatches + "" + System.getProperty("line.separator") +
+                    "headersMatch = " + headersMatch + "" + System.getProperty("line.separator") +
+                    "cookiesMatch = " + cookiesMatch);
+        }
+        return result;
+    }
+
     private <T> boolean matches(Matcher<T> matcher, T t) {
         boolean result = false;
 
@@ -142,13 +305,37 @@ public class HttpRequestMatcher extends ObjectWithReflectiveEqualsHashCodeToStri
 
     @Override
     public String toString() {
+        String formatted = format(httpRequest);
+        return formatted != null ? formatted : super.toString();
+    }
+
+    /**
+     * @return the request as pretty printed json, or null if it can not be serialized
+     */
+    static String format(HttpRequest httpRequest) {
         try {
             return ObjectMapperFactory
                     .createObjectMapper()
                     .writerWithDefaultPrettyPrinter()
                     .writeValueAsString(httpRequest);
         } catch (Exception e) {
-            return super.toString();
+            return null;
         }
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (!(other instanceof HttpRequestMatcher)) {
+            return false;
+        }
+        HttpRequestMatcher that = (HttpRequestMatcher) other;
+        return Objects.equal(httpRequest, that.httpRequest);
+    }
+
+    @Override
+    public int hashCode() {
+        return httpRequest != null ? httpRequest.hashCode() : 0;
+    }
 }
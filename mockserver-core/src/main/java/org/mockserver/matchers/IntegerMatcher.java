@@ -1,9 +1,15 @@
 package org.mockserver.matchers;
 
+import org.mockserver.model.ParsedBody;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
  * @author jamesdbloom
  */
 public class IntegerMatcher extends BodyMatcher<Integer> implements Matcher<Integer> {
+
+    private static Logger logger = LoggerFactory.getLogger(IntegerMatcher.class);
     private final Integer matcher;
 
     public IntegerMatcher(Integer matcher) {
@@ -24,4 +30,14 @@ public class IntegerMatcher extends BodyMatcher<Integer> implements Matcher<Inte
         }
         return result;
     }
+
+    public boolean matchesBody(ParsedBody parsedBody) {
+        Integer matched = null;
+        try {
+            matched = Integer.valueOf(parsedBody.getString().trim());
+        } catch (NumberFormatException nfe) {
+            logger.trace("Failed to parse [{}] as an integer", parsedBody.getString());
+        }
+        return matches(matched);
+    }
 }
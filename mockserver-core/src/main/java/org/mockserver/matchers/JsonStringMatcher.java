@@ -1,38 +1,103 @@
 package org.mockserver.matchers;
 
-import org.skyscreamer.jsonassert.JSONCompareMode;
-import org.skyscreamer.jsonassert.JSONCompareResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.mockserver.model.ParsedBody;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import static org.skyscreamer.jsonassert.JSONCompare.compareJSON;
+import java.util.Iterator;
+import java.util.Map;
 
 /**
+ * Matches JSON leniently, the request may contain fields that are not in the expectation and array elements may be in
+ * any order, but arrays must be the same length and values must be the same type (numbers are compared by value)
+ *
  * @author jamesdbloom
  */
 public class JsonStringMatcher extends BodyMatcher<String> implements Matcher<String> {
+
+    private static Logger logger = LoggerFactory.getLogger(JsonStringMatcher.class);
     private final String matcher;
+    private final JsonNode expected;
 
     public JsonStringMatcher(String matcher) {
         this.matcher = matcher;
+        JsonNode jsonNode = ParsedBody.parseJson(matcher);
+        // only a JSON object or array can be used as an expectation
+        this.expected = jsonNode != null && jsonNode.isContainerNode() ? jsonNode : null;
     }
 
     public boolean matches(String matched) {
-        boolean result = false;
+        return matchesBody(new ParsedBody(matched));
+    }
 
-        JSONCompareResult jsonCompareResult = null;
-        try {
-            jsonCompareResult = compareJSON(matcher, matched, JSONCompareMode.LENIENT);
+    public boolean matchesBody(ParsedBody parsedBody) {
+        boolean result = false;
 
-            if (jsonCompareResult.passed()) {
+        if (expected == null) {
+            logger.trace("Failed to perform JSON match [{}] with [{}] because expectation is not a JSON object or array", parsedBody.getString(), this.matcher);
+        } else {
+            JsonNode actual = parsedBody.getJson();
+            if (actual == null) {
+                logger.trace("Failed to perform JSON match [{}] with [{}] because request is not JSON", parsedBody.getString(), this.matcher);
+            } else if (matches(expected, actual)) {
                 result = true;
+            } else {
+                logger.trace("Failed to perform JSON match [{}] with [{}]", parsedBody.getString(), this.matcher);
             }
+        }
 
-            if (!result) {
-                logger.trace("Failed to perform JSON match [{}] with [{}] because {}", matched, this.matcher, jsonCompareResult.getMessage());
+        return result;
+    }
+
+    private static boolean matches(JsonNode expected, JsonNode actual) {
+        if (expected.isObject()) {
+            return actual.isObject() && objectMatches(expected, actual);
+        } else if (expected.isArray()) {
+            return actual.isArray() && arrayMatches(expected, actual);
+        } else if (expected.isNumber()) {
+            return actual.isNumber() && expected.doubleValue() == actual.doubleValue();
+        } else {
+            return expected.equals(actual);
+        }
+    }
+
+    private static boolean objectMatches(JsonNode expected, JsonNode actual) {
+        Iterator<Map.Entry<String, JsonNode>> expectedFields = expected.fields();
+        while (expectedFields.hasNext()) {
+            Map.Entry<String, JsonNode> expectedField = expectedFields.next();
+            JsonNode actualValue = actual.get(expectedField.getKey());
+            if (actualValue == null || !matches(expectedField.getValue(), actualValue)) {
+                return false;
             }
-        } catch (Exception e) {
-            logger.trace("Failed to perform JSON match [{}] with [{}] because {}", matched, this.matcher, e.getMessage());
         }
+        return true;
+    }
 
-        return result;
+    private static boolean arrayMatches(JsonNode expected, JsonNode actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        // each expected element must match a different actual element, in any order
+        boolean[] used = new boolean[actual.size()];
+        for (int expectedIndex = 0; expectedIndex < expected.size(); expectedIndex++) {
+            JsonNode expectedElement = expected.get(expectedIndex);
+            boolean found = false;
+            for (int actualIndex = 0; actualIndex < actual.size() && !found; actualIndex++) {
+                if (!used[actualIndex] && matches(expectedElement, actual.get(actualIndex))) {
+                    used[actualIndex] = true;
+                    found = true;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String[] fieldsExcludedFromEqualsAndHashCode() {
+        return new String[]{"expected"};
     }
 }
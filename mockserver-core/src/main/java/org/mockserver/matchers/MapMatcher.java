@@ -3,6 +3,8 @@ package org.mockserver.matchers;
 import org.mockserver.collections.CaseInsensitiveRegexMultiMap;
 import org.mockserver.model.KeyToMultiValue;
 import org.mockserver.model.ObjectWithReflectiveEqualsHashCodeToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
 
@@ -10,6 +12,8 @@ import java.util.List;
  * @author jamesdbloom
  */
 public class MapMatcher extends ObjectWithReflectiveEqualsHashCodeToString implements Matcher<List<KeyToMultiValue>> {
+
+    private static Logger logger = LoggerFactory.getLogger(MapMatcher.class);
     private final CaseInsensitiveRegexMultiMap multiMap;
 
     public MapMatcher(CaseInsensitiveRegexMultiMap multiMap) {
@@ -16,4 +16,15 @@ public class MatcherBuilder {
         }
     }
 
+    /**
+     * @param compiled true for a CompiledHttpRequestMatcher, which matches the same requests as an HttpRequestMatcher
+     */
+    public Matcher<HttpRequest> transformsToMatcher(HttpRequest httpRequest, boolean compiled) {
+        if (compiled) {
+            return new CompiledHttpRequestMatcher(httpRequest);
+        } else {
+            return transformsToMatcher(httpRequest);
+        }
+    }
+
 }
@@ -1,8 +1,11 @@
 package org.mockserver.matchers;
 
 import org.mockserver.collections.CaseInsensitiveRegexMultiMap;
+import org.mockserver.model.NameValuePairs;
 import org.mockserver.model.ObjectWithReflectiveEqualsHashCodeToString;
 import org.mockserver.model.KeyToMultiValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
 
@@ -10,6 +13,8 @@ import java.util.List;
  * @author jamesdbloom
  */
 public class MultiValueMapMatcher extends ObjectWithReflectiveEqualsHashCodeToString implements Matcher<List<KeyToMultiValue>> {
+
+    private static Logger logger = LoggerFactory.getLogger(MultiValueMapMatcher.class);
     private final CaseInsensitiveRegexMultiMap multiMap;
 
     public MultiValueMapMatcher(CaseInsensitiveRegexMultiMap multiMap) {
@@ -17,12 +22,28 @@ public class MultiValueMapMatcher extends ObjectWithReflectiveEqualsHashCodeToSt
     }
 
     public boolean matches(List<KeyToMultiValue> values) {
+        return matchesMultiMap(KeyToMultiValue.toMultiMap(values));
+    }
+
+    public boolean matchesMultiMap(CaseInsensitiveRegexMultiMap values) {
+        boolean result = false;
+
+        if (values.containsAll(multiMap)) {
+            result = true;
+        } else {
+            logger.trace("Map [{}] is not a subset of [{}]", this.multiMap, values);
+        }
+
+        return result;
+    }
+
+    public boolean matchesNameValuePairs(NameValuePairs values) {
         boolean result = false;
 
-        if (KeyToMultiValue.toMultiMap(values).containsAll(multiMap)) {
+        if (values.containsAll(multiMap)) {
             result = true;
         } else {
-            logger.trace("Map [{}] is not a subset of [{}]", this.multiMap, KeyToMultiValue.toMultiMap(values));
+            logger.trace("Map [{}] is not a subset of [{}]", this.multiMap, values);
         }
 
         return result;
@@ -1,18 +1,20 @@
 package org.mockserver.matchers;
 
-import io.netty.handler.codec.http.QueryStringDecoder;
+import org.mockserver.collections.CaseInsensitiveRegexMultiMap;
 import org.mockserver.model.KeyToMultiValue;
 import org.mockserver.model.Parameter;
+import org.mockserver.model.ParsedBody;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * @author jamesdbloom
  */
 public class ParameterStringMatcher extends BodyMatcher<String> implements Matcher<String> {
+
+    private static Logger logger = LoggerFactory.getLogger(ParameterStringMatcher.class);
     private final MultiValueMapMatcher matcher;
 
     public ParameterStringMatcher(List<Parameter> parameters) {
@@ -20,31 +22,21 @@ public class ParameterStringMatcher extends BodyMatcher<String> implements Match
     }
 
     public boolean matches(String matched) {
+        return matchesBody(new ParsedBody(matched));
+    }
+
+    public boolean matchesBody(ParsedBody parsedBody) {
         boolean result = false;
 
-        if (matcher.matches(parseString(matched))) {
+        CaseInsensitiveRegexMultiMap parameters = parsedBody.getParameters();
+        if (matcher.matchesMultiMap(parameters)) {
             result = true;
         }
 
         if (!result) {
-            logger.trace("Failed to match [{}] with [{}]", matched, this.matcher);
+            logger.trace("Failed to match [{}] with [{}]", parameters, this.matcher);
         }
 
         return result;
     }
-
-    private List<KeyToMultiValue> parseString(String matched) {
-        Map<String, Parameter> mappedParameters = new HashMap<String, Parameter>();
-        Map<String, List<String>> parameters = new QueryStringDecoder("?" + matched).parameters();
-        for (String name : parameters.keySet()) {
-            for (String value : parameters.get(name)) {
-                if (mappedParameters.containsKey(name)) {
-                    mappedParameters.get(name).addValue(value);
-                } else {
-                    mappedParameters.put(name, new Parameter(name, value));
-                }
-            }
-        }
-        return new ArrayList<KeyToMultiValue>(mappedParameters.values());
-    }
 }
@@ -1,20 +1,123 @@
 package org.mockserver.matchers;
 
 import com.google.common.base.Strings;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.mockserver.model.ParsedBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 /**
  * @author jamesdbloom
  */
 public class RegexStringMatcher extends BodyMatcher<String> implements Matcher<String> {
+    private static final int MAX_CACHED_PATTERNS = 5000;
+    private static final String REGEX_META_CHARACTERS = "\\^$.|?*+()[]{}";
+    // marks a string that failed to compile as a regex, a LoadingCache cannot hold null values
+    private static final Pattern INVALID_PATTERN = Pattern.compile("(?!)");
     private static Logger logger = LoggerFactory.getLogger(RegexStringMatcher.class);
+    private static final LoadingCache<String, Pattern> patternCache = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_PATTERNS)
+            .build(new CacheLoader<String, Pattern>() {
+                @Override
+                public Pattern load(String regex) {
+                    try {
+                        return Pattern.compile(regex);
+                    } catch (PatternSyntaxException pse) {
+                        logger.trace("Error while compiling regex [" + regex + "] " + pse.getMessage());
+                        return INVALID_PATTERN;
+                    }
+                }
+            });
     private final String matcher;
+    private final boolean ignoreCase;
+    private final Type type;
+    private final Pattern pattern;
+    private final Pattern lowerCasePattern;
 
     public RegexStringMatcher(String matcher) {
+        this(matcher, false);
+    }
+
+    public RegexStringMatcher(String matcher, boolean ignoreCase) {
         this.matcher = matcher;
+        this.ignoreCase = ignoreCase;
+        if (Strings.isNullOrEmpty(matcher)) {
+            this.type = Type.ANY;
+            this.pattern = null;
+            this.lowerCasePattern = null;
+        } else if (isLiteral(matcher)) {
+            this.type = ignoreCase ? Type.CASE_INSENSITIVE_LITERAL : Type.LITERAL;
+            this.pattern = null;
+            this.lowerCasePattern = null;
+        } else {
+            this.type = Type.REGEX;
+            this.pattern = compile(matcher);
+            this.lowerCasePattern = ignoreCase ? compile(matcher.toLowerCase()) : null;
+        }
+    }
+
+    /**
+     * A string is literal if it contains no regex meta characters, a literal string compiled as a regex only ever
+     * matches itself so it can be compared with equals instead
+     *
+     * @param value the string to classify
+     * @return true if the string contains no regex meta characters
+     */
+    public static boolean isLiteral(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (REGEX_META_CHARACTERS.indexOf(value.charAt(i)) != -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param value the string to classify
+     * @return true if the only regex meta character in the string is '.', such as /file.json
+     */
+    public static boolean isDotted(String value) {
+        return value != null && value.indexOf('.') != -1 && isLiteral(value.replace('.', '_'));
+    }
+
+    /**
+     * Compares two strings whose only regex meta character is '.', which matches any single character, so either
+     * string could match the other as a regex
+     *
+     * @return true if either string could match the other
+     */
+    public static boolean dottedMatches(String value, String otherValue) {
+        if (value.length() != otherValue.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) != otherValue.charAt(i) && value.charAt(i) != '.' && otherValue.charAt(i) != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Pattern compile(String regex) {
+        Pattern pattern = patternCache.getUnchecked(regex);
+        return pattern != INVALID_PATTERN ? pattern : null;
+    }
+
+    private static boolean regexMatches(String regex, String matched) {
+        if (isLiteral(regex)) {
+            return regex.equals(matched);
+        } else {
+            Pattern pattern = compile(regex);
+            return pattern != null && pattern.matcher(matched).matches();
+        }
     }
 
     public static boolean matches(String matcher, String matched, boolean ignoreCase) {
@@ -23,47 +126,20 @@ public class RegexStringMatcher extends BodyMatcher<String> implements Matcher<S
         if (Strings.isNullOrEmpty(matcher)) {
             result = true;
         } else if (matched != null) {
-            // match as exact string
-            if (matched.equals(matcher)) {
+            // match as exact string, as regex matcher -> matched and as regex matched -> matcher
+            if (matched.equals(matcher) || regexMatches(matcher, matched) || regexMatches(matched, matcher)) {
                 result = true;
             }
-            // match as regex - matcher -> matched
-            try {
-                if (matched.matches(matcher)) {
-                    result = true;
-                }
-            } catch (PatternSyntaxException pse) {
-                logger.trace("Error while matching regex [" + matcher + "] for string [" + matched + "] " + pse.getMessage());
-            }
-            // match as regex - matched -> matcher
-            try {
-                if (matcher.matches(matched)) {
-                    result = true;
-                }
-            } catch (PatternSyntaxException pse) {
-                logger.trace("Error while matching regex [" + matched + "] for string [" + matcher + "] " + pse.getMessage());
-            }
             // case insensitive comparison is mainly to improve matching in web containers like Tomcat that convert header names to lower case
-            if (ignoreCase) {
-                // match as exact string lower-case
+            if (!result && ignoreCase) {
                 if (matched.equalsIgnoreCase(matcher)) {
                     result = true;
-                }
-                // match as regex - matcher -> matched
-                try {
-                    if (matched.toLowerCase().matches(matcher.toLowerCase())) {
-                        result = true;
-                    }
-                } catch (PatternSyntaxException pse) {
-                    logger.trace("Error while matching regex [" + matcher.toLowerCase() + "] for string [" + matched.toLowerCase() + "] " + pse.getMessage());
-                }
-                // match as regex - matched -> matcher
-                try {
-                    if (matcher.toLowerCase().matches(matched.toLowerCase())) {
+                } else if (!isLiteral(matcher) || !isLiteral(matched)) {
+                    String lowerCaseMatcher = matcher.toLowerCase();
+                    String lowerCaseMatched = matched.toLowerCase();
+                    if (regexMatches(lowerCaseMatcher, lowerCaseMatched) || regexMatches(lowerCaseMatched, lowerCaseMatcher)) {
                         result = true;
                     }
-                } catch (PatternSyntaxException pse) {
-                    logger.trace("Error while matching regex [" + matched.toLowerCase() + "] for string [" + matcher.toLowerCase() + "] " + pse.getMessage());
                 }
             }
         }
@@ -74,8 +150,29 @@ public class RegexStringMatcher extends BodyMatcher<String> implements Matcher<S
     public boolean matches(String matched) {
         boolean result = false;
 
-        if (matches(matcher, matched, false)) {
-            result = true;
+        switch (type) {
+            case ANY:
+                result = true;
+                break;
+            case LITERAL:
+                // a literal only matches as a regex if matched is itself a regex
+                result = matched != null && (matcher.equals(matched) || (!isLiteral(matched) && regexMatches(matched, matcher)));
+                break;
+            case CASE_INSENSITIVE_LITERAL:
+                result = matched != null && (matcher.equalsIgnoreCase(matched) || (!isLiteral(matched) && matches(matcher, matched, true)));
+                break;
+            case REGEX:
+                if (matched != null) {
+                    if (matched.equals(matcher) || (pattern != null && pattern.matcher(matched).matches()) || (!isLiteral(matched) && regexMatches(matched, matcher))) {
+                        result = true;
+                    } else if (ignoreCase) {
+                        String lowerCaseMatched = matched.toLowerCase();
+                        result = matched.equalsIgnoreCase(matcher)
+                                || (lowerCasePattern != null && lowerCasePattern.matcher(lowerCaseMatched).matches())
+                                || regexMatches(lowerCaseMatched, matcher.toLowerCase());
+                    }
+                }
+                break;
         }
 
         if (!result) {
@@ -83,4 +180,20 @@ public class RegexStringMatcher extends BodyMatcher<String> implements Matcher<S
         }
         return result;
     }
+
+    public boolean matchesBody(ParsedBody parsedBody) {
+        return matches(parsedBody.getString());
+    }
+
+    @Override
+    public String[] fieldsExcludedFromEqualsAndHashCode() {
+        return new String[]{"type", "pattern", "lowerCasePattern"};
+    }
+
+    private enum Type {
+        ANY,
+        LITERAL,
+        CASE_INSENSITIVE_LITERAL,
+        REGEX
+    }
 }
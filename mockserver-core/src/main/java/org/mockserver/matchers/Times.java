@@ -1,18 +1,24 @@
 package org.mockserver.matchers;
 
 import org.mockserver.model.ObjectWithReflectiveEqualsHashCodeToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author jamesdbloom
  */
 public class Times extends ObjectWithReflectiveEqualsHashCodeToString {
 
-    private int remainingTimes;
-    private boolean unlimited;
+    private static Logger logger = LoggerFactory.getLogger(Times.class);
+
+    private static final int UNLIMITED = -1;
+    // remaining times and unlimited are held in a single value so both can be updated atomically
+    private final AtomicInteger remainingTimes;
 
     private Times(int remainingTimes, boolean unlimited) {
-        this.remainingTimes = remainingTimes;
-        this.unlimited = unlimited;
+        this.remainingTimes = new AtomicInteger(unlimited ? UNLIMITED : Math.max(remainingTimes, 0));
     }
 
     public static Times unlimited() {
@@ -28,15 +34,15 @@ public class Times extends ObjectWithReflectiveEqualsHashCodeToString {
     }
 
     public int getRemainingTimes() {
-        return remainingTimes;
+        return Math.max(remainingTimes.get(), 0);
     }
 
     public boolean isUnlimited() {
-        return unlimited;
+        return remainingTimes.get() == UNLIMITED;
     }
 
     public boolean greaterThenZero() {
-        if (unlimited || remainingTimes > 0) {
+        if (remainingTimes.get() != 0) {
             return true;
         } else {
             logger.trace("Remaining count is 0");
@@ -45,17 +51,52 @@ public class Times extends ObjectWithReflectiveEqualsHashCodeToString {
     }
 
     public Times decrement() {
-        if (!unlimited) {
-            remainingTimes--;
-        }
+        tryDecrement();
         return this;
     }
 
-    public Times setNotUnlimitedResponses() {
-        if (unlimited) {
-            remainingTimes = 1;
-            unlimited = false;
+    /**
+     * Atomically consumes one of the remaining times, when several threads race for the last remaining time only one
+     * of them succeeds
+     *
+     * @return true if unlimited or a remaining time was consumed, false if no times were remaining
+     */
+    public boolean tryDecrement() {
+        while (true) {
+            int current = remainingTimes.get();
+            if (current == UNLIMITED) {
+                return true;
+            } else if (current == 0) {
+                return false;
+            } else if (remainingTimes.compareAndSet(current, current - 1)) {
+                return true;
+            }
         }
+    }
+
+    public Times setNotUnlimitedResponses() {
+        remainingTimes.compareAndSet(UNLIMITED, 1);
         return this;
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (other instanceof Times) {
+            return remainingTimes.get() == ((Times) other).remainingTimes.get();
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return remainingTimes.get();
+    }
+
+    @Override
+    public String toString() {
+        return "Times[remainingTimes=" + getRemainingTimes() + ",unlimited=" + isUnlimited() + "]";
+    }
 }
@@ -1,69 +1,103 @@
 package org.mockserver.matchers;
 
 import org.apache.commons.lang3.StringUtils;
+import org.mockserver.configuration.SystemProperties;
+import org.mockserver.model.ParsedBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.xml.sax.ErrorHandler;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-import org.xml.sax.SAXParseException;
+import org.w3c.dom.Document;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
-import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 /**
  * @author jamesdbloom
  */
 public class XPathStringMatcher extends BodyMatcher<String> implements Matcher<String> {
     private static Logger logger = LoggerFactory.getLogger(XPathStringMatcher.class);
+    // an absolute path of element names only, such as /Envelope/Body/getQuote, can be evaluated without a DOM
+    private static final Pattern SIMPLE_PATH = Pattern.compile("(/[A-Za-z_][A-Za-z0-9_.\\-]*)+");
+    private static final int MAX_CACHED_EXPRESSIONS_PER_THREAD = 256;
+    // XPath and XPathExpression are not thread safe so each thread compiles and reuses its own, shared by every
+    // matcher and bounded so memory does not grow with the number of expectations
+    private static final ThreadLocal<XPath> xpaths = new ThreadLocal<XPath>() {
+        @Override
+        protected XPath initialValue() {
+            return XPathFactory.newInstance().newXPath();
+        }
+    };
+    private static final ThreadLocal<Map<String, XPathExpression>> xpathExpressions = new ThreadLocal<Map<String, XPathExpression>>() {
+        @Override
+        protected Map<String, XPathExpression> initialValue() {
+            return new LinkedHashMap<String, XPathExpression>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, XPathExpression> eldest) {
+                    return size() > MAX_CACHED_EXPRESSIONS_PER_THREAD;
+                }
+            };
+        }
+    };
     private final String matcher;
-    private XPathExpression xpathExpression = null;
+    private boolean validXPath = false;
+    private String simplePath = null;
 
-    public XPathStringMatcher(String matcher) {
+    public XPathStringMatcher(final String matcher) {
         this.matcher = matcher;
         if (StringUtils.isNotEmpty(matcher)) {
             try {
-                xpathExpression = XPathFactory.newInstance().newXPath().compile(matcher);
+                compile(matcher);
+                validXPath = true;
+                if (SystemProperties.streamingXPathEnabled() && SIMPLE_PATH.matcher(matcher).matches()) {
+                    simplePath = matcher;
+                }
             } catch (XPathExpressionException e) {
                 logger.trace("Error while creating xpath expression for [" + matcher + "] assuming matcher not xpath - " + e.getMessage(), e);
             }
         }
     }
 
-    public boolean matches(final String matched) {
+    private static XPathExpression compile(String expression) throws XPathExpressionException {
+        Map<String, XPathExpression> compiled = xpathExpressions.get();
+        XPathExpression xpathExpression = compiled.get(expression);
         if (xpathExpression == null) {
+            xpathExpression = xpaths.get().compile(expression);
+            compiled.put(expression, xpathExpression);
+        }
+        return xpathExpression;
+    }
+
+    public boolean matches(final String matched) {
+        return matchesBody(new ParsedBody(matched));
+    }
+
+    public boolean matchesBody(ParsedBody parsedBody) {
+        String matched = parsedBody.getString();
+        if (!validXPath) {
             logger.warn("Attempting match against null XPath Expression for [" + matched + "]" + new RuntimeException("Attempting match against null XPath Expression for [" + matched + "]"));
         } else if (matcher.equals(matched)) {
             return true;
-        } else if (matched != null) {
+        } else if (simplePath != null) {
+            // match as path existence - matcher -> element paths streamed from matched
+            Set<String> elementPaths = parsedBody.getElementPaths();
+            if (elementPaths != null && elementPaths.contains(simplePath)) {
+                return true;
+            }
+        } else {
             // match as xpath - matcher -> matched
-            try {
-                DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-                DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
-                documentBuilder.setErrorHandler(new ErrorHandler() {
-                    @Override
-                    public void warning(SAXParseException exception) throws SAXException {
-                        logger.debug("SAXParseException while performing match between [" + matcher + "] and [" + matched + "]", exception);
-                    }
-
-                    @Override
-                    public void error(SAXParseException exception) throws SAXException {
-                        logger.debug("SAXParseException while performing match between [" + matcher + "] and [" + matched + "]", exception);
-                    }
-
-                    @Override
-                    public void fatalError(SAXParseException exception) throws SAXException {
-                        logger.debug("SAXParseException while performing match between [" + matcher + "] and [" + matched + "]", exception);
-                    }
-                });
-                return (Boolean) xpathExpression.evaluate(documentBuilder.parse(new InputSource(new StringReader(matched))), XPathConstants.BOOLEAN);
-            } catch (Exception e) {
-                logger.trace("Error while matching xpath [" + matcher + "] against string [" + matched + "] assuming no match - " + e.getMessage());
+            Document document = parsedBody.parseDocument();
+            if (document != null) {
+                try {
+                    return (Boolean) compile(matcher).evaluate(document, XPathConstants.BOOLEAN);
+                } catch (Exception e) {
+                    logger.trace("Error while matching xpath [" + matcher + "] against string [" + matched + "] assuming no match - " + e.getMessage());
+                }
             }
         }
 
@@ -73,6 +107,6 @@ public class XPathStringMatcher extends BodyMatcher<String> implements Matcher<S
 
     @Override
     public String[] fieldsExcludedFromEqualsAndHashCode() {
-        return new String[]{"logger", "xpathExpression"};
+        return new String[]{"validXPath", "simplePath"};
     }
 }
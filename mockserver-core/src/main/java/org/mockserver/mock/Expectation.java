@@ -1,26 +1,36 @@
 package org.mockserver.mock;
 
-import org.mockserver.matchers.HttpRequestMatcher;
+import com.google.common.base.Objects;
+import org.mockserver.configuration.SystemProperties;
+import org.mockserver.matchers.Matcher;
 import org.mockserver.matchers.MatcherBuilder;
 import org.mockserver.matchers.Times;
 import org.mockserver.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * @author jamesdbloom
  */
 public class Expectation extends ObjectWithReflectiveEqualsHashCodeToString {
 
+    private static Logger logger = LoggerFactory.getLogger(Expectation.class);
+
     private final HttpRequest httpRequest;
     private final Times times;
-    private final HttpRequestMatcher httpRequestMatcher;
-    private HttpResponse httpResponse;
-    private HttpForward httpForward;
-    private HttpCallback httpCallback;
+    private final Matcher<HttpRequest> httpRequestMatcher;
+    private volatile HttpResponse httpResponse;
+    private volatile HttpForward httpForward;
+    private volatile HttpCallback httpCallback;
 
     public Expectation(HttpRequest httpRequest, Times times) {
+        this(httpRequest, times, SystemProperties.compiledMatchersEnabled());
+    }
+
+    public Expectation(HttpRequest httpRequest, Times times, boolean compiledMatcher) {
         this.httpRequest = httpRequest;
         this.times = times;
-        this.httpRequestMatcher = new MatcherBuilder().transformsToMatcher(this.httpRequest);
+        this.httpRequestMatcher = new MatcherBuilder().transformsToMatcher(this.httpRequest, compiledMatcher);
     }
 
     public HttpRequest getHttpRequest() {
@@ -110,10 +120,13 @@ public class Expectation extends ObjectWithReflectiveEqualsHashCodeToString {
         return times == null || times.greaterThenZero();
     }
 
-    public void decrementRemainingMatches() {
-        if (times != null) {
-            times.decrement();
-        }
+    /**
+     * Atomically consumes one remaining match
+     *
+     * @return false if no matches were remaining, for example because a concurrent request consumed the last one
+     */
+    public boolean decrementRemainingMatches() {
+        return times == null || times.tryDecrement();
     }
 
     public void setNotUnlimitedResponses() {
@@ -125,4 +138,24 @@ public class Expectation extends ObjectWithReflectiveEqualsHashCodeToString {
     public boolean contains(HttpRequest httpRequest) {
         return httpRequest != null && this.httpRequest.equals(httpRequest);
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (other == null || other.getClass() != getClass()) {
+            return false;
+        }
+        Expectation that = (Expectation) other;
+        return Objects.equal(httpRequest, that.httpRequest)
+                && Objects.equal(times, that.times)
+                && Objects.equal(httpResponse, that.httpResponse)
+                && Objects.equal(httpForward, that.httpForward)
+                && Objects.equal(httpCallback, that.httpCallback);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(httpRequest, times, httpResponse, httpForward, httpCallback);
+    }
 }
@@ -0,0 +1,269 @@
+package org.mockserver.mock;
+
+import org.mockserver.model.HttpRequest;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.mockserver.matchers.RegexStringMatcher.dottedMatches;
+import static org.mockserver.matchers.RegexStringMatcher.isDotted;
+import static org.mockserver.matchers.RegexStringMatcher.isLiteral;
+
+/**
+ * Index of expectations by literal method and literal path, expectations with an empty or regex method or path are
+ * held in a wildcard bucket for that dimension, the candidates returned for a request are always in the order the
+ * expectations were added so that the first matching expectation is still the first one added
+ *
+ * Reads never lock, each bucket is a copy-on-write snapshot and all expectations are held in a concurrent map ordered
+ * by when they were added, writes are serialised so buckets are never lost between concurrent writers
+ *
+ * The regex paths of the expectations in the wildcard path buckets are also compiled into a single PathAutomaton, so
+ * the request path is read once to find which of them match instead of evaluating each regex, the automaton is only
+ * rebuilt, on the next request, after expectations with regex paths were added or removed, regex paths it cannot
+ * compile are always returned as candidates
+ *
+ * A request path whose only regex character is '.', such as /file.json, is looked up in its own bucket and in the
+ * buckets of the literal paths, and regex paths, it could match as a regex where '.' matches any single character
+ *
+ * @author jamesdbloom
+ */
+class ExpectationIndex {
+
+    static final String WILDCARD = ".*";
+    private static final Comparator<IndexEntry> SEQUENCE_ORDER = new Comparator<IndexEntry>() {
+        public int compare(IndexEntry first, IndexEntry second) {
+            return first.sequence < second.sequence ? -1 : (first.sequence == second.sequence ? 0 : 1);
+        }
+    };
+
+    private final ConcurrentMap<String, ConcurrentMap<String, CopyOnWriteArrayList<IndexEntry>>> methodToPathToEntries = new ConcurrentHashMap<String, ConcurrentMap<String, CopyOnWriteArrayList<IndexEntry>>>();
+    private final ConcurrentSkipListMap<Long, Expectation> entries = new ConcurrentSkipListMap<Long, Expectation>();
+    private final Map<String, RegexPath> regexPaths = new HashMap<String, RegexPath>();
+    private volatile PathAutomaton pathAutomaton = PathAutomaton.EMPTY;
+    private volatile boolean pathAutomatonStale = false;
+    private long sequence = 0;
+
+    static String indexKey(String value) {
+        if (value == null || value.isEmpty() || !isLiteral(value)) {
+            return WILDCARD;
+        } else {
+            return value;
+        }
+    }
+
+    public synchronized void add(Expectation expectation) {
+        String path = expectation.getHttpRequest() != null ? expectation.getHttpRequest().getPath() : null;
+        IndexEntry indexEntry = new IndexEntry(sequence++, path, expectation);
+        String methodKey = indexKey(expectation.getHttpRequest() != null ? expectation.getHttpRequest().getMethod() : null);
+        String pathKey = indexKey(path);
+        ConcurrentMap<String, CopyOnWriteArrayList<IndexEntry>> pathToEntries = methodToPathToEntries.get(methodKey);
+        if (pathToEntries == null) {
+            pathToEntries = new ConcurrentHashMap<String, CopyOnWriteArrayList<IndexEntry>>();
+            methodToPathToEntries.put(methodKey, pathToEntries);
+        }
+        CopyOnWriteArrayList<IndexEntry> bucket = pathToEntries.get(pathKey);
+        if (bucket == null) {
+            bucket = new CopyOnWriteArrayList<IndexEntry>();
+            pathToEntries.put(pathKey, bucket);
+        }
+        entries.put(indexEntry.sequence, expectation);
+        bucket.add(indexEntry);
+        if (isRegexPath(path)) {
+            RegexPath regexPath = regexPaths.get(path);
+            if (regexPath == null) {
+                PathAutomaton.CompiledPattern compiledPattern = PathAutomaton.compile(path);
+                if (compiledPattern != null) {
+                    regexPaths.put(path, new RegexPath(compiledPattern));
+                    pathAutomatonStale = true;
+                }
+            } else {
+                regexPath.expectations++;
+            }
+        }
+    }
+
+    private static boolean isRegexPath(String path) {
+        return path != null && !path.isEmpty() && !isLiteral(path);
+    }
+
+    /**
+     * Removes the expectation (by identity) from the index
+     *
+     * @param expectation the expectation to remove
+     * @return true if this call removed the expectation, false if it had already been removed
+     */
+    public synchronized boolean remove(Expectation expectation) {
+        String methodKey = indexKey(expectation.getHttpRequest() != null ? expectation.getHttpRequest().getMethod() : null);
+        String pathKey = indexKey(expectation.getHttpRequest() != null ? expectation.getHttpRequest().getPath() : null);
+        ConcurrentMap<String, CopyOnWriteArrayList<IndexEntry>> pathToEntries = methodToPathToEntries.get(methodKey);
+        if (pathToEntries != null) {
+            CopyOnWriteArrayList<IndexEntry> bucket = pathToEntries.get(pathKey);
+            if (bucket != null) {
+                for (IndexEntry indexEntry : bucket) {
+                    if (indexEntry.expectation == expectation) {
+                        bucket.remove(indexEntry);
+                        entries.remove(indexEntry.sequence);
+                        RegexPath regexPath = isRegexPath(indexEntry.path) ? regexPaths.get(indexEntry.path) : null;
+                        if (regexPath != null && --regexPath.expectations == 0) {
+                            regexPaths.remove(indexEntry.path);
+                            pathAutomatonStale = true;
+                        }
+                        if (bucket.isEmpty()) {
+                            pathToEntries.remove(pathKey);
+                            if (pathToEntries.isEmpty()) {
+                                methodToPathToEntries.remove(methodKey);
+                            }
+                        }
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    public synchronized void clear() {
+        methodToPathToEntries.clear();
+        entries.clear();
+        regexPaths.clear();
+        pathAutomaton = PathAutomaton.EMPTY;
+        pathAutomatonStale = false;
+    }
+
+    private PathAutomaton pathAutomaton() {
+        if (pathAutomatonStale) {
+            synchronized (this) {
+                if (pathAutomatonStale) {
+                    List<PathAutomaton.CompiledPattern> compiledPatterns = new ArrayList<PathAutomaton.CompiledPattern>(regexPaths.size());
+                    for (RegexPath regexPath : regexPaths.values()) {
+                        compiledPatterns.add(regexPath.compiledPattern);
+                    }
+                    pathAutomaton = new PathAutomaton(compiledPatterns);
+                    pathAutomatonStale = false;
+                }
+            }
+        }
+        return pathAutomaton;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * A live view of all expectations in the order they were added
+     *
+     * @return all expectations
+     */
+    public Collection<Expectation> expectations() {
+        return entries.values();
+    }
+
+    /**
+     * Returns the expectations that could match the request in the order they were added, a request with a method, or
+     * a path, containing regex characters other than '.' could itself match any literal expectation so all expectations
+     * are returned
+     *
+     * @param httpRequest the incoming request
+     * @return the candidate expectations in the order they were added
+     */
+    public List<Expectation> candidates(HttpRequest httpRequest) {
+        if (httpRequest == null || !isLiteral(httpRequest.getMethod()) || !(isLiteral(httpRequest.getPath()) || isDotted(httpRequest.getPath()))) {
+            return new ArrayList<Expectation>(entries.values());
+        }
+        String path = httpRequest.getPath();
+        boolean dotted = isDotted(path);
+        List<IndexEntry> candidates = new ArrayList<IndexEntry>();
+        int bucketsFound = 0;
+        PathAutomaton pathAutomaton = null;
+        Set<String> matchingRegexPaths = null;
+        for (String methodKey : new String[]{httpRequest.getMethod(), WILDCARD}) {
+            Map<String, CopyOnWriteArrayList<IndexEntry>> pathToEntries = methodKey != null ? methodToPathToEntries.get(methodKey) : null;
+            if (pathToEntries != null) {
+                if (dotted) {
+                    // a dotted path could match, as a regex, any literal path of the same length
+                    for (Map.Entry<String, CopyOnWriteArrayList<IndexEntry>> entry : pathToEntries.entrySet()) {
+                        if (!entry.getKey().equals(WILDCARD) && dottedMatches(path, entry.getKey())) {
+                            candidates.addAll(entry.getValue());
+                            bucketsFound++;
+                        }
+                    }
+                }
+                for (String pathKey : new String[]{dotted ? null : path, WILDCARD}) {
+                    List<IndexEntry> bucket = pathKey != null ? pathToEntries.get(pathKey) : null;
+                    if (bucket != null) {
+                        if (pathKey.equals(WILDCARD) && pathAutomaton == null) {
+                            pathAutomaton = pathAutomaton();
+                            matchingRegexPaths = pathAutomaton.isEmpty() ? null : pathAutomaton.matches(path);
+                        }
+                        if (pathKey.equals(WILDCARD) && matchingRegexPaths != null) {
+                            for (IndexEntry indexEntry : bucket) {
+                                // a regex path the automaton does not contain, for example because it was added after the automaton was built, is still a candidate
+                                if (!pathAutomaton.contains(indexEntry.path) || matchingRegexPaths.contains(indexEntry.path) || (dotted && dottedMatches(path, indexEntry.path))) {
+                                    candidates.add(indexEntry);
+                                }
+                            }
+                        } else {
+                            candidates.addAll(bucket);
+                        }
+                        bucketsFound++;
+                    }
+                }
+            }
+        }
+        if (bucketsFound > 1) {
+            Collections.sort(candidates, SEQUENCE_ORDER);
+        }
+        return toExpectations(candidates);
+    }
+
+    /**
+     * Returns the expectations indexed under the same method and path keys as the request, any expectation with a
+     * request equal to this request is always in this bucket
+     *
+     * @param httpRequest the request of a new expectation
+     * @return the expectations in the same bucket in the order they were added
+     */
+    public List<Expectation> sameBucket(HttpRequest httpRequest) {
+        Map<String, CopyOnWriteArrayList<IndexEntry>> pathToEntries = methodToPathToEntries.get(indexKey(httpRequest != null ? httpRequest.getMethod() : null));
+        if (pathToEntries != null) {
+            List<IndexEntry> bucket = pathToEntries.get(indexKey(httpRequest != null ? httpRequest.getPath() : null));
+            if (bucket != null) {
+                return toExpectations(bucket);
+            }
+        }
+        return new ArrayList<Expectation>();
+    }
+
+    private List<Expectation> toExpectations(List<IndexEntry> indexEntries) {
+        List<Expectation> expectations = new ArrayList<Expectation>(indexEntries.size());
+        for (IndexEntry indexEntry : indexEntries) {
+            expectations.add(indexEntry.expectation);
+        }
+        return expectations;
+    }
+
+    private static class IndexEntry {
+        private final long sequence;
+        private final String path;
+        private final Expectation expectation;
+
+        IndexEntry(long sequence, String path, Expectation expectation) {
+            this.sequence = sequence;
+            this.path = path;
+            this.expectation = expectation;
+        }
+    }
+
+    private static class RegexPath {
+        private final PathAutomaton.CompiledPattern compiledPattern;
+        private int expectations = 1;
+
+        RegexPath(PathAutomaton.CompiledPattern compiledPattern) {
+            this.compiledPattern = compiledPattern;
+        }
+    }
+}
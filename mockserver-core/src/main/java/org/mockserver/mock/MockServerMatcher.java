@@ -5,6 +5,7 @@ import com.google.common.base.Predicate;
 import com.google.common.collect.Collections2;
 import org.mockserver.client.serialization.Base64Converter;
 import org.mockserver.client.serialization.ExpectationSerializer;
+import org.mockserver.configuration.SystemProperties;
 import org.mockserver.matchers.HttpRequestMatcher;
 import org.mockserver.matchers.MatcherBuilder;
 import org.mockserver.matchers.Times;
@@ -14,7 +15,6 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -23,17 +23,33 @@ import java.util.regex.Pattern;
  */
 public class MockServerMatcher extends ObjectWithReflectiveEqualsHashCodeToString {
 
-    protected final List<Expectation> expectations = new ArrayList<Expectation>();
+    private final ExpectationIndex expectationIndex = new ExpectationIndex();
+    protected final Collection<Expectation> expectations = expectationIndex.expectations();
     private Logger requestLogger = LoggerFactory.getLogger("REQUEST");
+    private transient volatile boolean compiledMatchers = SystemProperties.compiledMatchersEnabled();
+    private transient volatile MatchListener matchListener;
 
-    public synchronized Expectation when(HttpRequest httpRequest) {
+    public MockServerMatcher withCompiledMatchers(boolean compiledMatchers) {
+        this.compiledMatchers = compiledMatchers;
+        return this;
+    }
+
+    /**
+     * the listener is told about each expectation that matches a request, as it is matched
+     */
+    public MockServerMatcher withMatchListener(MatchListener matchListener) {
+        this.matchListener = matchListener;
+        return this;
+    }
+
+    public Expectation when(HttpRequest httpRequest) {
         return when(httpRequest, Times.unlimited());
     }
 
     public synchronized Expectation when(final HttpRequest httpRequest, Times times) {
         Expectation expectation;
         if (times.isUnlimited()) {
-            Collection<Expectation> existingExpectationsWithMatchingRequest = Collections2.filter(expectations, new Predicate<Expectation>() {
+            Collection<Expectation> existingExpectationsWithMatchingRequest = Collections2.filter(expectationIndex.sameBucket(httpRequest), new Predicate<Expectation>() {
                 public boolean apply(Expectation expectation) {
                     return expectation.contains(httpRequest);
                 }
@@ -42,26 +58,27 @@ public class MockServerMatcher extends ObjectWithReflectiveEqualsHashCodeToStrin
                 for (Expectation existingExpectation : existingExpectationsWithMatchingRequest) {
                     existingExpectation.setNotUnlimitedResponses();
                 }
-                expectation = new Expectation(httpRequest, Times.once());
+                expectation = new Expectation(httpRequest, Times.once(), compiledMatchers);
             } else {
-                expectation = new Expectation(httpRequest, Times.unlimited());
+                expectation = new Expectation(httpRequest, Times.unlimited(), compiledMatchers);
             }
         } else {
-            expectation = new Expectation(httpRequest, times);
+            expectation = new Expectation(httpRequest, times, compiledMatchers);
         }
-        expectations.add(expectation);
+        expectationIndex.add(expectation);
         return expectation;
     }
 
-    public synchronized Action handle(HttpRequest httpRequest) {
-        ArrayList<Expectation> expectations = new ArrayList<Expectation>(this.expectations);
-        for (Expectation expectation : expectations) {
-            if (expectation.matches(httpRequest)) {
-                expectation.decrementRemainingMatches();
-                if (!expectation.getTimes().greaterThenZero()) {
-                    if (this.expectations.contains(expectation)) {
-                        this.expectations.remove(expectation);
-                    }
+    public Action handle(HttpRequest httpRequest) {
+        for (Expectation expectation : expectationIndex.candidates(httpRequest)) {
+            // another thread may consume the last remaining match between matching and decrementing
+            if (expectation.matches(httpRequest) && expectation.decrementRemainingMatches()) {
+                if (expectation.getTimes() != null && !expectation.getTimes().greaterThenZero()) {
+                    expectationIndex.remove(expectation);
+                }
+                MatchListener listener = matchListener;
+                if (listener != null) {
+                    listener.matched(expectation);
                 }
                 return expectation.getAction(true);
             }
@@ -74,9 +91,7 @@ public class MockServerMatcher extends ObjectWithReflectiveEqualsHashCodeToStrin
             HttpRequestMatcher httpRequestMatcher = new MatcherBuilder().transformsToMatcher(httpRequest);
             for (Expectation expectation : new ArrayList<Expectation>(expectations)) {
                 if (httpRequestMatcher.matches(expectation.getHttpRequest())) {
-                    if (this.expectations.contains(expectation)) {
-                        this.expectations.remove(expectation);
-                    }
+                    expectationIndex.remove(expectation);
                 }
             }
         } else {
@@ -85,10 +100,10 @@ public class MockServerMatcher extends ObjectWithReflectiveEqualsHashCodeToStrin
     }
 
     public synchronized void reset() {
-        this.expectations.clear();
+        expectationIndex.clear();
     }
 
-    public synchronized void dumpToLog(HttpRequest httpRequest) {
+    public void dumpToLog(HttpRequest httpRequest) {
         if (httpRequest != null) {
             ExpectationSerializer expectationSerializer = new ExpectationSerializer();
             for (Expectation expectation : new ArrayList<Expectation>(expectations)) {
@@ -114,4 +129,11 @@ public class MockServerMatcher extends ObjectWithReflectiveEqualsHashCodeToStrin
             return serializedExpectation;
         }
     }
+
+    public interface MatchListener {
+        /**
+         * called on the thread handling the request with the first expectation that matched it
+         */
+        void matched(Expectation expectation);
+    }
 }
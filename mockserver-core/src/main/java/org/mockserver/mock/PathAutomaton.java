@@ -0,0 +1,713 @@
+package org.mockserver.mock;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Union of many path regexes as a single automaton, a request path is read once, character by character, and the
+ * result is the set of patterns that fully match it, the same as Pattern.matcher(path).matches() for each pattern
+ *
+ * Each pattern is parsed into its own NFA once, when it is first added, the union is a list of these NFAs that is
+ * cheap to re-create when patterns are added or removed, the DFA states are built lazily from the NFA while paths are
+ * matched and are cached, so only the states that real paths reach are ever built
+ *
+ * Only a subset of the regex syntax is supported: literals, escaped characters, ., character classes with ranges and
+ * negation, \d \w \s and their negations, groups, non capturing groups, alternation and greedy or lazy quantifiers
+ * (including bounded repetition), a leading ^ and a trailing $, any other pattern is not compiled and must be matched
+ * with java.util.regex
+ *
+ * @author jamesdbloom
+ */
+class PathAutomaton {
+
+    private static final int MAX_NFA_STATES_PER_PATTERN = 2000;
+    private static final int MAX_CACHED_DFA_STATES = 10000;
+    private static final int[] NO_STATES = new int[0];
+    private static final int[] ANY_CHARACTER_EXCEPT_LINE_TERMINATORS = new int[]{
+            0x0000, 0x0009, 0x000B, 0x000C, 0x000E, 0x0084, 0x0086, 0x2027, 0x202A, Character.MAX_VALUE
+    };
+    private static final int[] DIGIT = new int[]{'0', '9'};
+    private static final int[] WORD = new int[]{'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+    private static final int[] WHITESPACE = new int[]{'\t', '\r', ' ', ' '};
+    // declared after the constants it uses when it is built
+    static final PathAutomaton EMPTY = new PathAutomaton(Collections.<CompiledPattern>emptyList());
+
+    private final Set<String> patterns;
+    // the NFAs of all patterns concatenated, state ids of a pattern are offset by the states of the patterns before it
+    private final int[][] epsilonTransitions;
+    private final int[][] characterRanges;
+    private final int[] characterTransitions;
+    private final String[] acceptedPattern;
+    // the start of each character equivalence class, every character in a class has the same transitions
+    private final int[] characterClasses;
+    private final Map<StateSet, DfaState> dfaStates = new HashMap<StateSet, DfaState>();
+    private final DfaState start;
+
+    PathAutomaton(Collection<CompiledPattern> compiledPatterns) {
+        int stateCount = 0;
+        Set<String> patterns = new LinkedHashSet<String>();
+        for (CompiledPattern compiledPattern : compiledPatterns) {
+            stateCount += compiledPattern.characterTransitions.length;
+            patterns.add(compiledPattern.pattern);
+        }
+        this.patterns = Collections.unmodifiableSet(patterns);
+        this.epsilonTransitions = new int[stateCount][];
+        this.characterRanges = new int[stateCount][];
+        this.characterTransitions = new int[stateCount];
+        this.acceptedPattern = new String[stateCount];
+        int[] startStates = new int[compiledPatterns.size()];
+        SortedSet<Integer> classStarts = new TreeSet<Integer>();
+        classStarts.add(0);
+        int offset = 0;
+        int patternIndex = 0;
+        for (CompiledPattern compiledPattern : compiledPatterns) {
+            for (int state = 0; state < compiledPattern.characterTransitions.length; state++) {
+                int[] epsilons = compiledPattern.epsilonTransitions[state];
+                epsilonTransitions[offset + state] = new int[epsilons.length];
+                for (int i = 0; i < epsilons.length; i++) {
+                    epsilonTransitions[offset + state][i] = offset + epsilons[i];
+                }
+                int[] ranges = compiledPattern.characterRanges[state];
+                characterRanges[offset + state] = ranges;
+                characterTransitions[offset + state] = ranges != null ? offset + compiledPattern.characterTransitions[state] : -1;
+                if (ranges != null) {
+                    for (int i = 0; i < ranges.length; i += 2) {
+                        classStarts.add(ranges[i]);
+                        if (ranges[i + 1] < Character.MAX_VALUE) {
+                            classStarts.add(ranges[i + 1] + 1);
+                        }
+                    }
+                }
+            }
+            acceptedPattern[offset + compiledPattern.acceptState] = compiledPattern.pattern;
+            startStates[patternIndex++] = offset + compiledPattern.startState;
+            offset += compiledPattern.characterTransitions.length;
+        }
+        this.characterClasses = new int[classStarts.size()];
+        int classIndex = 0;
+        for (Integer classStart : classStarts) {
+            characterClasses[classIndex++] = classStart;
+        }
+        this.start = dfaState(closure(startStates));
+    }
+
+    /**
+     * Parses a regex into an NFA
+     *
+     * @param pattern the regex
+     * @return the NFA or null if the regex uses syntax that is not supported
+     */
+    static CompiledPattern compile(String pattern) {
+        try {
+            return new Parser(pattern).compile();
+        } catch (UnsupportedPatternException upe) {
+            return null;
+        }
+    }
+
+    /**
+     * @param pattern a regex
+     * @return true if this automaton matches the regex, so the regex does not need to be evaluated separately
+     */
+    boolean contains(String pattern) {
+        return patterns.contains(pattern);
+    }
+
+    boolean isEmpty() {
+        return patterns.isEmpty();
+    }
+
+    /**
+     * @param path the path to match
+     * @return the patterns that fully match the path or null if the path cannot be matched by this automaton
+     */
+    Set<String> matches(String path) {
+        if (path == null) {
+            return null;
+        }
+        DfaState state = start;
+        for (int i = 0; i < path.length() && state.states.length > 0; i++) {
+            char character = path.charAt(i);
+            if (isSurrogate(character)) {
+                // java.util.regex matches code points not chars
+                return null;
+            }
+            int characterClass = characterClass(character);
+            DfaState next = state.next.get(characterClass);
+            if (next == null) {
+                next = transition(state, characterClass);
+            }
+            state = next;
+        }
+        return state.accepted;
+    }
+
+    private static boolean isSurrogate(char character) {
+        return character >= Character.MIN_SURROGATE && character <= Character.MAX_SURROGATE;
+    }
+
+    private int characterClass(char character) {
+        int index = Arrays.binarySearch(characterClasses, character);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private synchronized DfaState transition(DfaState state, int characterClass) {
+        DfaState next = state.next.get(characterClass);
+        if (next == null) {
+            int character = characterClasses[characterClass];
+            int[] targets = new int[state.states.length];
+            int targetCount = 0;
+            for (int nfaState : state.states) {
+                if (characterRanges[nfaState] != null && inRanges(characterRanges[nfaState], character)) {
+                    targets[targetCount++] = characterTransitions[nfaState];
+                }
+            }
+            next = dfaState(closure(Arrays.copyOf(targets, targetCount)));
+            state.next.set(characterClass, next);
+        }
+        return next;
+    }
+
+    private static boolean inRanges(int[] ranges, int character) {
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (character >= ranges[i] && character <= ranges[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int[] closure(int[] states) {
+        BitSet reached = new BitSet(characterTransitions.length);
+        Deque<Integer> toVisit = new ArrayDeque<Integer>();
+        for (int state : states) {
+            if (!reached.get(state)) {
+                reached.set(state);
+                toVisit.push(state);
+            }
+        }
+        while (!toVisit.isEmpty()) {
+            for (int next : epsilonTransitions[toVisit.pop()]) {
+                if (!reached.get(next)) {
+                    reached.set(next);
+                    toVisit.push(next);
+                }
+            }
+        }
+        int[] closure = new int[reached.cardinality()];
+        int index = 0;
+        for (int state = reached.nextSetBit(0); state >= 0; state = reached.nextSetBit(state + 1)) {
+            closure[index++] = state;
+        }
+        return closure;
+    }
+
+    private DfaState dfaState(int[] states) {
+        StateSet stateSet = new StateSet(states.length > 0 ? states : NO_STATES);
+        DfaState dfaState = dfaStates.get(stateSet);
+        if (dfaState == null) {
+            if (dfaStates.size() >= MAX_CACHED_DFA_STATES) {
+                // states already linked from other states stay reachable, only the lookup of equal states is lost
+                dfaStates.clear();
+            }
+            Set<String> accepted = new HashSet<String>();
+            for (int state : stateSet.states) {
+                if (acceptedPattern[state] != null) {
+                    accepted.add(acceptedPattern[state]);
+                }
+            }
+            dfaState = new DfaState(stateSet.states, accepted.isEmpty() ? Collections.<String>emptySet() : Collections.unmodifiableSet(accepted), characterClasses.length);
+            dfaStates.put(stateSet, dfaState);
+        }
+        return dfaState;
+    }
+
+    private static class DfaState {
+        private final int[] states;
+        private final Set<String> accepted;
+        private final AtomicReferenceArray<DfaState> next;
+
+        DfaState(int[] states, Set<String> accepted, int characterClassCount) {
+            this.states = states;
+            this.accepted = accepted;
+            this.next = new AtomicReferenceArray<DfaState>(characterClassCount);
+        }
+    }
+
+    private static class StateSet {
+        private final int[] states;
+        private final int hashCode;
+
+        StateSet(int[] states) {
+            this.states = states;
+            this.hashCode = Arrays.hashCode(states);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof StateSet && Arrays.equals(states, ((StateSet) other).states);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * The NFA of a single pattern, each state either has a character transition, for characters in its ranges, or
+     * only epsilon transitions
+     */
+    static class CompiledPattern {
+        private final String pattern;
+        private final int startState;
+        private final int acceptState;
+        private final int[][] epsilonTransitions;
+        private final int[][] characterRanges;
+        private final int[] characterTransitions;
+
+        CompiledPattern(String pattern, int startState, int acceptState, int[][] epsilonTransitions, int[][] characterRanges, int[] characterTransitions) {
+            this.pattern = pattern;
+            this.startState = startState;
+            this.acceptState = acceptState;
+            this.epsilonTransitions = epsilonTransitions;
+            this.characterRanges = characterRanges;
+            this.characterTransitions = characterTransitions;
+        }
+
+        String getPattern() {
+            return pattern;
+        }
+    }
+
+    private static class UnsupportedPatternException extends Exception {
+        UnsupportedPatternException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Recursive descent parser into an expression tree, the tree is then expanded into an NFA so bounded repetition
+     * can copy its sub-expression
+     */
+    private static class Parser {
+        private final String pattern;
+        private int position = 0;
+        private final List<List<Integer>> epsilonTransitions = new ArrayList<List<Integer>>();
+        private final List<int[]> characterRanges = new ArrayList<int[]>();
+        private final List<Integer> characterTransitions = new ArrayList<Integer>();
+
+        Parser(String pattern) {
+            this.pattern = pattern;
+        }
+
+        CompiledPattern compile() throws UnsupportedPatternException {
+            if (pattern.startsWith("^")) {
+                position++;
+            }
+            Node node = alternation(0);
+            if (position != pattern.length()) {
+                throw new UnsupportedPatternException("unexpected [" + pattern.charAt(position) + "] at " + position);
+            }
+            int[] fragment = node.build(this);
+            int stateCount = characterTransitions.size();
+            int[][] epsilons = new int[stateCount][];
+            int[][] ranges = new int[stateCount][];
+            int[] transitions = new int[stateCount];
+            for (int state = 0; state < stateCount; state++) {
+                List<Integer> stateEpsilons = epsilonTransitions.get(state);
+                epsilons[state] = new int[stateEpsilons.size()];
+                for (int i = 0; i < stateEpsilons.size(); i++) {
+                    epsilons[state][i] = stateEpsilons.get(i);
+                }
+                ranges[state] = characterRanges.get(state);
+                transitions[state] = characterTransitions.get(state);
+            }
+            return new CompiledPattern(pattern, fragment[0], fragment[1], epsilons, ranges, transitions);
+        }
+
+        int newState() throws UnsupportedPatternException {
+            if (characterTransitions.size() >= MAX_NFA_STATES_PER_PATTERN) {
+                throw new UnsupportedPatternException("too many states");
+            }
+            epsilonTransitions.add(new ArrayList<Integer>(2));
+            characterRanges.add(null);
+            characterTransitions.add(-1);
+            return characterTransitions.size() - 1;
+        }
+
+        void epsilon(int from, int to) {
+            epsilonTransitions.get(from).add(to);
+        }
+
+        void character(int from, int[] ranges, int to) {
+            characterRanges.set(from, ranges);
+            characterTransitions.set(from, to);
+        }
+
+        private boolean more() {
+            return position < pattern.length();
+        }
+
+        private char peek() {
+            return pattern.charAt(position);
+        }
+
+        private Node alternation(int depth) throws UnsupportedPatternException {
+            List<Node> alternatives = new ArrayList<Node>();
+            alternatives.add(sequence(depth));
+            while (more() && peek() == '|') {
+                position++;
+                alternatives.add(sequence(depth));
+            }
+            return alternatives.size() == 1 ? alternatives.get(0) : new Alternation(alternatives);
+        }
+
+        private Node sequence(int depth) throws UnsupportedPatternException {
+            List<Node> sequence = new ArrayList<Node>();
+            while (more() && peek() != '|' && peek() != ')') {
+                if (peek() == '$' && depth == 0 && position == pattern.length() - 1) {
+                    // a trailing $ does not change what Matcher.matches() accepts
+                    position++;
+                } else {
+                    sequence.add(quantified(depth));
+                }
+            }
+            return new Sequence(sequence);
+        }
+
+        private Node quantified(int depth) throws UnsupportedPatternException {
+            Node atom = atom(depth);
+            if (more()) {
+                int min;
+                int max;
+                char quantifier = peek();
+                if (quantifier == '*') {
+                    min = 0;
+                    max = -1;
+                    position++;
+                } else if (quantifier == '+') {
+                    min = 1;
+                    max = -1;
+                    position++;
+                } else if (quantifier == '?') {
+                    min = 0;
+                    max = 1;
+                    position++;
+                } else if (quantifier == '{') {
+                    position++;
+                    min = number();
+                    max = min;
+                    if (more() && peek() == ',') {
+                        position++;
+                        max = more() && peek() == '}' ? -1 : number();
+                    }
+                    expect('}');
+                    if (max != -1 && max < min) {
+                        throw new UnsupportedPatternException("invalid repetition");
+                    }
+                } else {
+                    return atom;
+                }
+                if (more() && peek() == '?') {
+                    // a lazy quantifier accepts the same strings when the whole input must match
+                    position++;
+                } else if (more() && (peek() == '+' || peek() == '*' || peek() == '{')) {
+                    throw new UnsupportedPatternException("possessive or repeated quantifier");
+                }
+                return new Repetition(atom, min, max);
+            }
+            return atom;
+        }
+
+        private int number() throws UnsupportedPatternException {
+            int start = position;
+            while (more() && Character.isDigit(peek()) && position - start < 3) {
+                position++;
+            }
+            if (start == position || (more() && Character.isDigit(peek()))) {
+                throw new UnsupportedPatternException("invalid repetition count");
+            }
+            return Integer.parseInt(pattern.substring(start, position));
+        }
+
+        private void expect(char expected) throws UnsupportedPatternException {
+            if (!more() || peek() != expected) {
+                throw new UnsupportedPatternException("expected [" + expected + "] at " + position);
+            }
+            position++;
+        }
+
+        private Node atom(int depth) throws UnsupportedPatternException {
+            char character = peek();
+            switch (character) {
+                case '(':
+                    position++;
+                    if (more() && peek() == '?') {
+                        position++;
+                        expect(':');
+                    }
+                    Node group = alternation(depth + 1);
+                    expect(')');
+                    return group;
+                case '[':
+                    position++;
+                    return new Characters(characterClass());
+                case '.':
+                    position++;
+                    return new Characters(ANY_CHARACTER_EXCEPT_LINE_TERMINATORS);
+                case '\\':
+                    position++;
+                    return new Characters(escape());
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                case '^':
+                case '$':
+                    throw new UnsupportedPatternException("unexpected [" + character + "] at " + position);
+                default:
+                    position++;
+                    return new Characters(single(character));
+            }
+        }
+
+        private int[] characterClass() throws UnsupportedPatternException {
+            boolean negated = false;
+            if (more() && peek() == '^') {
+                negated = true;
+                position++;
+            }
+            if (!more() || peek() == ']') {
+                throw new UnsupportedPatternException("empty character class");
+            }
+            List<int[]> members = new ArrayList<int[]>();
+            while (more() && peek() != ']') {
+                if (peek() == '[' || pattern.startsWith("&&", position)) {
+                    throw new UnsupportedPatternException("nested character class");
+                }
+                int[] member = classMember();
+                if (member.length == 2 && member[0] == member[1] && pattern.startsWith("-", position) && position + 1 < pattern.length() && pattern.charAt(position + 1) != ']') {
+                    position++;
+                    int[] end = classMember();
+                    if (end.length != 2 || end[0] != end[1] || end[0] < member[0]) {
+                        throw new UnsupportedPatternException("invalid range");
+                    }
+                    if (more() && peek() == '-' && position + 1 < pattern.length() && pattern.charAt(position + 1) != ']') {
+                        throw new UnsupportedPatternException("ambiguous range");
+                    }
+                    member = new int[]{member[0], end[0]};
+                }
+                members.add(member);
+            }
+            expect(']');
+            int[] ranges = union(members);
+            return negated ? complement(ranges) : ranges;
+        }
+
+        private int[] classMember() throws UnsupportedPatternException {
+            char character = peek();
+            position++;
+            if (character == '\\') {
+                if (!more()) {
+                    throw new UnsupportedPatternException("trailing escape");
+                }
+                return escape();
+            }
+            return single(character);
+        }
+
+        private int[] escape() throws UnsupportedPatternException {
+            if (!more()) {
+                throw new UnsupportedPatternException("trailing escape");
+            }
+            char character = peek();
+            position++;
+            switch (character) {
+                case 'd':
+                    return DIGIT;
+                case 'D':
+                    return complement(DIGIT);
+                case 'w':
+                    return WORD;
+                case 'W':
+                    return complement(WORD);
+                case 's':
+                    return WHITESPACE;
+                case 'S':
+                    return complement(WHITESPACE);
+                case 't':
+                    return single('\t');
+                case 'n':
+                    return single('\n');
+                case 'r':
+                    return single('\r');
+                case 'f':
+                    return single('\f');
+                default:
+                    if ((character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z') || (character >= '0' && character <= '9')) {
+                        throw new UnsupportedPatternException("unsupported escape [\\" + character + "]");
+                    }
+                    return single(character);
+            }
+        }
+
+        private static int[] single(char character) throws UnsupportedPatternException {
+            if (isSurrogate(character)) {
+                throw new UnsupportedPatternException("surrogate character");
+            }
+            return new int[]{character, character};
+        }
+
+        private static int[] union(List<int[]> members) {
+            List<int[]> ranges = new ArrayList<int[]>();
+            for (int[] member : members) {
+                for (int i = 0; i < member.length; i += 2) {
+                    ranges.add(new int[]{member[i], member[i + 1]});
+                }
+            }
+            Collections.sort(ranges, new Comparator<int[]>() {
+                public int compare(int[] first, int[] second) {
+                    return first[0] - second[0];
+                }
+            });
+            List<Integer> merged = new ArrayList<Integer>();
+            for (int[] range : ranges) {
+                if (!merged.isEmpty() && range[0] <= merged.get(merged.size() - 1) + 1) {
+                    merged.set(merged.size() - 1, Math.max(merged.get(merged.size() - 1), range[1]));
+                } else {
+                    merged.add(range[0]);
+                    merged.add(range[1]);
+                }
+            }
+            int[] result = new int[merged.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = merged.get(i);
+            }
+            return result;
+        }
+
+        private static int[] complement(int[] ranges) {
+            List<Integer> complement = new ArrayList<Integer>();
+            int next = 0;
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (ranges[i] > next) {
+                    complement.add(next);
+                    complement.add(ranges[i] - 1);
+                }
+                next = ranges[i + 1] + 1;
+            }
+            if (next <= Character.MAX_VALUE) {
+                complement.add(next);
+                complement.add((int) Character.MAX_VALUE);
+            }
+            int[] result = new int[complement.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = complement.get(i);
+            }
+            return result;
+        }
+    }
+
+    private interface Node {
+        /**
+         * @return the start and accept states of the fragment
+         */
+        int[] build(Parser parser) throws UnsupportedPatternException;
+    }
+
+    private static class Characters implements Node {
+        private final int[] ranges;
+
+        Characters(int[] ranges) {
+            this.ranges = ranges;
+        }
+
+        public int[] build(Parser parser) throws UnsupportedPatternException {
+            int start = parser.newState();
+            int end = parser.newState();
+            parser.character(start, ranges, end);
+            return new int[]{start, end};
+        }
+    }
+
+    private static class Sequence implements Node {
+        private final List<Node> nodes;
+
+        Sequence(List<Node> nodes) {
+            this.nodes = nodes;
+        }
+
+        public int[] build(Parser parser) throws UnsupportedPatternException {
+            int start = parser.newState();
+            int end = start;
+            for (Node node : nodes) {
+                int[] fragment = node.build(parser);
+                parser.epsilon(end, fragment[0]);
+                end = fragment[1];
+            }
+            return new int[]{start, end};
+        }
+    }
+
+    private static class Alternation implements Node {
+        private final List<Node> alternatives;
+
+        Alternation(List<Node> alternatives) {
+            this.alternatives = alternatives;
+        }
+
+        public int[] build(Parser parser) throws UnsupportedPatternException {
+            int start = parser.newState();
+            int end = parser.newState();
+            for (Node alternative : alternatives) {
+                int[] fragment = alternative.build(parser);
+                parser.epsilon(start, fragment[0]);
+                parser.epsilon(fragment[1], end);
+            }
+            return new int[]{start, end};
+        }
+    }
+
+    private static class Repetition implements Node {
+        private final Node node;
+        private final int min;
+        private final int max;
+
+        Repetition(Node node, int min, int max) {
+            this.node = node;
+            this.min = min;
+            this.max = max;
+        }
+
+        public int[] build(Parser parser) throws UnsupportedPatternException {
+            int start = parser.newState();
+            int end = start;
+            for (int i = 0; i < min; i++) {
+                int[] fragment = node.build(parser);
+                parser.epsilon(end, fragment[0]);
+                end = fragment[1];
+            }
+            if (max == -1) {
+                int[] fragment = node.build(parser);
+                int loopEnd = parser.newState();
+                parser.epsilon(end, fragment[0]);
+                parser.epsilon(end, loopEnd);
+                parser.epsilon(fragment[1], fragment[0]);
+                parser.epsilon(fragment[1], loopEnd);
+                end = loopEnd;
+            } else if (max > min) {
+                int optionalEnd = parser.newState();
+                for (int i = min; i < max; i++) {
+                    int[] fragment = node.build(parser);
+                    parser.epsilon(end, fragment[0]);
+                    parser.epsilon(end, optionalEnd);
+                    end = fragment[1];
+                }
+                parser.epsilon(end, optionalEnd);
+                end = optionalEnd;
+            }
+            return new int[]{start, end};
+        }
+    }
+}
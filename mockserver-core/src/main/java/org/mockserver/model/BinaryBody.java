@@ -2,6 +2,8 @@ package org.mockserver.model;
 
 import org.mockserver.client.serialization.Base64Converter;
 
+import java.util.Arrays;
+
 /**
  * @author jamesdbloom
  */
@@ -30,4 +32,21 @@ public class BinaryBody extends Body<byte[]> {
     public String toString() {
         return value != null ? Base64Converter.stringToBase64Bytes(value) : null;
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (other == null || other.getClass() != getClass()) {
+            return false;
+        }
+        BinaryBody that = (BinaryBody) other;
+        return super.equals(other)
+                && Arrays.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Arrays.hashCode(value);
+    }
 }
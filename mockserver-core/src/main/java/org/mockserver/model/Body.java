@@ -27,4 +27,20 @@ public abstract class Body<T> extends ObjectWithReflectiveEqualsHashCodeToString
         STRING,
         BINARY
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (other == null || other.getClass() != getClass()) {
+            return false;
+        }
+        Body that = (Body) other;
+        return type == that.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return type != null ? type.hashCode() : 0;
+    }
 }
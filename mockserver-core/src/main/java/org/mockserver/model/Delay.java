@@ -1,5 +1,8 @@
 package org.mockserver.model;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -7,6 +10,8 @@ import java.util.concurrent.TimeUnit;
  */
 public class Delay extends ObjectWithReflectiveEqualsHashCodeToString {
 
+    private static Logger logger = LoggerFactory.getLogger(Delay.class);
+
     private final TimeUnit timeUnit;
     private final long value;
 
@@ -33,4 +38,21 @@ public class Delay extends ObjectWithReflectiveEqualsHashCodeToString {
             }
         }
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (other == null || other.getClass() != getClass()) {
+            return false;
+        }
+        Delay that = (Delay) other;
+        return value == that.value
+                && timeUnit == that.timeUnit;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (timeUnit != null ? timeUnit.hashCode() : 0) + (int) (value ^ (value >>> 32));
+    }
 }
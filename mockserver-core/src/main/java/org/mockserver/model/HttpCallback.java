@@ -1,6 +1,7 @@
 package org.mockserver.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.common.base.Objects;
 import org.mockserver.client.serialization.ObjectMapperFactory;
 
 /**
@@ -41,4 +42,20 @@ public class HttpCallback extends Action {
         this.callbackClass = callbackClass;
         return this;
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (other == null || other.getClass() != getClass()) {
+            return false;
+        }
+        HttpCallback that = (HttpCallback) other;
+        return Objects.equal(callbackClass, that.callbackClass);
+    }
+
+    @Override
+    public int hashCode() {
+        return callbackClass != null ? callbackClass.hashCode() : 0;
+    }
 }
@@ -1,6 +1,7 @@
 package org.mockserver.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.common.base.Objects;
 import org.mockserver.client.serialization.ObjectMapperFactory;
 
 /**
@@ -71,4 +72,22 @@ public class HttpForward extends Action {
         HTTP,
         HTTPS
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (other == null || other.getClass() != getClass()) {
+            return false;
+        }
+        HttpForward that = (HttpForward) other;
+        return Objects.equal(host, that.host)
+                && Objects.equal(port, that.port)
+                && scheme == that.scheme;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(host, port, scheme);
+    }
 }
@@ -2,6 +2,7 @@ package org.mockserver.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
 import com.google.common.base.Strings;
 
 import java.util.*;
@@ -12,12 +13,19 @@ import java.util.*;
 public class HttpRequest extends ObjectWithJsonToString {
     String method = "";
     String path = "";
-    Map<String, Parameter> queryStringParameters = new LinkedHashMap<String, Parameter>();
+    // each map is either null, when its name and value pairs hold the values and the map is only built once it is
+    // needed to serialize, compare or change the request, or holds the values while its pairs are built from it for
+    // matching and discarded whenever it changes
+    volatile Map<String, Parameter> queryStringParameters;
     Body body = null;
-    Map<String, Header> headers = new LinkedHashMap<String, Header>();
-    Map<String, Cookie> cookies = new LinkedHashMap<String, Cookie>();
+    volatile Map<String, Header> headers;
+    volatile Map<String, Cookie> cookies;
     boolean isKeepAlive = false;
     boolean secure;
+    transient volatile NameValuePairs queryStringParameterPairs = NameValuePairs.EMPTY;
+    transient volatile NameValuePairs headerPairs = NameValuePairs.EMPTY;
+    transient volatile NameValuePairs cookiePairs = NameValuePairs.EMPTY;
+    private transient volatile ParsedBody parsedBody;
 
     public static HttpRequest request() {
         return new HttpRequest();
@@ -96,7 +104,8 @@ public class HttpRequest extends ObjectWithJsonToString {
      * @param parameters the list of Parameter objects where the values or keys of each parameter can be either a string or a regex
      */
     public HttpRequest withQueryStringParameters(List<Parameter> parameters) {
-        this.queryStringParameters.clear();
+        this.queryStringParameters = new LinkedHashMap<String, Parameter>();
+        this.queryStringParameterPairs = null;
         for (Parameter parameter : parameters) {
             withQueryStringParameter(parameter);
         }
@@ -120,7 +129,8 @@ public class HttpRequest extends ObjectWithJsonToString {
      * @param parameters the Map<String, List<String>> object where the values or keys of each parameter can be either a string or a regex
      */
     public HttpRequest withQueryStringParameters(Map<String, List<String>> parameters) {
-        this.queryStringParameters.clear();
+        this.queryStringParameters = new LinkedHashMap<String, Parameter>();
+        this.queryStringParameterPairs = null;
         for (String name : parameters.keySet()) {
             for (String value : parameters.get(name)) {
                 withQueryStringParameter(new Parameter(name, value));
@@ -129,6 +139,18 @@ public class HttpRequest extends ObjectWithJsonToString {
         return this;
     }
 
+    /**
+     * The query string parameters received as name and value pairs, the pairs are kept and used for matching and
+     * the parameters are only grouped by name if they are read or changed
+     *
+     * @param parameters the query string parameters in the order they were received
+     */
+    public HttpRequest withQueryStringParameters(NameValuePairs parameters) {
+        this.queryStringParameterPairs = parameters;
+        this.queryStringParameters = null;
+        return this;
+    }
+
     /**
      * Adds one query string parameter to match on as a Parameter object where the parameter values list can be a list of strings or regular expressions
      * (for more details of the supported regex syntax see http://docs.oracle.com/javase/6/docs/api/java/util/regex/Pattern.html)
@@ -136,16 +158,63 @@ public class HttpRequest extends ObjectWithJsonToString {
      * @param parameter the Parameter object which can have a values list of strings or regular expressions
      */
     public HttpRequest withQueryStringParameter(Parameter parameter) {
-        if (this.queryStringParameters.containsKey(parameter.getName())) {
-            this.queryStringParameters.get(parameter.getName()).addValues(parameter.getValues());
+        Map<String, Parameter> queryStringParameters = queryStringParameters();
+        if (queryStringParameters.containsKey(parameter.getName())) {
+            queryStringParameters.get(parameter.getName()).addValues(parameter.getValues());
         } else {
-            this.queryStringParameters.put(parameter.getName(), parameter);
+            queryStringParameters.put(parameter.getName(), parameter);
         }
+        this.queryStringParameterPairs = null;
         return this;
     }
 
     public List<Parameter> getQueryStringParameters() {
-        return new ArrayList<Parameter>(queryStringParameters.values());
+        return new ArrayList<Parameter>(queryStringParameters().values());
+    }
+
+    private Map<String, Parameter> queryStringParameters() {
+        Map<String, Parameter> map = queryStringParameters;
+        if (map == null) {
+            map = new LinkedHashMap<String, Parameter>();
+            for (Map.Entry<String, List<String>> parameter : queryStringParameterPairs.toMultiValueMap().entrySet()) {
+                map.put(parameter.getKey(), new Parameter(parameter.getKey(), parameter.getValue()));
+            }
+            queryStringParameters = map;
+        }
+        return map;
+    }
+
+    /**
+     * The query string parameters as name and value pairs, the same instance is returned until the query string
+     * parameters are changed so matching a request against many expectations only builds it once
+     *
+     * @return the query string parameters as name and value pairs
+     */
+    @JsonIgnore
+    public NameValuePairs getQueryStringParametersAsNameValuePairs() {
+        NameValuePairs pairs = queryStringParameterPairs;
+        if (pairs == null) {
+            pairs = NameValuePairs.fromKeyToMultiValues(queryStringParameters().values());
+            queryStringParameterPairs = pairs;
+        }
+        return pairs;
+    }
+
+    public String getFirstQueryStringParameter(String name) {
+        return Strings.nullToEmpty(firstValue(getQueryStringParametersAsNameValuePairs(), name));
+    }
+
+    /**
+     * @return the first value received for the name, which is the first value the name is grouped with, or null if
+     * the name was not received
+     */
+    private static String firstValue(NameValuePairs pairs, String name) {
+        for (int i = 0; i < pairs.size(); i++) {
+            if (pairs.getName(i).equals(name)) {
+                return pairs.getValue(i);
+            }
+        }
+        return null;
     }
 
     public boolean hasQueryStringParameter(String name, String expectedValue) {
@@ -155,12 +224,10 @@ public class HttpRequest extends ObjectWithJsonToString {
         if (expectedValue == null) {
             throw new IllegalArgumentException("Expected value must not be null");
         }
-        Parameter parameter = queryStringParameters.get(name);
-        if (parameter != null) {
-            for (String actualValue : parameter.getValues()) {
-                if (expectedValue.equals(actualValue)) {
-                    return true;
-                }
+        NameValuePairs pairs = getQueryStringParametersAsNameValuePairs();
+        for (int i = 0; i < pairs.size(); i++) {
+            if (pairs.getName(i).equals(name) && expectedValue.equals(pairs.getValue(i))) {
+                return true;
             }
         }
         return false;
@@ -178,6 +245,7 @@ public class HttpRequest extends ObjectWithJsonToString {
      */
     public HttpRequest withBody(String body) {
         this.body = new StringBody(body, Body.Type.STRING);
+        this.parsedBody = null;
         return this;
     }
 
@@ -188,6 +256,7 @@ public class HttpRequest extends ObjectWithJsonToString {
      */
     public HttpRequest withBody(byte[] body) {
         this.body = new BinaryBody(body);
+        this.parsedBody = null;
         return this;
     }
 
@@ -249,6 +318,7 @@ public class HttpRequest extends ObjectWithJsonToString {
      */
     public HttpRequest withBody(Body body) {
         this.body = body;
+        this.parsedBody = null;
         return this;
     }
 
@@ -256,6 +326,22 @@ public class HttpRequest extends ObjectWithJsonToString {
         return body;
     }
 
+    /**
+     * The body in the forms used for matching, the same instance is returned until the body is changed so each form
+     * is only decoded or parsed once however many expectations the request is matched against
+     *
+     * @return the parsed body
+     */
+    @JsonIgnore
+    public ParsedBody getParsedBody() {
+        ParsedBody parsed = parsedBody;
+        if (parsed == null) {
+            parsed = new ParsedBody(body);
+            parsedBody = parsed;
+        }
+        return parsed;
+    }
+
     @JsonIgnore
     public byte[] getBodyAsRawBytes() {
         return this.body != null ? this.body.getRawBytes() : new byte[0];
@@ -273,7 +359,8 @@ public class HttpRequest extends ObjectWithJsonToString {
      * @param headers the list of Header objects where the values or keys of each header can be either a string or a regex
      */
     public HttpRequest withHeaders(List<Header> headers) {
-        this.headers.clear();
+        this.headers = new LinkedHashMap<String, Header>();
+        this.headerPairs = null;
         for (Header header : headers) {
             withHeader(header);
         }
@@ -293,6 +380,18 @@ public class HttpRequest extends ObjectWithJsonToString {
         return this;
     }
 
+    /**
+     * The headers received as name and value pairs, the pairs are kept and used for matching and the headers are
+     * only grouped by name if they are read or changed
+     *
+     * @param headers the headers in the order they were received
+     */
+    public HttpRequest withHeaders(NameValuePairs headers) {
+        this.headerPairs = headers;
+        this.headers = null;
+        return this;
+    }
+
     /**
      * Adds one header to match on as a Header object where the header values list can be a list of strings or regular expressions
      * (for more details of the supported regex syntax see http://docs.oracle.com/javase/6/docs/api/java/util/regex/Pattern.html)
@@ -300,11 +399,13 @@ public class HttpRequest extends ObjectWithJsonToString {
      * @param header the Header object which can have a values list of strings or regular expressions
      */
     public HttpRequest withHeader(Header header) {
-        if (this.headers.containsKey(header.getName())) {
-            this.headers.get(header.getName()).addValues(header.getValues());
+        Map<String, Header> headers = headers();
+        if (headers.containsKey(header.getName())) {
+            headers.get(header.getName()).addValues(header.getValues());
         } else {
-            this.headers.put(header.getName(), header);
+            headers.put(header.getName(), header);
         }
+        this.headerPairs = null;
         return this;
     }
 
@@ -315,31 +416,56 @@ public class HttpRequest extends ObjectWithJsonToString {
      * @param header the Header object which can have a values list of strings or regular expressions
      */
     public HttpRequest replaceHeader(Header header) {
-        for (String key : new HashSet<String>(this.headers.keySet())) {
+        Map<String, Header> headers = headers();
+        for (String key : new HashSet<String>(headers.keySet())) {
             if (header.getName().equalsIgnoreCase(key)) {
-                this.headers.remove(key);
+                headers.remove(key);
             }
         }
-        this.headers.put(header.getName(), header);
+        headers.put(header.getName(), header);
+        this.headerPairs = null;
         return this;
     }
 
     public List<Header> getHeaders() {
-        return new ArrayList<Header>(headers.values());
+        return new ArrayList<Header>(headers().values());
     }
 
-    public String getFirstHeader(String name) {
-        String firstHeadValue = "";
-        if (headers.containsKey(name) || headers.containsKey(name.toLowerCase())) {
-            Header header = headers.get(name);
-            if (header == null) {
-                header = headers.get(name.toLowerCase());
-            }
-            if (!header.getValues().isEmpty() && !Strings.isNullOrEmpty(header.getValues().get(0))) {
-                firstHeadValue = header.getValues().get(0);
+    private Map<String, Header> headers() {
+        Map<String, Header> map = headers;
+        if (map == null) {
+            map = new LinkedHashMap<String, Header>();
+            for (Map.Entry<String, List<String>> header : headerPairs.toMultiValueMap().entrySet()) {
+                map.put(header.getKey(), new Header(header.getKey(), header.getValue()));
             }
+            headers = map;
         }
-        return firstHeadValue;
+        return map;
+    }
+
+    /**
+     * The headers as name and value pairs, the same instance is returned until the headers are changed so matching a
+     * request against many expectations only builds it once
+     *
+     * @return the headers as name and value pairs
+     */
+    @JsonIgnore
+    public NameValuePairs getHeadersAsNameValuePairs() {
+        NameValuePairs pairs = headerPairs;
+        if (pairs == null) {
+            pairs = NameValuePairs.fromKeyToMultiValues(headers().values());
+            headerPairs = pairs;
+        }
+        return pairs;
+    }
+
+    public String getFirstHeader(String name) {
+        NameValuePairs pairs = getHeadersAsNameValuePairs();
+        String firstValue = firstValue(pairs, name);
+        if (firstValue == null) {
+            firstValue = firstValue(pairs, name.toLowerCase());
+        }
+        return Strings.nullToEmpty(firstValue);
     }
 
     /**
@@ -349,7 +475,7 @@ public class HttpRequest extends ObjectWithJsonToString {
      * @return true if a header has been added with that name otherwise false
      */
     public boolean containsHeader(String name) {
-        return headers.containsKey(name);
+        return firstValue(getHeadersAsNameValuePairs(), name) != null;
     }
 
     /**
@@ -359,7 +485,8 @@ public class HttpRequest extends ObjectWithJsonToString {
      * @param cookies the list of Cookie objects where the values or keys of each cookie can be either a string or a regex
      */
     public HttpRequest withCookies(List<Cookie> cookies) {
-        this.cookies.clear();
+        this.cookies = new LinkedHashMap<String, Cookie>();
+        this.cookiePairs = null;
         for (Cookie cookie : cookies) {
             withCookie(cookie);
         }
@@ -379,6 +506,34 @@ public class HttpRequest extends ObjectWithJsonToString {
         return this;
     }
 
+    /**
+     * The cookies received as name and value pairs, the pairs are kept and used for matching and the cookies are
+     * only put in a map if they are read or changed
+     *
+     * @param cookies the cookies in the order they were received
+     */
+    public HttpRequest withCookies(NameValuePairs cookies) {
+        this.cookiePairs = cookies;
+        this.cookies = null;
+        if (hasRepeatedName(cookies)) {
+            // a name received more than once only keeps its last value so the pairs are rebuilt from the cookies
+            cookies();
+            this.cookiePairs = null;
+        }
+        return this;
+    }
+
+    private static boolean hasRepeatedName(NameValuePairs pairs) {
+        for (int i = 1; i < pairs.size(); i++) {
+            for (int j = 0; j < i; j++) {
+                if (pairs.getName(i).equals(pairs.getName(j))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Adds one cookie to match on as a Cookie object where the cookie values list can be a list of strings or regular expressions
      * (for more details of the supported regex syntax see http://docs.oracle.com/javase/6/docs/api/java/util/regex/Pattern.html)
@@ -386,11 +541,87 @@ public class HttpRequest extends ObjectWithJsonToString {
      * @param cookie the Cookie object which can have a values list of strings or regular expressions
      */
     public HttpRequest withCookie(Cookie cookie) {
-        this.cookies.put(cookie.getName(), cookie);
+        cookies().put(cookie.getName(), cookie);
+        this.cookiePairs = null;
         return this;
     }
 
     public List<Cookie> getCookies() {
-        return new ArrayList<Cookie>(cookies.values());
+        return new ArrayList<Cookie>(cookies().values());
+    }
+
+    private Map<String, Cookie> cookies() {
+        Map<String, Cookie> map = cookies;
+        if (map == null) {
+            map = new LinkedHashMap<String, Cookie>();
+            NameValuePairs pairs = cookiePairs;
+            for (int i = 0; i < pairs.size(); i++) {
+                map.put(pairs.getName(i), new Cookie(pairs.getName(i), pairs.getValue(i)));
+            }
+            cookies = map;
+        }
+        return map;
+    }
+
+    /**
+     * The cookies as name and value pairs, the same instance is returned until the cookies are changed so matching a
+     * request against many expectations only builds it once
+     *
+     * @return the cookies as name and value pairs
+     */
+    @JsonIgnore
+    public NameValuePairs getCookiesAsNameValuePairs() {
+        NameValuePairs pairs = cookiePairs;
+        if (pairs == null) {
+            pairs = NameValuePairs.fromKeyAndValues(cookies().values());
+            cookiePairs = pairs;
+        }
+        return pairs;
+    }
+
+    /**
+     * A copy of the request that shares the headers, as immutable name and value pairs, and the body given instead of
+     * copying them, so requests with the same headers or the same body only keep them once, the copy only builds its
+     * own maps of the headers, query string parameters and cookies if they are read or changed so changing it never
+     * changes another request
+     *
+     * @param headers name and value pairs equal to the headers of this request, or null for the pairs of this request
+     * @param body    a body equal to the body of this request
+     */
+    public HttpRequest copySharing(NameValuePairs headers, Body body) {
+        HttpRequest copy = new HttpRequest();
+        copy.method = method;
+        copy.path = path;
+        copy.queryStringParameterPairs = getQueryStringParametersAsNameValuePairs();
+        copy.body = body;
+        copy.parsedBody = parsedBody;
+        copy.headerPairs = headers != null ? headers : getHeadersAsNameValuePairs();
+        copy.cookiePairs = getCookiesAsNameValuePairs();
+        copy.isKeepAlive = isKeepAlive;
+        copy.secure = secure;
+        return copy;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (other == null || other.getClass() != getClass()) {
+            return false;
+        }
+        HttpRequest that = (HttpRequest) other;
+        return isKeepAlive == that.isKeepAlive
+                && secure == that.secure
+                && Objects.equal(method, that.method)
+                && Objects.equal(path, that.path)
+                && Objects.equal(queryStringParameters(), that.queryStringParameters())
+                && Objects.equal(body, that.body)
+                && Objects.equal(headers(), that.headers())
+                && Objects.equal(cookies(), that.cookies());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(method, path, queryStringParameters(), body, headers(), cookies(), isKeepAlive, secure);
     }
 }
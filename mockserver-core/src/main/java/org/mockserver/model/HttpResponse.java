@@ -2,6 +2,7 @@ package org.mockserver.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import com.google.common.base.Objects;
 import java.util.*;
 
 /**
@@ -10,9 +11,12 @@ import java.util.*;
 public class HttpResponse extends Action {
     private Integer statusCode = 200;
     private Body body = new StringBody("", Body.Type.STRING);
-    private Map<String, Header> headers = new LinkedHashMap<String, Header>();
+    // null in a copy that shares the headers of other responses until the headers are read or changed
+    private volatile Map<String, Header> headers = new LinkedHashMap<String, Header>();
     private Map<String, Cookie> cookies = new LinkedHashMap<String, Cookie>();
     private Delay delay;
+    // headers in the form they are written, built once on first use and discarded whenever the headers change
+    private transient volatile NameValuePairs headerPairs;
 
     public HttpResponse() {
     }
@@ -110,7 +114,8 @@ public class HttpResponse extends Action {
      * @param headers a list of Header objects
      */
     public HttpResponse withHeaders(List<Header> headers) {
-        this.headers.clear();
+        this.headers = new LinkedHashMap<String, Header>();
+        this.headerPairs = null;
         for (Header header : headers) {
             withHeader(header);
         }
@@ -137,11 +142,13 @@ public class HttpResponse extends Action {
      * @param header a Header objects
      */
     public HttpResponse withHeader(Header header) {
-        if (this.headers.containsKey(header.getName())) {
-            this.headers.get(header.getName()).addValues(header.getValues());
+        Map<String, Header> headers = headers();
+        if (headers.containsKey(header.getName())) {
+            headers.get(header.getName()).addValues(header.getValues());
         } else {
-            this.headers.put(header.getName(), header);
+            headers.put(header.getName(), header);
         }
+        this.headerPairs = null;
         return this;
     }
 
@@ -152,16 +159,46 @@ public class HttpResponse extends Action {
      * @param header a Header objects
      */
     public HttpResponse updateHeader(Header header) {
-        this.headers.put(header.getName(), header);
+        headers().put(header.getName(), header);
+        this.headerPairs = null;
         return this;
     }
 
     public List<Header> getHeaders() {
-        return new ArrayList<Header>(headers.values());
+        return new ArrayList<Header>(headers().values());
+    }
+
+    private Map<String, Header> headers() {
+        Map<String, Header> map = headers;
+        if (map == null) {
+            map = new LinkedHashMap<String, Header>();
+            for (Map.Entry<String, List<String>> header : headerPairs.toMultiValueMap().entrySet()) {
+                map.put(header.getKey(), new Header(header.getKey(), header.getValue()));
+            }
+            headers = map;
+        }
+        return map;
+    }
+
+    /**
+     * The headers as name and value pairs, the same instance is returned until the headers are changed so a response
+     * returned for many requests only builds it once
+     *
+     * @return the headers as name and value pairs
+     */
+    @JsonIgnore
+    public NameValuePairs getHeadersAsNameValuePairs() {
+        NameValuePairs pairs = headerPairs;
+        if (pairs == null) {
+            pairs = NameValuePairs.fromKeyToMultiValues(headers().values());
+            headerPairs = pairs;
+        }
+        return pairs;
     }
 
     public List<String> getHeader(String name) {
         List<String> headerValues = new ArrayList<String>();
+        Map<String, Header> headers = headers();
         if (headers.containsKey(name)) {
             headerValues.addAll(headers.get(name).getValues());
         }
@@ -234,5 +271,44 @@ public class HttpResponse extends Action {
     public Type getType() {
         return Type.RESPONSE;
     }
-}
 
+    /**
+     * A copy of the response that shares the headers, as immutable name and value pairs, and the body given instead
+     * of copying them, so responses with the same headers or the same body only keep them once, the copy only builds
+     * its own map of the headers if they are read or changed so changing it never changes another response
+     *
+     * @param headers name and value pairs equal to the headers of this response, or null for the pairs of this
+     *                response
+     * @param body    a body equal to the body of this response
+     */
+    public HttpResponse copySharing(NameValuePairs headers, Body body) {
+        HttpResponse copy = new HttpResponse();
+        copy.statusCode = statusCode;
+        copy.body = body;
+        copy.headerPairs = headers != null ? headers : getHeadersAsNameValuePairs();
+        copy.headers = null;
+        copy.cookies = new LinkedHashMap<String, Cookie>(cookies);
+        copy.delay = delay;
+        return copy;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (other == null || other.getClass() != getClass()) {
+            return false;
+        }
+        HttpResponse that = (HttpResponse) other;
+        return Objects.equal(statusCode, that.statusCode)
+                && Objects.equal(body, that.body)
+                && Objects.equal(headers(), that.headers())
+                && Objects.equal(cookies, that.cookies)
+                && Objects.equal(delay, that.delay);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(statusCode, body, headers(), cookies, delay);
+    }
+}
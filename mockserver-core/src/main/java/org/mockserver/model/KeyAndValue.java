@@ -1,5 +1,6 @@
 package org.mockserver.model;
 
+import com.google.common.base.Objects;
 import org.mockserver.collections.CaseInsensitiveRegexHashMap;
 import org.mockserver.collections.CaseInsensitiveRegexMultiMap;
 
@@ -18,7 +19,7 @@ public class KeyAndValue extends ObjectWithReflectiveEqualsHashCodeToString {
         this.value = value;
     }
 
-    public static CaseInsensitiveRegexHashMap toHashMap(List<? extends KeyAndValue> keyAndValue) {
+    public static CaseInsensitiveRegexHashMap<String> toHashMap(List<? extends KeyAndValue> keyAndValue) {
         CaseInsensitiveRegexHashMap<String> caseInsensitiveRegexHashMap = new CaseInsensitiveRegexHashMap<String>();
         if (keyAndValue != null) {
             for (KeyAndValue keyToMultiValue : keyAndValue) {
@@ -28,7 +29,7 @@ public class KeyAndValue extends ObjectWithReflectiveEqualsHashCodeToString {
         return caseInsensitiveRegexHashMap;
     }
 
-    public static CaseInsensitiveRegexHashMap toHashMap(KeyAndValue... keyToMultiValues) {
+    public static CaseInsensitiveRegexHashMap<String> toHashMap(KeyAndValue... keyToMultiValues) {
         return toHashMap(Arrays.asList(keyToMultiValues));
     }
 
@@ -40,4 +41,20 @@ public class KeyAndValue extends ObjectWithReflectiveEqualsHashCodeToString {
         return value;
     }
 
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (other == null || other.getClass() != getClass()) {
+            return false;
+        }
+        KeyAndValue that = (KeyAndValue) other;
+        return Objects.equal(name, that.name)
+                && Objects.equal(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(name, value);
+    }
 }
@@ -1,5 +1,6 @@
 package org.mockserver.model;
 
+import com.google.common.base.Objects;
 import org.mockserver.collections.CaseInsensitiveRegexMultiMap;
 
 import java.util.ArrayList;
@@ -28,15 +29,10 @@ public class KeyToMultiValue extends ObjectWithReflectiveEqualsHashCodeToString
     }
 
     public static CaseInsensitiveRegexMultiMap toMultiMap(List<? extends KeyToMultiValue> keyToMultiValues) {
-        CaseInsensitiveRegexMultiMap caseInsensitiveRegexMultiMap = new CaseInsensitiveRegexMultiMap();
         if (keyToMultiValues != null) {
-            for (KeyToMultiValue keyToMultiValue : keyToMultiValues) {
-                for (String value : keyToMultiValue.getValues()) {
-                    caseInsensitiveRegexMultiMap.put(keyToMultiValue.getName(), value);
-                }
-            }
+            return CaseInsensitiveRegexMultiMap.build(keyToMultiValues);
         }
-        return caseInsensitiveRegexMultiMap;
+        return new CaseInsensitiveRegexMultiMap();
     }
 
     public static CaseInsensitiveRegexMultiMap toMultiMap(KeyToMultiValue... keyToMultiValues) {
@@ -66,4 +62,21 @@ public class KeyToMultiValue extends ObjectWithReflectiveEqualsHashCodeToString
             }
         }
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (other == null || other.getClass() != getClass()) {
+            return false;
+        }
+        KeyToMultiValue that = (KeyToMultiValue) other;
+        return Objects.equal(name, that.name)
+                && Objects.equal(values, that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(name, values);
+    }
 }
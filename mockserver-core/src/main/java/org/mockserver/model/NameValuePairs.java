@@ -0,0 +1,300 @@
+package org.mockserver.model;
+
+import io.netty.handler.codec.http.HttpHeaders;
+import org.mockserver.collections.CaseInsensitiveRegexHashMap;
+import org.mockserver.collections.CaseInsensitiveRegexMultiMap;
+import org.mockserver.collections.HybridRegexKeyMap;
+import org.mockserver.matchers.RegexStringMatcher;
+
+import java.util.*;
+
+/**
+ * An immutable list of name and value pairs held in a single flat array, names at even indexes and values at odd
+ * indexes, in the order they were received, a name with several values is repeated once per value
+ *
+ * Headers, query string parameters and cookies of requests are matched directly against this representation, which
+ * needs one array per request instead of an object and a list per name and a map per request, names of common headers
+ * are interned so requests that are logged share the same name instances
+ *
+ * @author jamesdbloom
+ */
+public class NameValuePairs {
+
+    public static final NameValuePairs EMPTY = new NameValuePairs(new String[0]);
+    private static final Map<String, String> COMMON_NAMES = new HashMap<String, String>();
+
+    static {
+        for (String name : new String[]{
+                HttpHeaders.Names.ACCEPT,
+                HttpHeaders.Names.ACCEPT_CHARSET,
+                HttpHeaders.Names.ACCEPT_ENCODING,
+                HttpHeaders.Names.ACCEPT_LANGUAGE,
+                HttpHeaders.Names.AUTHORIZATION,
+                HttpHeaders.Names.CACHE_CONTROL,
+                HttpHeaders.Names.CONNECTION,
+                HttpHeaders.Names.CONTENT_ENCODING,
+                HttpHeaders.Names.CONTENT_LENGTH,
+                HttpHeaders.Names.CONTENT_TYPE,
+                HttpHeaders.Names.COOKIE,
+                HttpHeaders.Names.DATE,
+                HttpHeaders.Names.EXPECT,
+                HttpHeaders.Names.HOST,
+                HttpHeaders.Names.IF_MODIFIED_SINCE,
+                HttpHeaders.Names.IF_NONE_MATCH,
+                HttpHeaders.Names.ORIGIN,
+                HttpHeaders.Names.PRAGMA,
+                HttpHeaders.Names.RANGE,
+                HttpHeaders.Names.REFERER,
+                HttpHeaders.Names.SET_COOKIE,
+                HttpHeaders.Names.TRANSFER_ENCODING,
+                HttpHeaders.Names.UPGRADE,
+                HttpHeaders.Names.USER_AGENT,
+                "Keep-Alive",
+                "X-Forwarded-For",
+                "X-Requested-With"
+        }) {
+            COMMON_NAMES.put(name, name);
+            // some clients and web containers send header names in lower case
+            COMMON_NAMES.put(name.toLowerCase(), name.toLowerCase());
+        }
+    }
+
+    // below this many pairs comparing every name is quicker than building an index
+    private static final int INDEX_THRESHOLD = 4;
+    private final String[] namesAndValues;
+    // built the first time a name is looked up, a race only builds the same index twice
+    private volatile HybridRegexKeyMap<List<Integer>> index;
+    // the pairs never change so the hash is computed once, a race only computes the same value twice
+    private int hashCode;
+
+    private NameValuePairs(String[] namesAndValues) {
+        this.namesAndValues = namesAndValues;
+    }
+
+    /**
+     * @param name a name
+     * @return the shared instance of the name if it is a common header name, otherwise the name itself
+     */
+    static String intern(String name) {
+        String common = COMMON_NAMES.get(name);
+        return common != null ? common : name;
+    }
+
+    public static NameValuePairs fromHttpHeaders(HttpHeaders httpHeaders) {
+        List<String> namesAndValues = new ArrayList<String>();
+        for (Map.Entry<String, String> header : httpHeaders) {
+            namesAndValues.add(intern(header.getKey()));
+            namesAndValues.add(header.getValue());
+        }
+        return new NameValuePairs(namesAndValues.toArray(new String[namesAndValues.size()]));
+    }
+
+    public static NameValuePairs fromMultiValueMap(Map<String, List<String>> multiValueMap) {
+        List<String> namesAndValues = new ArrayList<String>();
+        for (Map.Entry<String, List<String>> entry : multiValueMap.entrySet()) {
+            for (String value : entry.getValue()) {
+                namesAndValues.add(intern(entry.getKey()));
+                namesAndValues.add(value);
+            }
+        }
+        return new NameValuePairs(namesAndValues.toArray(new String[namesAndValues.size()]));
+    }
+
+    public static NameValuePairs fromKeyToMultiValues(Collection<? extends KeyToMultiValue> keyToMultiValues) {
+        List<String> namesAndValues = new ArrayList<String>();
+        for (KeyToMultiValue keyToMultiValue : keyToMultiValues) {
+            for (String value : keyToMultiValue.getValues()) {
+                namesAndValues.add(keyToMultiValue.getName());
+                namesAndValues.add(value);
+            }
+        }
+        return new NameValuePairs(namesAndValues.toArray(new String[namesAndValues.size()]));
+    }
+
+    public static NameValuePairs fromKeyAndValues(Collection<? extends KeyAndValue> keyAndValues) {
+        String[] namesAndValues = new String[keyAndValues.size() * 2];
+        int index = 0;
+        for (KeyAndValue keyAndValue : keyAndValues) {
+            namesAndValues[index++] = keyAndValue.getName();
+            namesAndValues[index++] = keyAndValue.getValue();
+        }
+        return new NameValuePairs(namesAndValues);
+    }
+
+    /**
+     * @param namesAndValues names at even indexes and values at odd indexes, in the order they were received
+     */
+    public static NameValuePairs fromNamesAndValues(List<String> namesAndValues) {
+        return new NameValuePairs(namesAndValues.toArray(new String[namesAndValues.size()]));
+    }
+
+    public int size() {
+        return namesAndValues.length / 2;
+    }
+
+    public String getName(int index) {
+        return namesAndValues[index * 2];
+    }
+
+    public String getValue(int index) {
+        return namesAndValues[index * 2 + 1];
+    }
+
+    /**
+     * @return the values grouped by name, in the order each name was first received
+     */
+    public Map<String, List<String>> toMultiValueMap() {
+        Map<String, List<String>> multiValueMap = new LinkedHashMap<String, List<String>>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            List<String> values = multiValueMap.get(namesAndValues[i]);
+            if (values == null) {
+                values = new ArrayList<String>(1);
+                multiValueMap.put(namesAndValues[i], values);
+            }
+            values.add(namesAndValues[i + 1]);
+        }
+        return multiValueMap;
+    }
+
+    /**
+     * @return the positions of the pairs by name, in a map that looks up a literal name with a hash lookup and only
+     * compares regex or empty names, or a regex name, as regexes, or null if there are too few pairs for an index to
+     * be quicker than comparing every name
+     */
+    private HybridRegexKeyMap<List<Integer>> index() {
+        HybridRegexKeyMap<List<Integer>> index = this.index;
+        if (index == null && size() > INDEX_THRESHOLD) {
+            Map<String, List<Integer>> positions = new LinkedHashMap<String, List<Integer>>();
+            for (int i = 0; i < namesAndValues.length; i += 2) {
+                List<Integer> positionsOfName = positions.get(namesAndValues[i]);
+                if (positionsOfName == null) {
+                    positionsOfName = new ArrayList<Integer>(1);
+                    positions.put(namesAndValues[i], positionsOfName);
+                }
+                positionsOfName.add(i);
+            }
+            index = new HybridRegexKeyMap<List<Integer>>();
+            index.putAll(positions);
+            this.index = index;
+        }
+        return index;
+    }
+
+    /**
+     * @param name a literal or regex name
+     * @return true if any name is matched by the name, ignoring case
+     */
+    public boolean containsKey(String name) {
+        HybridRegexKeyMap<List<Integer>> index = name != null ? index() : null;
+        if (index != null) {
+            return !index.keysMatchedBy(name).isEmpty();
+        }
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            if (RegexStringMatcher.matches(name, namesAndValues[i], true)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param name  a literal or regex name
+     * @param value a literal or regex value
+     * @return true if a name that matches the name, ignoring case, or a name it matches, has a value matched by the value
+     */
+    public boolean containsKeyValue(String name, String value) {
+        return containsKeyValue(name, value, false);
+    }
+
+    /**
+     * @param name             a literal or regex name
+     * @param value            a literal or regex value
+     * @param ignoreNullValues true to skip names without a value, as for cookies
+     * @return true if a name that matches the name, ignoring case, or a name it matches, has a value matched by the value
+     */
+    public boolean containsKeyValue(String name, String value, boolean ignoreNullValues) {
+        HybridRegexKeyMap<List<Integer>> index = name != null ? index() : null;
+        if (index != null) {
+            for (String matchingName : index.keysMatching(name)) {
+                for (String nameMatched : index.keysMatchedBy(matchingName)) {
+                    for (int j : index.get(nameMatched)) {
+                        if ((!ignoreNullValues || namesAndValues[j + 1] != null) && RegexStringMatcher.matches(value, namesAndValues[j + 1], false)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            if (RegexStringMatcher.matches(namesAndValues[i], name, true)) {
+                for (int j = 0; j < namesAndValues.length; j += 2) {
+                    if ((i == j || RegexStringMatcher.matches(namesAndValues[i], namesAndValues[j], true))
+                            && (!ignoreNullValues || namesAndValues[j + 1] != null)
+                            && RegexStringMatcher.matches(value, namesAndValues[j + 1], false)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param subSet the names and values that must be present
+     * @return true if every name in the subset is present with each of its values, the same as
+     * CaseInsensitiveRegexMultiMap.containsAll
+     */
+    public boolean containsAll(CaseInsensitiveRegexMultiMap subSet) {
+        for (String subSetKey : subSet.keySet()) {
+            if (!containsKey(subSetKey)) {
+                return false;
+            }
+            for (String subSetValue : subSet.getAll(subSetKey)) {
+                if (!containsKeyValue(subSetKey, subSetValue)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param subSet the names and values that must be present
+     * @return true if every name in the subset is present with its value, the same as
+     * CaseInsensitiveRegexHashMap.containsAll
+     */
+    public boolean containsAll(CaseInsensitiveRegexHashMap<String> subSet) {
+        for (String subSetKey : subSet.keySet()) {
+            if (!containsKey(subSetKey)) {
+                return false;
+            }
+            for (String subSetValue : subSet.getAll(subSetKey)) {
+                if (!containsKeyValue(subSetKey, subSetValue, true)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof NameValuePairs && Arrays.equals(namesAndValues, ((NameValuePairs) other).namesAndValues);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = hashCode;
+        if (hash == 0) {
+            hash = Arrays.hashCode(namesAndValues);
+            hashCode = hash;
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return toMultiValueMap().toString();
+    }
+}
@@ -4,21 +4,19 @@ import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * @author jamesdbloom
  */
 public abstract class ObjectWithReflectiveEqualsHashCodeToString {
-    protected Logger logger = LoggerFactory.getLogger(this.getClass());
+    private static final String[] NO_EXCLUDED_FIELDS = new String[0];
 
     static {
         ReflectionToStringBuilder.setDefaultStyle(ToStringStyle.SHORT_PREFIX_STYLE);
     }
 
     protected String[] fieldsExcludedFromEqualsAndHashCode() {
-        return new String[]{"logger"};
+        return NO_EXCLUDED_FIELDS;
     }
 
     @Override
@@ -1,5 +1,7 @@
 package org.mockserver.model;
 
+import com.google.common.base.Objects;
+
 /**
  * @author jamesdbloom
  */
@@ -17,9 +19,12 @@ public class OutboundHttpRequest extends HttpRequest {
         this.method = httpRequest.method;
         this.path = httpRequest.path;
         this.queryStringParameters = httpRequest.queryStringParameters;
+        this.queryStringParameterPairs = httpRequest.queryStringParameterPairs;
         this.body = httpRequest.body;
         this.headers = httpRequest.headers;
+        this.headerPairs = httpRequest.headerPairs;
         this.cookies = httpRequest.cookies;
+        this.cookiePairs = httpRequest.cookiePairs;
         this.isKeepAlive = httpRequest.isKeepAlive;
     }
 
@@ -39,4 +44,23 @@ public class OutboundHttpRequest extends HttpRequest {
     public String getContextPath() {
         return contextPath;
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (other == null || other.getClass() != getClass()) {
+            return false;
+        }
+        OutboundHttpRequest that = (OutboundHttpRequest) other;
+        return super.equals(other)
+                && Objects.equal(host, that.host)
+                && Objects.equal(port, that.port)
+                && Objects.equal(contextPath, that.contextPath);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hashCode(host, port, contextPath);
+    }
 }
@@ -2,6 +2,7 @@ package org.mockserver.model;
 
 import com.google.common.base.Charsets;
 
+import com.google.common.base.Objects;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.Arrays;
@@ -70,4 +71,21 @@ public class ParameterBody extends Body<List<Parameter>> {
         }
         return body.toString();
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (other == null || other.getClass() != getClass()) {
+            return false;
+        }
+        ParameterBody that = (ParameterBody) other;
+        return super.equals(other)
+                && Objects.equal(parameters, that.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + (parameters != null ? parameters.hashCode() : 0);
+    }
 }
@@ -0,0 +1,237 @@
+package org.mockserver.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Charsets;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.mockserver.client.serialization.ObjectMapperFactory;
+import org.mockserver.collections.CaseInsensitiveRegexMultiMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.*;
+
+/**
+ * The different forms of a request body used for matching, each form is built the first time it is requested and then
+ * reused by every body matcher that the same request is matched against, except the XML document which is parsed for
+ * each caller as DOM is not thread safe
+ *
+ * @author jamesdbloom
+ */
+public class ParsedBody {
+    private static Logger logger = LoggerFactory.getLogger(ParsedBody.class);
+    private static final ObjectMapper objectMapper = ObjectMapperFactory.createObjectMapper();
+    private static final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+    private static final ErrorHandler errorHandler = new ErrorHandler() {
+        @Override
+        public void warning(SAXParseException exception) throws SAXException {
+            logger.debug("SAXParseException while parsing xml", exception);
+        }
+
+        @Override
+        public void error(SAXParseException exception) throws SAXException {
+            logger.debug("SAXParseException while parsing xml", exception);
+        }
+
+        @Override
+        public void fatalError(SAXParseException exception) throws SAXException {
+            logger.debug("SAXParseException while parsing xml", exception);
+        }
+    };
+    // DocumentBuilder is not thread safe so each thread reuses its own
+    private static final ThreadLocal<DocumentBuilder> documentBuilders = new ThreadLocal<DocumentBuilder>() {
+        @Override
+        protected DocumentBuilder initialValue() {
+            try {
+                DocumentBuilder documentBuilder;
+                synchronized (documentBuilderFactory) {
+                    documentBuilder = documentBuilderFactory.newDocumentBuilder();
+                }
+                documentBuilder.setErrorHandler(errorHandler);
+                return documentBuilder;
+            } catch (ParserConfigurationException pce) {
+                throw new RuntimeException("Exception creating DocumentBuilder", pce);
+            }
+        }
+    };
+    private static final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+
+    static {
+        // match the DOM parser which is not namespace aware, so prefixes don't need to be bound
+        xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    }
+    private final Body body;
+    private byte[] rawBytes;
+    private String string;
+    private JsonNode json;
+    private boolean jsonParsed;
+    private volatile boolean invalidXml;
+    private Set<String> elementPaths;
+    private boolean elementPathsParsed;
+    private CaseInsensitiveRegexMultiMap parameters;
+
+    public ParsedBody(Body body) {
+        this.body = body;
+    }
+
+    public ParsedBody(String string) {
+        this.body = null;
+        this.string = string != null ? string : "";
+    }
+
+    public synchronized byte[] getRawBytes() {
+        if (rawBytes == null) {
+            if (body != null) {
+                rawBytes = body.getRawBytes();
+            } else if (string != null) {
+                rawBytes = string.getBytes(Charsets.UTF_8);
+            } else {
+                rawBytes = new byte[0];
+            }
+        }
+        return rawBytes;
+    }
+
+    /**
+     * @return the body decoded as UTF-8 or an empty string if there is no body
+     */
+    public synchronized String getString() {
+        if (string == null) {
+            string = body != null ? new String(getRawBytes(), Charsets.UTF_8) : "";
+        }
+        return string;
+    }
+
+    /**
+     * @return the body parsed as a JSON tree or null if the body is not valid JSON
+     */
+    public synchronized JsonNode getJson() {
+        if (!jsonParsed) {
+            jsonParsed = true;
+            json = parseJson(getString());
+        }
+        return json;
+    }
+
+    /**
+     * Parses JSON using the same relaxed parsing as the rest of MockServer, i.e. allowing single quotes, unquoted field
+     * names and comments
+     *
+     * @param value the string to parse
+     * @return the JSON tree or null if the value is not valid JSON
+     */
+    public static JsonNode parseJson(String value) {
+        JsonNode jsonNode = null;
+        if (value != null) {
+            try {
+                jsonNode = objectMapper.readTree(value);
+                if (jsonNode != null && jsonNode.isMissingNode()) {
+                    jsonNode = null;
+                }
+            } catch (Exception e) {
+                logger.trace("Error while parsing [" + value + "] as json - " + e.getMessage());
+            }
+        }
+        return jsonNode;
+    }
+
+    /**
+     * Parses the body into a new Document on each call, DOM implementations are not thread safe even for reads, as
+     * nodes can be expanded lazily, so a Document is never shared between the matchers the body is matched against,
+     * only that the body is not valid XML is remembered so invalid bodies are only parsed once
+     *
+     * @return the body parsed as XML or null if the body is not valid XML
+     */
+    public Document parseDocument() {
+        if (invalidXml) {
+            return null;
+        }
+        String matched = getString();
+        try {
+            return documentBuilders.get().parse(new InputSource(new StringReader(matched)));
+        } catch (Exception e) {
+            logger.trace("Error while parsing [" + matched + "] as xml - " + e.getMessage());
+            invalidXml = true;
+            return null;
+        }
+    }
+
+    /**
+     * Streams the body once, without building a DOM, recording the absolute path of every element, such as
+     * "/Envelope/Body/getQuote", this is enough to evaluate simple path-existence XPath expressions, as with the DOM
+     * parser (which is not namespace aware) prefixes are ignored so soap:Envelope is recorded as Envelope
+     *
+     * @return the path of every element in the body or null if the body is not valid XML
+     */
+    public synchronized Set<String> getElementPaths() {
+        if (!elementPathsParsed) {
+            elementPathsParsed = true;
+            String matched = getString();
+            XMLStreamReader xmlStreamReader = null;
+            try {
+                Set<String> paths = new HashSet<String>();
+                xmlStreamReader = xmlInputFactory.createXMLStreamReader(new StringReader(matched));
+                Deque<Integer> parentPathLengths = new ArrayDeque<Integer>();
+                StringBuilder path = new StringBuilder();
+                while (xmlStreamReader.hasNext()) {
+                    int event = xmlStreamReader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        parentPathLengths.push(path.length());
+                        path.append('/');
+                        String name = xmlStreamReader.getLocalName();
+                        path.append(name, name.lastIndexOf(':') + 1, name.length());
+                        paths.add(path.toString());
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        path.setLength(parentPathLengths.pop());
+                    }
+                }
+                elementPaths = Collections.unmodifiableSet(paths);
+            } catch (Exception e) {
+                logger.trace("Error while streaming [" + matched + "] as xml - " + e.getMessage());
+            } finally {
+                if (xmlStreamReader != null) {
+                    try {
+                        xmlStreamReader.close();
+                    } catch (XMLStreamException xse) {
+                        logger.trace("Error while closing xml stream - " + xse.getMessage());
+                    }
+                }
+            }
+        }
+        return elementPaths;
+    }
+
+    /**
+     * @return the body decoded as form parameters
+     */
+    public synchronized CaseInsensitiveRegexMultiMap getParameters() {
+        if (parameters == null) {
+            Map<String, Parameter> mappedParameters = new HashMap<String, Parameter>();
+            Map<String, List<String>> decodedParameters = new QueryStringDecoder("?" + getString()).parameters();
+            for (String name : decodedParameters.keySet()) {
+                for (String value : decodedParameters.get(name)) {
+                    if (mappedParameters.containsKey(name)) {
+                        mappedParameters.get(name).addValue(value);
+                    } else {
+                        mappedParameters.put(name, new Parameter(name, value));
+                    }
+                }
+            }
+            parameters = KeyToMultiValue.toMultiMap(new ArrayList<KeyToMultiValue>(mappedParameters.values()));
+        }
+        return parameters;
+    }
+}
@@ -1,5 +1,9 @@
 package org.mockserver.model;
 
+import com.google.common.base.Objects;
+
+import java.util.Arrays;
+
 /**
  * @author jamesdbloom
  */
@@ -52,4 +56,22 @@ public class StringBody extends Body<String> {
     public String toString() {
         return value;
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (other == null || other.getClass() != getClass()) {
+            return false;
+        }
+        StringBody that = (StringBody) other;
+        return super.equals(other)
+                && Objects.equal(value, that.value)
+                && Arrays.equals(rawBinaryData, that.rawBinaryData);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * super.hashCode() + (value != null ? value.hashCode() : 0)) + Arrays.hashCode(rawBinaryData);
+    }
 }
@@ -959,4 +959,27 @@ public class ExpectationSerializerIntegrationTest {
                 "  }" + System.getProperty("line.separator") +
                 "} ]", jsonExpectation);
     }
+
+    @Test
+    public void shouldSerializeAndDeserializeExpectationsAsLines() throws IOException {
+        // given
+        Expectation expectation = new ExpectationDTO()
+                .setHttpRequest(
+                        new HttpRequestDTO()
+                                .setPath("somePath")
+                )
+                .setHttpResponse(
+                        new HttpResponseDTO()
+                                .setBody(new StringBodyDTO(new StringBody("some\nBody", Body.Type.STRING)))
+                )
+                .buildObject();
+
+        // when
+        String jsonExpectationLine = new ExpectationSerializer().serializeAsLine(expectation);
+
+        // then
+        assertEquals("{\"httpRequest\":{\"path\":\"somePath\"},\"httpResponse\":{\"body\":\"some\\nBody\"},\"times\":{\"remainingTimes\":1,\"unlimited\":false}}\n", jsonExpectationLine);
+        assertArrayEquals(new Expectation[]{expectation, expectation}, new ExpectationSerializer().deserializeLines(jsonExpectationLine + "\n" + jsonExpectationLine));
+        assertArrayEquals(new Expectation[]{}, new ExpectationSerializer().deserializeLines(""));
+    }
 }
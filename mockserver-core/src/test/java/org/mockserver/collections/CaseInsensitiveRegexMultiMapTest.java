@@ -2,9 +2,11 @@ package org.mockserver.collections;
 
 import com.google.common.collect.Sets;
 import org.junit.Test;
+import org.mockserver.model.Header;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 
 import static org.junit.Assert.*;
 import static org.junit.Assert.assertEquals;
@@ -369,4 +371,35 @@ public class CaseInsensitiveRegexMultiMapTest {
         assertEquals(0, circularMultiMap.getAll("one").size());
         assertEquals(Arrays.asList("two"), circularMultiMap.getAll("two"));
     }
+
+    @Test
+    public void shouldBuildSameMapAsPuttingEachValue() {
+        // given
+        List<Header> headers = Arrays.asList(
+                new Header("one", "one_one", "one_two"),
+                new Header("ONE", "one_three"),
+                new Header("t.*", "regex"),
+                new Header("two", "two")
+        );
+        CaseInsensitiveRegexMultiMap putEachValue = new CaseInsensitiveRegexMultiMap();
+        for (Header header : headers) {
+            for (String value : header.getValues()) {
+                putEachValue.put(header.getName(), value);
+            }
+        }
+
+        // when
+        CaseInsensitiveRegexMultiMap built = CaseInsensitiveRegexMultiMap.build(headers);
+
+        // then
+        assertEquals(putEachValue.keySet(), built.keySet());
+        for (String key : putEachValue.keySet()) {
+            assertEquals(putEachValue.getAll(key), built.getAll(key));
+        }
+        assertTrue(built.containsKeyValue("one", "one_three"));
+        assertTrue(built.containsKeyValue("two", "two"));
+        // - changes after building are copied as usual
+        built.put("four", "four");
+        assertEquals(Arrays.asList("four"), built.getAll("four"));
+    }
 }
@@ -0,0 +1,124 @@
+package org.mockserver.collections;
+
+import org.junit.Test;
+import org.mockserver.matchers.RegexStringMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author jamesdbloom
+ */
+public class HybridRegexKeyMapTest {
+
+    private static final String[] KEYS = new String[]{
+            "Content-Type",
+            "content-type",
+            "Accept",
+            "X-.*",
+            "x-request-[a-z]+",
+            "[A-Z]+",
+            "",
+            "invalid[regex",
+            "stra\u00DFe"
+    };
+
+    private static final String[] LOOKUPS = new String[]{
+            "Content-Type",
+            "CONTENT-TYPE",
+            "accept",
+            "X-Request-Id",
+            "x-request-id",
+            "X-.*",
+            "ACCEPT",
+            "Host",
+            "HOST",
+            "",
+            "Content-.*",
+            "[a-z]+",
+            "invalid[regex",
+            "STRASSE",
+            "STRA\u00DFE",
+            "Missing"
+    };
+
+    @Test
+    public void shouldMatchKeysLikeCaseInsensitiveRegexHashMap() {
+        // given
+        CaseInsensitiveRegexHashMap<String> regexHashMap = new CaseInsensitiveRegexHashMap<String>();
+        HybridRegexKeyMap<String> hybridRegexKeyMap = new HybridRegexKeyMap<String>();
+        for (String key : KEYS) {
+            regexHashMap.put(key, key + "_value");
+            hybridRegexKeyMap.put(key, key + "_value");
+        }
+
+        for (String lookup : LOOKUPS) {
+            // then
+            assertEquals(lookup, regexHashMap.containsKey(lookup), hybridRegexKeyMap.containsKey(lookup));
+            assertEquals(lookup, regexHashMap.get(lookup), hybridRegexKeyMap.get(lookup));
+            assertEquals(lookup, new ArrayList<String>(regexHashMap.getAll(lookup)), hybridRegexKeyMap.getAll(lookup));
+            List<String> keysMatching = new ArrayList<String>();
+            for (String key : KEYS) {
+                if (RegexStringMatcher.matches(key, lookup, true)) {
+                    keysMatching.add(key);
+                }
+            }
+            assertEquals(lookup, keysMatching, hybridRegexKeyMap.keysMatching(lookup));
+        }
+    }
+
+    @Test
+    public void shouldKeepInsertionOrderWhenValuesAreReplacedAndKeysRemoved() {
+        // given
+        HybridRegexKeyMap<String> hybridRegexKeyMap = new HybridRegexKeyMap<String>();
+        hybridRegexKeyMap.put("one", "one_value");
+        hybridRegexKeyMap.put("t.*", "two_value");
+        hybridRegexKeyMap.put("three", "three_value");
+
+        // when
+        hybridRegexKeyMap.put("one", "new_one_value");
+        hybridRegexKeyMap.remove("t.*");
+
+        // then
+        assertEquals(Arrays.asList("one", "three"), new ArrayList<String>(hybridRegexKeyMap.keySet()));
+        assertEquals(Arrays.asList("new_one_value"), hybridRegexKeyMap.getAll("ONE"));
+        assertEquals(Arrays.asList("three_value"), hybridRegexKeyMap.getAll("three"));
+        assertFalse(hybridRegexKeyMap.containsKey("two"));
+        assertEquals(2, hybridRegexKeyMap.size());
+    }
+
+    @Test
+    public void shouldRemoveFirstMatchingKey() {
+        // given
+        HybridRegexKeyMap<String> hybridRegexKeyMap = new HybridRegexKeyMap<String>();
+        hybridRegexKeyMap.put("one", "one_value");
+        hybridRegexKeyMap.put("two", "two_value");
+
+        // when
+        String removed = hybridRegexKeyMap.remove("ONE");
+
+        // then
+        assertEquals("one_value", removed);
+        assertEquals(Arrays.asList("two"), new ArrayList<String>(hybridRegexKeyMap.keySet()));
+        assertNull(hybridRegexKeyMap.remove("three"));
+    }
+
+    @Test
+    public void shouldNotAllowKeysToBeChangedThroughViews() {
+        // given
+        HybridRegexKeyMap<String> hybridRegexKeyMap = new HybridRegexKeyMap<String>();
+        hybridRegexKeyMap.put("one", "one_value");
+
+        try {
+            // when
+            hybridRegexKeyMap.keySet().remove("one");
+            fail("expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException uoe) {
+            // then
+            assertTrue(hybridRegexKeyMap.containsKey("one"));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.mockserver.collections;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author jamesdbloom
+ */
+public class InternerTest {
+
+    @Test
+    public void shouldShareValueUntilEveryReferenceReleased() {
+        // given
+        Interner<String, StringBuilder> interner = new Interner<String, StringBuilder>();
+        StringBuilder value = new StringBuilder("some_value");
+
+        // when
+        assertSame(value, interner.intern("some_key", value));
+        assertSame(value, interner.intern("some_key", new StringBuilder("some_value")));
+        assertSame(value, interner.acquire("some_key"));
+
+        // then
+        assertEquals(1, interner.size());
+        assertFalse(interner.release("some_key"));
+        assertFalse(interner.release("some_key"));
+        assertTrue(interner.release("some_key"));
+        assertEquals(0, interner.size());
+        assertNull(interner.acquire("some_key"));
+    }
+
+    @Test
+    public void shouldNotReleaseValueNotHeld() {
+        // given
+        Interner<String, String> interner = new Interner<String, String>();
+
+        // then
+        assertFalse(interner.release("some_key"));
+        assertNull(interner.acquire("some_key"));
+    }
+
+    @Test
+    public void shouldHoldValueOnlyWhileReferencedWhenUsedConcurrently() throws InterruptedException {
+        // given
+        final Interner<String, String> interner = new Interner<String, String>();
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger lost = new AtomicInteger();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ie) {
+                        return;
+                    }
+                    for (int j = 0; j < 10000; j++) {
+                        String key = "some_key_" + (j % 4);
+                        String value = interner.acquire(key);
+                        if (value == null) {
+                            value = interner.intern(key, key);
+                        }
+                        if (!key.equals(value) || interner.acquire(key) != value) {
+                            lost.incrementAndGet();
+                        } else {
+                            interner.release(key);
+                        }
+                        interner.release(key);
+                    }
+                }
+            }));
+        }
+
+        // when
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // then - a value being referenced is never dropped and every value is dropped once released
+        assertEquals(0, lost.get());
+        assertEquals(0, interner.size());
+    }
+}
@@ -0,0 +1,149 @@
+package org.mockserver.collections;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * @author jamesdbloom
+ */
+public class JournalTest {
+
+    private static File newDirectory() {
+        return new File(System.getProperty("java.io.tmpdir"), "mockserver-journal-test-" + System.nanoTime());
+    }
+
+    private static List<String> replay(Journal journal) throws IOException {
+        final List<String> records = new ArrayList<String>();
+        journal.replay(new Journal.RecordVisitor() {
+            public void visit(byte[] record) {
+                records.add(new String(record));
+            }
+        });
+        return records;
+    }
+
+    @Test
+    public void shouldReplayRecordsWrittenBeforeJournalWasOpened() throws IOException {
+        // given
+        File directory = newDirectory();
+        Journal journal = new Journal(directory, 1024, 0, Journal.Fsync.BATCH);
+        journal.append("some_record".getBytes());
+        journal.append("some_other_record".getBytes());
+        journal.close();
+
+        // when
+        Journal reopenedJournal = new Journal(directory, 1024, 0, Journal.Fsync.BATCH);
+        reopenedJournal.append("record_after_reopening".getBytes());
+
+        // then
+        assertEquals(Arrays.asList("some_record", "some_other_record"), replay(reopenedJournal));
+        reopenedJournal.close();
+    }
+
+    @Test
+    public void shouldRollSegmentsAndDeleteOldestBeyondMaximum() throws IOException {
+        // given
+        File directory = newDirectory();
+        Journal journal = new Journal(directory, 32, 2, Journal.Fsync.NEVER);
+
+        // when - each record fills a segment
+        journal.append("first_record_12345678".getBytes());
+        journal.append("second_record_1234567".getBytes());
+        journal.append("third_record_12345678".getBytes());
+        journal.close();
+
+        // then
+        assertEquals(2, journal.segments());
+        Journal reopenedJournal = new Journal(directory, 32, 0, Journal.Fsync.NEVER);
+        assertEquals(Arrays.asList("second_record_1234567", "third_record_12345678"), replay(reopenedJournal));
+        reopenedJournal.close();
+    }
+
+    @Test
+    public void shouldReplayOldestSegmentBeforeDeletingIt() throws IOException {
+        // given
+        File directory = newDirectory();
+        Journal journal = new Journal(directory, 32, 2, Journal.Fsync.NEVER);
+        journal.append("first_record_12345678".getBytes());
+        journal.append("second_record_1234567".getBytes());
+        journal.close();
+
+        // when
+        Journal reopenedJournal = new Journal(directory, 32, 2, Journal.Fsync.NEVER);
+        reopenedJournal.append("third_record_12345678".getBytes());
+
+        // then
+        assertEquals(3, reopenedJournal.segments());
+        assertEquals(Arrays.asList("first_record_12345678", "second_record_1234567"), replay(reopenedJournal));
+        assertEquals(2, reopenedJournal.segments());
+        reopenedJournal.close();
+    }
+
+    @Test
+    public void shouldNotAddSegmentsWhenOpenedWithoutRecords() throws IOException {
+        // given
+        File directory = newDirectory();
+        Journal journal = new Journal(directory, 1024, 2, Journal.Fsync.BATCH);
+        journal.append("some_record".getBytes());
+        journal.close();
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            Journal reopenedJournal = new Journal(directory, 1024, 2, Journal.Fsync.BATCH);
+            replay(reopenedJournal);
+            reopenedJournal.close();
+        }
+
+        // then
+        Journal reopenedJournal = new Journal(directory, 1024, 2, Journal.Fsync.BATCH);
+        assertEquals(1, reopenedJournal.segments());
+        assertEquals(Arrays.asList("some_record"), replay(reopenedJournal));
+        reopenedJournal.close();
+    }
+
+    @Test
+    public void shouldStopReplayingSegmentAtPartlyWrittenRecord() throws IOException {
+        // given
+        File directory = newDirectory();
+        Journal journal = new Journal(directory, 1024, 0, Journal.Fsync.ALWAYS);
+        journal.append("complete_record".getBytes());
+        journal.append("partly_written_record".getBytes());
+        journal.close();
+        RandomAccessFile segmentFile = new RandomAccessFile(new File(directory, "journal-00000000000000000000.segment"), "rw");
+        segmentFile.setLength(segmentFile.length() - 5);
+        segmentFile.close();
+
+        // when
+        Journal reopenedJournal = new Journal(directory, 1024, 0, Journal.Fsync.ALWAYS);
+
+        // then
+        assertEquals(Arrays.asList("complete_record"), replay(reopenedJournal));
+        reopenedJournal.close();
+    }
+
+    @Test
+    public void shouldNotOpenDirectoryAlreadyInUse() throws IOException {
+        // given
+        File directory = newDirectory();
+        Journal journal = new Journal(directory, 1024, 0, Journal.Fsync.BATCH);
+
+        // then
+        try {
+            new Journal(directory, 1024, 0, Journal.Fsync.BATCH);
+            fail("expected exception");
+        } catch (IOException ioe) {
+            assertEquals("Journal directory [" + directory + "] is already in use", ioe.getMessage());
+        }
+        journal.close();
+        new Journal(directory, 1024, 0, Journal.Fsync.BATCH).close();
+    }
+}
@@ -0,0 +1,145 @@
+package org.mockserver.collections;
+
+import com.google.common.base.Predicate;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author jamesdbloom
+ */
+public class RingBufferTest {
+
+    @Test
+    public void shouldKeepEntriesInOrderUntilFull() {
+        // given
+        RingBuffer<String> ringBuffer = new RingBuffer<String>(3);
+
+        // when
+        ringBuffer.add("1");
+        ringBuffer.add("2");
+
+        // then
+        assertEquals(Arrays.asList("1", "2"), ringBuffer.snapshot());
+        assertEquals(2, ringBuffer.size());
+    }
+
+    @Test
+    public void shouldReplaceOldestEntryWhenFull() {
+        // given
+        RingBuffer<String> ringBuffer = new RingBuffer<String>(3);
+
+        // when
+        for (int i = 1; i <= 7; i++) {
+            ringBuffer.add("" + i);
+        }
+
+        // then
+        assertEquals(Arrays.asList("5", "6", "7"), ringBuffer.snapshot());
+    }
+
+    @Test
+    public void shouldDropOldestEntriesToStayWithinMaxBytes() {
+        // given
+        RingBuffer<String> ringBuffer = new RingBuffer<String>(10, 100);
+
+        // when
+        ringBuffer.add("1", 40);
+        ringBuffer.add("2", 40);
+        ringBuffer.add("3", 40);
+
+        // then
+        assertEquals(Arrays.asList("2", "3"), ringBuffer.snapshot());
+        assertEquals(80, ringBuffer.retainedBytes());
+
+        // when
+        ringBuffer.add("4", 90);
+
+        // then
+        assertEquals(Arrays.asList("4"), ringBuffer.snapshot());
+        assertEquals(90, ringBuffer.retainedBytes());
+    }
+
+    @Test
+    public void shouldRemoveMatchingEntries() {
+        // given
+        RingBuffer<String> ringBuffer = new RingBuffer<String>(5, 1000);
+        for (int i = 1; i <= 6; i++) {
+            ringBuffer.add("" + i, 10);
+        }
+
+        // when
+        int removed = ringBuffer.removeIf(new Predicate<String>() {
+            public boolean apply(String input) {
+                return Integer.parseInt(input) % 2 == 0;
+            }
+        });
+
+        // then
+        assertEquals(3, removed);
+        assertEquals(Arrays.asList("3", "5"), ringBuffer.snapshot());
+        assertEquals(20, ringBuffer.retainedBytes());
+    }
+
+    @Test
+    public void shouldClear() {
+        // given
+        RingBuffer<String> ringBuffer = new RingBuffer<String>(5, 1000);
+        ringBuffer.add("1", 10);
+        ringBuffer.add("2", 10);
+
+        // when
+        ringBuffer.clear();
+        ringBuffer.add("3", 10);
+
+        // then
+        assertEquals(Arrays.asList("3"), ringBuffer.snapshot());
+        assertEquals(10, ringBuffer.retainedBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectCapacityLessThanOne() {
+        new RingBuffer<String>(0);
+    }
+
+    @Test
+    public void shouldKeepEveryEntryAddedConcurrentlyWhenNotFull() throws InterruptedException {
+        // given
+        final int threads = 8;
+        final int entriesPerThread = 10000;
+        final RingBuffer<Integer> ringBuffer = new RingBuffer<Integer>(threads * entriesPerThread);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            final int offset = t * entriesPerThread;
+            Thread producer = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                    }
+                    for (int i = 0; i < entriesPerThread; i++) {
+                        ringBuffer.add(offset + i);
+                    }
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+
+        // when
+        start.countDown();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        // then
+        List<Integer> snapshot = ringBuffer.snapshot();
+        assertEquals(threads * entriesPerThread, snapshot.size());
+        assertEquals(threads * entriesPerThread, new HashSet<Integer>(snapshot).size());
+    }
+}
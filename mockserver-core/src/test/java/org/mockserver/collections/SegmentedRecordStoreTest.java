@@ -0,0 +1,80 @@
+package org.mockserver.collections;
+
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author jamesdbloom
+ */
+public class SegmentedRecordStoreTest {
+
+    @Test
+    public void shouldReadRecordsWritten() {
+        // given
+        SegmentedRecordStore recordStore = SegmentedRecordStore.offHeap(16);
+
+        // when
+        SegmentedRecordStore.Record first = recordStore.write("some_bytes".getBytes());
+        SegmentedRecordStore.Record second = recordStore.write("some_more_bytes".getBytes());
+        SegmentedRecordStore.Record third = recordStore.write("even_more_bytes_than_fit_in_a_segment".getBytes());
+
+        // then
+        assertArrayEquals("some_bytes".getBytes(), first.read());
+        assertArrayEquals("some_more_bytes".getBytes(), second.read());
+        assertArrayEquals("even_more_bytes_than_fit_in_a_segment".getBytes(), third.read());
+        assertEquals(15, second.length());
+        assertEquals(3, recordStore.retainedSegments());
+    }
+
+    @Test
+    public void shouldReleaseFullSegmentsOnceEveryRecordIsFreed() {
+        // given
+        SegmentedRecordStore recordStore = SegmentedRecordStore.offHeap(16);
+        SegmentedRecordStore.Record first = recordStore.write("12345678".getBytes());
+        SegmentedRecordStore.Record second = recordStore.write("12345678".getBytes());
+        SegmentedRecordStore.Record third = recordStore.write("12345678".getBytes());
+
+        // when
+        first.free();
+        first.free();
+
+        // then - first segment still holds a live record
+        assertEquals(2, recordStore.retainedSegments());
+
+        // when
+        second.free();
+
+        // then - first segment released, current segment retained
+        assertEquals(1, recordStore.retainedSegments());
+        assertArrayEquals("12345678".getBytes(), second.read());
+
+        // when
+        third.free();
+
+        // then - current segment is only released once it is full
+        assertEquals(1, recordStore.retainedSegments());
+    }
+
+    @Test
+    public void shouldDeleteMemoryMappedSegmentFileOnceReleased() {
+        // given
+        File directory = new File(System.getProperty("java.io.tmpdir"), "mockserver-segmented-record-store-test-" + System.nanoTime());
+        SegmentedRecordStore recordStore = SegmentedRecordStore.memoryMapped(directory, 16);
+        SegmentedRecordStore.Record first = recordStore.write("12345678".getBytes());
+        recordStore.write("123456789".getBytes());
+
+        // then
+        assertEquals(2, directory.listFiles().length);
+        assertArrayEquals("12345678".getBytes(), first.read());
+
+        // when
+        first.free();
+
+        // then
+        assertEquals(1, directory.listFiles().length);
+    }
+}
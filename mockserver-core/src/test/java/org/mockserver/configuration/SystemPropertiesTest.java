@@ -55,6 +55,19 @@ public class SystemPropertiesTest {
         assertEquals(TimeUnit.SECONDS.toMillis(SystemProperties.DEFAULT_MAX_TIMEOUT), SystemProperties.maxTimeout());
     }
 
+    @Test
+    public void shouldDropExchangesByDefaultWhenRequestLogQueueIsFull() {
+        // given
+        System.clearProperty("mockserver.requestLogOverflow");
+
+        // when
+        assertEquals("drop", SystemProperties.requestLogOverflow());
+        SystemProperties.requestLogOverflow("block");
+
+        // then
+        assertEquals("block", SystemProperties.requestLogOverflow());
+    }
+
     @Test
     public void shouldSetAndReadBufferSize() {
         // given
@@ -1,18 +1,32 @@
 package org.mockserver.filters;
 
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import org.junit.Test;
+import org.mockserver.configuration.SystemProperties;
 import org.mockserver.matchers.Times;
 import org.mockserver.mock.Expectation;
+import org.mockserver.mock.MockServerMatcher;
 import org.mockserver.model.Cookie;
 import org.mockserver.model.Header;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
+import org.mockserver.verify.Verification;
+import org.mockserver.verify.VerificationSequence;
+import org.mockserver.verify.VerificationTimes;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockserver.model.HttpRequest.request;
 import static org.mockserver.model.HttpResponse.notFoundResponse;
 import static org.mockserver.model.HttpResponse.response;
@@ -231,4 +245,555 @@ public class LogFilterTest {
         assertEquals(logFilter.httpResponses(request("some_path")), EMPTY_RESPONSE_LIST);
         assertEquals(logFilter.httpResponses(request("some_other_path")), Arrays.asList(response("some_other_body")));
     }
+
+    @Test
+    public void shouldRecordAndRetrieveWithOffHeapStorage() {
+        // given
+        LogFilter logFilter = new LogFilter(100, 0, "offHeap");
+
+        // when
+        logFilter.onRequest(request("some_path").withHeaders(new Header("some_header_name", "some_header_value")));
+        logFilter.onRequest(request("some_other_path"));
+        logFilter.onResponse(request("some_path"), response("body_one").withCookies(new Cookie("some_cookie_name", "some_cookie_value")));
+        logFilter.onResponse(request("some_other_path"), null);
+        logFilter.onResponse(request("some_path"), response("body_three"));
+
+        // then - request log
+        assertEquals(logFilter.httpRequests(request("some_path")), Arrays.asList(request("some_path").withHeaders(new Header("some_header_name", "some_header_value"))));
+        assertEquals(logFilter.httpRequests(request()), Arrays.asList(request("some_path").withHeaders(new Header("some_header_name", "some_header_value")), request("some_other_path")));
+        // then - request-response log
+        assertArrayEquals(logFilter.retrieve(null),
+                new Expectation[]{
+                        new Expectation(request("some_path"), Times.once()).thenRespond(response("body_one").withCookies(new Cookie("some_cookie_name", "some_cookie_value"))),
+                        new Expectation(request("some_path"), Times.once()).thenRespond(response("body_three")),
+                        new Expectation(request("some_other_path"), Times.once()).thenRespond(notFoundResponse())
+                });
+        assertEquals(logFilter.httpResponses(request("some_other_path")), Arrays.asList(notFoundResponse()));
+    }
+
+    @Test
+    public void shouldClearMatchingWithMemoryMappedStorage() {
+        // given
+        LogFilter logFilter = new LogFilter(100, 0, "memoryMapped");
+        // and - called for requests
+        logFilter.onRequest(request("some_path"));
+        logFilter.onRequest(request("some_other_path"));
+        logFilter.onRequest(request("some_path"));
+        // and - called for responses
+        logFilter.onResponse(request("some_path"), response("some_body"));
+        logFilter.onResponse(request("some_other_path"), response("some_other_body"));
+        logFilter.onResponse(request("some_path"), response("some_body"));
+
+        // when
+        logFilter.clear(request("some_path"));
+
+        // then - request log cleared
+        assertEquals(logFilter.httpRequests(request()), Arrays.asList(request("some_other_path")));
+        // then - request-response log cleared
+        assertEquals(logFilter.httpResponses(request()), Arrays.asList(response("some_other_body")));
+    }
+
+    @Test
+    public void shouldLimitSerializedLogBySerializedSize() {
+        // given
+        LogFilter logFilter = new LogFilter(100, 400, "offHeap");
+
+        // when
+        for (int i = 0; i < 20; i++) {
+            logFilter.onRequest(request("some_path_" + i));
+        }
+
+        // then
+        List<HttpRequest> httpRequests = logFilter.httpRequests(request());
+        assertEquals(true, httpRequests.size() > 0 && httpRequests.size() < 20);
+        assertEquals(request("some_path_19"), httpRequests.get(httpRequests.size() - 1));
+    }
+
+    @Test
+    public void shouldKeepEqualRequestsAndResponsesOnceWhenInterning() {
+        // given
+        LogStorage logStorage = LogStorage.create(LogStorage.OFF_HEAP, null, true, 0);
+        LogFilter logFilter = new LogFilter(100, 0, logStorage);
+
+        // when
+        for (int i = 0; i < 50; i++) {
+            logFilter.onResponse(request("some_path_" + (i % 2)), response("some_body"));
+        }
+
+        // then - two requests and one response
+        assertEquals(3, logStorage.interned());
+        assertEquals(25, logFilter.httpResponses(request("some_path_0")).size());
+        assertEquals(response("some_body"), logFilter.httpResponses(request("some_path_1")).get(24));
+
+        // when
+        logFilter.clear(request("some_path_0"));
+
+        // then
+        assertEquals(2, logStorage.interned());
+        logFilter.reset();
+        assertEquals(0, logStorage.interned());
+    }
+
+    @Test
+    public void shouldKeepEqualBodiesAndHeadersOnceWhenInterningOnHeap() {
+        // given
+        LogStorage logStorage = LogStorage.create(LogStorage.HEAP, null, true, 0);
+        LogFilter logFilter = new LogFilter(100, 0, logStorage);
+
+        // when
+        for (int i = 0; i < 50; i++) {
+            logFilter.onResponse(
+                    request("some_path_" + (i % 2)).withHeader(new Header("some_header", "some_value")).withBody("some_request_body_" + (i % 2)),
+                    response("some_body").withHeader(new Header("some_other_header", "some_other_value"))
+            );
+        }
+
+        // then - two request bodies, one response body, one set of request headers and one set of response headers
+        assertEquals(5, logStorage.interned());
+        List<HttpResponse> httpResponses = logFilter.httpResponses(request("some_path_1"));
+        assertEquals(25, httpResponses.size());
+        assertEquals(response("some_body").withHeader(new Header("some_other_header", "some_other_value")), httpResponses.get(24));
+        assertSame(httpResponses.get(0).getBody(), httpResponses.get(24).getBody());
+        assertEquals(request("some_path_0").withHeader(new Header("some_header", "some_value")).withBody("some_request_body_0"), logFilter.retrieve(request("some_path_0"))[0].getHttpRequest());
+
+        // when
+        logFilter.clear(request("some_path_0"));
+
+        // then
+        assertEquals(4, logStorage.interned());
+        logFilter.reset();
+        assertEquals(0, logStorage.interned());
+    }
+
+    @Test
+    public void shouldNotChangeOtherLoggedRequestsWhenChangingOneSharingHeaders() {
+        // given
+        LogStorage logStorage = LogStorage.create(LogStorage.HEAP, null, true, 0);
+        LogFilter logFilter = new LogFilter(100, 0, logStorage);
+        for (int i = 0; i < 2; i++) {
+            logFilter.onRequest(request("some_path").withHeader(new Header("some_header", "some_value")));
+            logFilter.onResponse(
+                    request("some_path").withHeader(new Header("some_header", "some_value")),
+                    response("some_body").withHeader(new Header("some_other_header", "some_other_value"))
+            );
+        }
+        List<HttpRequest> httpRequests = logFilter.httpRequests(request("some_path"));
+        List<HttpResponse> httpResponses = logFilter.httpResponses(request("some_path"));
+
+        // when
+        httpRequests.get(0).withHeader(new Header("some_header", "some_changed_value"));
+        httpRequests.get(0).withHeader(new Header("some_added_header", "some_added_value"));
+        httpResponses.get(0).updateHeader(new Header("some_other_header", "some_changed_value"));
+
+        // then
+        assertEquals(request("some_path").withHeader(new Header("some_header", "some_value")), httpRequests.get(1));
+        assertEquals(response("some_body").withHeader(new Header("some_other_header", "some_other_value")), httpResponses.get(1));
+    }
+
+    @Test
+    public void shouldReleaseInternedPayloadsDroppedFromFullLog() {
+        // given
+        LogStorage logStorage = LogStorage.create(LogStorage.OFF_HEAP, null, true, 0);
+        LogFilter logFilter = new LogFilter(10, 0, logStorage);
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            logFilter.onRequest(request("some_path_" + (i / 10)));
+        }
+
+        // then
+        assertEquals(1, logStorage.interned());
+        assertEquals(10, logFilter.httpRequests(request("some_path_9")).size());
+    }
+
+    @Test
+    public void shouldCompressLargeBodiesUntilRead() {
+        for (String storage : Arrays.asList(LogStorage.HEAP, LogStorage.OFF_HEAP)) {
+            // given
+            String largeBody = Strings.repeat("{\"some_field\":\"some_value\"}", 1000);
+            LogFilter logFilter = new LogFilter(100, 0, LogStorage.create(storage, null, false, 1024));
+
+            // when
+            logFilter.onRequest(request("some_path").withBody(largeBody));
+            logFilter.onResponse(request("some_path").withBody(largeBody), response(largeBody));
+            logFilter.onResponse(request("some_other_path"), response("small_body"));
+
+            // then - nothing decompressed until read
+            CompressionStatistics compressionStatistics = logFilter.compressionStatistics();
+            assertEquals(5, compressionStatistics.getPayloads());
+            assertEquals(3, compressionStatistics.getCompressedPayloads());
+            assertEquals(0.6, compressionStatistics.getHitRatio(), 0.001);
+            assertTrue(compressionStatistics.getCompressionRatio() < 0.1);
+            assertEquals(0, compressionStatistics.getDecompressions());
+            assertEquals(Arrays.asList(response("small_body")), logFilter.httpResponses(request("some_other_path")));
+            assertEquals(0, logFilter.compressionStatistics().getDecompressions());
+
+            // then - decompressed when read
+            assertEquals(Arrays.asList(response(largeBody)), logFilter.httpResponses(request("some_path")));
+            assertEquals(Arrays.asList(request("some_path").withBody(largeBody)), logFilter.httpRequests(request("some_path")));
+            assertTrue(logFilter.compressionStatistics().getDecompressions() >= 2);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownStorage() {
+        new LogFilter(100, 0, "some_storage");
+    }
+
+    @Test
+    public void shouldRetrieveRequestsReceivedInTimeWindow() {
+        // given
+        LogFilter logFilter = new LogFilter();
+        long before = System.currentTimeMillis();
+        logFilter.onRequest(request("some_path"));
+        logFilter.onRequest(request("some_other_path"));
+        logFilter.onRequest(request("some_path"));
+        long after = System.currentTimeMillis();
+
+        // then
+        assertEquals(logFilter.httpRequests(request("some_path"), before, after), Arrays.asList(request("some_path"), request("some_path")));
+        assertEquals(logFilter.httpRequests(request(), before, after), Arrays.asList(request("some_path"), request("some_other_path"), request("some_path")));
+        assertEquals(logFilter.httpRequests(request("some_path"), after + 1, after + 1000), EMPTY_REQUEST_LIST);
+        assertEquals(logFilter.httpRequests(request("some_path"), before - 1000, before - 1), EMPTY_REQUEST_LIST);
+    }
+
+    @Test
+    public void shouldMatchLoggedRequestsWithRegexCharactersAndEmptyMethod() {
+        // given
+        LogFilter logFilter = new LogFilter();
+        logFilter.onRequest(request("/some.path").withMethod("GET"));
+        logFilter.onRequest(request("/some_path"));
+        logFilter.onRequest(request("/some_path").withMethod("POST"));
+        logFilter.onResponse(request("/some.path").withMethod("GET"), response("some_body"));
+
+        // then - logged path is a regex that matches
+        assertEquals(logFilter.httpRequests(request("/someXpath").withMethod("GET")), Arrays.asList(request("/some.path").withMethod("GET")));
+        assertEquals(logFilter.httpResponses(request("/someXpath")), Arrays.asList(response("some_body")));
+        // then - method and path index
+        assertEquals(logFilter.httpRequests(request("/some_path").withMethod("GET")), Arrays.asList(request("/some.path").withMethod("GET")));
+        assertEquals(logFilter.httpRequests(request().withMethod("POST")), Arrays.asList(request("/some_path").withMethod("POST")));
+        assertEquals(logFilter.httpRequests(request("/some_path")), Arrays.asList(request("/some.path").withMethod("GET"), request("/some_path"), request("/some_path").withMethod("POST")));
+    }
+
+    @Test
+    public void shouldRetrievePagesInOrderRecorded() {
+        // given
+        LogFilter logFilter = new LogFilter();
+        logFilter.onResponse(request("some_path"), response("body_one"));
+        logFilter.onResponse(request("some_other_path"), response("body_two"));
+        logFilter.onResponse(request("some_path"), response("body_three"));
+        logFilter.onResponse(request("some_path"), response("body_four"));
+
+        // when
+        RetrievedExpectations firstPage = logFilter.retrieve(request("some_path"), 0, 2);
+        RetrievedExpectations secondPage = logFilter.retrieve(request("some_path"), firstPage.nextCursor(), 2);
+
+        // then
+        assertEquals(2, firstPage.size());
+        assertEquals(Lists.newArrayList(firstPage), Arrays.asList(
+                new Expectation(request("some_path"), Times.once()).thenRespond(response("body_one")),
+                new Expectation(request("some_path"), Times.once()).thenRespond(response("body_three"))
+        ));
+        assertEquals(Lists.newArrayList(secondPage), Arrays.asList(
+                new Expectation(request("some_path"), Times.once()).thenRespond(response("body_four"))
+        ));
+        assertEquals(-1, secondPage.nextCursor());
+    }
+
+    @Test
+    public void shouldRetrieveAllInOnePageWithoutLimit() {
+        // given
+        LogFilter logFilter = new LogFilter();
+        logFilter.onResponse(request("some_path"), response("body_one"));
+        logFilter.onResponse(request("some_other_path"), response("body_two"));
+
+        // when
+        RetrievedExpectations page = logFilter.retrieve(null, 0, 0);
+
+        // then
+        assertEquals(Lists.newArrayList(page), Arrays.asList(
+                new Expectation(request("some_path"), Times.once()).thenRespond(response("body_one")),
+                new Expectation(request("some_other_path"), Times.once()).thenRespond(response("body_two"))
+        ));
+        assertEquals(-1, page.nextCursor());
+        assertEquals(0, logFilter.retrieve(null, 2, 0).size());
+    }
+
+    @Test
+    public void shouldReplayJournaledRequestsAndResponses() {
+        // given
+        String directory = new File(System.getProperty("java.io.tmpdir"), "mockserver-request-journal-test-" + System.nanoTime()).getPath();
+        LogFilter logFilter = new LogFilter(100, 0, new LogStorage.Heap(), RequestJournal.create(directory, 1024, 0, "batch"), false);
+        logFilter.onRequest(request("some_path"));
+        logFilter.onResponse(request("some_path"), response("some_body"));
+        logFilter.onRequest(request("some_other_path"));
+        long receivedTo = System.currentTimeMillis();
+        logFilter.close();
+
+        // when
+        LogFilter replayedLogFilter = new LogFilter(100, 0, new LogStorage.Heap(), RequestJournal.create(directory, 1024, 0, "batch"), true);
+
+        // then
+        assertEquals(replayedLogFilter.httpRequests(request()), Arrays.asList(request("some_path"), request("some_other_path")));
+        assertEquals(replayedLogFilter.httpRequests(request(), 0, receivedTo), Arrays.asList(request("some_path"), request("some_other_path")));
+        assertEquals(replayedLogFilter.httpResponses(request("some_path")), Arrays.asList(response("some_body")));
+        replayedLogFilter.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownJournalFsync() {
+        RequestJournal.create(System.getProperty("java.io.tmpdir"), 1024, 0, "some_fsync");
+    }
+
+    @Test
+    public void shouldVerifyRequestsRecordedAsynchronously() {
+        // given
+        SystemProperties.requestLogAsync(true);
+        LogFilter logFilter;
+        try {
+            logFilter = new LogFilter();
+        } finally {
+            System.clearProperty("mockserver.requestLogAsync");
+        }
+
+        // when
+        for (int i = 0; i < 50; i++) {
+            logFilter.onRequest(request("some_path"));
+            logFilter.onResponse(request("some_path"), response("some_body"));
+        }
+
+        // then
+        assertEquals("", logFilter.verify(new Verification().withRequest(request("some_path")).withTimes(VerificationTimes.exactly(50))));
+        assertEquals(50, logFilter.retrieve(request("some_path"), 0, 0).size());
+        logFilter.close();
+    }
+
+    @Test
+    public void shouldReportDroppedRequestsWhenVerificationFails() throws InterruptedException {
+        // given - requests are stored on another thread that waits until released
+        final CountDownLatch storing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        SystemProperties.requestLogAsync(true);
+        SystemProperties.requestLogQueueSize(1);
+        LogFilter logFilter;
+        try {
+            logFilter = new LogFilter(100, 0, new LogStorage.Heap() {
+                @Override
+                LoggedExchange store(HttpRequest httpRequest, HttpResponse httpResponse, long receivedAt, boolean measure) {
+                    storing.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return super.store(httpRequest, httpResponse, receivedAt, measure);
+                }
+            });
+        } finally {
+            System.clearProperty("mockserver.requestLogAsync");
+            System.clearProperty("mockserver.requestLogQueueSize");
+        }
+        logFilter.onRequest(request("being_logged"));
+        assertTrue(storing.await(5, TimeUnit.SECONDS));
+
+        // when
+        logFilter.onRequest(request("queued"));
+        logFilter.onRequest(request("dropped"));
+        release.countDown();
+
+        // then
+        String result = logFilter.verify(new Verification().withRequest(request("dropped")));
+        assertEquals(1, logFilter.droppedExchanges());
+        assertTrue(result, result.startsWith("Request not found at least once"));
+        assertTrue(result, result.endsWith(", 1 requests and responses were dropped without being logged because the queue of requests waiting to be logged was full"));
+        assertEquals("", logFilter.verify(new Verification().withRequest(request("queued"))));
+        logFilter.close();
+    }
+
+    private static void receiveLater(final LogFilter logFilter, final HttpRequest... httpRequests) {
+        new Thread(new Runnable() {
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                for (HttpRequest httpRequest : httpRequests) {
+                    logFilter.onRequest(httpRequest);
+                }
+            }
+        }).start();
+    }
+
+    @Test
+    public void shouldWaitForExpectedRequestBeforeVerifying() {
+        // given
+        LogFilter logFilter = new LogFilter();
+        logFilter.onRequest(request("some_path"));
+
+        // when
+        receiveLater(logFilter, request("some_other_path"), request("some_path"));
+
+        // then
+        assertEquals("", logFilter.verify(new Verification().withRequest(request("some_path")).withTimes(VerificationTimes.exactly(2)), 5000));
+        assertEquals(3, logFilter.httpRequests(new HttpRequest()).size());
+    }
+
+    @Test
+    public void shouldWaitForRequestMatchingRegexPathBeforeVerifying() {
+        // given
+        LogFilter logFilter = new LogFilter();
+        logFilter.onRequest(request("some_path_1"));
+
+        // when
+        receiveLater(logFilter, request("some_other_path"), request("some_path_2"));
+
+        // then - only the requests added since the last check are matched each time a request arrives
+        assertEquals("", logFilter.verify(new Verification().withRequest(request("some_path_.*")).withTimes(VerificationTimes.exactly(2)), 5000));
+    }
+
+    @Test
+    public void shouldWaitForExpectedSequenceBeforeVerifying() {
+        // given
+        LogFilter logFilter = new LogFilter();
+        logFilter.onRequest(request("first_path"));
+
+        // when
+        receiveLater(logFilter, request("second_path"));
+
+        // then
+        assertEquals("", logFilter.verify(new VerificationSequence().withRequests(request("first_path"), request("second_path")), 5000));
+    }
+
+    @Test
+    public void shouldFailVerificationOnceTimeoutExpires() {
+        // given
+        LogFilter logFilter = new LogFilter();
+        logFilter.onRequest(request("some_path"));
+        receiveLater(logFilter, request("some_other_path"));
+
+        // when
+        long start = System.currentTimeMillis();
+        String result = logFilter.verify(new Verification().withRequest(request("some_path")).withTimes(VerificationTimes.exactly(2)), 250);
+
+        // then
+        assertEquals(logFilter.verify(new Verification().withRequest(request("some_path")).withTimes(VerificationTimes.exactly(2))), result);
+        assertTrue(System.currentTimeMillis() - start >= 250);
+    }
+
+    @Test
+    public void shouldFailVerificationOnceTimeoutExpiresWhileOtherRequestsKeepArriving() throws InterruptedException {
+        // given
+        final LogFilter logFilter = new LogFilter();
+        logFilter.onRequest(request("some_path"));
+        final AtomicBoolean receiving = new AtomicBoolean(true);
+        List<Thread> traffic = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++) {
+            traffic.add(new Thread(new Runnable() {
+                public void run() {
+                    while (receiving.get()) {
+                        logFilter.onRequest(request("some_other_path"));
+                        logFilter.onRequest(request("some_path"));
+                    }
+                }
+            }));
+        }
+        for (Thread thread : traffic) {
+            thread.start();
+        }
+
+        // when
+        long start = System.currentTimeMillis();
+        String result;
+        try {
+            result = logFilter.verify(new Verification().withRequest(request("some_path")).withTimes(VerificationTimes.exactly(2)), 200);
+        } finally {
+            receiving.set(false);
+            for (Thread thread : traffic) {
+                thread.join();
+            }
+        }
+
+        // then
+        long elapsed = System.currentTimeMillis() - start;
+        assertTrue(result.startsWith("Request not found exactly 2 times"));
+        assertTrue(elapsed >= 200);
+        assertTrue("verification took " + elapsed + "ms", elapsed < 2000);
+    }
+
+    @Test
+    public void shouldVerifyFromCountsWhenSummaryOnly() {
+        // given
+        LogFilter logFilter = new LogFilter();
+        MockServerMatcher mockServerMatcher = new MockServerMatcher().withMatchListener(logFilter);
+        logFilter.onRequest(request("some_path"));
+        logFilter.setSummaryOnly(true);
+        mockServerMatcher.when(request("some_path").withHeader(new Header("name", "value"))).thenRespond(response("some_body"));
+        logFilter.countMatching(request("some_path").withHeader(new Header("name", "value")));
+
+        // when
+        for (int i = 0; i < 1000; i++) {
+            HttpRequest httpRequest = request("some_path").withMethod("GET").withHeader(new Header("name", i % 2 == 0 ? "value" : "other_value"));
+            mockServerMatcher.handle(httpRequest);
+            logFilter.onRequest(httpRequest);
+            logFilter.onResponse(request("some_path").withMethod("GET"), response("some_body"));
+        }
+
+        // then
+        assertEquals("", logFilter.verify(new Verification().withRequest(request("some_path")).withTimes(VerificationTimes.exactly(1000))));
+        assertEquals("", logFilter.verify(new Verification().withRequest(request("some_path").withHeader(new Header("name", "value"))).withTimes(VerificationTimes.exactly(500))));
+        assertEquals("Request not found exactly 2 times, expected:<{" + System.getProperty("line.separator") +
+                "  \"method\" : \"POST\"," + System.getProperty("line.separator") +
+                "  \"path\" : \"some_path\"" + System.getProperty("line.separator") +
+                "}> but was:<0 matching requests>", logFilter.verify(new Verification().withRequest(request("some_path").withMethod("POST")).withTimes(VerificationTimes.exactly(2))));
+        assertEquals(1, logFilter.httpRequests(request("some_path")).size());
+        assertEquals(0, logFilter.retrieve(null).length);
+    }
+
+    @Test
+    public void shouldKeepCountingExpectationRequestsWhenSummaryOnlySwitchedOn() {
+        // given
+        LogFilter logFilter = new LogFilter();
+        MockServerMatcher mockServerMatcher = new MockServerMatcher().withMatchListener(logFilter);
+        mockServerMatcher.when(request("some_path").withHeader(new Header("name", "value"))).thenRespond(response("some_body"));
+        logFilter.countMatching(request("some_path").withHeader(new Header("name", "value")));
+
+        // when
+        logFilter.setSummaryOnly(true);
+        mockServerMatcher.handle(request("some_path").withHeader(new Header("name", "value")));
+        logFilter.onRequest(request("some_path").withHeader(new Header("name", "value")));
+
+        // then
+        assertEquals("", logFilter.verify(new Verification().withRequest(request("some_path").withHeader(new Header("name", "value"))).withTimes(VerificationTimes.exactly(1))));
+    }
+
+    @Test
+    public void shouldNotVerifyRequestsThatAreNotCountedWhenSummaryOnly() {
+        // given
+        LogFilter logFilter = new LogFilter();
+        logFilter.setSummaryOnly(true);
+
+        // when
+        logFilter.onRequest(request("some_path").withHeader(new Header("name", "value")));
+
+        // then
+        assertTrue(logFilter.verify(new Verification().withRequest(request("some_path").withHeader(new Header("name", "value")))).startsWith("Request can not be verified"));
+        assertTrue(logFilter.verify(new VerificationSequence().withRequests(request("some_path"))).startsWith("Request sequence can not be verified"));
+    }
+
+    @Test
+    public void shouldStartLoggingAgainWhenSummaryOnlySwitchedOff() {
+        // given
+        LogFilter logFilter = new LogFilter();
+        logFilter.setSummaryOnly(true);
+        logFilter.onRequest(request("some_path"));
+
+        // when
+        logFilter.setSummaryOnly(false);
+        logFilter.onRequest(request("some_path"));
+
+        // then
+        assertEquals("", logFilter.verify(new Verification().withRequest(request("some_path")).withTimes(VerificationTimes.exactly(1))));
+        assertEquals(1, logFilter.httpRequests(request("some_path")).size());
+    }
 }
@@ -1,6 +1,7 @@
 package org.mockserver.filters;
 
 import org.junit.Test;
+import org.mockserver.model.HttpRequest;
 import org.mockserver.verify.VerificationSequence;
 
 import static org.hamcrest.CoreMatchers.is;
@@ -652,4 +653,23 @@ public class LogFilterVerificationSequenceTest {
                         "} ]>"));
     }
 
+    @Test
+    public void shouldVerifyLongSequenceInterleavedThroughLargeLog() {
+        // given
+        LogFilter logFilter = new LogFilter(100000, 0);
+        HttpRequest[] steps = new HttpRequest[20];
+        for (int i = 0; i < steps.length; i++) {
+            steps[i] = request("step_" + i);
+        }
+
+        // when
+        for (int i = 0; i < 100000; i++) {
+            logFilter.onRequest(i % 5000 == 0 ? steps[(i / 5000) % steps.length] : request("other_" + (i % 7)));
+        }
+
+        // then
+        assertThat(logFilter.verify(new VerificationSequence().withRequests(steps)), is(""));
+        assertThat(logFilter.verify(new VerificationSequence().withRequests(steps[1], steps[0])).startsWith("Request sequence not found"), is(true));
+    }
+
 }
@@ -1,6 +1,8 @@
 package org.mockserver.filters;
 
 import org.junit.Test;
+import org.mockserver.configuration.SystemProperties;
+import org.mockserver.model.Header;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.verify.Verification;
 
@@ -307,4 +309,48 @@ public class LogFilterVerificationTest {
                         "  \"path\" : \"some_path\"" + System.getProperty("line.separator") +
                         "} ]>"));
     }
+
+    @Test
+    public void shouldOnlyReportClosestRequestsWhenLogIsLarge() {
+        // given
+        LogFilter logFilter = new LogFilter();
+        SystemProperties.verificationFailureReportSize(2);
+        try {
+            // when
+            for (int i = 0; i < 50; i++) {
+                logFilter.onRequest(new HttpRequest().withMethod("POST").withPath("some_other_path_" + i));
+            }
+            logFilter.onRequest(new HttpRequest().withMethod("GET").withPath("some_path"));
+            logFilter.onRequest(new HttpRequest().withMethod("GET").withPath("some_other_path"));
+            logFilter.onRequest(new HttpRequest().withMethod("POST").withPath("some_last_path"));
+
+            // then
+            assertThat(logFilter.verify(
+                            new Verification()
+                                    .withRequest(
+                                            new HttpRequest()
+                                                    .withMethod("GET")
+                                                    .withPath("some_path")
+                                                    .withHeader(new Header("name", "value"))
+                                    )
+                                    .withTimes(exactly(1))
+                    ),
+                    is("Request not found exactly once, expected:<{" + System.getProperty("line.separator") +
+                            "  \"method\" : \"GET\"," + System.getProperty("line.separator") +
+                            "  \"path\" : \"some_path\"," + System.getProperty("line.separator") +
+                            "  \"headers\" : [ {" + System.getProperty("line.separator") +
+                            "    \"name\" : \"name\"," + System.getProperty("line.separator") +
+                            "    \"values\" : [ \"value\" ]" + System.getProperty("line.separator") +
+                            "  } ]" + System.getProperty("line.separator") +
+                            "}> but was:<[ {" + System.getProperty("line.separator") +
+                            "  \"method\" : \"GET\"," + System.getProperty("line.separator") +
+                            "  \"path\" : \"some_path\"" + System.getProperty("line.separator") +
+                            "}, {" + System.getProperty("line.separator") +
+                            "  \"method\" : \"GET\"," + System.getProperty("line.separator") +
+                            "  \"path\" : \"some_other_path\"" + System.getProperty("line.separator") +
+                            "} ]>, showing the 2 closest of 53 logged requests"));
+        } finally {
+            System.clearProperty("mockserver.verificationFailureReportSize");
+        }
+    }
 }
@@ -0,0 +1,55 @@
+package org.mockserver.filters;
+
+import com.google.common.base.Strings;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author jamesdbloom
+ */
+public class PayloadCompressionTest {
+
+    @Test
+    public void shouldCompressAndDecompressPayload() {
+        // given
+        PayloadCompression payloadCompression = new PayloadCompression(16);
+        byte[] payload = Strings.repeat("{\"some_field\":\"some_value\"}", 1000).getBytes();
+
+        // when
+        byte[] compressed = payloadCompression.compress(payload);
+
+        // then
+        assertTrue(compressed.length < payload.length / 10);
+        assertArrayEquals(payload, payloadCompression.decompress(compressed));
+        CompressionStatistics compressionStatistics = payloadCompression.statistics();
+        assertEquals(1, compressionStatistics.getCompressedPayloads());
+        assertEquals(payload.length, compressionStatistics.getUncompressedBytes());
+        assertEquals(compressed.length, compressionStatistics.getCompressedBytes());
+        assertEquals(1, compressionStatistics.getDecompressions());
+    }
+
+    @Test
+    public void shouldOnlyCompressBodiesLargerThanThreshold() {
+        // given
+        PayloadCompression payloadCompression = new PayloadCompression(16);
+
+        // then
+        assertFalse(payloadCompression.shouldCompress(16));
+        assertTrue(payloadCompression.shouldCompress(17));
+        assertFalse(new PayloadCompression(0).shouldCompress(Integer.MAX_VALUE));
+        assertEquals(2, payloadCompression.statistics().getPayloads());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectTruncatedPayload() {
+        // given
+        PayloadCompression payloadCompression = new PayloadCompression(16);
+        byte[] compressed = payloadCompression.compress(Strings.repeat("some_value", 1000).getBytes());
+        byte[] truncated = new byte[compressed.length / 2];
+        System.arraycopy(compressed, 0, truncated, 0, truncated.length);
+
+        // then
+        payloadCompression.decompress(truncated);
+    }
+}
@@ -0,0 +1,128 @@
+package org.mockserver.filters;
+
+import org.junit.Test;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockserver.model.HttpRequest.request;
+
+/**
+ * @author jamesdbloom
+ */
+public class RecorderTest {
+
+    private final List<HttpRequest> recorded = Collections.synchronizedList(new ArrayList<HttpRequest>());
+    private final CountDownLatch recording = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final Recorder.Target recordingTarget = new Recorder.Target() {
+        public void record(HttpRequest httpRequest, HttpResponse httpResponse, long receivedAt) {
+            recorded.add(httpRequest);
+        }
+    };
+
+    // blocks the recorder thread on the first exchange until released so the queue fills up
+    private final Recorder.Target blockingTarget = new Recorder.Target() {
+        public void record(HttpRequest httpRequest, HttpResponse httpResponse, long receivedAt) {
+            recording.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            recorded.add(httpRequest);
+        }
+    };
+
+    @Test
+    public void shouldRecordEveryExchangeBeforeAwaitRecordedReturns() {
+        // given
+        Recorder recorder = Recorder.create(true, 16, Recorder.BLOCK, 10, recordingTarget);
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            recorder.record(request("some_path_" + i), null, 0);
+        }
+        recorder.awaitRecorded();
+
+        // then
+        assertEquals(100, recorded.size());
+        assertEquals(request("some_path_0"), recorded.get(0));
+        assertEquals(request("some_path_99"), recorded.get(99));
+        recorder.close();
+    }
+
+    @Test
+    public void shouldDropExchangesWhenQueueIsFull() throws InterruptedException {
+        // given
+        Recorder recorder = Recorder.create(true, 1, Recorder.DROP, 10, blockingTarget);
+        recorder.record(request("being_recorded"), null, 0);
+        assertTrue(recording.await(5, TimeUnit.SECONDS));
+
+        // when
+        recorder.record(request("queued"), null, 0);
+        recorder.record(request("dropped"), null, 0);
+        recorder.record(request("also_dropped"), null, 0);
+        release.countDown();
+        recorder.awaitRecorded();
+
+        // then
+        assertEquals(2, recorder.droppedExchanges());
+        assertEquals(Arrays.asList(request("being_recorded"), request("queued")), recorded);
+        recorder.close();
+    }
+
+    @Test
+    public void shouldSampleExchangesWhenQueueIsFull() throws InterruptedException {
+        // given
+        final Recorder recorder = Recorder.create(true, 1, Recorder.SAMPLE, 2, blockingTarget);
+        recorder.record(request("being_recorded"), null, 0);
+        assertTrue(recording.await(5, TimeUnit.SECONDS));
+        recorder.record(request("queued"), null, 0);
+
+        // when - first overflowing exchange dropped, second waits for space
+        recorder.record(request("dropped"), null, 0);
+        Thread sampled = new Thread(new Runnable() {
+            public void run() {
+                recorder.record(request("sampled"), null, 0);
+            }
+        });
+        sampled.start();
+        release.countDown();
+        sampled.join();
+        recorder.awaitRecorded();
+
+        // then
+        assertEquals(1, recorder.droppedExchanges());
+        assertEquals(Arrays.asList(request("being_recorded"), request("queued"), request("sampled")), recorded);
+        recorder.close();
+    }
+
+    @Test
+    public void shouldRecordOnCallingThreadOnceClosed() {
+        // given
+        Recorder recorder = Recorder.create(true, 16, Recorder.BLOCK, 10, recordingTarget);
+        recorder.record(request("before_close"), null, 0);
+
+        // when
+        recorder.close();
+        recorder.record(request("after_close"), null, 0);
+
+        // then
+        assertEquals(Arrays.asList(request("before_close"), request("after_close")), recorded);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownOverflow() {
+        Recorder.create(true, 16, "some_overflow", 10, recordingTarget);
+    }
+}
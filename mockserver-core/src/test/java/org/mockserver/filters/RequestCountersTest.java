@@ -0,0 +1,169 @@
+package org.mockserver.filters;
+
+import org.junit.Test;
+import org.mockserver.model.Header;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockserver.model.HttpRequest.request;
+
+/**
+ * @author jamesdbloom
+ */
+public class RequestCountersTest {
+
+    @Test
+    public void shouldCountRequestsByMethodAndPath() {
+        // given
+        RequestCounters requestCounters = new RequestCounters();
+
+        // when
+        requestCounters.record(request("some_path").withMethod("GET"));
+        requestCounters.record(request("some_path").withMethod("GET"));
+        requestCounters.record(request("some_path").withMethod("POST"));
+        requestCounters.record(request("some_other_path").withMethod("GET"));
+
+        // then
+        assertEquals(2, requestCounters.count(request("some_path").withMethod("GET")));
+        assertEquals(3, requestCounters.count(request("some_path")));
+        assertEquals(3, requestCounters.count(request().withMethod("GET")));
+        assertEquals(4, requestCounters.count(request()));
+        assertEquals(0, requestCounters.count(request("not_recorded_path")));
+        assertEquals(4, requestCounters.recorded());
+    }
+
+    @Test
+    public void shouldOnlyCountRegisteredRequestsThatAreNotShapes() {
+        // given
+        RequestCounters requestCounters = new RequestCounters();
+        requestCounters.register(request("some_path").withHeader(new Header("name", "value")));
+
+        // when
+        requestCounters.matched(request("some_path").withHeader(new Header("name", "value")));
+        requestCounters.matched(request("some_path").withHeader(new Header("name", "other_value")));
+        requestCounters.record(request("some_path").withHeader(new Header("name", "value")));
+        requestCounters.record(request("some_path").withHeader(new Header("name", "other_value")));
+
+        // then
+        assertEquals(1, requestCounters.count(request("some_path").withHeader(new Header("name", "value"))));
+        assertEquals(-1, requestCounters.count(request("some_path").withHeader(new Header("name", "other_value"))));
+        assertEquals(-1, requestCounters.count(request("some_.*")));
+    }
+
+    @Test
+    public void shouldClearCountsWithSameMethodAndPath() {
+        // given
+        RequestCounters requestCounters = new RequestCounters();
+        requestCounters.record(request("some_path").withMethod("GET"));
+        requestCounters.record(request("some_path").withMethod("POST"));
+        requestCounters.record(request("some_other_path").withMethod("GET"));
+
+        // when
+        requestCounters.clear(request("some_path").withMethod("GET"));
+
+        // then
+        assertEquals(0, requestCounters.count(request("some_path").withMethod("GET")));
+        assertEquals(1, requestCounters.count(request("some_path").withMethod("POST")));
+        assertEquals(1, requestCounters.count(request("some_other_path")));
+    }
+
+    @Test
+    public void shouldStopCountingRegisteredRequestsMatchedByClear() {
+        // given
+        RequestCounters requestCounters = new RequestCounters();
+        requestCounters.register(request("some_path").withHeader(new Header("name", "value")));
+        requestCounters.register(request("some_other_path").withHeader(new Header("name", "value")));
+        requestCounters.matched(request("some_path").withHeader(new Header("name", "value")));
+
+        // when
+        requestCounters.clear(request("some_path"));
+
+        // then
+        assertEquals(-1, requestCounters.count(request("some_path").withHeader(new Header("name", "value"))));
+        assertEquals(0, requestCounters.count(request("some_other_path").withHeader(new Header("name", "value"))));
+    }
+
+    @Test
+    public void shouldKeepRegisteredRequestsWhenCountsReset() {
+        // given
+        RequestCounters requestCounters = new RequestCounters();
+        requestCounters.register(request("some_path").withHeader(new Header("name", "value")));
+        requestCounters.matched(request("some_path").withHeader(new Header("name", "value")));
+        requestCounters.record(request("some_path").withHeader(new Header("name", "value")));
+
+        // when
+        requestCounters.resetCounts();
+        requestCounters.matched(request("some_path").withHeader(new Header("name", "value")));
+        requestCounters.record(request("some_path").withHeader(new Header("name", "value")));
+
+        // then
+        assertEquals(1, requestCounters.count(request("some_path").withHeader(new Header("name", "value"))));
+        assertEquals(1, requestCounters.count(request("some_path")));
+    }
+
+    @Test
+    public void shouldCountPathsWithIdsByTemplate() {
+        // given
+        RequestCounters requestCounters = new RequestCounters(2);
+
+        // when
+        requestCounters.record(request("/users/1/orders").withMethod("GET"));
+        requestCounters.record(request("/users/2/orders").withMethod("GET"));
+        requestCounters.record(request("/users/3f2504e0-4f89-11d3-9a0c-0305e82c3301/orders").withMethod("GET"));
+        requestCounters.record(request("/users/0123456789abcdef/orders").withMethod("POST"));
+        requestCounters.record(request("/users/me").withMethod("GET"));
+
+        // then
+        assertEquals(-1, requestCounters.count(request("/users/1/orders")));
+        assertEquals(1, requestCounters.count(request("/users/me")));
+        assertEquals(4, requestCounters.count(request().withMethod("GET")));
+        assertEquals(5, requestCounters.count(request()));
+    }
+
+    @Test
+    public void shouldReplaceIdSegmentsInPathTemplate() {
+        assertEquals("/users/{id}/orders/{id}", RequestCounters.pathTemplate("/users/12/orders/345"));
+        assertEquals("/users/{id}", RequestCounters.pathTemplate("/users/3F2504E0-4F89-11D3-9A0C-0305E82C3301"));
+        assertEquals("/tokens/{id}/", RequestCounters.pathTemplate("/tokens/deadbeef00112233/"));
+        assertEquals("/tokens/deadbeefdeadbeef", RequestCounters.pathTemplate("/tokens/deadbeefdeadbeef"));
+        assertEquals("/v2/users/abc", RequestCounters.pathTemplate("/v2/users/abc"));
+        assertEquals("{id}", RequestCounters.pathTemplate("42"));
+        assertEquals("", RequestCounters.pathTemplate(""));
+    }
+
+    @Test
+    public void shouldClearCountsWithSamePathTemplate() {
+        // given
+        RequestCounters requestCounters = new RequestCounters();
+        requestCounters.record(request("/users/1").withMethod("GET"));
+        requestCounters.record(request("/users/2").withMethod("GET"));
+
+        requestCounters.record(request("/users/me").withMethod("GET"));
+
+        // when
+        requestCounters.clear(request("/users/1"));
+
+        // then
+        assertEquals(1, requestCounters.count(request()));
+        assertEquals(1, requestCounters.count(request("/users/me")));
+    }
+
+    @Test
+    public void shouldCountPathsBeyondMaximumTogether() {
+        // given
+        RequestCounters requestCounters = new RequestCounters(2);
+
+        // when
+        requestCounters.record(request("first_path").withMethod("GET"));
+        requestCounters.record(request("second_path").withMethod("GET"));
+        requestCounters.record(request("third_path").withMethod("GET"));
+        requestCounters.record(request("fourth_path").withMethod("POST"));
+        requestCounters.record(request("first_path").withMethod("GET"));
+
+        // then
+        assertEquals(2, requestCounters.count(request("first_path")));
+        assertEquals(1, requestCounters.count(request("second_path").withMethod("GET")));
+        assertEquals(-1, requestCounters.count(request("third_path")));
+        assertEquals(4, requestCounters.count(request().withMethod("GET")));
+        assertEquals(5, requestCounters.count(request()));
+    }
+}
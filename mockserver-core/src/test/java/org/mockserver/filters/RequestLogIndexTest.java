@@ -0,0 +1,172 @@
+package org.mockserver.filters;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+import org.mockserver.model.HttpRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockserver.model.HttpRequest.request;
+
+/**
+ * @author jamesdbloom
+ */
+public class RequestLogIndexTest {
+
+    private static LoggedExchange loggedExchange(HttpRequest httpRequest) {
+        return new LogStorage.Heap().store(httpRequest, null, false);
+    }
+
+    @Test
+    public void shouldReturnCandidatesWithSameLiteralOrWildcardMethodAndPath() {
+        // given
+        RequestLogIndex requestLogIndex = new RequestLogIndex();
+        LoggedExchange getSomePath = loggedExchange(request("/some_path").withMethod("GET"));
+        LoggedExchange postSomePath = loggedExchange(request("/some_path").withMethod("POST"));
+        LoggedExchange getOtherPath = loggedExchange(request("/some_other_path").withMethod("GET"));
+        LoggedExchange anyMethodRegexPath = loggedExchange(request("/some_.*"));
+        requestLogIndex.add(getSomePath);
+        requestLogIndex.add(postSomePath);
+        requestLogIndex.add(getOtherPath);
+        requestLogIndex.add(anyMethodRegexPath);
+
+        // then
+        assertEquals(Arrays.asList(getSomePath, anyMethodRegexPath), requestLogIndex.candidates(request("/some_path").withMethod("GET")));
+        assertEquals(Arrays.asList(getSomePath, postSomePath, anyMethodRegexPath), requestLogIndex.candidates(request("/some_path")));
+        assertEquals(Arrays.asList(postSomePath, anyMethodRegexPath), requestLogIndex.candidates(request().withMethod("POST")));
+        assertNull(requestLogIndex.candidates(request("/some_.*")));
+        assertNull(requestLogIndex.candidates(request()));
+    }
+
+    @Test
+    public void shouldIndexPathsWhoseOnlyRegexCharacterIsDot() {
+        // given
+        RequestLogIndex requestLogIndex = new RequestLogIndex();
+        LoggedExchange fileJson = loggedExchange(request("/file.json"));
+        LoggedExchange fileXml = loggedExchange(request("/file.xml"));
+        LoggedExchange fileXjson = loggedExchange(request("/fileXjson"));
+        LoggedExchange otherJson = loggedExchange(request("/other.json"));
+        requestLogIndex.add(fileJson);
+        requestLogIndex.add(fileXml);
+        requestLogIndex.add(fileXjson);
+        requestLogIndex.add(otherJson);
+
+        // then
+        assertEquals("/file.json", RequestLogIndex.indexKey("/file.json"));
+        assertEquals(RequestLogIndex.WILDCARD, RequestLogIndex.indexKey("/file.*"));
+        assertEquals(Arrays.asList(fileJson, fileXjson), requestLogIndex.candidates(request("/file.json")));
+        assertEquals(Arrays.asList(fileJson, fileXjson), requestLogIndex.candidates(request("/fileXjson")));
+        assertEquals(Arrays.asList(fileXml), requestLogIndex.candidates(request("/file.xml")));
+        assertEquals(Arrays.<LoggedExchange>asList(), requestLogIndex.candidates(request("/file_xml_")));
+    }
+
+    @Test
+    public void shouldNotLoseExchangesAddedAndRemovedConcurrently() throws InterruptedException {
+        // given
+        final RequestLogIndex requestLogIndex = new RequestLogIndex();
+        final int threads = 8;
+        final int exchangesPerThread = 2000;
+        final List<LoggedExchange> kept = Collections.synchronizedList(new ArrayList<LoggedExchange>());
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < exchangesPerThread; i++) {
+                        LoggedExchange removed = loggedExchange(request("/some_path").withMethod("GET"));
+                        requestLogIndex.add(removed);
+                        requestLogIndex.remove(removed);
+                        if (i % 100 == 0) {
+                            LoggedExchange added = loggedExchange(request("/some_path").withMethod("GET"));
+                            requestLogIndex.add(added);
+                            kept.add(added);
+                        }
+                    }
+                }
+            }));
+        }
+
+        // when
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        // then
+        assertEquals(kept.size(), requestLogIndex.candidates(request("/some_path")).size());
+        assertEquals(kept.size(), requestLogIndex.candidates(request().withMethod("GET")).size());
+        assertEquals(kept.size(), requestLogIndex.size());
+        assertEquals(requestLogIndex.nextSequence(), requestLogIndex.addedTo());
+    }
+
+    @Test
+    public void shouldReturnCandidatesFromSequence() {
+        // given
+        RequestLogIndex requestLogIndex = new RequestLogIndex();
+        LoggedExchange first = loggedExchange(request("/some_path").withMethod("GET"));
+        LoggedExchange second = loggedExchange(request("/some_.*"));
+        LoggedExchange third = loggedExchange(request("/some_other_path").withMethod("GET"));
+        LoggedExchange fourth = loggedExchange(request("/some_path").withMethod("POST"));
+        requestLogIndex.add(first);
+        requestLogIndex.add(second);
+        requestLogIndex.add(third);
+        requestLogIndex.add(fourth);
+
+        // then
+        assertEquals(Arrays.asList(second, fourth), Lists.newArrayList(requestLogIndex.candidatesFrom(request("/some_path"), second.sequence)));
+        assertEquals(Arrays.asList(second), Lists.newArrayList(requestLogIndex.candidatesFrom(request("/some_path").withMethod("GET"), second.sequence)));
+        assertEquals(Arrays.asList(third, fourth), Lists.newArrayList(requestLogIndex.candidatesFrom(null, third.sequence)));
+        assertEquals(Arrays.<LoggedExchange>asList(), Lists.newArrayList(requestLogIndex.candidatesFrom(request(), fourth.sequence + 1)));
+    }
+
+    @Test
+    public void shouldRemoveExchanges() {
+        // given
+        RequestLogIndex requestLogIndex = new RequestLogIndex();
+        LoggedExchange first = loggedExchange(request("/some_path").withMethod("GET"));
+        LoggedExchange second = loggedExchange(request("/some_path").withMethod("GET"));
+        requestLogIndex.add(first);
+        requestLogIndex.add(second);
+
+        // when
+        requestLogIndex.remove(first);
+
+        // then
+        assertEquals(Arrays.asList(second), requestLogIndex.candidates(request("/some_path")));
+        assertEquals(1, requestLogIndex.size());
+
+        // when
+        requestLogIndex.remove(second);
+        requestLogIndex.remove(second);
+
+        // then
+        assertEquals(Arrays.<LoggedExchange>asList(), requestLogIndex.candidates(request("/some_path")));
+        assertEquals(0, requestLogIndex.size());
+    }
+
+    @Test
+    public void shouldReturnExchangesReceivedInTimeWindow() {
+        // given
+        RequestLogIndex requestLogIndex = new RequestLogIndex();
+        long before = System.currentTimeMillis();
+        LoggedExchange first = loggedExchange(request("/some_path"));
+        LoggedExchange second = loggedExchange(request("/some_other_path"));
+        requestLogIndex.add(first);
+        requestLogIndex.add(second);
+        long after = System.currentTimeMillis();
+
+        // when
+        List<LoggedExchange> receivedBetween = requestLogIndex.receivedBetween(before, after);
+
+        // then
+        assertEquals(Arrays.asList(first, second), receivedBetween);
+        assertEquals(Arrays.<LoggedExchange>asList(), requestLogIndex.receivedBetween(after + 1, Long.MAX_VALUE));
+        assertEquals(Arrays.<LoggedExchange>asList(), requestLogIndex.receivedBetween(after, before - 1));
+    }
+}
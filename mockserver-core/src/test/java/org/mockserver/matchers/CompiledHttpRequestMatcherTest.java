@@ -0,0 +1,99 @@
+package org.mockserver.matchers;
+
+import org.junit.Test;
+import org.mockserver.model.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.StringBody.exact;
+import static org.mockserver.model.StringBody.json;
+import static org.mockserver.model.StringBody.regex;
+
+/**
+ * Runs every HttpRequestMatcherTest against CompiledHttpRequestMatcher, so both implementations are held to the same
+ * matching semantics, and checks both agree on a cross product of expectations and requests
+ *
+ * @author jamesdbloom
+ */
+public class CompiledHttpRequestMatcherTest extends HttpRequestMatcherTest {
+
+    @Override
+    protected Matcher<HttpRequest> matcher(HttpRequest httpRequest) {
+        return new CompiledHttpRequestMatcher(httpRequest);
+    }
+
+    private final HttpRequest[] expectations = new HttpRequest[]{
+            request(),
+            request().withMethod("GET"),
+            request().withMethod("P[A-Z]{2}"),
+            request().withPath("/some_path"),
+            request().withPath("/some_.*"),
+            request().withMethod("GET").withPath("/some_path"),
+            request().withQueryStringParameters(new Parameter("name", "value")),
+            request().withQueryStringParameters(new Parameter("name", "v[a-z]{4}")),
+            request().withQueryStringParameters(new Parameter("na[a-z]{2}", "value_one", "value_two")),
+            request().withQueryStringParameters(new Parameter("name", "value"), new Parameter("other_name")),
+            request().withHeaders(new Header("Content-Type", "application/json")),
+            request().withHeaders(new Header("content-type", "application/.*")),
+            request().withHeaders(new Header("X-.*", "one")),
+            request().withHeaders(new Header("Accept", "text/plain", "text/html")),
+            request().withCookies(new Cookie("session", "12345")),
+            request().withCookies(new Cookie("SESSION", "[0-9]+")),
+            request().withCookies(new Cookie("session", "12345"), new Cookie("user", "bob")),
+            request().withBody(exact("some_body")),
+            request().withBody(regex("some_[a-z]+")),
+            request().withBody(json("{ \"id\": 1 }")),
+            request().withMethod("POST").withPath("/some_path").withHeaders(new Header("Content-Type", "application/json")).withBody(json("{ \"id\": 1 }"))
+    };
+
+    private final HttpRequest[] requests = new HttpRequest[]{
+            request(),
+            request().withMethod("GET").withPath("/some_path"),
+            request().withMethod("PUT").withPath("/some_other_path"),
+            request().withMethod("POST").withPath("/some_path").withHeaders(new Header("Content-Type", "application/json")).withBody("{ \"id\": 1, \"name\": \"some_name\" }"),
+            request().withMethod("POST").withPath("/some_path").withHeaders(new Header("Content-Type", "text/plain")).withBody("some_body"),
+            request().withQueryStringParameters(new Parameter("name", "value")),
+            request().withQueryStringParameters(new Parameter("Name", "value_one", "value_two")),
+            request().withQueryStringParameters(new Parameter("name", "value"), new Parameter("other_name", "other_value")),
+            request().withHeaders(new Header("content-type", "application/xml"), new Header("X-Request-Id", "one")),
+            request().withHeaders(new Header("Accept", "text/plain"), new Header("accept", "text/html")),
+            request().withHeaders(new Header("Accept", "text/plain", "text/html", "application/json")),
+            request().withCookies(new Cookie("session", "12345")),
+            request().withCookies(new Cookie("Session", "abcde"), new Cookie("user", "bob")),
+            request().withCookies(new Cookie("session", "12345"), new Cookie("user", "bob")),
+            request().withBody("some_other_body")
+    };
+
+    @Test
+    public void shouldMatchSameRequestsAsInterpretedMatcher() {
+        for (HttpRequest expectation : expectations) {
+            // given
+            HttpRequestMatcher interpreted = new HttpRequestMatcher(expectation);
+            Matcher<HttpRequest> compiled = new CompiledHttpRequestMatcher(expectation);
+
+            for (HttpRequest httpRequest : requests) {
+                // then
+                assertEquals("expectation " + expectation + " against request " + httpRequest, interpreted.matches(httpRequest), compiled.matches(httpRequest));
+            }
+        }
+    }
+
+    @Test
+    public void shouldMatchSameInstanceAndNotNull() {
+        // given
+        HttpRequest expectation = request().withPath("/some_path");
+
+        // then
+        assertTrue(new CompiledHttpRequestMatcher(expectation).matches(expectation));
+        assertFalse(new CompiledHttpRequestMatcher(expectation).matches(null));
+        assertTrue(new CompiledHttpRequestMatcher(null).matches(request().withPath("/some_path")));
+    }
+
+    @Test
+    public void shouldBuildCompiledMatcherWhenRequested() {
+        assertTrue(new MatcherBuilder().transformsToMatcher(request(), true) instanceof CompiledHttpRequestMatcher);
+        assertFalse(new MatcherBuilder().transformsToMatcher(request(), false) instanceof CompiledHttpRequestMatcher);
+    }
+}
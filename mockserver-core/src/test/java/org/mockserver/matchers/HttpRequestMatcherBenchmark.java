@@ -0,0 +1,90 @@
+package org.mockserver.matchers;
+
+import org.mockserver.model.Cookie;
+import org.mockserver.model.Header;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.Parameter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockserver.model.HttpRequest.request;
+
+/**
+ * Compares the interpreted HttpRequestMatcher against CompiledHttpRequestMatcher for a request matched against many
+ * expectations, run with:
+ *
+ *   java -cp ... org.mockserver.matchers.HttpRequestMatcherBenchmark
+ *
+ * @author jamesdbloom
+ */
+public class HttpRequestMatcherBenchmark {
+
+    private static final int[] EXPECTATION_COUNTS = new int[]{10, 100, 1000};
+    private static final int WARM_UP_ITERATIONS = 2000;
+    private static final int MEASURED_ITERATIONS = 10000;
+
+    public static void main(String[] args) {
+        for (int expectationCount : EXPECTATION_COUNTS) {
+            List<Matcher<HttpRequest>> interpreted = new ArrayList<Matcher<HttpRequest>>();
+            List<Matcher<HttpRequest>> compiled = new ArrayList<Matcher<HttpRequest>>();
+            for (int i = 0; i < expectationCount; i++) {
+                // only the last expectation matches so every expectation is evaluated
+                HttpRequest expectation = expectation(i == expectationCount - 1 ? "match" : "" + i);
+                interpreted.add(new HttpRequestMatcher(expectation));
+                compiled.add(new CompiledHttpRequestMatcher(expectation));
+            }
+
+            for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+                matches(interpreted, matched());
+                matches(compiled, matched());
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                matches(interpreted, matched());
+            }
+            long interpretedElapsed = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                matches(compiled, matched());
+            }
+            long compiledElapsed = System.nanoTime() - start;
+
+            System.out.println(expectationCount + " expectations: " +
+                    "interpreted " + TimeUnit.NANOSECONDS.toMicros(interpretedElapsed / MEASURED_ITERATIONS) + "us per request, " +
+                    "compiled " + TimeUnit.NANOSECONDS.toMicros(compiledElapsed / MEASURED_ITERATIONS) + "us per request");
+        }
+    }
+
+    private static boolean matches(List<Matcher<HttpRequest>> httpRequestMatchers, HttpRequest httpRequest) {
+        for (Matcher<HttpRequest> httpRequestMatcher : httpRequestMatchers) {
+            if (httpRequestMatcher.matches(httpRequest)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static HttpRequest expectation(String id) {
+        // expectations share method and path so the query string parameters, headers and cookies are evaluated
+        return request()
+                .withMethod("GET")
+                .withPath("/some_path")
+                .withQueryStringParameters(new Parameter("id", id))
+                .withHeaders(new Header("Accept", "application/json"), new Header("X-Request-Id", id))
+                .withCookies(new Cookie("session", id));
+    }
+
+    private static HttpRequest matched() {
+        // a new request each time, as received from the network, so no per request views are reused across iterations
+        return request()
+                .withMethod("GET")
+                .withPath("/some_path")
+                .withQueryStringParameters(new Parameter("id", "match"), new Parameter("page", "1"))
+                .withHeaders(new Header("Accept", "application/json"), new Header("Host", "localhost"), new Header("X-Request-Id", "match"))
+                .withCookies(new Cookie("session", "match"));
+    }
+}
@@ -3,6 +3,12 @@ package org.mockserver.matchers;
 import org.junit.Test;
 import org.mockserver.model.*;
 
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static junit.framework.TestCase.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -16,127 +22,134 @@ import static org.mockserver.model.StringBody.*;
  */
 public class HttpRequestMatcherTest {
 
+    /**
+     * @return the matcher under test, overridden to run every test against CompiledHttpRequestMatcher as well
+     */
+    protected Matcher<HttpRequest> matcher(HttpRequest httpRequest) {
+        return new HttpRequestMatcher(httpRequest);
+    }
+
     @Test
     public void matchesMatchingMethod() {
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withMethod("HEAD")).matches(new HttpRequest().withMethod("HEAD")));
+        assertTrue(matcher(new HttpRequest().withMethod("HEAD")).matches(new HttpRequest().withMethod("HEAD")));
     }
 
     @Test
     public void matchesMatchingMethodRegex() {
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withMethod("P[A-Z]{2}")).matches(new HttpRequest().withMethod("PUT")));
+        assertTrue(matcher(new HttpRequest().withMethod("P[A-Z]{2}")).matches(new HttpRequest().withMethod("PUT")));
     }
 
     @Test
     public void doesNotMatchIncorrectMethod() {
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withMethod("HEAD")).matches(new HttpRequest().withMethod("OPTIONS")));
+        assertFalse(matcher(new HttpRequest().withMethod("HEAD")).matches(new HttpRequest().withMethod("OPTIONS")));
     }
 
     @Test
     public void doesNotMatchIncorrectMethodRegex() {
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withMethod("P[A-Z]{2}")).matches(new HttpRequest().withMethod("POST")));
+        assertFalse(matcher(new HttpRequest().withMethod("P[A-Z]{2}")).matches(new HttpRequest().withMethod("POST")));
     }
 
     @Test
     public void matchesMatchingPath() {
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withPath("somePath")).matches(new HttpRequest().withPath("somePath")));
+        assertTrue(matcher(new HttpRequest().withPath("somePath")).matches(new HttpRequest().withPath("somePath")));
     }
 
     @Test
     public void matchesMatchingPathRegex() {
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withPath("someP[a-z]{3}")).matches(new HttpRequest().withPath("somePath")));
+        assertTrue(matcher(new HttpRequest().withPath("someP[a-z]{3}")).matches(new HttpRequest().withPath("somePath")));
     }
 
     @Test
     public void doesNotMatchIncorrectPath() {
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withPath("somepath")).matches(new HttpRequest().withPath("pathsome")));
+        assertFalse(matcher(new HttpRequest().withPath("somepath")).matches(new HttpRequest().withPath("pathsome")));
     }
 
     @Test
     public void doesNotMatchIncorrectPathRegex() {
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withPath("someP[a-z]{2}")).matches(new HttpRequest().withPath("somePath")));
+        assertFalse(matcher(new HttpRequest().withPath("someP[a-z]{2}")).matches(new HttpRequest().withPath("somePath")));
     }
 
     @Test
     public void matchesMatchingQueryString() {
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withQueryStringParameters(new Parameter("someKey", "someValue"))).matches(new HttpRequest().withQueryStringParameter(new Parameter("someKey", "someValue"))));
+        assertTrue(matcher(new HttpRequest().withQueryStringParameters(new Parameter("someKey", "someValue"))).matches(new HttpRequest().withQueryStringParameter(new Parameter("someKey", "someValue"))));
     }
 
     @Test
     public void matchesMatchingQueryStringRegexKeyAndValue() {
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withQueryStringParameters(new Parameter("someK[a-z]{2}", "someV[a-z]{4}"))).matches(new HttpRequest().withQueryStringParameter(new Parameter("someKey", "someValue"))));
+        assertTrue(matcher(new HttpRequest().withQueryStringParameters(new Parameter("someK[a-z]{2}", "someV[a-z]{4}"))).matches(new HttpRequest().withQueryStringParameter(new Parameter("someKey", "someValue"))));
     }
 
     @Test
     public void matchesMatchingQueryStringRegexKey() {
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withQueryStringParameters(new Parameter("someK[a-z]{2}", "someValue"))).matches(new HttpRequest().withQueryStringParameter(new Parameter("someKey", "someValue"))));
+        assertTrue(matcher(new HttpRequest().withQueryStringParameters(new Parameter("someK[a-z]{2}", "someValue"))).matches(new HttpRequest().withQueryStringParameter(new Parameter("someKey", "someValue"))));
     }
 
     @Test
     public void matchesMatchingQueryStringRegexValue() {
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withQueryStringParameters(new Parameter("someKey", "someV[a-z]{4}"))).matches(new HttpRequest().withQueryStringParameter(new Parameter("someKey", "someValue"))));
+        assertTrue(matcher(new HttpRequest().withQueryStringParameters(new Parameter("someKey", "someV[a-z]{4}"))).matches(new HttpRequest().withQueryStringParameter(new Parameter("someKey", "someValue"))));
     }
 
     @Test
     public void doesNotMatchIncorrectQueryStringName() {
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withQueryStringParameters(new Parameter("someKey", "someValue"))).matches(new HttpRequest().withQueryStringParameter(new Parameter("someOtherKey", "someValue"))));
+        assertFalse(matcher(new HttpRequest().withQueryStringParameters(new Parameter("someKey", "someValue"))).matches(new HttpRequest().withQueryStringParameter(new Parameter("someOtherKey", "someValue"))));
     }
 
     @Test
     public void doesNotMatchIncorrectQueryStringValue() {
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withQueryStringParameters(new Parameter("someKey", "someValue"))).matches(new HttpRequest().withQueryStringParameter(new Parameter("someKey", "someOtherValue"))));
+        assertFalse(matcher(new HttpRequest().withQueryStringParameters(new Parameter("someKey", "someValue"))).matches(new HttpRequest().withQueryStringParameter(new Parameter("someKey", "someOtherValue"))));
     }
 
     @Test
     public void doesNotMatchIncorrectQueryStringRegexKeyAndValue() {
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withQueryStringParameters(new Parameter("someK[a-z]{5}", "someV[a-z]{2}"))).matches(new HttpRequest().withQueryStringParameter(new Parameter("someKey", "someValue"))));
+        assertFalse(matcher(new HttpRequest().withQueryStringParameters(new Parameter("someK[a-z]{5}", "someV[a-z]{2}"))).matches(new HttpRequest().withQueryStringParameter(new Parameter("someKey", "someValue"))));
     }
 
     @Test
     public void doesNotMatchIncorrectQueryStringRegexKey() {
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withQueryStringParameters(new Parameter("someK[a-z]{5}", "someValue"))).matches(new HttpRequest().withQueryStringParameter(new Parameter("someKey", "someValue"))));
+        assertFalse(matcher(new HttpRequest().withQueryStringParameters(new Parameter("someK[a-z]{5}", "someValue"))).matches(new HttpRequest().withQueryStringParameter(new Parameter("someKey", "someValue"))));
     }
 
     @Test
     public void doesNotMatchIncorrectQueryStringRegexValue() {
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withQueryStringParameters(new Parameter("someKey", "someV[a-z]{2}"))).matches(new HttpRequest().withQueryStringParameter(new Parameter("someKey", "someValue"))));
+        assertFalse(matcher(new HttpRequest().withQueryStringParameters(new Parameter("someKey", "someV[a-z]{2}"))).matches(new HttpRequest().withQueryStringParameter(new Parameter("someKey", "someValue"))));
     }
 
     @Test
     public void matchesMatchingQueryStringParameters() {
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withQueryStringParameters(new Parameter("name", "value"))).matches(new HttpRequest().withQueryStringParameters(new Parameter("name", "value"))));
+        assertTrue(matcher(new HttpRequest().withQueryStringParameters(new Parameter("name", "value"))).matches(new HttpRequest().withQueryStringParameters(new Parameter("name", "value"))));
     }
 
     @Test
     public void matchesMatchingQueryStringParametersWithRegex() {
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withQueryStringParameters(new Parameter("name", "v[a-z]{4}"))).matches(new HttpRequest().withQueryStringParameters(new Parameter("name", "value"))));
+        assertTrue(matcher(new HttpRequest().withQueryStringParameters(new Parameter("name", "v[a-z]{4}"))).matches(new HttpRequest().withQueryStringParameters(new Parameter("name", "value"))));
     }
 
     @Test
     public void queryStringParametersMatchesMatchingQueryString() {
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withQueryStringParameters(new Parameter("nameOne", "valueOne"))).matches(new HttpRequest().withQueryStringParameters(
+        assertTrue(matcher(new HttpRequest().withQueryStringParameters(new Parameter("nameOne", "valueOne"))).matches(new HttpRequest().withQueryStringParameters(
                 new Parameter("nameOne", "valueOne"),
                 new Parameter("nameTwo", "valueTwo")
         )));
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withQueryStringParameters(new Parameter("nameTwo", "valueTwo"))).matches(new HttpRequest().withQueryStringParameters(
+        assertTrue(matcher(new HttpRequest().withQueryStringParameters(new Parameter("nameTwo", "valueTwo"))).matches(new HttpRequest().withQueryStringParameters(
                 new Parameter("nameOne", "valueOne"),
                 new Parameter("nameTwo", "valueTwo")
         )));
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withQueryStringParameters(new Parameter("nameTwo", "valueTwo", "valueThree"))).matches(new HttpRequest().withQueryStringParameters(
+        assertTrue(matcher(new HttpRequest().withQueryStringParameters(new Parameter("nameTwo", "valueTwo", "valueThree"))).matches(new HttpRequest().withQueryStringParameters(
                 new Parameter("nameOne", "valueOne"),
                 new Parameter("nameTwo", "valueTwo"),
                 new Parameter("nameTwo", "valueThree")
         )));
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withQueryStringParameters(new Parameter("nameTwo", "valueTwo"))).matches(new HttpRequest().withQueryStringParameters(
+        assertTrue(matcher(new HttpRequest().withQueryStringParameters(new Parameter("nameTwo", "valueTwo"))).matches(new HttpRequest().withQueryStringParameters(
                 new Parameter("nameOne", "valueOne"),
                 new Parameter("nameTwo", "valueTwo"),
                 new Parameter("nameTwo", "valueThree")
         )));
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withQueryStringParameters(new Parameter("nameTwo", "valueThree"))).matches(new HttpRequest().withQueryStringParameters(
+        assertTrue(matcher(new HttpRequest().withQueryStringParameters(new Parameter("nameTwo", "valueThree"))).matches(new HttpRequest().withQueryStringParameters(
                 new Parameter("nameOne", "valueOne"),
                 new Parameter("nameTwo", "valueTwo"),
                 new Parameter("nameTwo", "valueThree")
         )));
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withQueryStringParameters(new Parameter("nameTwo", "valueT[a-z]{0,10}"))).matches(new HttpRequest().withQueryStringParameters(
+        assertTrue(matcher(new HttpRequest().withQueryStringParameters(new Parameter("nameTwo", "valueT[a-z]{0,10}"))).matches(new HttpRequest().withQueryStringParameters(
                 new Parameter("nameOne", "valueOne"),
                 new Parameter("nameTwo", "valueTwo"),
                 new Parameter("nameTwo", "valueThree")
@@ -145,30 +158,30 @@ public class HttpRequestMatcherTest {
 
     @Test
     public void bodyMatchesMatchingBodyParameters() {
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withBody(params(new Parameter("nameOne", "valueOne")))).matches(new HttpRequest().withBody(new ParameterBody(
+        assertTrue(matcher(new HttpRequest().withBody(params(new Parameter("nameOne", "valueOne")))).matches(new HttpRequest().withBody(new ParameterBody(
                 new Parameter("nameOne", "valueOne"),
                 new Parameter("nameTwo", "valueTwo")
         ))));
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withBody(new ParameterBody(new Parameter("nameTwo", "valueTwo")))).matches(new HttpRequest().withBody(new ParameterBody(
+        assertTrue(matcher(new HttpRequest().withBody(new ParameterBody(new Parameter("nameTwo", "valueTwo")))).matches(new HttpRequest().withBody(new ParameterBody(
                 new Parameter("nameOne", "valueOne"),
                 new Parameter("nameTwo", "valueTwo")
         ))));
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withBody(params(new Parameter("nameTwo", "valueTwo", "valueThree")))).matches(new HttpRequest().withBody(new ParameterBody(
+        assertTrue(matcher(new HttpRequest().withBody(params(new Parameter("nameTwo", "valueTwo", "valueThree")))).matches(new HttpRequest().withBody(new ParameterBody(
                 new Parameter("nameOne", "valueOne"),
                 new Parameter("nameTwo", "valueTwo"),
                 new Parameter("nameTwo", "valueThree")
         ))));
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withBody(new ParameterBody(new Parameter("nameTwo", "valueTwo")))).matches(new HttpRequest().withBody(new ParameterBody(
+        assertTrue(matcher(new HttpRequest().withBody(new ParameterBody(new Parameter("nameTwo", "valueTwo")))).matches(new HttpRequest().withBody(new ParameterBody(
                 new Parameter("nameOne", "valueOne"),
                 new Parameter("nameTwo", "valueTwo"),
                 new Parameter("nameTwo", "valueThree")
         ))));
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withBody(params(new Parameter("nameTwo", "valueThree")))).matches(new HttpRequest().withBody(new ParameterBody(
+        assertTrue(matcher(new HttpRequest().withBody(params(new Parameter("nameTwo", "valueThree")))).matches(new HttpRequest().withBody(new ParameterBody(
                 new Parameter("nameOne", "valueOne"),
                 new Parameter("nameTwo", "valueTwo"),
                 new Parameter("nameTwo", "valueThree")
         ))));
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withBody(new ParameterBody(new Parameter("nameTwo", "valueT[a-z]{0,10}")))).matches(new HttpRequest().withBody(new ParameterBody(
+        assertTrue(matcher(new HttpRequest().withBody(new ParameterBody(new Parameter("nameTwo", "valueT[a-z]{0,10}")))).matches(new HttpRequest().withBody(new ParameterBody(
                 new Parameter("nameOne", "valueOne"),
                 new Parameter("nameTwo", "valueTwo"),
                 new Parameter("nameTwo", "valueThree")
@@ -177,37 +190,37 @@ public class HttpRequestMatcherTest {
 
     @Test
     public void doesNotMatchIncorrectParameterName() {
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withBody(new ParameterBody(new Parameter("name", "value")))).matches(new HttpRequest().withBody(new ParameterBody(new Parameter("name1", "value")))));
+        assertFalse(matcher(new HttpRequest().withBody(new ParameterBody(new Parameter("name", "value")))).matches(new HttpRequest().withBody(new ParameterBody(new Parameter("name1", "value")))));
     }
 
     @Test
     public void doesNotMatchIncorrectParameterValue() {
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withBody(new ParameterBody(new Parameter("name", "value")))).matches(new HttpRequest().withBody(new ParameterBody(new Parameter("name", "value1")))));
+        assertFalse(matcher(new HttpRequest().withBody(new ParameterBody(new Parameter("name", "value")))).matches(new HttpRequest().withBody(new ParameterBody(new Parameter("name", "value1")))));
     }
 
     @Test
     public void doesNotMatchIncorrectParameterValueRegex() {
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withBody(new ParameterBody(new Parameter("name", "va[0-9]{1}ue")))).matches(new HttpRequest().withBody(new ParameterBody(new Parameter("name", "value1")))));
+        assertFalse(matcher(new HttpRequest().withBody(new ParameterBody(new Parameter("name", "va[0-9]{1}ue")))).matches(new HttpRequest().withBody(new ParameterBody(new Parameter("name", "value1")))));
     }
 
     @Test
     public void matchesMatchingBody() {
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withBody(new StringBody("somebody", Type.STRING))).matches(new HttpRequest().withBody("somebody")));
+        assertTrue(matcher(new HttpRequest().withBody(new StringBody("somebody", Type.STRING))).matches(new HttpRequest().withBody("somebody")));
     }
 
     @Test
     public void doesNotMatchIncorrectBody() {
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withBody(exact("somebody"))).matches(new HttpRequest().withBody("bodysome")));
+        assertFalse(matcher(new HttpRequest().withBody(exact("somebody"))).matches(new HttpRequest().withBody("bodysome")));
     }
 
     @Test
     public void matchesMatchingBodyRegex() {
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withBody(regex("some[a-z]{4}"))).matches(new HttpRequest().withBody("somebody")));
+        assertTrue(matcher(new HttpRequest().withBody(regex("some[a-z]{4}"))).matches(new HttpRequest().withBody("somebody")));
     }
 
     @Test
     public void doesNotMatchIncorrectBodyRegex() {
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withBody(regex("some[a-z]{3}"))).matches(new HttpRequest().withBody("bodysome")));
+        assertFalse(matcher(new HttpRequest().withBody(regex("some[a-z]{3}"))).matches(new HttpRequest().withBody("bodysome")));
     }
 
     @Test
@@ -217,7 +230,7 @@ public class HttpRequestMatcherTest {
                 "   <key>some_key</key>" +
                 "   <value>some_value</value>" +
                 "</element>";
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withBody(xpath("/element[key = 'some_key' and value = 'some_value']"))).matches(new HttpRequest().withBody(matched)));
+        assertTrue(matcher(new HttpRequest().withBody(xpath("/element[key = 'some_key' and value = 'some_value']"))).matches(new HttpRequest().withBody(matched)));
     }
 
     @Test
@@ -226,7 +239,7 @@ public class HttpRequestMatcherTest {
                 "<element>" +
                 "   <key>some_key</key>" +
                 "</element>";
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withBody(xpath("/element[key = 'some_key' and value = 'some_value']"))).matches(new HttpRequest().withBody(matched)));
+        assertFalse(matcher(new HttpRequest().withBody(xpath("/element[key = 'some_key' and value = 'some_value']"))).matches(new HttpRequest().withBody(matched)));
     }
 
     @Test
@@ -236,7 +249,7 @@ public class HttpRequestMatcherTest {
                 "   \"some_field\": \"some_value\", " +
                 "   \"some_other_field\": \"some_other_value\" " +
                 "}";
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withBody(json("{ \"some_field\": \"some_value\" }"))).matches(new HttpRequest().withBody(matched)));
+        assertTrue(matcher(new HttpRequest().withBody(json("{ \"some_field\": \"some_value\" }"))).matches(new HttpRequest().withBody(matched)));
     }
 
     @Test
@@ -246,70 +259,153 @@ public class HttpRequestMatcherTest {
                 "   \"some_incorrect_field\": \"some_value\", " +
                 "   \"some_other_field\": \"some_other_value\" " +
                 "}";
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withBody(json("{ \"some_field\": \"some_value\" }"))).matches(new HttpRequest().withBody(matched)));
+        assertFalse(matcher(new HttpRequest().withBody(json("{ \"some_field\": \"some_value\" }"))).matches(new HttpRequest().withBody(matched)));
     }
 
 
     @Test
     public void matchesMatchingBinaryBody() {
         byte[] matched = "some binary value".getBytes();
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withBody(binary("some binary value".getBytes()))).matches(new HttpRequest().withBody(binary(matched))));
+        assertTrue(matcher(new HttpRequest().withBody(binary("some binary value".getBytes()))).matches(new HttpRequest().withBody(binary(matched))));
     }
 
     @Test
     public void doesNotMatchIncorrectBinaryBody() {
         byte[] matched = "some other binary value".getBytes();
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withBody(binary("some binary value".getBytes()))).matches(new HttpRequest().withBody(binary(matched))));
+        assertFalse(matcher(new HttpRequest().withBody(binary("some binary value".getBytes()))).matches(new HttpRequest().withBody(binary(matched))));
     }
 
     @Test
     public void matchesMatchingHeaders() {
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withHeaders(new Header("name", "value"))).matches(new HttpRequest().withHeaders(new Header("name", "value"))));
+        assertTrue(matcher(new HttpRequest().withHeaders(new Header("name", "value"))).matches(new HttpRequest().withHeaders(new Header("name", "value"))));
     }
 
     @Test
     public void matchesMatchingHeadersWithRegex() {
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withHeaders(new Header("name", ".*"))).matches(new HttpRequest().withHeaders(new Header("name", "value"))));
+        assertTrue(matcher(new HttpRequest().withHeaders(new Header("name", ".*"))).matches(new HttpRequest().withHeaders(new Header("name", "value"))));
     }
 
     @Test
     public void doesNotMatchIncorrectHeaderName() {
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withHeaders(new Header("name", "value"))).matches(new HttpRequest().withHeaders(new Header("name1", "value"))));
+        assertFalse(matcher(new HttpRequest().withHeaders(new Header("name", "value"))).matches(new HttpRequest().withHeaders(new Header("name1", "value"))));
     }
 
     @Test
     public void doesNotMatchIncorrectHeaderValue() {
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withHeaders(new Header("name", "value"))).matches(new HttpRequest().withHeaders(new Header("name", "value1"))));
+        assertFalse(matcher(new HttpRequest().withHeaders(new Header("name", "value"))).matches(new HttpRequest().withHeaders(new Header("name", "value1"))));
     }
 
     @Test
     public void doesNotMatchIncorrectHeaderValueRegex() {
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withHeaders(new Header("name", "[0-9]{0,100}"))).matches(new HttpRequest().withHeaders(new Header("name", "value1"))));
+        assertFalse(matcher(new HttpRequest().withHeaders(new Header("name", "[0-9]{0,100}"))).matches(new HttpRequest().withHeaders(new Header("name", "value1"))));
     }
 
     @Test
     public void matchesMatchingCookies() {
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withCookies(new Cookie("name", "value"))).matches(new HttpRequest().withCookies(new Cookie("name", "value"))));
+        assertTrue(matcher(new HttpRequest().withCookies(new Cookie("name", "value"))).matches(new HttpRequest().withCookies(new Cookie("name", "value"))));
     }
 
     @Test
     public void matchesMatchingCookiesWithRegex() {
-        assertTrue(new HttpRequestMatcher(new HttpRequest().withCookies(new Cookie("name", "[a-z]{0,20}lue"))).matches(new HttpRequest().withCookies(new Cookie("name", "value"))));
+        assertTrue(matcher(new HttpRequest().withCookies(new Cookie("name", "[a-z]{0,20}lue"))).matches(new HttpRequest().withCookies(new Cookie("name", "value"))));
     }
 
     @Test
     public void doesNotMatchIncorrectCookieName() {
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withCookies(new Cookie("name", "value"))).matches(new HttpRequest().withCookies(new Cookie("name1", "value"))));
+        assertFalse(matcher(new HttpRequest().withCookies(new Cookie("name", "value"))).matches(new HttpRequest().withCookies(new Cookie("name1", "value"))));
     }
 
     @Test
     public void doesNotMatchIncorrectCookieValue() {
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withCookies(new Cookie("name", "value"))).matches(new HttpRequest().withCookies(new Cookie("name", "value1"))));
+        assertFalse(matcher(new HttpRequest().withCookies(new Cookie("name", "value"))).matches(new HttpRequest().withCookies(new Cookie("name", "value1"))));
     }
 
     @Test
     public void doesNotMatchIncorrectCookieValueRegex() {
-        assertFalse(new HttpRequestMatcher(new HttpRequest().withCookies(new Cookie("name", "[A-Z]{0,10}"))).matches(new HttpRequest().withCookies(new Cookie("name", "value1"))));
+        assertFalse(matcher(new HttpRequest().withCookies(new Cookie("name", "[A-Z]{0,10}"))).matches(new HttpRequest().withCookies(new Cookie("name", "value1"))));
+    }
+
+    @Test
+    public void shouldMatchConsistentlyAfterEvaluationOrderIsAdapted() {
+        // given
+        HttpRequestMatcher httpRequestMatcher = new HttpRequestMatcher(new HttpRequest()
+                .withMethod("POST")
+                .withPath("/some_path")
+                .withHeaders(new Header("headerName", "headerValue"))
+                .withCookies(new Cookie("cookieName", "cookieValue"))
+                .withBody(regex("some_[a-z]{4}")));
+        HttpRequest matchingRequest = new HttpRequest()
+                .withMethod("POST")
+                .withPath("/some_path")
+                .withHeaders(new Header("headerName", "headerValue"))
+                .withCookies(new Cookie("cookieName", "cookieValue"))
+                .withBody("some_body");
+
+        // when - mostly rejected on the most expensive check
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(httpRequestMatcher.matches(new HttpRequest()
+                    .withMethod("POST")
+                    .withPath("/some_path")
+                    .withHeaders(new Header("headerName", "headerValue"))
+                    .withCookies(new Cookie("cookieName", "cookieValue"))
+                    .withBody("other_body")));
+        }
+
+        // then
+        assertTrue(httpRequestMatcher.matches(matchingRequest));
+        assertFalse(httpRequestMatcher.matches(new HttpRequest().withMethod("GET").withPath("/some_path").withHeaders(new Header("headerName", "headerValue")).withCookies(new Cookie("cookieName", "cookieValue")).withBody("some_body")));
+        assertFalse(httpRequestMatcher.matches(new HttpRequest().withMethod("POST").withPath("/other_path").withHeaders(new Header("headerName", "headerValue")).withCookies(new Cookie("cookieName", "cookieValue")).withBody("some_body")));
+        assertFalse(httpRequestMatcher.matches(new HttpRequest().withMethod("POST").withPath("/some_path").withCookies(new Cookie("cookieName", "cookieValue")).withBody("some_body")));
+        assertFalse(httpRequestMatcher.matches(new HttpRequest().withMethod("POST").withPath("/some_path").withHeaders(new Header("headerName", "headerValue")).withBody("some_body")));
+        assertEquals(new HttpRequestMatcher(new HttpRequest().withMethod("POST").withPath("/some_path").withHeaders(new Header("headerName", "headerValue")).withCookies(new Cookie("cookieName", "cookieValue")).withBody(regex("some_[a-z]{4}"))), httpRequestMatcher);
+    }
+
+    @Test
+    public void shouldKeepEvaluationOrderStableUnderConcurrentMatching() throws Exception {
+        // given
+        final HttpRequestMatcher httpRequestMatcher = new HttpRequestMatcher(new HttpRequest()
+                .withMethod("POST")
+                .withPath("/some_path")
+                .withHeaders(new Header("headerName", "headerValue"))
+                .withCookies(new Cookie("cookieName", "cookieValue"))
+                .withBody(regex("some_[a-z]{4}")));
+        final HttpRequest matchingRequest = new HttpRequest()
+                .withMethod("POST")
+                .withPath("/some_path")
+                .withHeaders(new Header("headerName", "headerValue"))
+                .withCookies(new Cookie("cookieName", "cookieValue"))
+                .withBody("some_body");
+        final HttpRequest requestRejectedByBody = new HttpRequest()
+                .withMethod("POST")
+                .withPath("/some_path")
+                .withHeaders(new Header("headerName", "headerValue"))
+                .withCookies(new Cookie("cookieName", "cookieValue"))
+                .withBody("some_other_body");
+        final AtomicInteger wrongResults = new AtomicInteger();
+
+        // when - rejected on the body by many threads at once
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            executorService.execute(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < 5000; i++) {
+                        if (httpRequestMatcher.matches(requestRejectedByBody) || !httpRequestMatcher.matches(matchingRequest)) {
+                            wrongResults.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(30, TimeUnit.SECONDS));
+
+        // then - results never changed and the order still holds every check once with the body first
+        assertEquals(0, wrongResults.get());
+        int[] evaluationOrder = httpRequestMatcher.evaluationOrder();
+        assertEquals(HttpRequestMatcher.BODY, evaluationOrder[0]);
+        int[] sortedEvaluationOrder = evaluationOrder.clone();
+        Arrays.sort(sortedEvaluationOrder);
+        assertTrue(Arrays.equals(new int[]{0, 1, 2, 3, 4, 5}, sortedEvaluationOrder));
     }
 
     @Test
@@ -325,7 +421,7 @@ public class HttpRequestMatcherTest {
                         "    \"value\" : \"[A-Z]{0,10}\"" + System.getProperty("line.separator") +
                         "  } ]" + System.getProperty("line.separator") +
                         "}",
-                new HttpRequestMatcher(
+                matcher(
                         request()
                                 .withBody("some_body")
                                 .withHeaders(new Header("name", "value"))
@@ -350,7 +446,7 @@ public class HttpRequestMatcherTest {
                         "    \"value\" : \"[A-Z]{0,10}\"" + System.getProperty("line.separator") +
                         "  } ]" + System.getProperty("line.separator") +
                         "}",
-                new HttpRequestMatcher(
+                matcher(
                         request()
                                 .withBody(json("{ \"key\": \"some_value\" }"))
                                 .withHeaders(new Header("name", "value"))
@@ -358,4 +454,16 @@ public class HttpRequestMatcherTest {
                 ).toString()
         );
     }
+
+    @Test
+    public void shouldCountMatchingSubMatchers() {
+        // given
+        HttpRequestMatcher httpRequestMatcher = new HttpRequestMatcher(new HttpRequest().withMethod("GET").withPath("some_path").withBody("some_body"));
+
+        // then
+        assertEquals(6, httpRequestMatcher.matchingSubMatchers(new HttpRequest().withMethod("GET").withPath("some_path").withBody("some_body")));
+        assertEquals(5, httpRequestMatcher.matchingSubMatchers(new HttpRequest().withMethod("GET").withPath("some_path").withBody("some_other_body")));
+        assertEquals(4, httpRequestMatcher.matchingSubMatchers(new HttpRequest().withMethod("POST").withPath("some_path")));
+        assertEquals(0, httpRequestMatcher.matchingSubMatchers(null));
+    }
 }
@@ -0,0 +1,89 @@
+package org.mockserver.matchers;
+
+import org.mockserver.model.ParsedBody;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.skyscreamer.jsonassert.JSONCompare.compareJSON;
+
+/**
+ * Compares JsonStringMatcher against the JSONAssert LENIENT comparison it replaced, for a single expectation and for a
+ * request matched against many expectations, run with:
+ *
+ *   java -cp ... org.mockserver.matchers.JsonStringMatcherBenchmark
+ *
+ * @author jamesdbloom
+ */
+public class JsonStringMatcherBenchmark {
+
+    private static final int[] ARRAY_SIZES = new int[]{10, 100, 1000};
+    private static final int EXPECTATION_COUNT = 100;
+    private static final int WARM_UP_ITERATIONS = 2000;
+    private static final int MEASURED_ITERATIONS = 10000;
+
+    public static void main(String[] args) throws Exception {
+        for (int arraySize : ARRAY_SIZES) {
+            String matched = json(arraySize, arraySize);
+            String[] expectations = new String[EXPECTATION_COUNT];
+            JsonStringMatcher[] jsonStringMatchers = new JsonStringMatcher[EXPECTATION_COUNT];
+            for (int i = 0; i < EXPECTATION_COUNT; i++) {
+                // only the last expectation matches so every expectation is evaluated
+                expectations[i] = json(arraySize, i == EXPECTATION_COUNT - 1 ? arraySize : i);
+                jsonStringMatchers[i] = new JsonStringMatcher(expectations[i]);
+            }
+
+            for (int i = 0; i < WARM_UP_ITERATIONS / 10; i++) {
+                jsonAssert(expectations, matched);
+                jsonStringMatcher(jsonStringMatchers, matched);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ITERATIONS / 10; i++) {
+                jsonAssert(expectations, matched);
+            }
+            long jsonAssertElapsed = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ITERATIONS / 10; i++) {
+                jsonStringMatcher(jsonStringMatchers, matched);
+            }
+            long jsonStringMatcherElapsed = System.nanoTime() - start;
+
+            System.out.println(arraySize + " element array, " + EXPECTATION_COUNT + " expectations: " +
+                    "JSONAssert " + TimeUnit.NANOSECONDS.toMicros(jsonAssertElapsed / (MEASURED_ITERATIONS / 10)) + "us per request, " +
+                    "JsonStringMatcher " + TimeUnit.NANOSECONDS.toMicros(jsonStringMatcherElapsed / (MEASURED_ITERATIONS / 10)) + "us per request");
+        }
+    }
+
+    private static boolean jsonAssert(String[] expectations, String matched) throws Exception {
+        for (String expectation : expectations) {
+            if (compareJSON(expectation, matched, JSONCompareMode.LENIENT).passed()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean jsonStringMatcher(JsonStringMatcher[] jsonStringMatchers, String matched) {
+        // one parsed body per request, as HttpRequest.getParsedBody does
+        ParsedBody parsedBody = new ParsedBody(matched);
+        for (JsonStringMatcher jsonStringMatcher : jsonStringMatchers) {
+            if (jsonStringMatcher.matchesBody(parsedBody)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String json(int arraySize, int id) {
+        StringBuilder json = new StringBuilder("{ \"id\": " + id + ", \"items\": [ ");
+        for (int i = 0; i < arraySize; i++) {
+            if (i > 0) {
+                json.append(", ");
+            }
+            json.append("{ \"index\": ").append(i).append(", \"name\": \"item_").append(i).append("\", \"enabled\": true }");
+        }
+        return json.append(" ] }").toString();
+    }
+}
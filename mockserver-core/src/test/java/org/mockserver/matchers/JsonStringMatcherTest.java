@@ -351,6 +351,29 @@ public class JsonStringMatcherTest {
                 "}").matches(matched));
     }
 
+    @Test
+    public void shouldMatchLenientlyWithinArrays() {
+        assertTrue(new JsonStringMatcher("{ \"ids\": [ 3, 1, 2 ] }").matches("{ \"ids\": [ 1, 2, 3 ], \"extra\": true }"));
+        assertTrue(new JsonStringMatcher("[ { \"id\": 2 }, { \"id\": 1 } ]").matches("[ { \"id\": 1, \"name\": \"one\" }, { \"id\": 2, \"name\": \"two\" } ]"));
+        assertTrue(new JsonStringMatcher("[ 1, 1, 2 ]").matches("[ 2, 1, 1 ]"));
+        assertFalse(new JsonStringMatcher("[ 1, 1, 2 ]").matches("[ 2, 2, 1 ]"));
+        assertFalse(new JsonStringMatcher("{ \"ids\": [ 1, 2 ] }").matches("{ \"ids\": [ 1, 2, 3 ] }"));
+    }
+
+    @Test
+    public void shouldCompareValuesByType() {
+        assertTrue(new JsonStringMatcher("{ \"number\": 1 }").matches("{ \"number\": 1.0 }"));
+        assertTrue(new JsonStringMatcher("{ \"value\": null }").matches("{ \"value\": null }"));
+        assertFalse(new JsonStringMatcher("{ \"number\": 1 }").matches("{ \"number\": \"1\" }"));
+        assertFalse(new JsonStringMatcher("{ \"value\": { \"id\": 1 } }").matches("{ \"value\": [ { \"id\": 1 } ] }"));
+        assertFalse(new JsonStringMatcher("{ \"value\": true }").matches("{ \"other\": true }"));
+    }
+
+    @Test
+    public void shouldMatchRelaxedJsonSyntax() {
+        assertTrue(new JsonStringMatcher("{ username: 'foo', password: 'bar' }").matches("{ \"username\": \"foo\", \"password\": \"bar\", \"id\": 1 }"));
+    }
+
     @Test
     public void shouldNotMatchNullTest() {
         assertFalse(new JsonStringMatcher("some_value").matches(null));
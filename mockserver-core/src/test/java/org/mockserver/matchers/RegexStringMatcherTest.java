@@ -76,4 +76,56 @@ public class RegexStringMatcherTest {
     public void shouldHandleIllegalRegexPatternForTest() {
         assertFalse(new RegexStringMatcher("some_value").matches("/{}"));
     }
+
+    @Test
+    public void shouldMatchRegexInTestAgainstLiteralExpectation() {
+        assertTrue(new RegexStringMatcher("some_value").matches("some_[a-z]{5}"));
+        assertFalse(new RegexStringMatcher("some_value").matches("some_[a-z]{4}"));
+    }
+
+    @Test
+    public void shouldMatchIgnoringCase() {
+        assertTrue(new RegexStringMatcher("Some_Value", true).matches("some_value"));
+        assertTrue(new RegexStringMatcher("Some_[A-Z]{5}", true).matches("some_value"));
+        assertTrue(new RegexStringMatcher("Some_Value", true).matches("SOME_[a-z]{5}"));
+        assertFalse(new RegexStringMatcher("Some_Value", false).matches("some_value"));
+        assertFalse(new RegexStringMatcher("Some_[A-Z]{5}", false).matches("some_value"));
+        assertFalse(new RegexStringMatcher("Some_Value", true).matches("other_value"));
+    }
+
+    @Test
+    public void shouldMatchUsingStaticMatchesMethod() {
+        assertTrue(RegexStringMatcher.matches("some_[a-z]{5}", "some_value", false));
+        assertTrue(RegexStringMatcher.matches("some_value", "some_[a-z]{5}", false));
+        assertTrue(RegexStringMatcher.matches("SOME_VALUE", "some_value", true));
+        assertFalse(RegexStringMatcher.matches("SOME_VALUE", "some_value", false));
+        assertFalse(RegexStringMatcher.matches("/{}", "some_value", true));
+    }
+
+    @Test
+    public void shouldClassifyLiteralValues() {
+        assertTrue(RegexStringMatcher.isLiteral("/some_path"));
+        assertTrue(RegexStringMatcher.isLiteral("GET"));
+        assertTrue(RegexStringMatcher.isLiteral(""));
+        assertFalse(RegexStringMatcher.isLiteral("/some_path/.*"));
+        assertFalse(RegexStringMatcher.isLiteral("/some_path/[0-9]+"));
+        assertFalse(RegexStringMatcher.isLiteral("/some.path"));
+    }
+
+    @Test
+    public void shouldMatchDottedValuesCharacterByCharacter() {
+        assertTrue(RegexStringMatcher.isDotted("/file.json"));
+        assertFalse(RegexStringMatcher.isDotted("/file_json"));
+        assertFalse(RegexStringMatcher.isDotted("/file.*"));
+        assertTrue(RegexStringMatcher.dottedMatches("/file.json", "/file_json"));
+        assertTrue(RegexStringMatcher.dottedMatches("/file_json", "/file.json"));
+        assertFalse(RegexStringMatcher.dottedMatches("/file.json", "/file.jsonp"));
+        assertFalse(RegexStringMatcher.dottedMatches("/file.json", "/file.xmls"));
+    }
+
+    @Test
+    public void shouldBeEqualRegardlessOfCompiledPattern() {
+        assertTrue(new RegexStringMatcher("some_[a-z]{5}").equals(new RegexStringMatcher("some_[a-z]{5}")));
+        assertTrue(new RegexStringMatcher("some_[a-z]{5}").hashCode() == new RegexStringMatcher("some_[a-z]{5}").hashCode());
+    }
 }
@@ -2,6 +2,8 @@ package org.mockserver.matchers;
 
 import org.junit.Test;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 
@@ -31,4 +33,45 @@ public class TimesTest {
         times.decrement().decrement();
         assertThat(times.greaterThenZero(), is(false));
     }
+
+    @Test
+    public void shouldOnlyDecrementRemainingTimes() {
+        // given
+        Times times = Times.exactly(1);
+
+        // then
+        assertThat(times.tryDecrement(), is(true));
+        assertThat(times.tryDecrement(), is(false));
+        assertThat(times.getRemainingTimes(), is(0));
+        assertThat(Times.unlimited().tryDecrement(), is(true));
+    }
+
+    @Test
+    public void shouldDecrementExactlyRemainingTimesWhenCalledConcurrently() throws Exception {
+        // given
+        final Times times = Times.exactly(1000);
+        final AtomicInteger successfulDecrements = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+
+        // when
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    for (int j = 0; j < 500; j++) {
+                        if (times.tryDecrement()) {
+                            successfulDecrements.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // then
+        assertThat(successfulDecrements.get(), is(1000));
+        assertThat(times.greaterThenZero(), is(false));
+    }
 }
@@ -1,6 +1,10 @@
 package org.mockserver.matchers;
 
 import org.junit.Test;
+import org.mockserver.configuration.SystemProperties;
+import org.mockserver.model.ParsedBody;
+
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -67,4 +71,79 @@ public class XPathStringMatcherTest {
     public void showHaveCorrectEqualsBehaviour(){
         assertEquals(new XPathStringMatcher("some_value"), new XPathStringMatcher("some_value"));
     }
+
+    @Test
+    public void shouldMatchSharedParsedBody() {
+        // given
+        ParsedBody parsedBody = new ParsedBody("" +
+                "<element>" +
+                "   <key>some_key</key>" +
+                "   <value>some_value</value>" +
+                "</element>");
+
+        // then
+        assertTrue(new XPathStringMatcher("/element[key = 'some_key' and value = 'some_value']").matchesBody(parsedBody));
+        assertTrue(new XPathStringMatcher("/element[key = 'some_key']").matchesBody(parsedBody));
+        assertFalse(new XPathStringMatcher("/element[key = 'other_key']").matchesBody(parsedBody));
+    }
+
+    @Test
+    public void shouldMatchSimplePathWithAndWithoutStreaming() {
+        String matched = "" +
+                "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">" +
+                "   <soap:Body>" +
+                "       <getQuote><symbol>ABC</symbol></getQuote>" +
+                "   </soap:Body>" +
+                "</soap:Envelope>";
+        boolean streamingXPathEnabled = SystemProperties.streamingXPathEnabled();
+        try {
+            for (boolean enabled : new boolean[]{true, false}) {
+                // when
+                SystemProperties.streamingXPathEnabled(enabled);
+
+                // then
+                assertTrue(new XPathStringMatcher("/quote/symbol").matches("<quote xmlns=\"http://example.com/quote\"><symbol>ABC</symbol></quote>"));
+                assertTrue(new XPathStringMatcher("/element/key").matches("<element><key>some_key</key></element>"));
+                assertFalse(new XPathStringMatcher("/element/value").matches("<element><key>some_key</key></element>"));
+                assertFalse(new XPathStringMatcher("/key").matches("<element><key>some_key</key></element>"));
+                assertTrue(new XPathStringMatcher("/Envelope/Body/getQuote/symbol").matches(matched));
+                assertFalse(new XPathStringMatcher("/Envelope/getQuote").matches(matched));
+                assertFalse(new XPathStringMatcher("/element/key").matches("<element><key>some_key</key>"));
+                assertFalse(new XPathStringMatcher("/element/key").matches("some_value"));
+            }
+        } finally {
+            SystemProperties.streamingXPathEnabled(streamingXPathEnabled);
+        }
+    }
+
+    @Test
+    public void shouldMatchFromMultipleThreads() throws InterruptedException {
+        // given
+        final XPathStringMatcher xPathStringMatcher = new XPathStringMatcher("/element[key = 'some_key' and value = 'some_value']");
+        final AtomicInteger failures = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    for (int j = 0; j < 200; j++) {
+                        if (!xPathStringMatcher.matches("<element><key>some_key</key><value>some_value</value></element>")
+                                || xPathStringMatcher.matches("<element><key>some_key</key><value>other_value</value></element>")) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+
+        // when
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // then
+        assertEquals(0, failures.get());
+    }
 }
@@ -0,0 +1,197 @@
+package org.mockserver.mock;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockserver.matchers.Times;
+import org.mockserver.model.HttpRequest;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author jamesdbloom
+ */
+public class ExpectationIndexTest {
+
+    private ExpectationIndex expectationIndex;
+
+    @Before
+    public void prepareTestFixture() {
+        expectationIndex = new ExpectationIndex();
+    }
+
+    @Test
+    public void shouldIndexLiteralValuesOnly() {
+        assertEquals("/some_path", ExpectationIndex.indexKey("/some_path"));
+        assertEquals("GET", ExpectationIndex.indexKey("GET"));
+        assertEquals(ExpectationIndex.WILDCARD, ExpectationIndex.indexKey(""));
+        assertEquals(ExpectationIndex.WILDCARD, ExpectationIndex.indexKey(null));
+        assertEquals(ExpectationIndex.WILDCARD, ExpectationIndex.indexKey("/some_path/.*"));
+        assertEquals(ExpectationIndex.WILDCARD, ExpectationIndex.indexKey("/some.path"));
+    }
+
+    @Test
+    public void shouldReturnOnlyExpectationsForLiteralMethodAndPath() {
+        // given
+        Expectation getSomePath = new Expectation(new HttpRequest().withMethod("GET").withPath("/some_path"), Times.unlimited());
+        Expectation postSomePath = new Expectation(new HttpRequest().withMethod("POST").withPath("/some_path"), Times.unlimited());
+        Expectation getOtherPath = new Expectation(new HttpRequest().withMethod("GET").withPath("/other_path"), Times.unlimited());
+
+        // when
+        expectationIndex.add(getSomePath);
+        expectationIndex.add(postSomePath);
+        expectationIndex.add(getOtherPath);
+
+        // then
+        assertEquals(Arrays.asList(getSomePath), expectationIndex.candidates(new HttpRequest().withMethod("GET").withPath("/some_path")));
+        assertEquals(Arrays.asList(postSomePath), expectationIndex.candidates(new HttpRequest().withMethod("POST").withPath("/some_path")));
+        assertEquals(Arrays.<Expectation>asList(), expectationIndex.candidates(new HttpRequest().withMethod("PUT").withPath("/some_path")));
+    }
+
+    @Test
+    public void shouldReturnWildcardAndLiteralExpectationsInOrderAdded() {
+        // given
+        Expectation regexPath = new Expectation(new HttpRequest().withMethod("GET").withPath("/some_.*"), Times.unlimited());
+        Expectation anyMethod = new Expectation(new HttpRequest().withPath("/some_path"), Times.unlimited());
+        Expectation literal = new Expectation(new HttpRequest().withMethod("GET").withPath("/some_path"), Times.unlimited());
+        Expectation anything = new Expectation(new HttpRequest(), Times.unlimited());
+        Expectation otherPath = new Expectation(new HttpRequest().withMethod("GET").withPath("/other_path"), Times.unlimited());
+
+        // when
+        expectationIndex.add(regexPath);
+        expectationIndex.add(anyMethod);
+        expectationIndex.add(literal);
+        expectationIndex.add(anything);
+        expectationIndex.add(otherPath);
+
+        // then
+        assertEquals(Arrays.asList(regexPath, anyMethod, literal, anything), expectationIndex.candidates(new HttpRequest().withMethod("GET").withPath("/some_path")));
+    }
+
+    @Test
+    public void shouldReturnAllExpectationsForRegexRequest() {
+        // given
+        Expectation first = new Expectation(new HttpRequest().withMethod("GET").withPath("/some_path"), Times.unlimited());
+        Expectation second = new Expectation(new HttpRequest().withMethod("GET").withPath("/other_path"), Times.unlimited());
+        expectationIndex.add(first);
+        expectationIndex.add(second);
+
+        // then
+        assertEquals(Arrays.asList(first, second), expectationIndex.candidates(new HttpRequest().withMethod("GET").withPath("/.*_path")));
+        assertEquals(Arrays.asList(first, second), expectationIndex.candidates(null));
+    }
+
+    @Test
+    public void shouldReturnOnlyExpectationsDottedRequestPathCouldMatch() {
+        // given
+        Expectation dotted = new Expectation(new HttpRequest().withMethod("GET").withPath("/file.json"), Times.unlimited());
+        Expectation literal = new Expectation(new HttpRequest().withMethod("GET").withPath("/file_json"), Times.unlimited());
+        Expectation regexPath = new Expectation(new HttpRequest().withMethod("GET").withPath("/file\\..*"), Times.unlimited());
+        Expectation otherLiteral = new Expectation(new HttpRequest().withMethod("GET").withPath("/other_json"), Times.unlimited());
+        Expectation otherDotted = new Expectation(new HttpRequest().withMethod("GET").withPath("/file.xml"), Times.unlimited());
+        Expectation otherMethod = new Expectation(new HttpRequest().withMethod("POST").withPath("/file_json"), Times.unlimited());
+
+        // when
+        expectationIndex.add(dotted);
+        expectationIndex.add(literal);
+        expectationIndex.add(regexPath);
+        expectationIndex.add(otherLiteral);
+        expectationIndex.add(otherDotted);
+        expectationIndex.add(otherMethod);
+
+        // then
+        assertEquals(Arrays.asList(dotted, literal, regexPath), expectationIndex.candidates(new HttpRequest().withMethod("GET").withPath("/file.json")));
+        assertEquals(Arrays.asList(dotted, literal), expectationIndex.candidates(new HttpRequest().withMethod("GET").withPath("/file_json")));
+    }
+
+    @Test
+    public void shouldRemoveExpectations() {
+        // given
+        Expectation first = new Expectation(new HttpRequest().withMethod("GET").withPath("/some_path"), Times.unlimited());
+        Expectation second = new Expectation(new HttpRequest().withMethod("GET").withPath("/some_path"), Times.unlimited());
+        expectationIndex.add(first);
+        expectationIndex.add(second);
+
+        // when
+        expectationIndex.remove(first);
+
+        // then
+        assertEquals(1, expectationIndex.size());
+        assertEquals(Arrays.asList(second), expectationIndex.candidates(new HttpRequest().withMethod("GET").withPath("/some_path")));
+
+        // when
+        expectationIndex.clear();
+
+        // then
+        assertEquals(0, expectationIndex.size());
+        assertEquals(Arrays.<Expectation>asList(), expectationIndex.candidates(new HttpRequest().withMethod("GET").withPath("/some_path")));
+    }
+
+    @Test
+    public void shouldOnlyReturnRegexPathExpectationsMatchingPath() {
+        // given
+        Expectation someRegex = new Expectation(new HttpRequest().withPath("/some_.*"), Times.unlimited());
+        Expectation otherRegex = new Expectation(new HttpRequest().withPath("/other_[a-z]+"), Times.unlimited());
+        Expectation digitsRegex = new Expectation(new HttpRequest().withMethod("GET").withPath("/\\d+"), Times.unlimited());
+        Expectation anything = new Expectation(new HttpRequest(), Times.unlimited());
+
+        // when
+        expectationIndex.add(someRegex);
+        expectationIndex.add(otherRegex);
+        expectationIndex.add(digitsRegex);
+        expectationIndex.add(anything);
+
+        // then
+        assertEquals(Arrays.asList(someRegex, anything), expectationIndex.candidates(new HttpRequest().withMethod("GET").withPath("/some_path")));
+        assertEquals(Arrays.asList(otherRegex, anything), expectationIndex.candidates(new HttpRequest().withMethod("GET").withPath("/other_path")));
+        assertEquals(Arrays.asList(digitsRegex, anything), expectationIndex.candidates(new HttpRequest().withMethod("GET").withPath("/123")));
+        assertEquals(Arrays.asList(anything), expectationIndex.candidates(new HttpRequest().withMethod("POST").withPath("/123")));
+    }
+
+    @Test
+    public void shouldReturnRegexPathsAutomatonCannotCompileAsCandidates() {
+        // given
+        Expectation backReference = new Expectation(new HttpRequest().withPath("/(a)\\1"), Times.unlimited());
+        Expectation regex = new Expectation(new HttpRequest().withPath("/b.*"), Times.unlimited());
+
+        // when
+        expectationIndex.add(backReference);
+        expectationIndex.add(regex);
+
+        // then
+        assertEquals(Arrays.asList(backReference), expectationIndex.candidates(new HttpRequest().withPath("/other")));
+    }
+
+    @Test
+    public void shouldUpdateRegexPathsWhenExpectationsChange() {
+        // given
+        Expectation first = new Expectation(new HttpRequest().withPath("/some_.*"), Times.unlimited());
+        Expectation second = new Expectation(new HttpRequest().withPath("/some_.*"), Times.unlimited());
+        expectationIndex.add(first);
+        assertEquals(Arrays.asList(first), expectationIndex.candidates(new HttpRequest().withPath("/some_path")));
+
+        // when
+        expectationIndex.add(second);
+        Expectation other = new Expectation(new HttpRequest().withPath("/other_.*"), Times.unlimited());
+        expectationIndex.add(other);
+
+        // then
+        assertEquals(Arrays.asList(first, second), expectationIndex.candidates(new HttpRequest().withPath("/some_path")));
+        assertEquals(Arrays.asList(other), expectationIndex.candidates(new HttpRequest().withPath("/other_path")));
+
+        // when
+        expectationIndex.remove(first);
+
+        // then
+        assertEquals(Arrays.asList(second), expectationIndex.candidates(new HttpRequest().withPath("/some_path")));
+
+        // when
+        expectationIndex.clear();
+        expectationIndex.add(first);
+
+        // then
+        assertEquals(Arrays.asList(first), expectationIndex.candidates(new HttpRequest().withPath("/some_path")));
+        assertEquals(Arrays.<Expectation>asList(), expectationIndex.candidates(new HttpRequest().withPath("/other_path")));
+    }
+}
@@ -0,0 +1,49 @@
+package org.mockserver.mock;
+
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of MockServerMatcher.handle as the number of expectations grows, run with:
+ *
+ *   java -cp ... org.mockserver.mock.MockServerMatcherBenchmark
+ *
+ * @author jamesdbloom
+ */
+public class MockServerMatcherBenchmark {
+
+    private static final int[] EXPECTATION_COUNTS = new int[]{100, 1000, 5000, 20000};
+    private static final int WARM_UP_ITERATIONS = 20000;
+    private static final int MEASURED_ITERATIONS = 100000;
+
+    public static void main(String[] args) {
+        for (int expectationCount : EXPECTATION_COUNTS) {
+            MockServerMatcher mockServerMatcher = new MockServerMatcher();
+            for (int i = 0; i < expectationCount; i++) {
+                mockServerMatcher
+                        .when(new HttpRequest().withMethod(i % 2 == 0 ? "GET" : "POST").withPath("/some_path_" + i))
+                        .thenRespond(new HttpResponse().withBody("some_body_" + i));
+            }
+            mockServerMatcher.when(new HttpRequest().withMethod("GET").withPath("/some_regex_path_[0-9]+")).thenRespond(new HttpResponse().withBody("some_regex_body"));
+
+            HttpRequest[] requests = new HttpRequest[]{
+                    new HttpRequest().withMethod("GET").withPath("/some_path_0"),
+                    new HttpRequest().withMethod("GET").withPath("/some_path_" + (expectationCount - 2)),
+                    new HttpRequest().withMethod("GET").withPath("/some_regex_path_1"),
+                    new HttpRequest().withMethod("GET").withPath("/not_found")
+            };
+
+            for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+                mockServerMatcher.handle(requests[i % requests.length]);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                mockServerMatcher.handle(requests[i % requests.length]);
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.println(expectationCount + " expectations: " + (elapsed / MEASURED_ITERATIONS) + "ns per request (" + TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms total)");
+        }
+    }
+}
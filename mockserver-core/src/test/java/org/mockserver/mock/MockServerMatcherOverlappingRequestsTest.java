@@ -7,7 +7,11 @@ import org.mockserver.model.Cookie;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 /**
  * @author jamesdbloom
@@ -50,4 +54,28 @@ public class MockServerMatcherOverlappingRequestsTest {
         assertEquals(httpResponse[1], mockServerMatcher.handle(new HttpRequest().withPath("somepath").withCookies(new Cookie("name", "value"))));
     }
 
+    @Test
+    public void notifyMatchListenerOfFirstMatchingExpectationOnly() {
+        // given
+        final List<Expectation> matched = new ArrayList<Expectation>();
+        mockServerMatcher.withMatchListener(new MockServerMatcher.MatchListener() {
+            public void matched(Expectation expectation) {
+                matched.add(expectation);
+            }
+        });
+        Expectation first = mockServerMatcher.when(new HttpRequest().withPath("somepath").withCookies(new Cookie("name", "value")), Times.once());
+        first.thenRespond(httpResponse[0].withBody("somebody1"));
+        Expectation second = mockServerMatcher.when(new HttpRequest().withPath("somepath"));
+        second.thenRespond(httpResponse[1].withBody("somebody2"));
+
+        // when
+        mockServerMatcher.handle(new HttpRequest().withPath("somepath").withCookies(new Cookie("name", "value")));
+        mockServerMatcher.handle(new HttpRequest().withPath("somepath").withCookies(new Cookie("name", "value")));
+        mockServerMatcher.handle(new HttpRequest().withPath("otherpath"));
+
+        // then
+        assertEquals(2, matched.size());
+        assertSame(first, matched.get(0));
+        assertSame(second, matched.get(1));
+    }
 }
@@ -6,6 +6,11 @@ import org.mockserver.matchers.Times;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
@@ -81,5 +86,37 @@ public class MockServerMatcherSequentialResponsesTest {
         assertNull(mockServerMatcher.handle(new HttpRequest().withPath("somepath")));
     }
 
+    @Test
+    public void respondExactlyTheExpectedTimesWhenMatchedConcurrently() throws Exception {
+        // given
+        mockServerMatcher.when(new HttpRequest().withPath("somepath"), Times.exactly(100)).thenRespond(httpResponse[0].withBody("somebody"));
+        final AtomicInteger responseCount = new AtomicInteger();
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+        // when
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executorService.submit(new Callable<Object>() {
+                public Object call() throws Exception {
+                    startLatch.await();
+                    for (int j = 0; j < 50; j++) {
+                        if (mockServerMatcher.handle(new HttpRequest().withPath("somepath")) != null) {
+                            responseCount.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }
+            }));
+        }
+        startLatch.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
 
+        // then
+        assertEquals(100, responseCount.get());
+        assertNull(mockServerMatcher.handle(new HttpRequest().withPath("somepath")));
+    }
 }
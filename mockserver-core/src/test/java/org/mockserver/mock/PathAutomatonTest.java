@@ -0,0 +1,134 @@
+package org.mockserver.mock;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author jamesdbloom
+ */
+public class PathAutomatonTest {
+
+    private static final String[] PATTERNS = new String[]{
+            "/some_.*",
+            "/some_path/\\d+",
+            "/some_path/\\d{2,3}",
+            "/(some|other)_path",
+            "/(?:some|other)_path/?",
+            "^/some_[a-z]+$",
+            "/[^/]+/[^/]+",
+            "/some\\.path",
+            "/[a-c-]*",
+            "/\\w+-\\W?",
+            "/a*?b+?c??",
+            "/x{2}y{1,}z{0,2}",
+            ".*",
+            "/item/[0-9a-f]{8}-[0-9a-f]{4}"
+    };
+
+    private static final String[] PATHS = new String[]{
+            "",
+            "/",
+            "/some_path",
+            "/some_path/",
+            "/some_path/1",
+            "/some_path/12",
+            "/some_path/1234",
+            "/other_path",
+            "/other_path/",
+            "/some.path",
+            "/someXpath",
+            "/some_PATH",
+            "/a-b-c",
+            "/word-",
+            "/word-!",
+            "/aaabbc",
+            "/bb",
+            "/xxyyyz",
+            "/xyz",
+            "/item/0123abcd-ef01",
+            "/item/0123abcd-ef0",
+            "/some_path\n",
+            "/some path"
+    };
+
+    @Test
+    public void shouldMatchSamePathsAsJavaRegex() {
+        // given
+        List<PathAutomaton.CompiledPattern> compiledPatterns = new ArrayList<PathAutomaton.CompiledPattern>();
+        for (String pattern : PATTERNS) {
+            PathAutomaton.CompiledPattern compiledPattern = PathAutomaton.compile(pattern);
+            assertNotNull(pattern, compiledPattern);
+            compiledPatterns.add(compiledPattern);
+        }
+
+        // when
+        PathAutomaton pathAutomaton = new PathAutomaton(compiledPatterns);
+
+        // then
+        for (String path : PATHS) {
+            Set<String> matches = pathAutomaton.matches(path);
+            for (String pattern : PATTERNS) {
+                assertEquals("pattern " + pattern + " against path " + path, Pattern.compile(pattern).matcher(path).matches(), matches.contains(pattern));
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotCompileUnsupportedPatterns() {
+        assertNull(PathAutomaton.compile("/(a)\\1"));
+        assertNull(PathAutomaton.compile("/(?i)some_path"));
+        assertNull(PathAutomaton.compile("/(?=a)a"));
+        assertNull(PathAutomaton.compile("/a*+"));
+        assertNull(PathAutomaton.compile("/[a[b]]"));
+        assertNull(PathAutomaton.compile("/[a-z&&[^b]]"));
+        assertNull(PathAutomaton.compile("/\\p{Alpha}"));
+        assertNull(PathAutomaton.compile("/a^b"));
+        assertNull(PathAutomaton.compile("/(a"));
+    }
+
+    @Test
+    public void shouldNotMatchPathsWithSurrogateCharacters() {
+        // given
+        PathAutomaton pathAutomaton = new PathAutomaton(Arrays.asList(PathAutomaton.compile("/.")));
+
+        // then
+        assertNull(pathAutomaton.matches("/\uD83D\uDE00"));
+        assertNull(pathAutomaton.matches(null));
+        assertEquals(Collections.singleton("/."), pathAutomaton.matches("/a"));
+    }
+
+    @Test
+    public void shouldMatchFromMultipleThreads() throws InterruptedException {
+        // given
+        final PathAutomaton pathAutomaton = new PathAutomaton(Arrays.asList(PathAutomaton.compile("/some_.*"), PathAutomaton.compile("/other_[a-z]+")));
+        final List<String> failures = Collections.synchronizedList(new ArrayList<String>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(new Runnable() {
+                public void run() {
+                    for (int j = 0; j < 1000; j++) {
+                        if (!pathAutomaton.matches("/some_path_" + j).equals(Collections.singleton("/some_.*"))
+                                || !pathAutomaton.matches("/other_path").equals(Collections.singleton("/other_[a-z]+"))) {
+                            failures.add("failed on " + j);
+                        }
+                    }
+                }
+            }));
+        }
+
+        // when
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // then
+        assertEquals(Collections.<String>emptyList(), failures);
+    }
+}
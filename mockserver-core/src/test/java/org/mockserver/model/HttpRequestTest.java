@@ -8,8 +8,11 @@ import java.util.Collection;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockserver.model.HttpRequest.request;
 
 /**
@@ -36,6 +39,90 @@ public class HttpRequestTest {
         assertEquals(new Parameter("name", "value_one", "value_two"), new HttpRequest().withQueryStringParameter(new Parameter("name", "value_one")).withQueryStringParameter(new Parameter("name", "value_two")).getQueryStringParameters().get(0));
     }
 
+    @Test
+    public void shouldReuseMatchingViewsUntilValuesChange() {
+        // given
+        HttpRequest httpRequest = new HttpRequest()
+                .withQueryStringParameters(new Parameter("parameterName", "parameterValue"))
+                .withHeaders(new Header("headerName", "headerValue"))
+                .withCookies(new Cookie("cookieName", "cookieValue"));
+
+        // then
+        assertSame(httpRequest.getQueryStringParametersAsNameValuePairs(), httpRequest.getQueryStringParametersAsNameValuePairs());
+        assertSame(httpRequest.getHeadersAsNameValuePairs(), httpRequest.getHeadersAsNameValuePairs());
+        assertSame(httpRequest.getCookiesAsNameValuePairs(), httpRequest.getCookiesAsNameValuePairs());
+        assertTrue(httpRequest.getHeadersAsNameValuePairs().containsKeyValue("headerName", "headerValue"));
+
+        // when
+        httpRequest.withHeader(new Header("otherHeaderName", "otherHeaderValue"));
+        httpRequest.withQueryStringParameter(new Parameter("otherParameterName", "otherParameterValue"));
+        httpRequest.withCookie(new Cookie("otherCookieName", "otherCookieValue"));
+
+        // then
+        assertTrue(httpRequest.getHeadersAsNameValuePairs().containsKeyValue("otherHeaderName", "otherHeaderValue"));
+        assertTrue(httpRequest.getQueryStringParametersAsNameValuePairs().containsKeyValue("otherParameterName", "otherParameterValue"));
+        assertTrue(httpRequest.getCookiesAsNameValuePairs().containsKeyValue("otherCookieName", "otherCookieValue"));
+        assertEquals(new HttpRequest().withHeaders(new Header("headerName", "headerValue"), new Header("otherHeaderName", "otherHeaderValue")).getHeaders(), httpRequest.getHeaders());
+    }
+
+    @Test
+    public void shouldKeepReceivedPairsUntilValuesAreReadOrChanged() {
+        // given
+        NameValuePairs headers = NameValuePairs.fromNamesAndValues(Arrays.asList("headerName", "headerValueOne", "otherHeaderName", "otherHeaderValue", "headerName", "headerValueTwo"));
+        NameValuePairs parameters = NameValuePairs.fromNamesAndValues(Arrays.asList("parameterName", "parameterValue"));
+        NameValuePairs cookies = NameValuePairs.fromNamesAndValues(Arrays.asList("cookieName", "cookieValue"));
+
+        // when
+        HttpRequest httpRequest = new HttpRequest().withHeaders(headers).withQueryStringParameters(parameters).withCookies(cookies);
+
+        // then - the pairs received are matched against and looked up without grouping them
+        assertSame(headers, httpRequest.getHeadersAsNameValuePairs());
+        assertSame(parameters, httpRequest.getQueryStringParametersAsNameValuePairs());
+        assertSame(cookies, httpRequest.getCookiesAsNameValuePairs());
+        assertEquals("headerValueOne", httpRequest.getFirstHeader("headerName"));
+        assertTrue(httpRequest.containsHeader("otherHeaderName"));
+        assertEquals("parameterValue", httpRequest.getFirstQueryStringParameter("parameterName"));
+        assertTrue(httpRequest.hasQueryStringParameter("parameterName", "parameterValue"));
+
+        // and - the values are grouped by name once they are read
+        assertEquals(Arrays.asList(new Header("headerName", "headerValueOne", "headerValueTwo"), new Header("otherHeaderName", "otherHeaderValue")), httpRequest.getHeaders());
+        assertEquals(new HttpRequest().withHeaders(new Header("headerName", "headerValueOne", "headerValueTwo"), new Header("otherHeaderName", "otherHeaderValue")).withQueryStringParameters(new Parameter("parameterName", "parameterValue")).withCookies(new Cookie("cookieName", "cookieValue")), httpRequest);
+
+        // when
+        httpRequest.withCookie(new Cookie("otherCookieName", "otherCookieValue"));
+
+        // then
+        assertEquals(Arrays.asList(new Cookie("cookieName", "cookieValue"), new Cookie("otherCookieName", "otherCookieValue")), httpRequest.getCookies());
+        assertTrue(httpRequest.getCookiesAsNameValuePairs().containsKeyValue("otherCookieName", "otherCookieValue"));
+    }
+
+    @Test
+    public void shouldBeEqualWhenAllFieldsAreEqual() {
+        // given
+        HttpRequest httpRequest = new HttpRequest()
+                .withMethod("POST")
+                .withPath("/some_path")
+                .withQueryStringParameters(new Parameter("parameterName", "parameterValue"))
+                .withBody(new StringBody("some_body", Body.Type.STRING))
+                .withHeaders(new Header("headerName", "headerValue"))
+                .withCookies(new Cookie("cookieName", "cookieValue"));
+        HttpRequest sameHttpRequest = new HttpRequest()
+                .withMethod("POST")
+                .withPath("/some_path")
+                .withQueryStringParameters(new Parameter("parameterName", "parameterValue"))
+                .withBody(new StringBody("some_body", Body.Type.STRING))
+                .withHeaders(new Header("headerName", "headerValue"))
+                .withCookies(new Cookie("cookieName", "cookieValue"));
+
+        // then
+        assertEquals(httpRequest, sameHttpRequest);
+        assertEquals(httpRequest.hashCode(), sameHttpRequest.hashCode());
+        assertNotEquals(httpRequest, sameHttpRequest.withHeader(new Header("headerName", "otherHeaderValue")));
+        assertNotEquals(httpRequest, new HttpRequest().withMethod("POST").withPath("/some_path"));
+        assertNotEquals(new StringBody("some_body", Body.Type.STRING), new StringBody("some_body", Body.Type.REGEX));
+        assertEquals(new BinaryBody("some_body".getBytes()), new BinaryBody("some_body".getBytes()));
+    }
+
     @Test
     public void returnsBody() {
         assertEquals(new StringBody("somebody", Body.Type.STRING), new HttpRequest().withBody(new StringBody("somebody", Body.Type.STRING)).getBody());
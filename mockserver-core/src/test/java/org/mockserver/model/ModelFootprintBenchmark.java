@@ -0,0 +1,109 @@
+package org.mockserver.model;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.mockserver.matchers.HttpRequestMatcher;
+import org.mockserver.matchers.Times;
+import org.mockserver.mock.Expectation;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockserver.model.HttpRequest.request;
+
+/**
+ * Measures the retained heap per model instance and the cost of equals and hashCode for a request, compared with
+ * the reflective equals and hashCode the model used before, run with:
+ *
+ *   java -cp ... org.mockserver.model.ModelFootprintBenchmark
+ *
+ * @author jamesdbloom
+ */
+public class ModelFootprintBenchmark {
+
+    private static final int INSTANCES = 100000;
+    private static final int WARM_UP_ITERATIONS = 100000;
+    private static final int MEASURED_ITERATIONS = 1000000;
+
+    private interface Factory {
+        Object create(int index);
+    }
+
+    public static void main(String[] args) {
+        footprint("Header", new Factory() {
+            public Object create(int index) {
+                return new Header("X-Request-Id", "" + index);
+            }
+        });
+        footprint("HttpRequest", new Factory() {
+            public Object create(int index) {
+                return httpRequest(index);
+            }
+        });
+        footprint("HttpRequestMatcher", new Factory() {
+            public Object create(int index) {
+                return new HttpRequestMatcher(httpRequest(index));
+            }
+        });
+        footprint("Expectation", new Factory() {
+            public Object create(int index) {
+                return new Expectation(httpRequest(index), Times.unlimited()).thenRespond(new HttpResponse().withBody("" + index));
+            }
+        });
+
+        HttpRequest first = httpRequest(1);
+        HttpRequest second = httpRequest(1);
+        int sink = 0;
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            sink += first.hashCode() + (first.equals(second) ? 1 : 0);
+            sink += HashCodeBuilder.reflectionHashCode(first) + (EqualsBuilder.reflectionEquals(first, second) ? 1 : 0);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += first.hashCode() + (first.equals(second) ? 1 : 0);
+        }
+        long handWrittenElapsed = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += HashCodeBuilder.reflectionHashCode(first) + (EqualsBuilder.reflectionEquals(first, second) ? 1 : 0);
+        }
+        long reflectiveElapsed = System.nanoTime() - start;
+
+        System.out.println("HttpRequest equals and hashCode: " +
+                "hand written " + (handWrittenElapsed / MEASURED_ITERATIONS) + "ns, " +
+                "reflective " + (reflectiveElapsed / MEASURED_ITERATIONS) + "ns (" + sink + ")");
+    }
+
+    private static void footprint(String name, Factory factory) {
+        Object[] instances = new Object[INSTANCES];
+        long before = usedMemory();
+        for (int i = 0; i < INSTANCES; i++) {
+            instances[i] = factory.create(i);
+        }
+        long after = usedMemory();
+        System.out.println(name + ": " + ((after - before) / INSTANCES) + " bytes per instance (" + instances.length + " retained)");
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                TimeUnit.MILLISECONDS.sleep(50);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static HttpRequest httpRequest(int index) {
+        return request()
+                .withMethod("GET")
+                .withPath("/some_path/" + index)
+                .withQueryStringParameters(new Parameter("id", "" + index))
+                .withHeaders(new Header("Accept", "application/json"), new Header("X-Request-Id", "" + index))
+                .withCookies(new Cookie("session", "" + index));
+    }
+}
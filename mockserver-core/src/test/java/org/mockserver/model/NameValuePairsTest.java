@@ -0,0 +1,156 @@
+package org.mockserver.model;
+
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.junit.Test;
+import org.mockserver.collections.CaseInsensitiveRegexHashMap;
+import org.mockserver.collections.CaseInsensitiveRegexMultiMap;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author jamesdbloom
+ */
+public class NameValuePairsTest {
+
+    @Test
+    public void shouldReadHttpHeadersInOrderWithInternedNames() {
+        // given
+        HttpHeaders httpHeaders = new DefaultHttpHeaders();
+        httpHeaders.add(new String("Content-Type".toCharArray()), "text/plain");
+        httpHeaders.add("X-Custom", "one");
+        httpHeaders.add("X-Custom", "two");
+        httpHeaders.add(new String("host".toCharArray()), "localhost");
+
+        // when
+        NameValuePairs pairs = NameValuePairs.fromHttpHeaders(httpHeaders);
+
+        // then
+        assertEquals(4, pairs.size());
+        assertSame(HttpHeaders.Names.CONTENT_TYPE, pairs.getName(0));
+        assertEquals("text/plain", pairs.getValue(0));
+        assertEquals("X-Custom", pairs.getName(1));
+        assertEquals("one", pairs.getValue(1));
+        assertEquals("two", pairs.getValue(2));
+        assertSame(NameValuePairs.intern("host"), pairs.getName(3));
+        Map<String, List<String>> expected = new LinkedHashMap<String, List<String>>();
+        expected.put("Content-Type", Arrays.asList("text/plain"));
+        expected.put("X-Custom", Arrays.asList("one", "two"));
+        expected.put("host", Arrays.asList("localhost"));
+        assertEquals(expected, pairs.toMultiValueMap());
+    }
+
+    @Test
+    public void shouldMatchTheSameAsMultiMap() {
+        // given
+        List<Header> actual = Arrays.asList(
+                new Header("Content-Type", "application/json"),
+                new Header("X-Trace", "abc", "def"),
+                new Header("x-.*", "wildcard"),
+                new Header("Accept", "")
+        );
+        NameValuePairs pairs = NameValuePairs.fromKeyToMultiValues(actual);
+        CaseInsensitiveRegexMultiMap actualMultiMap = KeyToMultiValue.toMultiMap(actual);
+        List<List<Header>> expectations = Arrays.asList(
+                Arrays.<Header>asList(),
+                Arrays.asList(new Header("content-type", "application/json")),
+                Arrays.asList(new Header("Content-Type", "application/.*")),
+                Arrays.asList(new Header("Content-Type", "text/plain")),
+                Arrays.asList(new Header("X-Trace", "abc", "def")),
+                Arrays.asList(new Header("X-Trace", "abc", "xyz")),
+                Arrays.asList(new Header("X-.*", "def")),
+                Arrays.asList(new Header("X-Other", "wildcard")),
+                Arrays.asList(new Header("X-Other", "abc")),
+                Arrays.asList(new Header("Accept", "")),
+                Arrays.asList(new Header("Missing", "value")),
+                Arrays.asList(new Header("Content-Type", "application/json"), new Header("X-Trace", "def"))
+        );
+
+        for (List<Header> expectation : expectations) {
+            // when
+            CaseInsensitiveRegexMultiMap expected = KeyToMultiValue.toMultiMap(expectation);
+
+            // then
+            assertEquals(expectation.toString(), actualMultiMap.containsAll(expected), pairs.containsAll(expected));
+        }
+    }
+
+    @Test
+    public void shouldLookUpNamesThroughIndexTheSameAsMultiMap() {
+        // given
+        List<Header> actual = new ArrayList<Header>();
+        for (int i = 0; i < 20; i++) {
+            actual.add(new Header("X-Header-" + i, "value-" + i));
+        }
+        actual.add(new Header("Content-Type", "application/json"));
+        actual.add(new Header("file.json", "dotted"));
+        actual.add(new Header("x-.*", "wildcard"));
+        actual.add(new Header("", "empty"));
+        NameValuePairs pairs = NameValuePairs.fromKeyToMultiValues(actual);
+        CaseInsensitiveRegexMultiMap actualMultiMap = KeyToMultiValue.toMultiMap(actual);
+        List<List<Header>> expectations = Arrays.asList(
+                Arrays.asList(new Header("x-header-7", "value-7")),
+                Arrays.asList(new Header("X-HEADER-7", "value-8")),
+                Arrays.asList(new Header("X-Header-1.*", "value-15")),
+                Arrays.asList(new Header("X-Header-1.*", "other")),
+                Arrays.asList(new Header("CONTENT-TYPE", "application/.*")),
+                Arrays.asList(new Header("fileXjson", "dotted")),
+                Arrays.asList(new Header("file.json", "dotted")),
+                Arrays.asList(new Header("X-Other", "wildcard")),
+                Arrays.asList(new Header("X-Other", "value-3")),
+                Arrays.asList(new Header("Missing", "empty")),
+                Arrays.asList(new Header("Missing", "value"))
+        );
+
+        for (List<Header> expectation : expectations) {
+            // when
+            CaseInsensitiveRegexMultiMap expected = KeyToMultiValue.toMultiMap(expectation);
+
+            // then
+            assertEquals(expectation.toString(), actualMultiMap.containsAll(expected), pairs.containsAll(expected));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldMatchTheSameAsHashMap() {
+        // given
+        List<Cookie> actual = Arrays.asList(
+                new Cookie("session", "abc123"),
+                new Cookie("theme", "dark")
+        );
+        NameValuePairs pairs = NameValuePairs.fromKeyAndValues(actual);
+        CaseInsensitiveRegexHashMap<String> actualHashMap = KeyAndValue.toHashMap(actual);
+        List<List<Cookie>> expectations = Arrays.asList(
+                Arrays.<Cookie>asList(),
+                Arrays.asList(new Cookie("SESSION", "abc123")),
+                Arrays.asList(new Cookie("session", "abc.*")),
+                Arrays.asList(new Cookie("session", "xyz")),
+                Arrays.asList(new Cookie("s.*", "abc123"), new Cookie("theme", "dark")),
+                Arrays.asList(new Cookie("other", "dark"))
+        );
+
+        for (List<Cookie> expectation : expectations) {
+            // when
+            CaseInsensitiveRegexHashMap<String> expected = KeyAndValue.toHashMap(expectation);
+
+            // then
+            assertEquals(expectation.toString(), actualHashMap.containsAll(expected), pairs.containsAll(expected));
+        }
+    }
+
+    @Test
+    public void shouldBeEqualWhenNamesAndValuesAreEqual() {
+        // given
+        NameValuePairs first = NameValuePairs.fromKeyAndValues(Arrays.asList(new Cookie("name", "value")));
+        NameValuePairs second = NameValuePairs.fromKeyToMultiValues(Arrays.asList(new Header("name", "value")));
+
+        // then
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertNotEquals(first, NameValuePairs.EMPTY);
+        assertEquals(0, NameValuePairs.EMPTY.size());
+    }
+}
@@ -0,0 +1,101 @@
+package org.mockserver.model;
+
+import com.google.common.base.Charsets;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author jamesdbloom
+ */
+public class ParsedBodyTest {
+
+    @Test
+    public void shouldDecodeStringBody() {
+        // given
+        ParsedBody parsedBody = new ParsedBody(new StringBody("some_body", Body.Type.STRING));
+
+        // then
+        assertEquals("some_body", parsedBody.getString());
+        assertSame(parsedBody.getString(), parsedBody.getString());
+        assertArrayEquals("some_body".getBytes(Charsets.UTF_8), parsedBody.getRawBytes());
+    }
+
+    @Test
+    public void shouldDecodeMissingBodyAsEmptyString() {
+        assertEquals("", new ParsedBody((Body) null).getString());
+        assertEquals("", new ParsedBody((String) null).getString());
+        assertArrayEquals(new byte[0], new ParsedBody((Body) null).getRawBytes());
+    }
+
+    @Test
+    public void shouldParseNewDocumentForEachCaller() {
+        // given
+        ParsedBody parsedBody = new ParsedBody("<element><key>some_key</key></element>");
+
+        // when
+        Document document = parsedBody.parseDocument();
+
+        // then
+        assertEquals("element", document.getDocumentElement().getNodeName());
+        assertNotSame(document, parsedBody.parseDocument());
+    }
+
+    @Test
+    public void shouldReturnNullDocumentForInvalidXml() {
+        // given
+        ParsedBody parsedBody = new ParsedBody("some_body");
+
+        // then
+        assertNull(parsedBody.parseDocument());
+        assertNull(parsedBody.parseDocument());
+    }
+
+    @Test
+    public void shouldStreamElementPaths() {
+        // given
+        ParsedBody parsedBody = new ParsedBody("<soap:Envelope><soap:Body><getQuote><symbol>ABC</symbol></getQuote><getQuote/></soap:Body></soap:Envelope>");
+
+        // then
+        assertEquals(new HashSet<String>(Arrays.asList(
+                "/Envelope",
+                "/Envelope/Body",
+                "/Envelope/Body/getQuote",
+                "/Envelope/Body/getQuote/symbol"
+        )), parsedBody.getElementPaths());
+        assertSame(parsedBody.getElementPaths(), parsedBody.getElementPaths());
+        assertNull(new ParsedBody("<element>").getElementPaths());
+        assertNull(new ParsedBody("some_body").getElementPaths());
+    }
+
+    @Test
+    public void shouldDecodeParametersOnce() {
+        // given
+        ParsedBody parsedBody = new ParsedBody("nameOne=valueOne&nameTwo=valueTwo&nameTwo=valueThree");
+
+        // then
+        assertEquals("valueOne", parsedBody.getParameters().get("nameOne"));
+        assertEquals(2, parsedBody.getParameters().getAll("nameTwo").size());
+        assertSame(parsedBody.getParameters(), parsedBody.getParameters());
+    }
+
+    @Test
+    public void shouldBeSharedUntilBodyChanges() {
+        // given
+        HttpRequest httpRequest = new HttpRequest().withBody("some_body");
+
+        // then
+        assertSame(httpRequest.getParsedBody(), httpRequest.getParsedBody());
+        assertEquals("some_body", httpRequest.getParsedBody().getString());
+
+        // when
+        httpRequest.withBody("other_body");
+
+        // then
+        assertEquals("other_body", httpRequest.getParsedBody().getString());
+    }
+}
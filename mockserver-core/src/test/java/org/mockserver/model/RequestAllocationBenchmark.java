@@ -0,0 +1,54 @@
+package org.mockserver.model;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Measures the bytes allocated to build a request from the name and value pairs received, as the request decoder does,
+ * and match it, compared with also grouping the headers, query string parameters and cookies into maps as every
+ * request did before the pairs became the only copy of the values, run with:
+ *
+ *   java -cp ... org.mockserver.model.RequestAllocationBenchmark
+ *
+ * @author jamesdbloom
+ */
+public class RequestAllocationBenchmark {
+
+    private static final int WARM_UP_ITERATIONS = 200000;
+    private static final int MEASURED_ITERATIONS = 1000000;
+
+    public static void main(String[] args) {
+        allocation(false);
+        allocation(true);
+        System.out.println("pairs only: " + allocation(false) + " bytes per request");
+        System.out.println("pairs and maps: " + allocation(true) + " bytes per request");
+    }
+
+    private static long allocation(boolean buildMaps) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int sink = 0;
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            sink += receive(i, buildMaps);
+        }
+        long before = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += receive(i, buildMaps);
+        }
+        long allocated = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        return sink == 0 ? -1 : allocated / MEASURED_ITERATIONS;
+    }
+
+    private static int receive(int index, boolean buildMaps) {
+        String id = "" + (index & 1023);
+        HttpRequest httpRequest = new HttpRequest()
+                .withMethod("GET")
+                .withPath("/some_path")
+                .withQueryStringParameters(NameValuePairs.fromNamesAndValues(Arrays.asList("id", id)))
+                .withHeaders(NameValuePairs.fromNamesAndValues(Arrays.asList("Host", "localhost", "Accept", "application/json", "X-Request-Id", id, "Cookie", "session=" + id)))
+                .withCookies(NameValuePairs.fromNamesAndValues(Arrays.asList("session", id)));
+        if (buildMaps) {
+            return httpRequest.getHeaders().size() + httpRequest.getQueryStringParameters().size() + httpRequest.getCookies().size();
+        }
+        return httpRequest.getHeadersAsNameValuePairs().size() + httpRequest.getQueryStringParametersAsNameValuePairs().size() + httpRequest.getCookiesAsNameValuePairs().size();
+    }
+}
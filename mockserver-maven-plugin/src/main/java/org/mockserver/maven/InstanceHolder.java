@@ -47,10 +47,10 @@ public class InstanceHolder extends ObjectWithReflectiveEqualsHashCodeToString {
         return mockServerClients.get(mockServerPort);
     }
 
-    public void start(final int mockServerPort, final int proxyPort, ExpectationInitializer expectationInitializer) {
+    public void start(final int mockServerPort, final int proxyPort, final int requestLogSize, final long requestLogMaxBytes, ExpectationInitializer expectationInitializer) {
         if (mockServer == null || !mockServer.isRunning()) {
             if (mockServerPort != -1) {
-                mockServer = mockServerBuilder.withHTTPPort(mockServerPort).build();
+                mockServer = mockServerBuilder.withHTTPPort(mockServerPort).withRequestLogSize(requestLogSize).withRequestLogMaxBytes(requestLogMaxBytes).build();
             }
             runInitializationClass(mockServerPort, expectationInitializer);
         } else {
@@ -58,7 +58,7 @@ public class InstanceHolder extends ObjectWithReflectiveEqualsHashCodeToString {
         }
         if (proxy == null || !proxy.isRunning()) {
             if (proxyPort != -1) {
-                proxy = proxyBuilder.withLocalPort(proxyPort).build();
+                proxy = proxyBuilder.withLocalPort(proxyPort).withRequestLogSize(requestLogSize).withRequestLogMaxBytes(requestLogMaxBytes).build();
             }
         } else {
             throw new IllegalStateException("Proxy is already running!");
@@ -42,6 +42,17 @@ public abstract class MockServerAbstractMojo extends AbstractMojo {
      */
     @Parameter(property = "mockserver.timeout")
     protected int timeout;
+    /**
+     * The maximum number of requests, and of responses, kept for verification and retrieval
+     */
+    @Parameter(property = "mockserver.requestLogSize", defaultValue = "100")
+    protected int requestLogSize = 100;
+    /**
+     * The maximum estimated size in bytes of the requests, and of the responses, kept for verification and retrieval,
+     * the oldest are dropped first, to only limit the number of requests do not set a value
+     */
+    @Parameter(property = "mockserver.requestLogMaxBytes", defaultValue = "0")
+    protected long requestLogMaxBytes;
     /**
      * Logging level
      */
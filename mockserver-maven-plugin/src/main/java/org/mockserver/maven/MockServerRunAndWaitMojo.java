@@ -31,14 +31,14 @@ public class MockServerRunAndWaitMojo extends MockServerAbstractMojo {
             }
             try {
                 if (timeout > 0) {
-                    getEmbeddedJettyHolder().start(serverPort, proxyPort, createInitializer());
+                    getEmbeddedJettyHolder().start(serverPort, proxyPort, requestLogSize, requestLogMaxBytes, createInitializer());
                     try {
                         settableFuture.get(timeout, TimeUnit.SECONDS);
                     } catch (TimeoutException te) {
                         // do nothing this is an expected exception when the timeout expires
                     }
                 } else {
-                    getEmbeddedJettyHolder().start(serverPort, proxyPort, createInitializer());
+                    getEmbeddedJettyHolder().start(serverPort, proxyPort, requestLogSize, requestLogMaxBytes, createInitializer());
                     settableFuture.get();
                 }
             } catch (Exception e) {
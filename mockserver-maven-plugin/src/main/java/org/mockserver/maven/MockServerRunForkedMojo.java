@@ -73,6 +73,8 @@ public class MockServerRunForkedMojo extends MockServerAbstractMojo {
 //            arguments.add("-agentlib:jdwp=transport=dt_socket,server=y,suspend=y,address=5010");
             arguments.add("-Dfile.encoding=UTF-8");
             arguments.add("-Dmockserver.logLevel=" + logLevel);
+            arguments.add("-Dmockserver.requestLogSize=" + requestLogSize);
+            arguments.add("-Dmockserver.requestLogMaxBytes=" + requestLogMaxBytes);
             arguments.add("-cp");
             String classPath = resolveJarWithDependenciesPath();
             if (dependencies != null && !dependencies.isEmpty()) {
@@ -30,7 +30,7 @@ public class MockServerStartMojo extends MockServerAbstractMojo {
                         + (proxyPort != -1 ? " proxyPort " + proxyPort : "")
                 );
             }
-            getEmbeddedJettyHolder().start(serverPort, proxyPort, createInitializer());
+            getEmbeddedJettyHolder().start(serverPort, proxyPort, requestLogSize, requestLogMaxBytes, createInitializer());
         }
 
     }
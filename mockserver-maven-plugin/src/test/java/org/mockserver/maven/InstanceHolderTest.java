@@ -51,7 +51,11 @@ public class InstanceHolderTest {
         initMocks(this);
 
         when(mockMockServerBuilder.withHTTPPort(anyInt())).thenReturn(mockMockServerBuilder);
+        when(mockMockServerBuilder.withRequestLogSize(anyInt())).thenReturn(mockMockServerBuilder);
+        when(mockMockServerBuilder.withRequestLogMaxBytes(anyLong())).thenReturn(mockMockServerBuilder);
         when(mockProxyBuilder.withLocalPort(anyInt())).thenReturn(mockProxyBuilder);
+        when(mockProxyBuilder.withRequestLogSize(anyInt())).thenReturn(mockProxyBuilder);
+        when(mockProxyBuilder.withRequestLogMaxBytes(anyLong())).thenReturn(mockProxyBuilder);
 
         when(mockProxy.isRunning()).thenReturn(false);
         when(mockMockServer.isRunning()).thenReturn(false);
@@ -65,17 +69,21 @@ public class InstanceHolderTest {
     @Test
     public void shouldStartServerAndProxyOnBothPorts() {
         // when
-        instanceHolder.start(1, 3, null);
+        instanceHolder.start(1, 3, 100, 0, null);
 
         // then
         verify(mockMockServerBuilder).withHTTPPort(1);
+        verify(mockMockServerBuilder).withRequestLogSize(100);
+        verify(mockMockServerBuilder).withRequestLogMaxBytes(0);
         verify(mockProxyBuilder).withLocalPort(3);
+        verify(mockProxyBuilder).withRequestLogSize(100);
+        verify(mockProxyBuilder).withRequestLogMaxBytes(0);
     }
 
     @Test
     public void shouldStartOnlyServerOnBothPorts() {
         // when
-        instanceHolder.start(1, -1, null);
+        instanceHolder.start(1, -1, 100, 0, null);
 
         // then
         verify(mockMockServerBuilder).withHTTPPort(1);
@@ -86,7 +94,7 @@ public class InstanceHolderTest {
     public void shouldStartOnlyServerOnHttpPort() {
         // when
         ExampleInitializationClass.mockServerClient = null;
-        instanceHolder.start(1, -1, new ExampleInitializationClass());
+        instanceHolder.start(1, -1, 100, 0, new ExampleInitializationClass());
 
         // then
         verify(mockMockServerBuilder).withHTTPPort(1);
@@ -98,7 +106,7 @@ public class InstanceHolderTest {
     public void shouldStartOnlyProxyOnBothPorts() {
         // when
         ExampleInitializationClass.mockServerClient = null;
-        instanceHolder.start(-1, 3, new ExampleInitializationClass());
+        instanceHolder.start(-1, 3, 100, 0, new ExampleInitializationClass());
 
         // then
         verifyNoMoreInteractions(mockMockServerBuilder);
@@ -112,7 +120,7 @@ public class InstanceHolderTest {
         ExampleInitializationClass.mockServerClient = null;
 
         // when
-        instanceHolder.start(1, -1, new ExampleInitializationClass());
+        instanceHolder.start(1, -1, 100, 0, new ExampleInitializationClass());
 
         // then
         assertNotNull(ExampleInitializationClass.mockServerClient);
@@ -122,7 +130,7 @@ public class InstanceHolderTest {
     public void shouldNotStartServerOrProxy() {
         // when
         ExampleInitializationClass.mockServerClient = null;
-        instanceHolder.start(-1, -1, new ExampleInitializationClass());
+        instanceHolder.start(-1, -1, 100, 0, new ExampleInitializationClass());
 
         // then
         verifyNoMoreInteractions(mockMockServerBuilder);
@@ -136,7 +144,7 @@ public class InstanceHolderTest {
         when(mockMockServer.isRunning()).thenReturn(true);
 
         // when
-        instanceHolder.start(1, 3, null);
+        instanceHolder.start(1, 3, 100, 0, null);
     }
 
     @Test(expected = IllegalStateException.class)
@@ -145,7 +153,7 @@ public class InstanceHolderTest {
         when(mockProxy.isRunning()).thenReturn(true);
 
         // when
-        instanceHolder.start(1, 3, null);
+        instanceHolder.start(1, 3, 100, 0, null);
     }
 
     @Test
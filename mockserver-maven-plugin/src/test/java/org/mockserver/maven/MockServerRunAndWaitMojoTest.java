@@ -48,7 +48,7 @@ public class MockServerRunAndWaitMojoTest {
         mockServerRunAndWaitMojo.execute();
 
         // then
-        verify(mockEmbeddedJettyHolder).start(eq(1), eq(3), any(ExampleInitializationClass.class));
+        verify(mockEmbeddedJettyHolder).start(eq(1), eq(3), eq(100), eq(0L), any(ExampleInitializationClass.class));
         verify(objectSettableFuture).get();
     }
 
@@ -76,7 +76,7 @@ public class MockServerRunAndWaitMojoTest {
         mockServerRunAndWaitMojo.execute();
 
         // then
-        verify(mockEmbeddedJettyHolder).start(eq(1), eq(3), any(ExampleInitializationClass.class));
+        verify(mockEmbeddedJettyHolder).start(eq(1), eq(3), eq(100), eq(0L), any(ExampleInitializationClass.class));
         verify(objectSettableFuture).get(2, TimeUnit.SECONDS);
     }
 
@@ -74,6 +74,8 @@ public class MockServerRunForkedMojoTest {
                 javaBinaryPath,
                 "-Dfile.encoding=UTF-8",
                 "-Dmockserver.logLevel=" + level,
+                "-Dmockserver.requestLogSize=100",
+                "-Dmockserver.requestLogMaxBytes=0",
                 "-cp", jarWithDependenciesPath, "org.mockserver.cli.Main", "-serverPort", "1", "-proxyPort", "3"
         ));
         assertEquals(true, processBuilder.redirectErrorStream());
@@ -97,6 +99,8 @@ public class MockServerRunForkedMojoTest {
                 javaBinaryPath,
                 "-Dfile.encoding=UTF-8",
                 "-Dmockserver.logLevel=" + level,
+                "-Dmockserver.requestLogSize=100",
+                "-Dmockserver.requestLogMaxBytes=0",
                 "-cp", jarWithDependenciesPath, "org.mockserver.cli.Main", "-serverPort", "1", "-proxyPort", "3"
         ));
         assertEquals(true, processBuilder.redirectErrorStream());
@@ -123,6 +127,8 @@ public class MockServerRunForkedMojoTest {
                 javaBinaryPath,
                 "-Dfile.encoding=UTF-8",
                 "-Dmockserver.logLevel=" + level,
+                "-Dmockserver.requestLogSize=100",
+                "-Dmockserver.requestLogMaxBytes=0",
                 "-cp", jarWithDependenciesPath, "org.mockserver.cli.Main", "-serverPort", "1"
         ));
         assertEquals(true, processBuilder.redirectErrorStream());
@@ -151,6 +157,8 @@ public class MockServerRunForkedMojoTest {
                 javaBinaryPath,
                 "-Dfile.encoding=UTF-8",
                 "-Dmockserver.logLevel=" + level,
+                "-Dmockserver.requestLogSize=100",
+                "-Dmockserver.requestLogMaxBytes=0",
                 "-cp", jarWithDependenciesPath, "org.mockserver.cli.Main", "-serverPort", "1"
         ));
         assertEquals(true, processBuilder.redirectErrorStream());
@@ -176,6 +184,8 @@ public class MockServerRunForkedMojoTest {
                 javaBinaryPath,
                 "-Dfile.encoding=UTF-8",
                 "-Dmockserver.logLevel=" + level,
+                "-Dmockserver.requestLogSize=100",
+                "-Dmockserver.requestLogMaxBytes=0",
                 "-cp", jarWithDependenciesPath, "org.mockserver.cli.Main", "-proxyPort", "1"
         ));
         assertEquals(true, processBuilder.redirectErrorStream());
@@ -199,6 +209,8 @@ public class MockServerRunForkedMojoTest {
                 javaBinaryPath,
                 "-Dfile.encoding=UTF-8",
                 "-Dmockserver.logLevel=" + level,
+                "-Dmockserver.requestLogSize=100",
+                "-Dmockserver.requestLogMaxBytes=0",
                 "-cp", jarWithDependenciesPath, "org.mockserver.cli.Main", "-proxyPort", "1"
         ));
         assertEquals(true, processBuilder.redirectErrorStream());
@@ -35,13 +35,15 @@ public class MockServerStartMojoTest {
         // given
         mockServerStartMojo.serverPort = 1;
         mockServerStartMojo.proxyPort = 3;
+        mockServerStartMojo.requestLogSize = 500;
+        mockServerStartMojo.requestLogMaxBytes = 1024;
         mockServerStartMojo.initializationClass = "org.mockserver.maven.ExampleInitializationClass";
 
         // when
         mockServerStartMojo.execute();
 
         // then
-        verify(mockEmbeddedJettyHolder).start(eq(1), eq(3), any(ExampleInitializationClass.class));
+        verify(mockEmbeddedJettyHolder).start(eq(1), eq(3), eq(500), eq(1024L), any(ExampleInitializationClass.class));
     }
 
     @Test
@@ -20,8 +20,11 @@ import java.util.Map;
 public class Main {
     public static final String PROXY_PORT_KEY = "proxyPort";
     public static final String SERVER_PORT_KEY = "serverPort";
+    public static final String REQUEST_LOG_SIZE_KEY = "requestLogSize";
+    public static final String REQUEST_LOG_MAX_BYTES_KEY = "requestLogMaxBytes";
+    public static final String COMPILED_MATCHERS_KEY = "compiledMatchers";
     public static final String USAGE = "" +
-            "   java -jar <path to mockserver-jetty-jar-with-dependencies.jar> [-serverPort <port>] [-proxyPort <port>]" + System.getProperty("line.separator") +
+            "   java -jar <path to mockserver-jetty-jar-with-dependencies.jar> [-serverPort <port>] [-proxyPort <port>] [-requestLogSize <count>] [-requestLogMaxBytes <bytes>] [-compiledMatchers <boolean>]" + System.getProperty("line.separator") +
             "   " + System.getProperty("line.separator") +
             "     valid options are:" + System.getProperty("line.separator") +
             "        -serverPort <port>           specifies the HTTP and HTTPS port for the         " + System.getProperty("line.separator") +
@@ -30,7 +33,23 @@ public class Main {
             "                                                                                       " + System.getProperty("line.separator") +
             "        -proxyPort <path>            specifies the HTTP, HTTPS, SOCKS and HTTP         " + System.getProperty("line.separator") +
             "                                     CONNECT port for proxy, port unification          " + System.getProperty("line.separator") +
-            "                                     supports for all protocols on the same port       " + System.getProperty("line.separator");
+            "                                     supports for all protocols on the same port       " + System.getProperty("line.separator") +
+            "                                                                                       " + System.getProperty("line.separator") +
+            "        -requestLogSize <count>      specifies the maximum number of requests, and of  " + System.getProperty("line.separator") +
+            "                                     responses, kept for verification, must be greater " + System.getProperty("line.separator") +
+            "                                     than zero, default 100                            " + System.getProperty("line.separator") +
+            "                                                                                       " + System.getProperty("line.separator") +
+            "        -requestLogMaxBytes <bytes>  specifies the maximum estimated size of the       " + System.getProperty("line.separator") +
+            "                                     requests, and of the responses, kept for          " + System.getProperty("line.separator") +
+            "                                     verification, the oldest are dropped first, must  " + System.getProperty("line.separator") +
+            "                                     not be negative, default 0 for no limit           " + System.getProperty("line.separator") +
+            "                                                                                       " + System.getProperty("line.separator") +
+            "        -compiledMatchers <boolean>  specifies if the MockServer matches requests with " + System.getProperty("line.separator") +
+            "                                     compiled matchers, which skip the matching order  " + System.getProperty("line.separator") +
+            "                                     adapted to the requests received, default false   " + System.getProperty("line.separator") +
+            "                                                                                       " + System.getProperty("line.separator") +
+            "     -requestLogSize and -requestLogMaxBytes apply to the MockServer and proxy started  " + System.getProperty("line.separator") +
+            "     by -serverPort and -proxyPort, at least one port must be specified                " + System.getProperty("line.separator");
 
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
     @VisibleForTesting
@@ -53,43 +72,64 @@ public class Main {
     public static void main(String... arguments) {
         usagePrinted = false;
 
-        Map<String, Integer> parseIntegerArguments = new HashMap<String, Integer>();
+        Map<String, Integer> parsePortArguments = new HashMap<String, Integer>();
+        Map<String, Long> parseRequestLogArguments = new HashMap<String, Long>();
+        Map<String, Boolean> parseSwitchArguments = new HashMap<String, Boolean>();
 
-        parseArguments(parseIntegerArguments, arguments);
+        parseArguments(parsePortArguments, parseRequestLogArguments, parseSwitchArguments, arguments);
 
         if (logger.isDebugEnabled()) {
             logger.debug(System.getProperty("line.separator") + System.getProperty("line.separator") + "Using command line options: " +
-                    Joiner.on(", ").withKeyValueSeparator("=").join(parseIntegerArguments) + System.getProperty("line.separator"));
+                    Joiner.on(", ").withKeyValueSeparator("=").join(parsePortArguments) +
+                    (parseRequestLogArguments.isEmpty() ? "" : ", " + Joiner.on(", ").withKeyValueSeparator("=").join(parseRequestLogArguments)) +
+                    (parseSwitchArguments.isEmpty() ? "" : ", " + Joiner.on(", ").withKeyValueSeparator("=").join(parseSwitchArguments)) + System.getProperty("line.separator"));
         }
         Logging.overrideLogLevel(System.getProperty("mockserver.logLevel"));
 
-        if (parseIntegerArguments.size() > 0) {
-            if (parseIntegerArguments.containsKey(PROXY_PORT_KEY)) {
-                httpProxyBuilder.withLocalPort(parseIntegerArguments.get(PROXY_PORT_KEY)).build();
+        if (parsePortArguments.size() > 0) {
+            if (parsePortArguments.containsKey(PROXY_PORT_KEY)) {
+                if (parseRequestLogArguments.containsKey(REQUEST_LOG_SIZE_KEY)) {
+                    httpProxyBuilder.withRequestLogSize(parseRequestLogArguments.get(REQUEST_LOG_SIZE_KEY).intValue());
+                }
+                if (parseRequestLogArguments.containsKey(REQUEST_LOG_MAX_BYTES_KEY)) {
+                    httpProxyBuilder.withRequestLogMaxBytes(parseRequestLogArguments.get(REQUEST_LOG_MAX_BYTES_KEY));
+                }
+                httpProxyBuilder.withLocalPort(parsePortArguments.get(PROXY_PORT_KEY)).build();
             }
-            if (parseIntegerArguments.containsKey(SERVER_PORT_KEY)) {
-                mockServerBuilder.withHTTPPort(parseIntegerArguments.get(SERVER_PORT_KEY)).build();
+            if (parsePortArguments.containsKey(SERVER_PORT_KEY)) {
+                if (parseRequestLogArguments.containsKey(REQUEST_LOG_SIZE_KEY)) {
+                    mockServerBuilder.withRequestLogSize(parseRequestLogArguments.get(REQUEST_LOG_SIZE_KEY).intValue());
+                }
+                if (parseRequestLogArguments.containsKey(REQUEST_LOG_MAX_BYTES_KEY)) {
+                    mockServerBuilder.withRequestLogMaxBytes(parseRequestLogArguments.get(REQUEST_LOG_MAX_BYTES_KEY));
+                }
+                if (parseSwitchArguments.containsKey(COMPILED_MATCHERS_KEY)) {
+                    mockServerBuilder.withCompiledMatchers(parseSwitchArguments.get(COMPILED_MATCHERS_KEY));
+                }
+                mockServerBuilder.withHTTPPort(parsePortArguments.get(SERVER_PORT_KEY)).build();
             }
         } else {
             showUsage();
         }
     }
 
-    private static Map<String, Integer> parseArguments(Map<String, Integer> parsedIntegerArguments, String... arguments) {
+    private static void parseArguments(Map<String, Integer> parsedPortArguments, Map<String, Long> parsedRequestLogArguments, Map<String, Boolean> parsedSwitchArguments, String... arguments) {
         Iterator<String> argumentsIterator = Arrays.asList(arguments).iterator();
         while (argumentsIterator.hasNext()) {
             String argumentName = argumentsIterator.next();
             if (argumentsIterator.hasNext()) {
                 String argumentValue = argumentsIterator.next();
-                if (!parsePort(parsedIntegerArguments, SERVER_PORT_KEY, argumentName, argumentValue)
-                        && !parsePort(parsedIntegerArguments, PROXY_PORT_KEY, argumentName, argumentValue)) {
+                if (!parsePort(parsedPortArguments, SERVER_PORT_KEY, argumentName, argumentValue)
+                        && !parsePort(parsedPortArguments, PROXY_PORT_KEY, argumentName, argumentValue)
+                        && !parseLimit(parsedRequestLogArguments, REQUEST_LOG_SIZE_KEY, 1, Integer.MAX_VALUE, argumentName, argumentValue)
+                        && !parseLimit(parsedRequestLogArguments, REQUEST_LOG_MAX_BYTES_KEY, 0, Long.MAX_VALUE, argumentName, argumentValue)
+                        && !parseSwitch(parsedSwitchArguments, COMPILED_MATCHERS_KEY, argumentName, argumentValue)) {
                     showUsage();
                 }
             } else {
                 showUsage();
             }
         }
-        return parsedIntegerArguments;
     }
 
     private static boolean parsePort(Map<String, Integer> parsedArguments, final String key, final String argumentName, final String argumentValue) {
@@ -104,6 +144,33 @@ public class Main {
         return false;
     }
 
+    private static boolean parseLimit(Map<String, Long> parsedArguments, final String key, final long minimum, final long maximum, final String argumentName, final String argumentValue) {
+        if (argumentName.equals("-" + key)) {
+            try {
+                long limit = Long.parseLong(argumentValue);
+                if (limit >= minimum && limit <= maximum) {
+                    parsedArguments.put(key, limit);
+                    return true;
+                }
+                logger.error("Please provide a value between " + minimum + " and " + maximum + " for -" + key + ", [" + argumentValue + "] is out of range");
+            } catch (NumberFormatException nfe) {
+                logger.error("Please provide a value integer for -" + key + ", [" + argumentValue + "] is not a valid integer", nfe);
+            }
+        }
+        return false;
+    }
+
+    private static boolean parseSwitch(Map<String, Boolean> parsedArguments, final String key, final String argumentName, final String argumentValue) {
+        if (argumentName.equals("-" + key)) {
+            if (argumentValue.equalsIgnoreCase("true") || argumentValue.equalsIgnoreCase("false")) {
+                parsedArguments.put(key, Boolean.parseBoolean(argumentValue));
+                return true;
+            }
+            logger.error("Please provide true or false for -" + key + ", [" + argumentValue + "] is not a valid boolean");
+        }
+        return false;
+    }
+
     private static void showUsage() {
         if (!usagePrinted) {
             outputPrintStream.println(USAGE);
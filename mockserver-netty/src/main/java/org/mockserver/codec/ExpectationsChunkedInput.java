@@ -0,0 +1,49 @@
+package org.mockserver.codec;
+
+import com.google.common.base.Charsets;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.stream.ChunkedInput;
+import org.mockserver.client.serialization.ExpectationSerializer;
+import org.mockserver.mock.Expectation;
+
+import java.util.Iterator;
+
+/**
+ * Writes expectations as newline delimited JSON one chunk at a time, the ChunkedWriteHandler only reads the next chunk
+ * once the channel is writable so a slow client never causes the whole response to be built in memory
+ *
+ * @author jamesdbloom
+ */
+public class ExpectationsChunkedInput implements ChunkedInput<ByteBuf> {
+
+    private static final int CHUNK_SIZE = 8192;
+    private final Iterator<Expectation> expectations;
+    private final ExpectationSerializer expectationSerializer;
+
+    public ExpectationsChunkedInput(Iterable<Expectation> expectations, ExpectationSerializer expectationSerializer) {
+        this.expectations = expectations.iterator();
+        this.expectationSerializer = expectationSerializer;
+    }
+
+    @Override
+    public boolean isEndOfInput() {
+        return !expectations.hasNext();
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public ByteBuf readChunk(ChannelHandlerContext ctx) {
+        if (!expectations.hasNext()) {
+            return null;
+        }
+        ByteBuf chunk = ctx.alloc().buffer(CHUNK_SIZE);
+        while (expectations.hasNext() && chunk.readableBytes() < CHUNK_SIZE) {
+            chunk.writeBytes(expectationSerializer.serializeAsLine(expectations.next()).getBytes(Charsets.UTF_8));
+        }
+        return chunk;
+    }
+}
@@ -12,6 +12,7 @@ import org.mockserver.mappers.ContentTypeMapper;
 import org.mockserver.model.*;
 import org.mockserver.url.URLParser;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static io.netty.handler.codec.http.HttpHeaders.Names.COOKIE;
@@ -57,7 +58,7 @@ public class MockServerRequestDecoder extends MessageToMessageDecoder<FullHttpRe
     }
 
     private void setQueryString(HttpRequest httpRequest, QueryStringDecoder queryStringDecoder) {
-        httpRequest.withQueryStringParameters(queryStringDecoder.parameters());
+        httpRequest.withQueryStringParameters(NameValuePairs.fromMultiValueMap(queryStringDecoder.parameters()));
     }
 
     private void setBody(HttpRequest httpRequest, FullHttpRequest fullHttpResponse) {
@@ -75,22 +76,21 @@ public class MockServerRequestDecoder extends MessageToMessageDecoder<FullHttpRe
     }
 
     private void setHeaders(HttpRequest httpRequest, FullHttpRequest fullHttpResponse) {
-        HttpHeaders headers = fullHttpResponse.headers();
-        for (String headerName : headers.names()) {
-            httpRequest.withHeader(new Header(headerName, headers.getAll(headerName)));
-        }
+        httpRequest.withHeaders(NameValuePairs.fromHttpHeaders(fullHttpResponse.headers()));
     }
 
     private void setCookies(HttpRequest httpRequest, FullHttpRequest fullHttpResponse) {
+        List<String> namesAndValues = new ArrayList<String>();
         for (String cookieHeader : fullHttpResponse.headers().getAll(COOKIE)) {
             for (String cookie : Splitter.on(";").split(cookieHeader)) {
                 if (!cookie.trim().isEmpty()) {
-                    httpRequest.withCookie(new Cookie(
-                            StringUtils.substringBefore(cookie, "=").trim(),
-                            StringUtils.substringAfter(cookie, "=").trim()
-                    ));
+                    namesAndValues.add(StringUtils.substringBefore(cookie, "=").trim());
+                    namesAndValues.add(StringUtils.substringAfter(cookie, "=").trim());
                 }
             }
         }
+        if (!namesAndValues.isEmpty()) {
+            httpRequest.withCookies(NameValuePairs.fromNamesAndValues(namesAndValues));
+        }
     }
 }
@@ -7,8 +7,8 @@ import io.netty.handler.codec.MessageToMessageEncoder;
 import io.netty.handler.codec.http.*;
 import org.mockserver.client.serialization.Base64Converter;
 import org.mockserver.model.BinaryBody;
-import org.mockserver.model.Header;
 import org.mockserver.model.HttpResponse;
+import org.mockserver.model.NameValuePairs;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -45,12 +45,9 @@ public class MockServerResponseEncoder extends MessageToMessageEncoder<HttpRespo
     }
 
     private void setHeaders(HttpResponse httpResponse, DefaultFullHttpResponse httpServletResponse) {
-        if (httpResponse.getHeaders() != null) {
-            for (Header header : httpResponse.getHeaders()) {
-                for (String value : header.getValues()) {
-                    httpServletResponse.headers().add(header.getName(), value);
-                }
-            }
+        NameValuePairs headers = httpResponse.getHeadersAsNameValuePairs();
+        for (int i = 0; i < headers.size(); i++) {
+            httpServletResponse.headers().add(headers.getName(i), headers.getValue(i));
         }
     }
 
@@ -0,0 +1,168 @@
+package org.mockserver.filters;
+
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpChunkedInput;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.mockserver.client.serialization.ExpectationSerializer;
+import org.mockserver.codec.ExpectationsChunkedInput;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.mockserver.verify.Verification;
+import org.mockserver.verify.VerificationSequence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static io.netty.handler.codec.http.HttpHeaders.Names.CONNECTION;
+import static io.netty.handler.codec.http.HttpHeaders.Names.CONTENT_LENGTH;
+import static org.mockserver.model.Header.header;
+import static org.mockserver.model.HttpResponse.response;
+
+/**
+ * The request log endpoints served the same way by the MockServer and the proxy
+ *
+ * @author jamesdbloom
+ */
+public class LogFilterEndpoints {
+
+    public static final String TIMEOUT_PARAMETER = "timeout";
+    // the most verifications run at once, any more are answered with 503 Service Unavailable
+    static final int MAX_VERIFICATIONS = 64;
+    // verifications wait for requests and build failure reports on these threads, shared by every MockServer and proxy
+    private static final ThreadPoolExecutor verifications = new ThreadPoolExecutor(0, MAX_VERIFICATIONS, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new DefaultThreadFactory("MockServer-verification", true));
+    private static final Logger logger = LoggerFactory.getLogger(LogFilterEndpoints.class);
+    private final LogFilter logFilter;
+    private final ExpectationSerializer expectationSerializer = new ExpectationSerializer();
+
+    public LogFilterEndpoints(LogFilter logFilter) {
+        this.logFilter = logFilter;
+    }
+
+    /**
+     * Writes one page of the recorded requests and responses as newline delimited json, each expectation is
+     * serialized as it is written
+     *
+     * @param request     the retrieve request, with the cursor and limit query string parameters
+     * @param httpRequest the request to match, or null for all requests
+     * @throws NumberFormatException if the cursor or limit is not a number
+     */
+    public void writeRetrievedExpectations(ChannelHandlerContext ctx, HttpRequest request, HttpRequest httpRequest) {
+        String cursor = request.getFirstQueryStringParameter(RetrievedExpectations.CURSOR_PARAMETER);
+        String limit = request.getFirstQueryStringParameter(RetrievedExpectations.LIMIT_PARAMETER);
+        RetrievedExpectations retrievedExpectations = logFilter.retrieve(httpRequest, cursor.isEmpty() ? 0 : Long.parseLong(cursor), limit.isEmpty() ? 0 : Integer.parseInt(limit));
+        DefaultHttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        HttpHeaders.setTransferEncodingChunked(response);
+        response.headers().set(HttpHeaders.Names.CONTENT_TYPE, RetrievedExpectations.NDJSON_CONTENT_TYPE + "; charset=utf-8");
+        if (retrievedExpectations.nextCursor() != -1) {
+            response.headers().set(RetrievedExpectations.NEXT_CURSOR_HEADER, retrievedExpectations.nextCursor());
+        }
+        response.headers().set(CONNECTION, request.isKeepAlive() ? HttpHeaders.Values.KEEP_ALIVE : HttpHeaders.Values.CLOSE);
+        ctx.write(response);
+        ChannelFuture future = ctx.writeAndFlush(new HttpChunkedInput(new ExpectationsChunkedInput(retrievedExpectations, expectationSerializer)));
+        if (!request.isKeepAlive()) {
+            future.addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    /**
+     * Writes 202 Accepted if the verification passes or 406 Not Acceptable with the reason it failed, if the request
+     * has a timeout query string parameter the verification waits up to that many milliseconds for it to pass
+     */
+    public void writeVerificationResult(ChannelHandlerContext ctx, HttpRequest request, final Verification verification) {
+        final Long timeout = verificationTimeout(ctx, request);
+        if (timeout != null) {
+            verifyLater(ctx, request, new Callable<String>() {
+                public String call() {
+                    return timeout > 0 ? logFilter.verify(verification, timeout) : logFilter.verify(verification);
+                }
+            });
+        }
+    }
+
+    /**
+     * Writes 202 Accepted if the verification sequence passes or 406 Not Acceptable with the reason it failed, if the
+     * request has a timeout query string parameter the verification waits up to that many milliseconds for it to pass
+     */
+    public void writeVerificationResult(ChannelHandlerContext ctx, HttpRequest request, final VerificationSequence verificationSequence) {
+        final Long timeout = verificationTimeout(ctx, request);
+        if (timeout != null) {
+            verifyLater(ctx, request, new Callable<String>() {
+                public String call() {
+                    return timeout > 0 ? logFilter.verify(verificationSequence, timeout) : logFilter.verify(verificationSequence);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return the timeout in milliseconds, zero if there is none, or null if it is not a number and 400 Bad Request
+     * has been written
+     */
+    private Long verificationTimeout(ChannelHandlerContext ctx, HttpRequest request) {
+        String timeout = request.getFirstQueryStringParameter(TIMEOUT_PARAMETER);
+        try {
+            return timeout.isEmpty() ? 0 : Long.parseLong(timeout);
+        } catch (NumberFormatException nfe) {
+            writeResponse(ctx, request, HttpResponseStatus.BAD_REQUEST, "timeout must be a number of milliseconds but was [" + timeout + "]");
+            return null;
+        }
+    }
+
+    /**
+     * runs the verification on another thread so the event loop is not blocked while the verification waits for
+     * more requests or ranks the logged requests for a failure report
+     */
+    private void verifyLater(final ChannelHandlerContext ctx, final HttpRequest request, final Callable<String> verification) {
+        try {
+            verifications.execute(new Runnable() {
+                public void run() {
+                    try {
+                        writeVerificationResult(ctx, request, verification.call());
+                    } catch (Exception e) {
+                        logger.error("Exception processing " + request, e);
+                        writeResponse(ctx, request, HttpResponseStatus.BAD_REQUEST, "");
+                    }
+                    ctx.flush();
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            writeResponse(ctx, request, HttpResponseStatus.SERVICE_UNAVAILABLE, "too many verifications are running, at most " + MAX_VERIFICATIONS + " run at once");
+        }
+    }
+
+    private void writeVerificationResult(ChannelHandlerContext ctx, HttpRequest request, String result) {
+        if (result.isEmpty()) {
+            writeResponse(ctx, request, HttpResponseStatus.ACCEPTED, "");
+        } else {
+            writeResponse(ctx, request, HttpResponseStatus.NOT_ACCEPTABLE, result);
+        }
+    }
+
+    private void writeResponse(ChannelHandlerContext ctx, HttpRequest request, HttpResponseStatus responseStatus, String body) {
+        HttpResponse response = response()
+                .withStatusCode(responseStatus.code())
+                .withBody(body);
+        if (!body.isEmpty()) {
+            response.withHeader(header(HttpHeaders.Names.CONTENT_TYPE, "plain/text; charset=utf-8"));
+        }
+        response.withHeader(header(CONTENT_LENGTH, response.getBody().getRawBytes().length));
+        if (request.isKeepAlive()) {
+            response.withHeader(header(CONNECTION, HttpHeaders.Values.KEEP_ALIVE));
+            ctx.write(response);
+        } else {
+            response.withHeader(header(CONNECTION, HttpHeaders.Values.CLOSE));
+            ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.util.AttributeKey;
+import org.mockserver.configuration.SystemProperties;
 import org.mockserver.filters.LogFilter;
 import org.mockserver.mock.MockServerMatcher;
 import org.slf4j.Logger;
@@ -27,7 +28,7 @@ public class MockServer {
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
     // mockserver
     private final MockServerMatcher mockServerMatcher = new MockServerMatcher();
-    private final LogFilter logFilter = new LogFilter();
+    private final LogFilter logFilter;
     private final SettableFuture<String> hasStarted;
     // netty
     private final EventLoopGroup bossGroup = new NioEventLoopGroup();
@@ -40,10 +41,38 @@ public class MockServer {
      * @param port the http port to use
      */
     public MockServer(final Integer port) {
+        this(port, SystemProperties.requestLogSize(), SystemProperties.requestLogMaxBytes());
+    }
+
+    /**
+     * Start the instance using the ports and request log limits provided
+     *
+     * @param port               the http port to use
+     * @param requestLogSize     the maximum number of requests, and of responses, kept for verification and retrieval
+     * @param requestLogMaxBytes the maximum estimated size in bytes of the requests, and of the responses, kept for
+     *                           verification and retrieval, zero or less for no limit
+     */
+    public MockServer(final Integer port, int requestLogSize, long requestLogMaxBytes) {
+        this(port, requestLogSize, requestLogMaxBytes, SystemProperties.compiledMatchersEnabled());
+    }
+
+    /**
+     * Start the instance using the ports, request log limits and matchers provided
+     *
+     * @param port               the http port to use
+     * @param requestLogSize     the maximum number of requests, and of responses, kept for verification and retrieval
+     * @param requestLogMaxBytes the maximum estimated size in bytes of the requests, and of the responses, kept for
+     *                           verification and retrieval, zero or less for no limit
+     * @param compiledMatchers   true to match requests with compiled matchers, which skip the matching order adapted
+     *                           to the requests received
+     */
+    public MockServer(final Integer port, int requestLogSize, long requestLogMaxBytes, boolean compiledMatchers) {
         if (port == null) {
             throw new IllegalStateException("You must specify a port");
         }
 
+        logFilter = new LogFilter(requestLogSize, requestLogMaxBytes, SystemProperties.requestLogStorage());
+        mockServerMatcher.withCompiledMatchers(compiledMatchers).withMatchListener(logFilter);
         hasStarted = SettableFuture.create();
 
         new Thread(new Runnable() {
@@ -94,6 +123,7 @@ public class MockServer {
             bossGroup.shutdownGracefully(0, 1, TimeUnit.MILLISECONDS);
             workerGroup.shutdownGracefully(0, 1, TimeUnit.MILLISECONDS);
             channel.close();
+            logFilter.close();
             // wait for socket to be released
             TimeUnit.MILLISECONDS.sleep(500);
         } catch (Exception ie) {
@@ -9,6 +9,9 @@ import org.mockserver.configuration.SystemProperties;
 public class MockServerBuilder {
 
     private Integer port;
+    private Integer requestLogSize;
+    private Long requestLogMaxBytes;
+    private Boolean compiledMatchers;
 
     /**
      * Configure HTTP port for proxy, setting this value will ensure HTTP is supported
@@ -25,10 +28,47 @@ public class MockServerBuilder {
         return this;
     }
 
+    /**
+     * Configure the maximum number of requests, and of responses, kept for verification and retrieval
+     *
+     * @param requestLogSize the maximum number of requests, and of responses, to keep
+     */
+    public MockServerBuilder withRequestLogSize(int requestLogSize) {
+        this.requestLogSize = requestLogSize;
+        return this;
+    }
+
+    /**
+     * Configure the maximum estimated size in bytes of the requests, and of the responses, kept for verification and
+     * retrieval, the oldest are dropped first
+     *
+     * @param requestLogMaxBytes the maximum size in bytes, zero or less for no limit
+     */
+    public MockServerBuilder withRequestLogMaxBytes(long requestLogMaxBytes) {
+        this.requestLogMaxBytes = requestLogMaxBytes;
+        return this;
+    }
+
+    /**
+     * Configure whether expectations match requests with compiled matchers, which skip the matching order adapted to
+     * the requests received
+     *
+     * @param compiledMatchers true to use compiled matchers
+     */
+    public MockServerBuilder withCompiledMatchers(boolean compiledMatchers) {
+        this.compiledMatchers = compiledMatchers;
+        return this;
+    }
+
     /**
      * Build an instance of the HttpProxy
      */
     public MockServer build() {
-        return new MockServer(port);
+        return new MockServer(
+                port,
+                requestLogSize != null ? requestLogSize : SystemProperties.requestLogSize(),
+                requestLogMaxBytes != null ? requestLogMaxBytes : SystemProperties.requestLogMaxBytes(),
+                compiledMatchers != null ? compiledMatchers : SystemProperties.compiledMatchersEnabled()
+        );
     }
 }
@@ -11,6 +11,8 @@ import org.mockserver.client.serialization.HttpRequestSerializer;
 import org.mockserver.client.serialization.VerificationSequenceSerializer;
 import org.mockserver.client.serialization.VerificationSerializer;
 import org.mockserver.filters.LogFilter;
+import org.mockserver.filters.LogFilterEndpoints;
+import org.mockserver.filters.RetrievedExpectations;
 import org.mockserver.mock.Expectation;
 import org.mockserver.mock.MockServerMatcher;
 import org.mockserver.mock.action.ActionHandler;
@@ -32,6 +34,7 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
     // mockserver
     private MockServer server;
     private LogFilter logFilter;
+    private LogFilterEndpoints logFilterEndpoints;
     private MockServerMatcher mockServerMatcher;
     private ActionHandler actionHandler;
     // serializers
@@ -44,11 +47,12 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
         this.mockServerMatcher = mockServerMatcher;
         this.server = server;
         this.logFilter = logFilter;
+        this.logFilterEndpoints = new LogFilterEndpoints(logFilter);
         actionHandler = new ActionHandler(logFilter);
     }
 
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, HttpRequest request) {
+    protected void channelRead0(final ChannelHandlerContext ctx, final HttpRequest request) {
 
         try {
             if (request.matches("PUT", "/status")) {
@@ -59,6 +63,7 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
 
                 Expectation expectation = expectationSerializer.deserialize(request.getBodyAsString());
                 mockServerMatcher.when(expectation.getHttpRequest(), expectation.getTimes()).thenRespond(expectation.getHttpResponse(false)).thenForward(expectation.getHttpForward()).thenCallback(expectation.getHttpCallback());
+                logFilter.countMatching(expectation.getHttpRequest());
                 writeResponse(ctx, request, HttpResponseStatus.CREATED);
 
             } else if (request.matches("PUT", "/clear")) {
@@ -74,33 +79,34 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
                 mockServerMatcher.reset();
                 writeResponse(ctx, request, HttpResponseStatus.ACCEPTED);
 
+            } else if (request.matches("PUT", "/summaryOnly")) {
+
+                logFilter.setSummaryOnly(Boolean.parseBoolean(request.getBodyAsString()));
+                writeResponse(ctx, request, HttpResponseStatus.ACCEPTED);
+
             } else if (request.matches("PUT", "/dumpToLog")) {
 
                 mockServerMatcher.dumpToLog(httpRequestSerializer.deserialize(request.getBodyAsString()));
+                logFilter.dumpStatisticsToLog();
                 writeResponse(ctx, request, HttpResponseStatus.ACCEPTED);
 
             } else if (request.matches("PUT", "/retrieve")) {
 
-                Expectation[] expectations = logFilter.retrieve(httpRequestSerializer.deserialize(request.getBodyAsString()));
-                writeResponse(ctx, request, HttpResponseStatus.OK, expectationSerializer.serialize(expectations), "application/json");
+                org.mockserver.model.HttpRequest httpRequest = httpRequestSerializer.deserialize(request.getBodyAsString());
+                if (request.getFirstQueryStringParameter(RetrievedExpectations.FORMAT_PARAMETER).equals(RetrievedExpectations.NDJSON_FORMAT)) {
+                    logFilterEndpoints.writeRetrievedExpectations(ctx, request, httpRequest);
+                } else {
+                    Expectation[] expectations = logFilter.retrieve(httpRequest);
+                    writeResponse(ctx, request, HttpResponseStatus.OK, expectationSerializer.serialize(expectations), "application/json");
+                }
 
             } else if (request.matches("PUT", "/verify")) {
 
-                String result = logFilter.verify(verificationSerializer.deserialize(request.getBodyAsString()));
-                if (result.isEmpty()) {
-                    writeResponse(ctx, request, HttpResponseStatus.ACCEPTED);
-                } else {
-                    writeResponse(ctx, request, HttpResponseStatus.NOT_ACCEPTABLE, result, "plain/text");
-                }
+                logFilterEndpoints.writeVerificationResult(ctx, request, verificationSerializer.deserialize(request.getBodyAsString()));
 
             } else if (request.matches("PUT", "/verifySequence")) {
 
-                String result = logFilter.verify(verificationSequenceSerializer.deserialize(request.getBodyAsString()));
-                if (result.isEmpty()) {
-                    writeResponse(ctx, request, HttpResponseStatus.ACCEPTED);
-                } else {
-                    writeResponse(ctx, request, HttpResponseStatus.NOT_ACCEPTABLE, result, "plain/text");
-                }
+                logFilterEndpoints.writeVerificationResult(ctx, request, verificationSequenceSerializer.deserialize(request.getBodyAsString()));
 
             } else if (request.matches("PUT", "/stop")) {
 
@@ -8,6 +8,7 @@ import io.netty.handler.codec.http.HttpContentDecompressor;
 import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import org.mockserver.codec.MockServerServerCodec;
 import org.mockserver.logging.LoggingHandler;
 import org.mockserver.mock.MockServerMatcher;
@@ -37,6 +38,8 @@ public class MockServerInitializer extends PortUnificationHandler {
             pipeline.addLast(new LoggingHandler());
         }
 
+        // streams chunked responses, such as /retrieve?format=ndjson, as the channel becomes writable
+        pipeline.addLast(new ChunkedWriteHandler());
         pipeline.addLast(new MockServerServerCodec(secure));
 
         // add mock server handlers
@@ -1,5 +1,6 @@
 package org.mockserver.proxy;
 
+import org.mockserver.configuration.SystemProperties;
 import org.mockserver.proxy.direct.DirectProxy;
 import org.mockserver.proxy.http.HttpProxy;
 
@@ -13,6 +14,8 @@ public class ProxyBuilder {
     private Integer localPort;
     private String remoteHost;
     private Integer remotePort;
+    private Integer requestLogSize;
+    private Long requestLogMaxBytes;
 
     /**
      * Configure the local port for the proxy, this will be the same port for all traffic including HTTP, SOCKS, CONNECT and SSL
@@ -36,6 +39,27 @@ public class ProxyBuilder {
         return this;
     }
 
+    /**
+     * Configure the maximum number of requests, and of responses, the proxy keeps for verification and retrieval
+     *
+     * @param requestLogSize the maximum number of requests, and of responses, to keep
+     */
+    public ProxyBuilder withRequestLogSize(int requestLogSize) {
+        this.requestLogSize = requestLogSize;
+        return this;
+    }
+
+    /**
+     * Configure the maximum estimated size in bytes of the requests, and of the responses, the proxy keeps for
+     * verification and retrieval, the oldest are dropped first
+     *
+     * @param requestLogMaxBytes the maximum size in bytes, zero or less for no limit
+     */
+    public ProxyBuilder withRequestLogMaxBytes(long requestLogMaxBytes) {
+        this.requestLogMaxBytes = requestLogMaxBytes;
+        return this;
+    }
+
     /**
      * Build an instance of the HttpProxy
      */
@@ -44,7 +68,11 @@ public class ProxyBuilder {
             if (remoteHost != null && remotePort != null) {
                 return new DirectProxy(localPort, remoteHost, remotePort);
             } else {
-                return new HttpProxy(localPort);
+                return new HttpProxy(
+                        localPort,
+                        requestLogSize != null ? requestLogSize : SystemProperties.requestLogSize(),
+                        requestLogMaxBytes != null ? requestLogMaxBytes : SystemProperties.requestLogMaxBytes()
+                );
             }
         } else {
             throw new IllegalArgumentException("LocalPort must be specified before the proxy is started");
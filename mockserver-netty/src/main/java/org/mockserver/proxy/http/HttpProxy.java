@@ -35,7 +35,7 @@ public class HttpProxy implements Proxy {
     private static final Logger logger = LoggerFactory.getLogger(HttpProxy.class);
     // proxy
     private final SettableFuture<String> hasStarted = SettableFuture.create();
-    private final LogFilter logFilter = new LogFilter();
+    private final LogFilter logFilter;
     // netty
     private final EventLoopGroup bossGroup = new NioEventLoopGroup();
     private final EventLoopGroup workerGroup = new NioEventLoopGroup();
@@ -43,12 +43,17 @@ public class HttpProxy implements Proxy {
     private final Integer port;
 
     public HttpProxy(final Integer port) {
+        this(port, SystemProperties.requestLogSize(), SystemProperties.requestLogMaxBytes());
+    }
+
+    public HttpProxy(final Integer port, int requestLogSize, long requestLogMaxBytes) {
 
         if (port == null) {
             throw new IllegalArgumentException("Port must not be null");
         }
 
         this.port = port;
+        this.logFilter = new LogFilter(requestLogSize, requestLogMaxBytes, SystemProperties.requestLogStorage());
 
         new Thread(new Runnable() {
             @Override
@@ -83,6 +88,7 @@ public class HttpProxy implements Proxy {
                 } finally {
                     bossGroup.shutdownGracefully(0, 1, TimeUnit.MILLISECONDS);
                     workerGroup.shutdownGracefully(0, 1, TimeUnit.MILLISECONDS);
+                    logFilter.close();
                 }
             }
         }).start();
@@ -12,6 +12,8 @@ import org.mockserver.client.serialization.VerificationSerializer;
 import org.mockserver.filters.Filters;
 import org.mockserver.filters.HopByHopHeaderFilter;
 import org.mockserver.filters.LogFilter;
+import org.mockserver.filters.LogFilterEndpoints;
+import org.mockserver.filters.RetrievedExpectations;
 import org.mockserver.mock.Expectation;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
@@ -35,6 +37,7 @@ public class HttpProxyHandler extends SimpleChannelInboundHandler<HttpRequest> {
     // mockserver
     private final Proxy server;
     private final LogFilter logFilter;
+    private final LogFilterEndpoints logFilterEndpoints;
     private final Filters filters = new Filters();
     // http client
     private NettyHttpClient httpClient = new NettyHttpClient();
@@ -48,12 +51,13 @@ public class HttpProxyHandler extends SimpleChannelInboundHandler<HttpRequest> {
         super(false);
         this.server = server;
         this.logFilter = logFilter;
+        this.logFilterEndpoints = new LogFilterEndpoints(logFilter);
         filters.withFilter(new org.mockserver.model.HttpRequest(), new HopByHopHeaderFilter());
         filters.withFilter(new org.mockserver.model.HttpRequest(), logFilter);
     }
 
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, HttpRequest request) {
+    protected void channelRead0(final ChannelHandlerContext ctx, final HttpRequest request) {
 
         try {
 
@@ -79,6 +83,11 @@ public class HttpProxyHandler extends SimpleChannelInboundHandler<HttpRequest> {
                 logFilter.reset();
                 writeResponse(ctx, request, HttpResponseStatus.ACCEPTED);
 
+            } else if (request.matches("PUT", "/summaryOnly")) {
+
+                logFilter.setSummaryOnly(Boolean.parseBoolean(request.getBodyAsString()));
+                writeResponse(ctx, request, HttpResponseStatus.ACCEPTED);
+
             } else if (request.matches("PUT", "/dumpToLog")) {
 
                 logFilter.dumpToLog(httpRequestSerializer.deserialize(request.getBodyAsString()), request.hasQueryStringParameter("type", "java"));
@@ -86,26 +95,21 @@ public class HttpProxyHandler extends SimpleChannelInboundHandler<HttpRequest> {
 
             } else if (request.matches("PUT", "/retrieve")) {
 
-                Expectation[] expectations = logFilter.retrieve(httpRequestSerializer.deserialize(request.getBodyAsString()));
-                writeResponse(ctx, request, HttpResponseStatus.OK, expectationSerializer.serialize(expectations), "application/json");
+                org.mockserver.model.HttpRequest httpRequest = httpRequestSerializer.deserialize(request.getBodyAsString());
+                if (request.getFirstQueryStringParameter(RetrievedExpectations.FORMAT_PARAMETER).equals(RetrievedExpectations.NDJSON_FORMAT)) {
+                    logFilterEndpoints.writeRetrievedExpectations(ctx, request, httpRequest);
+                } else {
+                    Expectation[] expectations = logFilter.retrieve(httpRequest);
+                    writeResponse(ctx, request, HttpResponseStatus.OK, expectationSerializer.serialize(expectations), "application/json");
+                }
 
             } else if (request.matches("PUT", "/verify")) {
 
-                String result = logFilter.verify(verificationSerializer.deserialize(request.getBodyAsString()));
-                if (result.isEmpty()) {
-                    writeResponse(ctx, request, HttpResponseStatus.ACCEPTED);
-                } else {
-                    writeResponse(ctx, request, HttpResponseStatus.NOT_ACCEPTABLE, result, "plain/text");
-                }
+                logFilterEndpoints.writeVerificationResult(ctx, request, verificationSerializer.deserialize(request.getBodyAsString()));
 
             } else if (request.matches("PUT", "/verifySequence")) {
 
-                String result = logFilter.verify(verificationSequenceSerializer.deserialize(request.getBodyAsString()));
-                if (result.isEmpty()) {
-                    writeResponse(ctx, request, HttpResponseStatus.ACCEPTED);
-                } else {
-                    writeResponse(ctx, request, HttpResponseStatus.NOT_ACCEPTABLE, result, "plain/text");
-                }
+                logFilterEndpoints.writeVerificationResult(ctx, request, verificationSequenceSerializer.deserialize(request.getBodyAsString()));
 
             } else if (request.matches("PUT", "/stop")) {
 
@@ -3,6 +3,7 @@ package org.mockserver.proxy.http;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import org.mockserver.codec.MockServerServerCodec;
 import org.mockserver.proxy.Proxy;
 import org.mockserver.proxy.unification.PortUnificationHandler;
@@ -15,6 +16,7 @@ public class HttpProxyUnificationHandler extends PortUnificationHandler {
 
     @Override
     protected void configurePipeline(ChannelHandlerContext ctx, ChannelPipeline pipeline) {
+        pipeline.addLast(new ChunkedWriteHandler());
         pipeline.addLast(new MockServerServerCodec(isSslEnabled(ctx)));
         pipeline.addLast(new HttpProxyHandler(ctx.channel().attr(Proxy.HTTP_PROXY).get(), ctx.channel().attr(Proxy.LOG_FILTER).get()));
     }
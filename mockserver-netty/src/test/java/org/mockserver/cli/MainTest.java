@@ -9,7 +9,9 @@ import org.mockserver.socket.PortFactory;
 
 import java.io.PrintStream;
 
+import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -78,6 +80,63 @@ public class MainTest {
         verify(mockProxyBuilder).build();
     }
 
+    @Test
+    public void shouldPassRequestLogLimitsToServerAndProxy() {
+        Main.main("-serverPort", SERVER_HTTP_PORT.toString(), "-proxyPort", PROXY_HTTP_PORT.toString(), "-requestLogSize", "500", "-requestLogMaxBytes", "1048576");
+
+        verify(mockMockServerBuilder).withRequestLogSize(500);
+        verify(mockMockServerBuilder).withRequestLogMaxBytes(1048576L);
+        verify(mockMockServerBuilder).build();
+        verify(mockProxyBuilder).withRequestLogSize(500);
+        verify(mockProxyBuilder).withRequestLogMaxBytes(1048576L);
+        verify(mockProxyBuilder).build();
+        verifyZeroInteractions(mockPrintStream);
+    }
+
+    @Test
+    public void shouldPassCompiledMatchersToServerOnly() {
+        Main.main("-serverPort", SERVER_HTTP_PORT.toString(), "-proxyPort", PROXY_HTTP_PORT.toString(), "-compiledMatchers", "true");
+
+        verify(mockMockServerBuilder).withCompiledMatchers(true);
+        verify(mockMockServerBuilder).build();
+        verify(mockProxyBuilder).withLocalPort(PROXY_HTTP_PORT);
+        verify(mockProxyBuilder).build();
+        verifyZeroInteractions(mockPrintStream);
+    }
+
+    @Test
+    public void shouldPrintOutUsageForInvalidCompiledMatchers() {
+        Main.main("-serverPort", SERVER_HTTP_PORT.toString(), "-compiledMatchers", "yes");
+
+        verify(mockPrintStream).println(Main.USAGE);
+        verify(mockMockServerBuilder, never()).withCompiledMatchers(anyBoolean());
+    }
+
+    @Test
+    public void shouldPrintOutUsageForRequestLogLimitsWithoutPort() {
+        Main.main("-requestLogSize", "500");
+
+        verify(mockPrintStream).println(Main.USAGE);
+        verifyZeroInteractions(mockMockServerBuilder);
+        verifyZeroInteractions(mockProxyBuilder);
+    }
+
+    @Test
+    public void shouldPrintOutUsageForInvalidRequestLogSize() {
+        Main.main("-serverPort", SERVER_HTTP_PORT.toString(), "-requestLogSize", "0");
+
+        verify(mockPrintStream).println(Main.USAGE);
+        verify(mockMockServerBuilder, never()).withRequestLogSize(anyInt());
+    }
+
+    @Test
+    public void shouldPrintOutUsageForInvalidRequestLogMaxBytes() {
+        Main.main("-serverPort", SERVER_HTTP_PORT.toString(), "-requestLogMaxBytes", "-1");
+
+        verify(mockPrintStream).println(Main.USAGE);
+        verify(mockMockServerBuilder, never()).withRequestLogMaxBytes(anyLong());
+    }
+
     @Test
     public void shouldPrintOutUsageForInvalidPort() {
         Main.main("-proxyPort", "1", "-invalidOption", "2");
@@ -9,6 +9,8 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.mockserver.client.serialization.ExpectationSerializer;
 import org.mockserver.client.serialization.HttpRequestSerializer;
 import org.mockserver.client.serialization.VerificationSequenceSerializer;
@@ -22,11 +24,16 @@ import org.mockserver.model.HttpCallback;
 import org.mockserver.model.HttpForward;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
+import org.mockserver.model.Parameter;
 import org.mockserver.verify.Verification;
 import org.mockserver.verify.VerificationSequence;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.*;
@@ -75,6 +82,9 @@ public class MockServerHandlerTest {
     @Mock
     private ChannelHandlerContext mockChannelHandlerContext;
 
+    // counted down once a verification, which runs on another thread, has written its result
+    private CountDownLatch flushed;
+
     @InjectMocks
     private MockServerHandler mockServerHandler;
 
@@ -90,6 +100,13 @@ public class MockServerHandlerTest {
         // given - channel handle context
         when(mockChannelHandlerContext.writeAndFlush(any(HttpResponse.class))).thenReturn(mock(ChannelFuture.class));
         when(mockChannelHandlerContext.write(any(HttpResponse.class))).thenReturn(mock(ChannelFuture.class));
+        flushed = new CountDownLatch(1);
+        when(mockChannelHandlerContext.flush()).thenAnswer(new Answer<ChannelHandlerContext>() {
+            public ChannelHandlerContext answer(InvocationOnMock invocation) {
+                flushed.countDown();
+                return mockChannelHandlerContext;
+            }
+        });
 
         // given - serializers
         when(mockExpectationSerializer.deserialize(anyString())).thenReturn(mockExpectation);
@@ -156,6 +173,24 @@ public class MockServerHandlerTest {
         assertThat(httpResponse.getBodyAsString(), is(""));
     }
 
+    @Test
+    public void shouldSwitchRequestLogToSummaryOnly() {
+        // given
+        HttpRequest request = request("/summaryOnly").withMethod("PUT").withBody("true");
+
+        // when
+        mockServerHandler.channelRead0(mockChannelHandlerContext, request);
+
+        // then - filter only counts requests
+        verify(mockLogFilter).setSummaryOnly(true);
+
+        // and - correct response written to ChannelHandlerContext
+        ArgumentCaptor<HttpResponse> responseCaptor = ArgumentCaptor.forClass(HttpResponse.class);
+        verify(mockChannelHandlerContext).writeAndFlush(responseCaptor.capture());
+        HttpResponse httpResponse = responseCaptor.getValue();
+        assertThat(httpResponse.getStatusCode(), is(HttpResponseStatus.ACCEPTED.code()));
+    }
+
     @Test
     public void shouldClearExpectations() {
         // given
@@ -192,6 +227,7 @@ public class MockServerHandlerTest {
 
         // then - expectations dumped to log
         verify(mockMockServerMatcher).dumpToLog(mockHttpRequest);
+        verify(mockLogFilter).dumpStatisticsToLog();
 
         // and - correct response written to ChannelHandlerContext
         ArgumentCaptor<HttpResponse> responseCaptor = ArgumentCaptor.forClass(HttpResponse.class);
@@ -292,7 +328,7 @@ public class MockServerHandlerTest {
     }
 
     @Test
-    public void shouldVerifyPassingRequest() {
+    public void shouldVerifyPassingRequest() throws InterruptedException {
         // given
         when(mockLogFilter.verify(any(Verification.class))).thenReturn("");
 
@@ -302,7 +338,10 @@ public class MockServerHandlerTest {
         // when
         mockServerHandler.channelRead0(mockChannelHandlerContext, request);
 
-        // then - request deserialized
+        // then - verification answered on another thread
+        assertTrue(flushed.await(1, TimeUnit.SECONDS));
+
+        // and - request deserialized
         verify(mockVerificationSerializer).deserialize("some_content");
 
         // and - log filter called
@@ -317,7 +356,7 @@ public class MockServerHandlerTest {
     }
 
     @Test
-    public void shouldVerifyFailingRequest() {
+    public void shouldVerifyFailingRequest() throws InterruptedException {
         // given
         when(mockLogFilter.verify(any(Verification.class))).thenReturn("failure response");
 
@@ -327,7 +366,10 @@ public class MockServerHandlerTest {
         // when
         mockServerHandler.channelRead0(mockChannelHandlerContext, request);
 
-        // then - request deserialized
+        // then - verification answered on another thread
+        assertTrue(flushed.await(1, TimeUnit.SECONDS));
+
+        // and - request deserialized
         verify(mockVerificationSerializer).deserialize("some_content");
 
         // and - log filter called
@@ -342,7 +384,7 @@ public class MockServerHandlerTest {
     }
 
     @Test
-    public void shouldVerifySequencePassingRequest() {
+    public void shouldVerifySequencePassingRequest() throws InterruptedException {
         // given
         when(mockLogFilter.verify(any(VerificationSequence.class))).thenReturn("");
 
@@ -352,7 +394,10 @@ public class MockServerHandlerTest {
         // when
         mockServerHandler.channelRead0(mockChannelHandlerContext, request);
 
-        // then - request deserialized
+        // then - verification answered on another thread
+        assertTrue(flushed.await(1, TimeUnit.SECONDS));
+
+        // and - request deserialized
         verify(mockVerificationSequenceSerializer).deserialize("some_content");
 
         // and - log filter called
@@ -367,7 +412,7 @@ public class MockServerHandlerTest {
     }
 
     @Test
-    public void shouldVerifySequenceFailingRequest() {
+    public void shouldVerifySequenceFailingRequest() throws InterruptedException {
         // given
         when(mockLogFilter.verify(any(VerificationSequence.class))).thenReturn("failure response");
 
@@ -377,7 +422,10 @@ public class MockServerHandlerTest {
         // when
         mockServerHandler.channelRead0(mockChannelHandlerContext, request);
 
-        // then - request deserialized
+        // then - verification answered on another thread
+        assertTrue(flushed.await(1, TimeUnit.SECONDS));
+
+        // and - request deserialized
         verify(mockVerificationSequenceSerializer).deserialize("some_content");
 
         // and - log filter called
@@ -391,6 +439,48 @@ public class MockServerHandlerTest {
         assertThat(httpResponse.getBodyAsString(), is("failure response"));
     }
 
+    @Test
+    public void shouldVerifyRequestWithTimeout() throws InterruptedException {
+        // given
+        when(mockLogFilter.verify(any(Verification.class), anyLong())).thenReturn("");
+
+        // and - a request
+        HttpRequest request = request("/verify").withMethod("PUT").withQueryStringParameter(new Parameter("timeout", "500")).withBody("some_content");
+
+        // when
+        mockServerHandler.channelRead0(mockChannelHandlerContext, request);
+
+        // then - log filter called with the timeout on another thread
+        assertTrue(flushed.await(1, TimeUnit.SECONDS));
+        verify(mockLogFilter).verify(mockVerification, 500L);
+        verify(mockLogFilter, never()).verify(mockVerification);
+
+        // and - correct response written to ChannelHandlerContext
+        ArgumentCaptor<HttpResponse> responseCaptor = ArgumentCaptor.forClass(HttpResponse.class);
+        verify(mockChannelHandlerContext).writeAndFlush(responseCaptor.capture());
+        HttpResponse httpResponse = responseCaptor.getValue();
+        assertThat(httpResponse.getStatusCode(), is(HttpResponseStatus.ACCEPTED.code()));
+    }
+
+    @Test
+    public void shouldRejectVerificationWithInvalidTimeout() {
+        // given
+        HttpRequest request = request("/verify").withMethod("PUT").withQueryStringParameter(new Parameter("timeout", "soon")).withBody("some_content");
+
+        // when
+        mockServerHandler.channelRead0(mockChannelHandlerContext, request);
+
+        // then - log filter not called
+        verify(mockLogFilter, never()).verify(any(Verification.class), anyLong());
+
+        // and - correct response written to ChannelHandlerContext
+        ArgumentCaptor<HttpResponse> responseCaptor = ArgumentCaptor.forClass(HttpResponse.class);
+        verify(mockChannelHandlerContext).writeAndFlush(responseCaptor.capture());
+        HttpResponse httpResponse = responseCaptor.getValue();
+        assertThat(httpResponse.getStatusCode(), is(HttpResponseStatus.BAD_REQUEST.code()));
+        assertThat(httpResponse.getBodyAsString(), is("timeout must be a number of milliseconds but was [soon]"));
+    }
+
     @Test
     public void shouldStopMockServer() {
         // given
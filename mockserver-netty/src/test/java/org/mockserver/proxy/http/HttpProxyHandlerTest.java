@@ -19,10 +19,13 @@ import org.mockserver.model.HttpCallback;
 import org.mockserver.model.HttpForward;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
+import org.mockserver.model.Parameter;
 import org.mockserver.proxy.Proxy;
 import org.mockserver.verify.Verification;
 import org.mockserver.verify.VerificationSequence;
 
+import java.util.concurrent.TimeUnit;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Matchers.any;
@@ -123,6 +126,22 @@ public class HttpProxyHandlerTest {
         assertThat(httpResponse.getBodyAsString(), is(""));
     }
 
+    @Test
+    public void shouldSwitchRequestLogToSummaryOnly() {
+        // given
+        HttpRequest request = request("/summaryOnly").withMethod("PUT").withBody("false");
+
+        // when
+        embeddedChannel.writeInbound(request);
+
+        // then - filter logs requests again
+        verify(mockLogFilter).setSummaryOnly(false);
+
+        // and - correct response written to ChannelHandlerContext
+        HttpResponse httpResponse = (HttpResponse)embeddedChannel.readOutbound();
+        assertThat(httpResponse.getStatusCode(), is(HttpResponseStatus.ACCEPTED.code()));
+    }
+
     @Test
     public void shouldClearExpectations() {
         // given
@@ -237,7 +256,7 @@ public class HttpProxyHandlerTest {
     }
 
     @Test
-    public void shouldVerifyPassingRequest() {
+    public void shouldVerifyPassingRequest() throws InterruptedException {
         // given
         when(mockLogFilter.verify(any(Verification.class))).thenReturn("");
 
@@ -254,13 +273,13 @@ public class HttpProxyHandlerTest {
         verify(mockLogFilter).verify(mockVerification);
 
         // and - correct response written to ChannelHandlerContext
-        HttpResponse httpResponse = (HttpResponse)embeddedChannel.readOutbound();
+        HttpResponse httpResponse = (HttpResponse)readOutbound(1000);
         assertThat(httpResponse.getStatusCode(), is(HttpResponseStatus.ACCEPTED.code()));
         assertThat(httpResponse.getBodyAsString(), is(""));
     }
 
     @Test
-    public void shouldVerifyFailingRequest() {
+    public void shouldVerifyFailingRequest() throws InterruptedException {
         // given
         when(mockLogFilter.verify(any(Verification.class))).thenReturn("failure response");
 
@@ -277,13 +296,13 @@ public class HttpProxyHandlerTest {
         verify(mockLogFilter).verify(mockVerification);
 
         // and - correct response written to ChannelHandlerContext
-        HttpResponse httpResponse = (HttpResponse)embeddedChannel.readOutbound();
+        HttpResponse httpResponse = (HttpResponse)readOutbound(1000);
         assertThat(httpResponse.getStatusCode(), is(HttpResponseStatus.NOT_ACCEPTABLE.code()));
         assertThat(httpResponse.getBodyAsString(), is("failure response"));
     }
 
     @Test
-    public void shouldVerifySequencePassingRequest() {
+    public void shouldVerifySequencePassingRequest() throws InterruptedException {
         // given
         when(mockLogFilter.verify(any(VerificationSequence.class))).thenReturn("");
 
@@ -300,13 +319,13 @@ public class HttpProxyHandlerTest {
         verify(mockLogFilter).verify(mockVerificationSequence);
 
         // and - correct response written to ChannelHandlerContext
-        HttpResponse httpResponse = (HttpResponse)embeddedChannel.readOutbound();
+        HttpResponse httpResponse = (HttpResponse)readOutbound(1000);
         assertThat(httpResponse.getStatusCode(), is(HttpResponseStatus.ACCEPTED.code()));
         assertThat(httpResponse.getBodyAsString(), is(""));
     }
 
     @Test
-    public void shouldVerifySequenceFailingRequest() {
+    public void shouldVerifySequenceFailingRequest() throws InterruptedException {
         // given
         when(mockLogFilter.verify(any(VerificationSequence.class))).thenReturn("failure response");
 
@@ -323,11 +342,28 @@ public class HttpProxyHandlerTest {
         verify(mockLogFilter).verify(mockVerificationSequence);
 
         // and - correct response written to ChannelHandlerContext
-        HttpResponse httpResponse = (HttpResponse)embeddedChannel.readOutbound();
+        HttpResponse httpResponse = (HttpResponse)readOutbound(1000);
         assertThat(httpResponse.getStatusCode(), is(HttpResponseStatus.NOT_ACCEPTABLE.code()));
         assertThat(httpResponse.getBodyAsString(), is("failure response"));
     }
 
+    @Test
+    public void shouldRejectVerificationSequenceWithInvalidTimeout() {
+        // given
+        HttpRequest request = request("/verifySequence").withMethod("PUT").withQueryStringParameter(new Parameter("timeout", "soon")).withBody("some_content");
+
+        // when
+        embeddedChannel.writeInbound(request);
+
+        // then - log filter not called
+        verify(mockLogFilter, never()).verify(any(VerificationSequence.class), anyLong());
+
+        // and - correct response written to ChannelHandlerContext
+        HttpResponse httpResponse = (HttpResponse)embeddedChannel.readOutbound();
+        assertThat(httpResponse.getStatusCode(), is(HttpResponseStatus.BAD_REQUEST.code()));
+        assertThat(httpResponse.getBodyAsString(), is("timeout must be a number of milliseconds but was [soon]"));
+    }
+
     @Test
     public void shouldStopMockServer() {
         // given
@@ -344,4 +380,17 @@ public class HttpProxyHandlerTest {
         assertThat(httpResponse.getStatusCode(), is(HttpResponseStatus.ACCEPTED.code()));
         assertThat(httpResponse.getBodyAsString(), is(""));
     }
+
+    /**
+     * verifications are written from another thread so wait for the response to be written
+     */
+    private Object readOutbound(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        Object outbound = embeddedChannel.readOutbound();
+        while (outbound == null && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+            outbound = embeddedChannel.readOutbound();
+        }
+        return outbound;
+    }
 }
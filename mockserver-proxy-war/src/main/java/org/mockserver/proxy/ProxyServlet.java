@@ -1,5 +1,6 @@
 package org.mockserver.proxy;
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Strings;
 import io.netty.handler.codec.http.HttpHeaders;
 import org.mockserver.client.netty.NettyHttpClient;
@@ -15,12 +16,16 @@ import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
 import org.mockserver.model.HttpStatusCode;
 import org.mockserver.streams.IOStreamUtils;
+import org.mockserver.verify.Verification;
+import org.mockserver.verify.VerificationSequence;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
 
 import static org.mockserver.model.HttpResponse.notFoundResponse;
 import static org.mockserver.model.OutboundHttpRequest.outboundRequest;
@@ -106,6 +111,11 @@ public class ProxyServlet extends HttpServlet {
                 logFilter.reset();
                 httpServletResponse.setStatus(HttpStatusCode.ACCEPTED_202.code());
 
+            } else if (requestPath.equals("/summaryOnly")) {
+
+                logFilter.setSummaryOnly(Boolean.parseBoolean(IOStreamUtils.readInputStreamToString(httpServletRequest)));
+                httpServletResponse.setStatus(HttpStatusCode.ACCEPTED_202.code());
+
             } else if (requestPath.equals("/dumpToLog")) {
 
                 logFilter.dumpToLog(httpRequestSerializer.deserialize(IOStreamUtils.readInputStreamToString(httpServletRequest)), "java".equals(httpServletRequest.getParameter("type")));
@@ -113,14 +123,21 @@ public class ProxyServlet extends HttpServlet {
 
             } else if (requestPath.equals("/retrieve")) {
 
-                Expectation[] expectations = logFilter.retrieve(httpRequestSerializer.deserialize(IOStreamUtils.readInputStreamToString(httpServletRequest)));
-                httpServletResponse.setStatus(HttpStatusCode.OK_200.code());
-                httpServletResponse.setHeader(HttpHeaders.Names.CONTENT_TYPE, "application/json; charset=utf-8");
-                IOStreamUtils.writeToOutputStream(expectationSerializer.serialize(expectations).getBytes(), httpServletResponse);
+                HttpRequest httpRequest = httpRequestSerializer.deserialize(IOStreamUtils.readInputStreamToString(httpServletRequest));
+                if (RetrievedExpectations.NDJSON_FORMAT.equals(httpServletRequest.getParameter(RetrievedExpectations.FORMAT_PARAMETER))) {
+                    writeRetrievedExpectations(httpServletRequest, httpServletResponse, httpRequest);
+                } else {
+                    Expectation[] expectations = logFilter.retrieve(httpRequest);
+                    httpServletResponse.setStatus(HttpStatusCode.OK_200.code());
+                    httpServletResponse.setHeader(HttpHeaders.Names.CONTENT_TYPE, "application/json; charset=utf-8");
+                    IOStreamUtils.writeToOutputStream(expectationSerializer.serialize(expectations).getBytes(), httpServletResponse);
+                }
 
             } else if (requestPath.equals("/verify")) {
 
-                String result = logFilter.verify(verificationSerializer.deserialize(IOStreamUtils.readInputStreamToString(httpServletRequest)));
+                Verification verification = verificationSerializer.deserialize(IOStreamUtils.readInputStreamToString(httpServletRequest));
+                long timeout = verificationTimeout(httpServletRequest);
+                String result = timeout > 0 ? logFilter.verify(verification, timeout) : logFilter.verify(verification);
                 if (result.isEmpty()) {
                     httpServletResponse.setStatus(HttpStatusCode.ACCEPTED_202.code());
                 } else {
@@ -131,7 +148,9 @@ public class ProxyServlet extends HttpServlet {
 
             } else if (requestPath.equals("/verifySequence")) {
 
-                String result = logFilter.verify(verificationSequenceSerializer.deserialize(IOStreamUtils.readInputStreamToString(httpServletRequest)));
+                VerificationSequence verificationSequence = verificationSequenceSerializer.deserialize(IOStreamUtils.readInputStreamToString(httpServletRequest));
+                long timeout = verificationTimeout(httpServletRequest);
+                String result = timeout > 0 ? logFilter.verify(verificationSequence, timeout) : logFilter.verify(verificationSequence);
                 if (result.isEmpty()) {
                     httpServletResponse.setStatus(HttpStatusCode.ACCEPTED_202.code());
                 } else {
@@ -153,6 +172,12 @@ public class ProxyServlet extends HttpServlet {
         }
     }
 
+    @Override
+    public void destroy() {
+        logFilter.close();
+        super.destroy();
+    }
+
     @Override
     protected void doDelete(HttpServletRequest request, HttpServletResponse response) {
         forwardRequest(request, response);
@@ -168,6 +193,34 @@ public class ProxyServlet extends HttpServlet {
         forwardRequest(request, response);
     }
 
+    /**
+     * the number of milliseconds a verification waits for the expected requests, the request thread is held until the
+     * verification passes or the timeout expires
+     */
+    private long verificationTimeout(HttpServletRequest httpServletRequest) {
+        String timeout = httpServletRequest.getParameter("timeout");
+        return Strings.isNullOrEmpty(timeout) ? 0 : Long.parseLong(timeout);
+    }
+
+    /**
+     * streams the page as newline delimited JSON, without a content length the container uses chunked encoding
+     */
+    private void writeRetrievedExpectations(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse, HttpRequest httpRequest) throws IOException {
+        String cursor = httpServletRequest.getParameter(RetrievedExpectations.CURSOR_PARAMETER);
+        String limit = httpServletRequest.getParameter(RetrievedExpectations.LIMIT_PARAMETER);
+        RetrievedExpectations retrievedExpectations = logFilter.retrieve(httpRequest, Strings.isNullOrEmpty(cursor) ? 0 : Long.parseLong(cursor), Strings.isNullOrEmpty(limit) ? 0 : Integer.parseInt(limit));
+        httpServletResponse.setStatus(HttpStatusCode.OK_200.code());
+        httpServletResponse.setHeader(HttpHeaders.Names.CONTENT_TYPE, RetrievedExpectations.NDJSON_CONTENT_TYPE + "; charset=utf-8");
+        if (retrievedExpectations.nextCursor() != -1) {
+            httpServletResponse.setHeader(RetrievedExpectations.NEXT_CURSOR_HEADER, "" + retrievedExpectations.nextCursor());
+        }
+        OutputStream output = httpServletResponse.getOutputStream();
+        for (Expectation expectation : retrievedExpectations) {
+            output.write(expectationSerializer.serializeAsLine(expectation).getBytes(Charsets.UTF_8));
+        }
+        output.close();
+    }
+
     private void forwardRequest(HttpServletRequest request, HttpServletResponse httpServletResponse) {
         HttpResponse httpResponse = sendRequest(filters.applyOnRequestFilters(httpServletToMockServerRequestMapper.mapHttpServletRequestToMockServerRequest(request)));
         mockServerToHttpServletResponseMapper.mapMockServerResponseToHttpServletResponse(httpResponse, httpServletResponse);
@@ -381,6 +381,20 @@ public class ProxyServletTest {
         assertEquals(HttpStatusCode.ACCEPTED_202.code(), mockHttpServletResponse.getStatus());
     }
 
+    @Test
+    public void shouldSwitchRequestLogToSummaryOnly() {
+        // given
+        mockHttpServletRequest.setRequestURI("/summaryOnly");
+        mockHttpServletRequest.setContent("true".getBytes());
+
+        // when
+        proxyServlet.doPut(mockHttpServletRequest, mockHttpServletResponse);
+
+        // then
+        verify(mockLogFilter).setSummaryOnly(true);
+        assertEquals(HttpStatusCode.ACCEPTED_202.code(), mockHttpServletResponse.getStatus());
+    }
+
     @Test
     public void shouldClear() {
         // given
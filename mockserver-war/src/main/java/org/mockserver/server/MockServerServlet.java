@@ -1,11 +1,14 @@
 package org.mockserver.server;
 
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
 import io.netty.handler.codec.http.HttpHeaders;
 import org.mockserver.client.serialization.ExpectationSerializer;
 import org.mockserver.client.serialization.HttpRequestSerializer;
 import org.mockserver.client.serialization.VerificationSequenceSerializer;
 import org.mockserver.client.serialization.VerificationSerializer;
 import org.mockserver.filters.LogFilter;
+import org.mockserver.filters.RetrievedExpectations;
 import org.mockserver.mappers.HttpServletToMockServerRequestMapper;
 import org.mockserver.mappers.MockServerToHttpServletResponseMapper;
 import org.mockserver.mock.Expectation;
@@ -15,12 +18,16 @@ import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
 import org.mockserver.model.HttpStatusCode;
 import org.mockserver.streams.IOStreamUtils;
+import org.mockserver.verify.Verification;
+import org.mockserver.verify.VerificationSequence;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * @author jamesdbloom
@@ -29,8 +36,8 @@ public class MockServerServlet extends HttpServlet {
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
     // mockserver
-    private MockServerMatcher mockServerMatcher = new MockServerMatcher();
     private LogFilter logFilter = new LogFilter();
+    private MockServerMatcher mockServerMatcher = new MockServerMatcher().withMatchListener(logFilter);
     private ActionHandler actionHandler = new ActionHandler(logFilter);
     // mappers
     private HttpServletToMockServerRequestMapper httpServletToMockServerRequestMapper = new HttpServletToMockServerRequestMapper();
@@ -41,6 +48,12 @@ public class MockServerServlet extends HttpServlet {
     private VerificationSerializer verificationSerializer = new VerificationSerializer();
     private VerificationSequenceSerializer verificationSequenceSerializer = new VerificationSequenceSerializer();
 
+    @Override
+    public void destroy() {
+        logFilter.close();
+        super.destroy();
+    }
+
     public void doGet(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) {
         mockResponse(httpServletRequest, httpServletResponse);
     }
@@ -61,6 +74,7 @@ public class MockServerServlet extends HttpServlet {
 
                 Expectation expectation = expectationSerializer.deserialize(IOStreamUtils.readInputStreamToString(httpServletRequest));
                 mockServerMatcher.when(expectation.getHttpRequest(), expectation.getTimes()).thenRespond(expectation.getHttpResponse(false)).thenForward(expectation.getHttpForward()).thenCallback(expectation.getHttpCallback());
+                logFilter.countMatching(expectation.getHttpRequest());
                 httpServletResponse.setStatus(HttpStatusCode.CREATED_201.code());
 
             } else if (requestPath.equals("/clear")) {
@@ -76,21 +90,34 @@ public class MockServerServlet extends HttpServlet {
                 mockServerMatcher.reset();
                 httpServletResponse.setStatus(HttpStatusCode.ACCEPTED_202.code());
 
+            } else if (requestPath.equals("/summaryOnly")) {
+
+                logFilter.setSummaryOnly(Boolean.parseBoolean(IOStreamUtils.readInputStreamToString(httpServletRequest)));
+                httpServletResponse.setStatus(HttpStatusCode.ACCEPTED_202.code());
+
             } else if (requestPath.equals("/dumpToLog")) {
 
                 mockServerMatcher.dumpToLog(httpRequestSerializer.deserialize(IOStreamUtils.readInputStreamToString(httpServletRequest)));
+                logFilter.dumpStatisticsToLog();
                 httpServletResponse.setStatus(HttpStatusCode.ACCEPTED_202.code());
 
             } else if (requestPath.equals("/retrieve")) {
 
-                Expectation[] expectations = logFilter.retrieve(httpRequestSerializer.deserialize(IOStreamUtils.readInputStreamToString(httpServletRequest)));
-                httpServletResponse.setStatus(HttpStatusCode.OK_200.code());
-                httpServletResponse.setHeader(HttpHeaders.Names.CONTENT_TYPE, "application/json; charset=utf-8");
-                IOStreamUtils.writeToOutputStream(expectationSerializer.serialize(expectations).getBytes(), httpServletResponse);
+                HttpRequest httpRequest = httpRequestSerializer.deserialize(IOStreamUtils.readInputStreamToString(httpServletRequest));
+                if (RetrievedExpectations.NDJSON_FORMAT.equals(httpServletRequest.getParameter(RetrievedExpectations.FORMAT_PARAMETER))) {
+                    writeRetrievedExpectations(httpServletRequest, httpServletResponse, httpRequest);
+                } else {
+                    Expectation[] expectations = logFilter.retrieve(httpRequest);
+                    httpServletResponse.setStatus(HttpStatusCode.OK_200.code());
+                    httpServletResponse.setHeader(HttpHeaders.Names.CONTENT_TYPE, "application/json; charset=utf-8");
+                    IOStreamUtils.writeToOutputStream(expectationSerializer.serialize(expectations).getBytes(), httpServletResponse);
+                }
 
             } else if (requestPath.equals("/verify")) {
 
-                String result = logFilter.verify(verificationSerializer.deserialize(IOStreamUtils.readInputStreamToString(httpServletRequest)));
+                Verification verification = verificationSerializer.deserialize(IOStreamUtils.readInputStreamToString(httpServletRequest));
+                long timeout = verificationTimeout(httpServletRequest);
+                String result = timeout > 0 ? logFilter.verify(verification, timeout) : logFilter.verify(verification);
                 if (result.isEmpty()) {
                     httpServletResponse.setStatus(HttpStatusCode.ACCEPTED_202.code());
                 } else {
@@ -101,7 +128,9 @@ public class MockServerServlet extends HttpServlet {
 
             } else if (requestPath.equals("/verifySequence")) {
 
-                String result = logFilter.verify(verificationSequenceSerializer.deserialize(IOStreamUtils.readInputStreamToString(httpServletRequest)));
+                VerificationSequence verificationSequence = verificationSequenceSerializer.deserialize(IOStreamUtils.readInputStreamToString(httpServletRequest));
+                long timeout = verificationTimeout(httpServletRequest);
+                String result = timeout > 0 ? logFilter.verify(verificationSequence, timeout) : logFilter.verify(verificationSequence);
                 if (result.isEmpty()) {
                     httpServletResponse.setStatus(HttpStatusCode.ACCEPTED_202.code());
                 } else {
@@ -125,6 +154,34 @@ public class MockServerServlet extends HttpServlet {
         }
     }
 
+    /**
+     * the number of milliseconds a verification waits for the expected requests, the request thread is held until the
+     * verification passes or the timeout expires
+     */
+    private long verificationTimeout(HttpServletRequest httpServletRequest) {
+        String timeout = httpServletRequest.getParameter("timeout");
+        return Strings.isNullOrEmpty(timeout) ? 0 : Long.parseLong(timeout);
+    }
+
+    /**
+     * streams the page as newline delimited JSON, without a content length the container uses chunked encoding
+     */
+    private void writeRetrievedExpectations(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse, HttpRequest httpRequest) throws IOException {
+        String cursor = httpServletRequest.getParameter(RetrievedExpectations.CURSOR_PARAMETER);
+        String limit = httpServletRequest.getParameter(RetrievedExpectations.LIMIT_PARAMETER);
+        RetrievedExpectations retrievedExpectations = logFilter.retrieve(httpRequest, Strings.isNullOrEmpty(cursor) ? 0 : Long.parseLong(cursor), Strings.isNullOrEmpty(limit) ? 0 : Integer.parseInt(limit));
+        httpServletResponse.setStatus(HttpStatusCode.OK_200.code());
+        httpServletResponse.setHeader(HttpHeaders.Names.CONTENT_TYPE, RetrievedExpectations.NDJSON_CONTENT_TYPE + "; charset=utf-8");
+        if (retrievedExpectations.nextCursor() != -1) {
+            httpServletResponse.setHeader(RetrievedExpectations.NEXT_CURSOR_HEADER, "" + retrievedExpectations.nextCursor());
+        }
+        OutputStream output = httpServletResponse.getOutputStream();
+        for (Expectation expectation : retrievedExpectations) {
+            output.write(expectationSerializer.serializeAsLine(expectation).getBytes(Charsets.UTF_8));
+        }
+        output.close();
+    }
+
     private String retrieveRequestPath(HttpServletRequest httpServletRequest) {
         return httpServletRequest.getPathInfo() != null && httpServletRequest.getContextPath() != null ? httpServletRequest.getPathInfo() : httpServletRequest.getRequestURI();
     }
@@ -279,6 +279,21 @@ public class MockServerServletTest {
         verifyNoMoreInteractions(mockHttpServletToMockServerRequestMapper);
     }
 
+    @Test
+    public void shouldSwitchRequestLogToSummaryOnly() throws IOException {
+        // given
+        MockHttpServletResponse httpServletResponse = new MockHttpServletResponse();
+        MockHttpServletRequest httpServletRequest = new MockHttpServletRequest("PUT", "/summaryOnly");
+        httpServletRequest.setContent("true".getBytes());
+
+        // when
+        mockServerServlet.doPut(httpServletRequest, httpServletResponse);
+
+        // then
+        verify(mockLogFilter).setSummaryOnly(true);
+        assertThat(httpServletResponse.getStatus(), is(HttpStatusCode.ACCEPTED_202.code()));
+    }
+
     @Test
     public void shouldDumpAllExpectationsToLog() throws IOException {
         // given
@@ -296,6 +311,7 @@ public class MockServerServletTest {
         // then
         verify(mockHttpRequestSerializer).deserialize(requestBytes);
         verify(mockMockServerMatcher).dumpToLog(httpRequest);
+        verify(mockLogFilter).dumpStatisticsToLog();
         verifyNoMoreInteractions(mockHttpServletToMockServerRequestMapper);
     }
 